@@ -1,26 +1,40 @@
 package com.example.CMPE451.config;
 
+import com.example.CMPE451.vector.QdrantSettings;
+import com.example.CMPE451.vector.QdrantVectorIndex;
 import io.qdrant.client.QdrantClient;
-import io.qdrant.client.grpc.Collections.CreateCollection;
-import io.qdrant.client.grpc.Collections.Distance;
-import io.qdrant.client.grpc.Collections.VectorParams;
-import io.qdrant.client.grpc.Collections.VectorsConfig;
 import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(name = "vector.backend", havingValue = "qdrant", matchIfMissing = true)
 public class DatabaseInitializer {
 
     private final QdrantClient client;
+    private final QdrantSettings settings;
 
-    public DatabaseInitializer(QdrantClient client) {
+    public DatabaseInitializer(QdrantClient client, QdrantSettings settings) {
         this.client = client;
+        this.settings = settings;
     }
 
 
     @PostConstruct
     public void setupQdrantCollection() {
         try {
+            String liveCollection = client.listAliasesAsync()
+                    .get()
+                    .stream()
+                    .filter(alias -> alias.getAliasName().equals(AppConfig.COLLECTION_ALIAS))
+                    .map(alias -> alias.getCollectionName())
+                    .findFirst()
+                    .orElse(null);
+            if (liveCollection != null) {
+                QdrantVectorIndex.createPayloadIndexes(client, liveCollection);
+                return;
+            }
+
             boolean collectionExists = client.listCollectionsAsync()
                     .get()
                     .stream()
@@ -29,22 +43,12 @@ public class DatabaseInitializer {
             if (!collectionExists) {
                 System.out.println("Creating Qdrant collection: " + AppConfig.COLLECTION_NAME);
 
-                client.createCollectionAsync(
-                        CreateCollection.newBuilder()
-                                .setCollectionName(AppConfig.COLLECTION_NAME)
-                                .setVectorsConfig(
-                                        VectorsConfig.newBuilder()
-                                                .setParams(
-                                                        VectorParams.newBuilder()
-                                                                .setSize(AppConfig.VECTOR_DIMENSION)
-                                                                .setDistance(Distance.Cosine)
-                                                )
-                                )
-                                .build()
-                ).get();
+                client.createCollectionAsync(settings.collectionSpec(AppConfig.COLLECTION_NAME)).get();
             }
+            QdrantVectorIndex.createPayloadIndexes(client, AppConfig.COLLECTION_NAME);
+            client.createAliasAsync(AppConfig.COLLECTION_ALIAS, AppConfig.COLLECTION_NAME).get();
         } catch (Exception e) {
             throw new RuntimeException("Could not create Qdrant collection", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.example.CMPE451.config;
+
+import com.example.CMPE451.vector.QdrantSettings;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.QdrantGrpcClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "vector.backend", havingValue = "qdrant", matchIfMissing = true)
+public class QdrantConfig {
+
+    @Value("${qdrant.host}")
+    private String qdrantHost;
+
+    @Value("${qdrant.grpc.port}")
+    private int qdrantPort;
+
+    @Bean
+    public QdrantClient qdrantClient() {
+        return new QdrantClient(
+                QdrantGrpcClient.newBuilder(qdrantHost, qdrantPort, false).build()
+        );
+    }
+
+    @Bean
+    public QdrantSettings qdrantSettings(@Value("${vector.qdrant.m:16}") int m,
+                                         @Value("${vector.qdrant.ef-construct:128}") int efConstruct,
+                                         @Value("${vector.qdrant.on-disk:true}") boolean onDisk,
+                                         @Value("${vector.qdrant.quantization:true}") boolean quantization,
+                                         @Value("${vector.qdrant.quantile:0.99}") float quantile,
+                                         @Value("${vector.qdrant.ef-search:128}") int efSearch,
+                                         @Value("${vector.qdrant.rescore:true}") boolean rescore,
+                                         @Value("${vector.qdrant.oversampling:2.0}") double oversampling) {
+        return new QdrantSettings(m, efConstruct, onDisk, quantization, quantile, efSearch, rescore, oversampling);
+    }
+}
@@ -2,9 +2,12 @@ package com.example.CMPE451.controller;
 
 
 
+import com.example.CMPE451.model.request.ConfirmUploadRequest;
 import com.example.CMPE451.model.request.SavePostRequest;
 import com.example.CMPE451.model.response.*;
+import com.example.CMPE451.service.InterestService;
 import com.example.CMPE451.service.PostService;
+import com.example.CMPE451.service.RelatedPostService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +23,8 @@ import java.util.Map;
 public class PostController {
 
     private final PostService postService;
+    private final RelatedPostService relatedPostService;
+    private final InterestService interestService;
 
     @GetMapping
     public ResponseEntity<List<GetPostResponse>> getPosts(
@@ -31,6 +36,38 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * The feed in keyset pages. The first page is requested without a cursor; each page carries the cursor of the
+     * next one, or none after the last.
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<PostFeedPageResponse> getPostsPage(
+            @RequestParam(required = false) String username,
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor
+    ) {
+        PostFeedPageResponse page = postService.getPostsPage(username, size, cursor);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/home")
+    public ResponseEntity<PostFeedPageResponse> getHomeTimeline(
+            @RequestParam String username,
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor
+    ) {
+        PostFeedPageResponse page = postService.getHomeTimeline(username, size, cursor);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/for-you")
+    public ResponseEntity<List<GetPostResponse>> getForYou(
+            @RequestParam String username,
+            @RequestParam int size
+    ) {
+        return ResponseEntity.ok(interestService.getForYou(username, size));
+    }
+
     @PostMapping(consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     public ResponseEntity<CreateOrEditPostResponse> createPost(
             @RequestParam(value = "content")String content,
@@ -50,6 +87,14 @@ public class PostController {
         return ResponseEntity.ok(updatedPostResponse);
     }
 
+    @PutMapping("/{postId}/photo")
+    public ResponseEntity<CreateOrEditPostResponse> attachUploadedPhoto(
+            @PathVariable Integer postId,
+            @RequestBody ConfirmUploadRequest request) {
+        CreateOrEditPostResponse response = postService.attachUploadedPhoto(postId, request);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{postId}")
     public ResponseEntity<DeletePostResponse> deletePost(@PathVariable Integer postId) {
         postService.deletePost(postId);
@@ -66,6 +111,15 @@ public class PostController {
         return ResponseEntity.ok(post);
     }
 
+    @GetMapping("/{postId}/related")
+    public ResponseEntity<List<GetPostResponse>> getRelatedPosts(
+            @PathVariable Integer postId,
+            @RequestParam String username,
+            @RequestParam(defaultValue = "5") int size
+    ) {
+        return ResponseEntity.ok(relatedPostService.getRelatedPosts(postId, username, size));
+    }
+
 
     @GetMapping("/mostLiked")
     public ResponseEntity<List<GetPostResponse>> getMostLikedPosts(
@@ -1,5 +1,6 @@
 package com.example.CMPE451.controller;
 
+import com.example.CMPE451.model.request.ConfirmUploadRequest;
 import com.example.CMPE451.model.request.ProfileEditAndCreateRequest;
 import com.example.CMPE451.model.response.BadgeResponse;
 import com.example.CMPE451.service.ProfileService;
@@ -39,6 +40,14 @@ public class ProfileController {
         return ResponseEntity.ok(response);
     }
 
+    @PutMapping("/{username}/profile/picture")
+    public ResponseEntity<ProfileResponse> attachUploadedPhoto(
+            @PathVariable String username,
+            @RequestBody ConfirmUploadRequest request) {
+        ProfileResponse response = service.attachUploadedPhoto(username, request.getUploadKey());
+        return ResponseEntity.ok(response);
+    }
+
 
 
 
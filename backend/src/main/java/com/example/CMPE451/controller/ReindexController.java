@@ -0,0 +1,40 @@
+package com.example.CMPE451.controller;
+
+import com.example.CMPE451.model.response.ReindexJobResponse;
+import com.example.CMPE451.service.ReindexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/reindex")
+@RequiredArgsConstructor
+public class ReindexController {
+    private final ReindexService reindexService;
+
+    @PostMapping
+    public ResponseEntity<ReindexJobResponse> start(@RequestParam(defaultValue = "false") boolean shadow) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reindexService.start(shadow));
+    }
+
+    @GetMapping
+    public ResponseEntity<ReindexJobResponse> getLatest() {
+        return ResponseEntity.ok(reindexService.getLatest());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ReindexJobResponse> getStatus(@PathVariable Integer jobId) {
+        return ResponseEntity.ok(reindexService.getStatus(jobId));
+    }
+
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<ReindexJobResponse> resume(@PathVariable Integer jobId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reindexService.resume(jobId));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<ReindexJobResponse> cancel(@PathVariable Integer jobId) {
+        return ResponseEntity.ok(reindexService.cancel(jobId));
+    }
+}
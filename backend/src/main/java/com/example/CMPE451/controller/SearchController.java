@@ -3,10 +3,15 @@ package com.example.CMPE451.controller;
 
 import com.example.CMPE451.exception.InvalidCredentialsException;
 
+import com.example.CMPE451.model.request.SearchFilterRequest;
+import com.example.CMPE451.model.response.EmbeddingCacheStatsResponse;
 import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.model.response.SearchPageResponse;
 import com.example.CMPE451.service.ForumSearchService;
-import com.example.CMPE451.service.PostService;
+import com.example.CMPE451.service.HybridSearchService;
+import com.example.CMPE451.service.QueryEmbeddingCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -22,13 +28,36 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SearchController {
     private final ForumSearchService forumSearchService;
-    private final PostService postService;
+    private final HybridSearchService hybridSearchService;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+
+    @GetMapping
+    public ResponseEntity<SearchPageResponse> search(
+            @RequestParam(name = "query") String query,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean following,
+            @RequestParam(required = false) Integer authorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Boolean hasPhoto) {
+        SearchFilterRequest filters = new SearchFilterRequest(following, authorId, from, to, hasPhoto);
+        return ResponseEntity.ok(hybridSearchService.search(query, username, cursor, size, filters));
+    }
 
     @GetMapping("/semantic")
     public ResponseEntity<List<GetPostResponse>> searchPostsSemantic(
             @RequestParam(name = "query") String query,
             @RequestParam(required = false) String username,
-            @RequestParam(name = "lang", defaultValue = "en") String language) {
-        return ResponseEntity.ok(postService.semanticSearch(query, username));
+            @RequestParam(name = "lang", defaultValue = "en") String language,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(forumSearchService.searchPostsSemantic(query, language, username, page, size));
+    }
+
+    @GetMapping("/embedding-cache")
+    public ResponseEntity<EmbeddingCacheStatsResponse> embeddingCacheStats() {
+        return ResponseEntity.ok(queryEmbeddingCache.stats());
     }
 }
@@ -0,0 +1,21 @@
+package com.example.CMPE451.controller;
+
+import com.example.CMPE451.model.request.UploadTicketRequest;
+import com.example.CMPE451.model.response.UploadTicketResponse;
+import com.example.CMPE451.service.UploadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final UploadService uploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadTicketResponse> createUploadTicket(@RequestBody UploadTicketRequest request) {
+        return ResponseEntity.ok(uploadService.createTicket(request));
+    }
+}
@@ -2,6 +2,7 @@ package com.example.CMPE451.controller;
 
 import com.example.CMPE451.model.WasteGoal;
 import com.example.CMPE451.model.WasteType;
+import com.example.CMPE451.model.request.CreateWasteLogBatchRequest;
 import com.example.CMPE451.model.request.CreateWasteLogRequest;
 import com.example.CMPE451.model.request.UpdateWasteLogRequest;
 import com.example.CMPE451.model.response.*;
@@ -35,6 +36,11 @@ public class WasteLogController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/waste-goals/{goalId}/logs/batch")
+    public ResponseEntity<List<CreateOrEditWasteLogResponse>> createWasteLogs(@RequestBody CreateWasteLogBatchRequest request, @PathVariable Integer goalId) {
+        return ResponseEntity.ok(wasteLogService.createWasteLogs(request, goalId));
+    }
+
     @PutMapping("/logs/{logId}")
     public ResponseEntity<CreateOrEditWasteLogResponse> updateWasteLog(
             @PathVariable Integer logId,
@@ -0,0 +1,9 @@
+package com.example.CMPE451.model;
+
+public interface GoalTotalDrift {
+    Integer getGoalId();
+
+    Double getStoredGrams();
+
+    Double getActualGrams();
+}
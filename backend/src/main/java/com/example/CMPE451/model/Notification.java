@@ -42,9 +42,6 @@ public class Notification {
     @Column(name = "preview")
     private String preview;
 
-    @Column(name = "profile_picture")
-    private String profile_picture;
-
 
 
 }
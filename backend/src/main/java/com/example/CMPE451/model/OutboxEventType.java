@@ -0,0 +1,7 @@
+package com.example.CMPE451.model;
+
+public enum OutboxEventType {
+    POST_CREATED,
+    POST_EDITED,
+    POST_DELETED
+}
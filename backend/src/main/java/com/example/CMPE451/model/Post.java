@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.sql.Timestamp;
 
@@ -44,8 +45,25 @@ public class Post {
     @Column(name = "photo_url")
     private String photoUrl;
 
-    @Column(name = "profile_picture")
-    private String profile_picture;
+    @Column(name = "photo_thumb_url")
+    private String photoThumbUrl;
+
+    @Column(name = "photo_feed_url")
+    private String photoFeedUrl;
+
+    @Column(name = "photo_blurhash", length = 64)
+    private String photoBlurhash;
+
+    /**
+     * Object key base of the latest photo given to the post. The photo URLs are only set once the pipeline has
+     * processed that photo.
+     */
+    @Column(name = "photo_key")
+    private String photoKey;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
 
 
 
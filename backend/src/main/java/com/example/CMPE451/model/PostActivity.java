@@ -0,0 +1,9 @@
+package com.example.CMPE451.model;
+
+import java.sql.Timestamp;
+
+public interface PostActivity {
+    Integer getPostId();
+
+    Timestamp getOccurredAt();
+}
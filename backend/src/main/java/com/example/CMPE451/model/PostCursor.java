@@ -0,0 +1,45 @@
+package com.example.CMPE451.model;
+
+import com.example.CMPE451.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in the feed ordering {@code (created_at DESC, post_id DESC)}.
+ * Clients only ever see the encoded string and hand it back unchanged.
+ */
+@Getter
+@AllArgsConstructor
+public class PostCursor {
+
+    private static final String VERSION = "v1";
+
+    private final Timestamp createdAt;
+    private final Integer postId;
+
+    public static PostCursor of(Post post) {
+        return new PostCursor(post.getCreatedAt(), post.getPostId());
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + createdAt.getTime() + ":" + postId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PostCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            return new PostCursor(new Timestamp(Long.parseLong(parts[1])), Integer.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.CMPE451.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+
+/**
+ * The precomputed nearest neighbours of one post, most similar first, packed as big-endian ints.
+ * {@code minScore} is the similarity of the last neighbour: a newly indexed post scoring above it belongs in the
+ * list, which is then marked stale and recomputed the next time it is read.
+ */
+@Entity
+@Table(name = "post_neighbors")
+@Data
+@NoArgsConstructor
+public class PostNeighbors {
+
+    /** As many ints as {@code neighbor_ids varbinary(400)} holds. */
+    public static final int MAX_NEIGHBORS = 100;
+
+    @Id
+    @Column(name = "post_id")
+    private Integer postId;
+
+    @Column(name = "neighbor_ids", nullable = false, length = MAX_NEIGHBORS * Integer.BYTES)
+    private byte[] neighborIds;
+
+    @Column(name = "min_score", nullable = false)
+    private Double minScore;
+
+    @Column(name = "stale", nullable = false)
+    private Boolean stale = false;
+
+    @Column(name = "computed_at")
+    private Timestamp computedAt;
+
+    public PostNeighbors(Integer postId, int[] neighbors, double minScore) {
+        this.postId = postId;
+        this.neighborIds = pack(neighbors);
+        this.minScore = minScore;
+        this.computedAt = new Timestamp(System.currentTimeMillis());
+    }
+
+    public int[] neighbors() {
+        int[] neighbors = new int[neighborIds.length / Integer.BYTES];
+        ByteBuffer.wrap(neighborIds).asIntBuffer().get(neighbors);
+        return neighbors;
+    }
+
+    private static byte[] pack(int[] neighbors) {
+        ByteBuffer buffer = ByteBuffer.allocate(neighbors.length * Integer.BYTES);
+        buffer.asIntBuffer().put(neighbors);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.CMPE451.model;
+
+import java.sql.Timestamp;
+
+public interface PostText {
+    Integer getPostId();
+
+    Integer getAuthorId();
+
+    Timestamp getCreatedAt();
+
+    String getPhotoUrl();
+
+    String getContent();
+
+    Timestamp getUpdatedAt();
+}
@@ -0,0 +1,52 @@
+package com.example.CMPE451.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * One rebuild of the vector index. {@code lastPostId} is the keyset checkpoint: every post up to it has been
+ * written to the target. A RUNNING job whose heartbeat goes stale was abandoned by a crashed node and is resumed
+ * from the checkpoint by another.
+ */
+@Entity
+@Table(name = "reindex_jobs")
+@Data
+@NoArgsConstructor
+public class ReindexJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "job_id")
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ReindexJobStatus status;
+
+    @Column(name = "shadow_collection", length = 128)
+    private String shadowCollection;
+
+    @Column(name = "last_post_id", nullable = false)
+    private Integer lastPostId = 0;
+
+    @Column(name = "processed", nullable = false)
+    private Integer processed = 0;
+
+    @Column(name = "total", nullable = false)
+    private Integer total = 0;
+
+    @Column(name = "started_at")
+    private Timestamp startedAt;
+
+    @Column(name = "heartbeat_at")
+    private Timestamp heartbeatAt;
+
+    @Column(name = "finished_at")
+    private Timestamp finishedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -0,0 +1,8 @@
+package com.example.CMPE451.model;
+
+public enum ReindexJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,47 @@
+package com.example.CMPE451.model;
+
+import com.example.CMPE451.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in a fused search ranking {@code (score DESC, post_id DESC)}.
+ * Clients only ever see the encoded string and hand it back unchanged.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchCursor {
+
+    private static final String VERSION = "v1";
+
+    private final double score;
+    private final Integer postId;
+
+    /**
+     * Whether a result ranks strictly after this position.
+     */
+    public boolean isBefore(double otherScore, int otherPostId) {
+        return otherScore < score || (otherScore == score && otherPostId < postId);
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + Long.toHexString(Double.doubleToLongBits(score)) + ":" + postId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+            return new SearchCursor(Double.longBitsToDouble(Long.parseUnsignedLong(parts[1], 16)), Integer.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
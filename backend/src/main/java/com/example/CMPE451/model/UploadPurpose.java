@@ -0,0 +1,6 @@
+package com.example.CMPE451.model;
+
+public enum UploadPurpose {
+    POST_PHOTO,
+    PROFILE_PHOTO
+}
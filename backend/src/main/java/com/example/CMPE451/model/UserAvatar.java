@@ -0,0 +1,7 @@
+package com.example.CMPE451.model;
+
+public interface UserAvatar {
+    String getUsername();
+
+    String getPhotoUrl();
+}
@@ -0,0 +1,23 @@
+package com.example.CMPE451.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A running per-user total that badge rules are checked against, e.g. grams of plastic logged.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "user_counters")
+public class UserCounter {
+
+    @EmbeddedId
+    private UserCounterId id;
+
+    @Column(name = "total", nullable = false)
+    private Double total;
+}
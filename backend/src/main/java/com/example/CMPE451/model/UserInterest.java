@@ -0,0 +1,48 @@
+package com.example.CMPE451.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+
+/**
+ * A user's interest vector: an exponentially weighted average of the embeddings of posts they engaged with,
+ * packed as big-endian floats.
+ */
+@Entity
+@Table(name = "user_interests")
+@Data
+@NoArgsConstructor
+public class UserInterest {
+
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "vector", nullable = false, length = 1536)
+    private byte[] vector;
+
+    @Column(name = "interactions", nullable = false)
+    private Integer interactions = 0;
+
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+
+    public UserInterest(Integer userId) {
+        this.userId = userId;
+    }
+
+    public float[] vector() {
+        float[] values = new float[vector.length / Float.BYTES];
+        ByteBuffer.wrap(vector).asFloatBuffer().get(values);
+        return values;
+    }
+
+    public void setVector(float[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Float.BYTES);
+        buffer.asFloatBuffer().put(values);
+        this.vector = buffer.array();
+    }
+}
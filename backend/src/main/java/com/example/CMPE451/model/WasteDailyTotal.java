@@ -0,0 +1,23 @@
+package com.example.CMPE451.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Grams a user logged of one waste type in the day starting at {@code id.periodStart}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "waste_daily_totals")
+public class WasteDailyTotal {
+
+    @EmbeddedId
+    private WastePeriodId id;
+
+    @Column(name = "total_grams", nullable = false)
+    private Double totalGrams;
+}
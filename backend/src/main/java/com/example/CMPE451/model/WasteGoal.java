@@ -33,12 +33,24 @@ public class WasteGoal {
     @Column(name = "restriction_amount_grams", nullable = false)
     private double restrictionAmountGrams;
 
-    @Column(name = "completed")
+    /**
+     * Derived from {@link #totalGrams} like {@link #percentOfProgress}, so neither is written when a loaded goal is
+     * saved.
+     */
+    @Column(name = "completed", updatable = false)
     private Integer completed;
 
-    @Column(name = "percent_of_progress", nullable = false)
+    @Column(name = "percent_of_progress", nullable = false, updatable = false)
     private Double percentOfProgress;
 
+    /**
+     * Running weight of the goal's logs. Only written by the atomic increments in {@link
+     * com.example.CMPE451.repository.WasteGoalRepository}, so saving a loaded goal cannot undo a concurrent log.
+     * The goal_before_update trigger derives progress and completion from it on every update.
+     */
+    @Column(name = "total_grams", nullable = false, insertable = false, updatable = false)
+    private Double totalGrams;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User owner;
@@ -53,6 +65,7 @@ public class WasteGoal {
         this.restrictionAmountGrams = restrictionAmountGrams;
         this.completed = 0;
         this.percentOfProgress = 0.0;
+        this.totalGrams = 0.0;
         this.date =  LocalDateTime.now();;
     }
 
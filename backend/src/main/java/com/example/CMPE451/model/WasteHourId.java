@@ -0,0 +1,23 @@
+package com.example.CMPE451.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Embeddable
+public class WasteHourId implements Serializable {
+
+    @Column(name = "type_id")
+    private Integer typeId;
+
+    @Column(name = "period_start")
+    private LocalDateTime periodStart;
+}
@@ -0,0 +1,27 @@
+package com.example.CMPE451.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Grams logged of one waste type by all users in the hour starting at {@code id.periodStart}. {@code version} is
+ * bumped by every write to the row.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "waste_hourly_totals")
+public class WasteHourlyTotal {
+
+    @EmbeddedId
+    private WasteHourId id;
+
+    @Column(name = "total_grams", nullable = false)
+    private Double totalGrams;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
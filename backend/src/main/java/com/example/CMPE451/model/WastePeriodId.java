@@ -0,0 +1,26 @@
+package com.example.CMPE451.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Embeddable
+public class WastePeriodId implements Serializable {
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "type_id")
+    private Integer typeId;
+
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+}
@@ -0,0 +1,13 @@
+package com.example.CMPE451.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfirmUploadRequest {
+    private String username;
+    private String uploadKey;
+}
@@ -0,0 +1,26 @@
+package com.example.CMPE451.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreateWasteLogBatchRequest {
+    private String username;
+    private List<Entry> entries;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Entry {
+        private Integer itemId;
+        private int quantity;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.CMPE451.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional restrictions on forum search results; null fields do not restrict. {@code from} is inclusive and
+ * {@code to} exclusive.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchFilterRequest {
+    private boolean following;
+    private Integer authorId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Boolean hasPhoto;
+
+    public static SearchFilterRequest none() {
+        return new SearchFilterRequest();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.CMPE451.model.request;
+
+import com.example.CMPE451.model.UploadPurpose;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadTicketRequest {
+    private String username;
+    private UploadPurpose purpose;
+    private String contentType;
+    private Long size;
+}
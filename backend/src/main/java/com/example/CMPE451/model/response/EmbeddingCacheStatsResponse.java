@@ -0,0 +1,19 @@
+package com.example.CMPE451.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmbeddingCacheStatsResponse {
+    private int size;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    private long deduplicated;
+    private double hitRate;
+    private long evictions;
+    private long rejections;
+}
@@ -22,5 +22,13 @@ public class GetPostResponse {
     private boolean liked;
     private boolean saved;
     private String profile_picture;
+    private String photoThumbUrl;
+    private String photoFeedUrl;
+    private String photoBlurhash;
 
+    public GetPostResponse(Integer postId, String content, Timestamp createdAt, Integer likes, String creatorUsername,
+                           String photoUrl, Integer comments, boolean liked, boolean saved, String profile_picture) {
+        this(postId, content, createdAt, likes, creatorUsername, photoUrl, comments, liked, saved, profile_picture,
+                null, null, null);
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.CMPE451.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostFeedPageResponse {
+    private List<GetPostResponse> posts;
+    private String nextCursor;
+}
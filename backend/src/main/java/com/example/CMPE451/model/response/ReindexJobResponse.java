@@ -0,0 +1,26 @@
+package com.example.CMPE451.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Progress of a reindex job. Throughput and ETA are only known on the node running the job and are null elsewhere.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReindexJobResponse {
+    private Integer jobId;
+    private String status;
+    private String shadowCollection;
+    private Integer processed;
+    private Integer total;
+    private Double postsPerSecond;
+    private Long etaSeconds;
+    private Timestamp startedAt;
+    private Timestamp finishedAt;
+    private String lastError;
+}
@@ -0,0 +1,16 @@
+package com.example.CMPE451.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchPageResponse {
+    private List<SearchResultResponse> results;
+    private String nextCursor;
+    private boolean partial;
+}
@@ -0,0 +1,20 @@
+package com.example.CMPE451.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One fused search result. The rank and score of each leg are null when that leg did not return the post.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchResultResponse {
+    private GetPostResponse post;
+    private double score;
+    private Integer keywordRank;
+    private Float keywordScore;
+    private Integer vectorRank;
+    private Float vectorScore;
+}
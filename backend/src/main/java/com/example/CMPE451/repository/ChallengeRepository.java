@@ -2,9 +2,26 @@ package com.example.CMPE451.repository;
 
 import com.example.CMPE451.model.Challenge;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface ChallengeRepository extends JpaRepository<Challenge, Integer> {
 
-}
\ No newline at end of file
+    @Query("SELECT c.challengeId FROM Challenge c WHERE c.status = :status AND c.endDate < :today")
+    List<Integer> findIdsByStatusAndEndDateBefore(@Param("status") Challenge.Status status,
+                                                  @Param("today") LocalDate today);
+
+    /**
+     * Moves a challenge from {@code from} to {@code to}; returns 0 if it was not in {@code from}, e.g. because
+     * another node or an admin ended it first.
+     */
+    @Modifying
+    @Query("UPDATE Challenge c SET c.status = :to WHERE c.challengeId = :id AND c.status = :from")
+    int updateStatusIf(@Param("id") Integer id, @Param("from") Challenge.Status from, @Param("to") Challenge.Status to);
+}
@@ -2,6 +2,7 @@ package com.example.CMPE451.repository;
 
 import com.example.CMPE451.model.ChallengeUser;
 import com.example.CMPE451.model.ChallengeUserId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -20,6 +21,8 @@ public interface ChallengeUserRepository extends JpaRepository<ChallengeUser, Ch
 
     List<ChallengeUser> findByIdChallengeIdOrderByAmountDesc(Integer challengeId);
 
+    List<ChallengeUser> findByIdChallengeIdOrderByAmountDesc(Integer challengeId, Pageable pageable);
+
     List<ChallengeUser> findByIdChallengeId(Integer challengeId);
 
 
@@ -1,13 +1,20 @@
 package com.example.CMPE451.repository;
 
 import com.example.CMPE451.model.Comment;
+import com.example.CMPE451.model.PostActivity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
     List<Comment> findByPostPostId(Integer postId);
+
+    @Query("SELECT c.post.postId AS postId, c.createdAt AS occurredAt FROM Comment c WHERE c.createdAt >= :since")
+    List<PostActivity> findCommentedSince(@Param("since") Timestamp since);
 }
@@ -3,6 +3,8 @@ package com.example.CMPE451.repository;
 import com.example.CMPE451.model.Follow;
 import com.example.CMPE451.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,4 +24,20 @@ public interface FollowRepository extends JpaRepository<Follow, Integer> {
     Integer countByFollowing(User user);
 
     Integer countByFollower(User user);
+
+    @Query("""
+    SELECT f.id.followingUsername AS username,
+           (SELECT COUNT(f2) FROM Follow f2 WHERE f2.id.followingUsername = f.id.followingUsername) AS followerCount
+    FROM Follow f
+    WHERE f.id.followerUsername = :username
+    """)
+    List<FollowingCount> findFollowingWithFollowerCounts(@Param("username") String username);
+
+    @Query("SELECT f.following.id FROM Follow f WHERE f.id.followerUsername = :username")
+    List<Integer> findFollowingUserIds(@Param("username") String username);
+
+    interface FollowingCount {
+        String getUsername();
+        Long getFollowerCount();
+    }
 }
\ No newline at end of file
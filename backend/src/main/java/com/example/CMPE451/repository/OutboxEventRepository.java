@@ -0,0 +1,46 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks up to {@code limit} due events. Rows locked by another node's claim are skipped rather than waited
+     * on, so several nodes can drain the outbox concurrently.
+     */
+    @Query(value = """
+    SELECT * FROM post_outbox
+    WHERE available_at <= :now
+    ORDER BY event_id
+    LIMIT :limit
+    FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<OutboxEvent> lockDue(@Param("now") Timestamp now, @Param("limit") int limit);
+
+    /**
+     * Leases claimed events: they become due again only if the claiming worker never reports back. The persistence
+     * context is cleared afterwards, so the loaded events cannot be flushed back over the lease.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.availableAt = :leaseUntil, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") Timestamp leaseUntil);
+
+    /**
+     * Called by workers outside any transaction, so it opens its own.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.availableAt = :availableAt, e.lastError = :error WHERE e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("availableAt") Timestamp availableAt, @Param("error") String error);
+}
@@ -0,0 +1,96 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.model.response.GetSavedPostResponse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Post cards for the listing endpoints, read as DTOs in one statement: the author's username and avatar come from
+ * joins and the viewer's liked/saved flags from EXISTS subqueries, so no Post, User or Profile entity is loaded.
+ * A null {@code viewerId} yields false flags.
+ */
+public interface PostCardRepository extends Repository<Post, Integer> {
+
+    String CARD = """
+    SELECT new com.example.CMPE451.model.response.GetPostResponse(
+        p.postId, p.content, p.createdAt, p.likes, u.username, p.photoUrl, p.comments,
+        CASE WHEN EXISTS (SELECT 1 FROM PostLike pl WHERE pl.postId = p.postId AND pl.userId = :viewerId) THEN true ELSE false END,
+        CASE WHEN EXISTS (SELECT 1 FROM SavedPost sp WHERE sp.postId = p.postId AND sp.userId = :viewerId) THEN true ELSE false END,
+        pr.photoUrl, p.photoThumbUrl, p.photoFeedUrl, p.photoBlurhash)
+    FROM Post p
+    JOIN p.user u
+    LEFT JOIN Profile pr ON pr.user = u
+    """;
+
+    @Query(CARD + "ORDER BY p.createdAt DESC, p.postId DESC")
+    List<GetPostResponse> findFeedCards(@Param("viewerId") Integer viewerId, Pageable pageable);
+
+    /**
+     * The cursor condition is spelled out rather than written as a row comparison: MySQL only turns the expanded
+     * form into a range scan on {@code idx_posts_created_at_post_id}; for the tuple it walks the index from the
+     * newest row.
+     */
+    @Query(CARD + """
+    WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.postId < :postId)
+    ORDER BY p.createdAt DESC, p.postId DESC
+    """)
+    List<GetPostResponse> findFeedCardsAfter(@Param("viewerId") Integer viewerId,
+                                             @Param("createdAt") Timestamp createdAt,
+                                             @Param("postId") Integer postId,
+                                             Pageable pageable);
+
+    @Query(CARD + "WHERE p.postId IN :postIds")
+    List<GetPostResponse> findCardsByIds(@Param("viewerId") Integer viewerId, @Param("postIds") Collection<Integer> postIds);
+
+    /**
+     * Cards for posts whose order was decided elsewhere (ranking, timelines, vector search); ids of deleted posts
+     * are dropped.
+     */
+    default List<GetPostResponse> findCardsInOrder(Integer viewerId, List<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, GetPostResponse> cardsById = findCardsByIds(viewerId, postIds).stream()
+                .collect(Collectors.toMap(GetPostResponse::getPostId, Function.identity()));
+        return postIds.stream()
+                .map(cardsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Query(CARD + "WHERE u.id = :authorId ORDER BY p.createdAt DESC, p.postId DESC")
+    List<GetPostResponse> findCardsByAuthor(@Param("viewerId") Integer viewerId, @Param("authorId") Integer authorId);
+
+    @Query(CARD + "ORDER BY p.likes DESC")
+    List<GetPostResponse> findMostLikedCards(@Param("viewerId") Integer viewerId, Pageable pageable);
+
+    @Query(CARD + "WHERE LOWER(p.content) LIKE LOWER(CONCAT('%', :term, '%'))")
+    List<GetPostResponse> findCardsByContent(@Param("viewerId") Integer viewerId, @Param("term") String term);
+
+    @Query("""
+    SELECT new com.example.CMPE451.model.response.GetSavedPostResponse(
+        p.postId, p.content, p.likes, p.comments, u.username, s.savedAt, p.photoUrl,
+        CASE WHEN EXISTS (SELECT 1 FROM PostLike pl WHERE pl.postId = p.postId AND pl.userId = :viewerId) THEN true ELSE false END,
+        true,
+        pr.photoUrl)
+    FROM SavedPost s
+    JOIN s.post p
+    JOIN p.user u
+    LEFT JOIN Profile pr ON pr.user = u
+    WHERE s.userId = :viewerId
+    ORDER BY s.savedAt DESC
+    """)
+    List<GetSavedPostResponse> findSavedCards(@Param("viewerId") Integer viewerId);
+}
@@ -1,11 +1,13 @@
 package com.example.CMPE451.repository;
 
+import com.example.CMPE451.model.PostActivity;
 import com.example.CMPE451.model.PostLike;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -23,4 +25,7 @@ public interface PostLikeRepository extends JpaRepository<PostLike, PostLike.Pos
 
     @Query("SELECT pl.postId FROM PostLike pl WHERE pl.userId = :userId AND pl.postId IN :postIds")
     Set<Integer> findLikedPostIdsByUserIdAndPostIdIn(@Param("userId") Integer userId, @Param("postIds") Collection<Integer> postIds);
+
+    @Query("SELECT pl.postId AS postId, pl.likedAt AS occurredAt FROM PostLike pl WHERE pl.likedAt >= :since")
+    List<PostActivity> findLikedSince(@Param("since") Timestamp since);
 }
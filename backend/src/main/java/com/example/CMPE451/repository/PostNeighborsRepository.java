@@ -0,0 +1,20 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.PostNeighbors;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface PostNeighborsRepository extends JpaRepository<PostNeighbors, Integer> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PostNeighbors n SET n.stale = true WHERE n.postId IN :postIds")
+    int markStale(@Param("postIds") Collection<Integer> postIds);
+}
@@ -1,27 +1,93 @@
 package com.example.CMPE451.repository;
 
 import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.PostActivity;
+import com.example.CMPE451.model.PostCursor;
+import com.example.CMPE451.model.PostText;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Integer> {
 
     @Query("""
-    SELECT p FROM Post p
-    WHERE (:lastPostId IS NULL OR p.createdAt < 
-        (SELECT sub.createdAt FROM Post sub WHERE sub.postId = :lastPostId))
-    ORDER BY p.createdAt DESC
+    SELECT new com.example.CMPE451.model.PostCursor(p.createdAt, p.postId) FROM Post p
+    WHERE p.user.username IN :usernames
+    ORDER BY p.createdAt DESC, p.postId DESC
     """)
-    List<Post> findTopPosts(@Param("lastPostId") Long lastPostId, Pageable pageable);
+    List<PostCursor> findTimelineEntriesByAuthors(@Param("usernames") Collection<String> usernames, Pageable pageable);
 
-    @Query("SELECT p FROM Post p ORDER BY p.likes DESC")
-    List<Post> findMostLikedPosts(Pageable pageable);
+    @Query("""
+    SELECT new com.example.CMPE451.model.PostCursor(p.createdAt, p.postId) FROM Post p
+    WHERE p.user.username = :username
+       OR p.user.username IN (SELECT f.id.followingUsername FROM Follow f WHERE f.id.followerUsername = :username)
+    ORDER BY p.createdAt DESC, p.postId DESC
+    """)
+    List<PostCursor> findHomeTimelineEntries(@Param("username") String username, Pageable pageable);
+
+    @Query("""
+    SELECT new com.example.CMPE451.model.PostCursor(p.createdAt, p.postId) FROM Post p
+    WHERE (p.user.username = :username
+           OR p.user.username IN (SELECT f.id.followingUsername FROM Follow f WHERE f.id.followerUsername = :username))
+      AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.postId < :postId))
+    ORDER BY p.createdAt DESC, p.postId DESC
+    """)
+    List<PostCursor> findHomeTimelineEntriesAfter(@Param("username") String username,
+                                                  @Param("createdAt") Timestamp createdAt,
+                                                  @Param("postId") Integer postId,
+                                                  Pageable pageable);
+
+    @Query("SELECT p.postId AS postId, p.createdAt AS occurredAt FROM Post p WHERE p.createdAt >= :since")
+    List<PostActivity> findCreatedSince(@Param("since") Timestamp since);
+
+    @Query("SELECT p.postId AS postId, p.user.id AS authorId, p.createdAt AS createdAt, p.photoUrl AS photoUrl, " +
+            "p.content AS content, p.updatedAt AS updatedAt FROM Post p WHERE p.postId > :afterId ORDER BY p.postId")
+    List<PostText> findTextsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT p.postId AS postId, p.user.id AS authorId, p.createdAt AS createdAt, p.photoUrl AS photoUrl, " +
+            "p.content AS content, p.updatedAt AS updatedAt FROM Post p WHERE p.updatedAt >= :since")
+    List<PostText> findTextsUpdatedSince(@Param("since") Timestamp since);
+
+    /**
+     * Posts updated after {@code (updatedAt, postId)}, oldest update first; {@code (since, 0)} starts at every post
+     * updated since {@code since}.
+     */
+    @Query("SELECT p.postId AS postId, p.user.id AS authorId, p.createdAt AS createdAt, p.photoUrl AS photoUrl, " +
+            "p.content AS content, p.updatedAt AS updatedAt FROM Post p " +
+            "WHERE p.updatedAt > :updatedAt OR (p.updatedAt = :updatedAt AND p.postId > :postId) " +
+            "ORDER BY p.updatedAt, p.postId")
+    List<PostText> findTextsUpdatedAfter(@Param("updatedAt") Timestamp updatedAt,
+                                         @Param("postId") Integer postId,
+                                         Pageable pageable);
+
+    @Query("SELECT p.postId FROM Post p")
+    List<Integer> findAllPostIds();
+
+    /**
+     * Shows a processed photo on its post, unless the post has been given another photo since.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE Post p SET p.photoUrl = :fullUrl, p.photoFeedUrl = :feedUrl, p.photoThumbUrl = :thumbUrl,
+        p.photoBlurhash = :blurhash, p.updatedAt = CURRENT_TIMESTAMP
+    WHERE p.postId = :postId AND p.photoKey = :photoKey
+    """)
+    int publishPhoto(@Param("postId") Integer postId,
+                     @Param("photoKey") String photoKey,
+                     @Param("fullUrl") String fullUrl,
+                     @Param("feedUrl") String feedUrl,
+                     @Param("thumbUrl") String thumbUrl,
+                     @Param("blurhash") String blurhash);
 
     Post findByPostId(Integer postId);
 
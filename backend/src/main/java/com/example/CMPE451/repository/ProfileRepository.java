@@ -2,13 +2,22 @@ package com.example.CMPE451.repository;
 
 import com.example.CMPE451.model.User;
 import com.example.CMPE451.model.Profile;
+import com.example.CMPE451.model.UserAvatar;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProfileRepository extends JpaRepository<Profile, Integer> {
     Optional<Profile> findByUser(User user);
+
+    @Query("SELECT u.username AS username, p.photoUrl AS photoUrl FROM Profile p JOIN p.user u " +
+            "WHERE u.username IN :usernames")
+    List<UserAvatar> findAvatarsByUsernames(@Param("usernames") Collection<String> usernames);
 }
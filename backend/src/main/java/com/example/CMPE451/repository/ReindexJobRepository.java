@@ -0,0 +1,50 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.ReindexJob;
+import com.example.CMPE451.model.ReindexJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReindexJobRepository extends JpaRepository<ReindexJob, Integer> {
+
+    Optional<ReindexJob> findFirstByOrderByIdDesc();
+
+    List<ReindexJob> findByStatus(ReindexJobStatus status);
+
+    boolean existsByStatus(ReindexJobStatus status);
+
+    /**
+     * Takes over a job whose heartbeat is older than {@code staleBefore}; returns 0 if another node got there first.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE ReindexJob j SET j.heartbeatAt = :now
+    WHERE j.id = :id AND j.status = com.example.CMPE451.model.ReindexJobStatus.RUNNING
+      AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)
+    """)
+    int claimStale(@Param("id") Integer id, @Param("now") Timestamp now, @Param("staleBefore") Timestamp staleBefore);
+
+    /**
+     * Marks a job completed with its final progress; returns 0 if it is no longer RUNNING, e.g. it was cancelled.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE ReindexJob j
+    SET j.status = com.example.CMPE451.model.ReindexJobStatus.COMPLETED,
+        j.lastPostId = :lastPostId, j.processed = :processed, j.finishedAt = :now, j.heartbeatAt = :now
+    WHERE j.id = :id AND j.status = com.example.CMPE451.model.ReindexJobStatus.RUNNING
+    """)
+    int complete(@Param("id") Integer id, @Param("lastPostId") Integer lastPostId,
+                 @Param("processed") Integer processed, @Param("now") Timestamp now);
+}
@@ -0,0 +1,72 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.UserCounter;
+import com.example.CMPE451.model.UserCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface UserCounterRepository extends JpaRepository<UserCounter, UserCounterId> {
+
+    /**
+     * Adds {@code delta} to the counter, creating it if missing. The row stays locked until the caller's
+     * transaction ends, so {@link #findTotal} right after returns this transaction's total.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO user_counters (user_id, counter, total) VALUES (:userId, :counter, :delta)
+    ON DUPLICATE KEY UPDATE total = total + :delta
+    """, nativeQuery = true)
+    int add(@Param("userId") Integer userId, @Param("counter") String counter, @Param("delta") double delta);
+
+    @Query(value = "SELECT total FROM user_counters WHERE user_id = :userId AND counter = :counter",
+            nativeQuery = true)
+    Double findTotal(@Param("userId") Integer userId, @Param("counter") String counter);
+
+    /**
+     * Takes the logs of a goal about to be deleted out of their owners' {@code WASTE_GRAMS} counters, as deleting a
+     * single log does. Badges already awarded stay.
+     */
+    @Modifying
+    @Query(value = """
+    UPDATE user_counters c
+    JOIN (SELECT l.user_id, CONCAT('WASTE_GRAMS:', UPPER(t.name)) AS counter,
+                 SUM(l.quantity * i.weight_in_grams) AS grams
+          FROM waste_log l
+          JOIN waste_item i ON i.item_id = l.item_id
+          JOIN waste_type t ON t.type_id = i.type_id
+          WHERE l.goal_id = :goalId
+          GROUP BY l.user_id, t.type_id, t.name) g
+      ON g.user_id = c.user_id AND g.counter = c.counter
+    SET c.total = c.total - g.grams
+    """, nativeQuery = true)
+    int subtractGoal(@Param("goalId") Integer goalId);
+
+    /**
+     * Fills the counters from the waste log, likes and comments, keyed as {@code BadgeRule.Counter.key} keys them;
+     * run once by {@code StartupBackfills}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+    INSERT INTO user_counters (user_id, counter, total)
+    SELECT c.user_id, c.counter, c.total FROM (
+        SELECT l.user_id, CONCAT('WASTE_GRAMS:', UPPER(t.name)) AS counter,
+               SUM(l.quantity * i.weight_in_grams) AS total
+        FROM waste_log l
+        JOIN waste_item i ON i.item_id = l.item_id
+        JOIN waste_type t ON t.type_id = i.type_id
+        GROUP BY l.user_id, t.type_id, t.name
+        UNION ALL
+        SELECT user_id, 'LIKES_GIVEN', COUNT(*) FROM post_likes GROUP BY user_id
+        UNION ALL
+        SELECT user_id, 'COMMENTS_WRITTEN', COUNT(*) FROM comments GROUP BY user_id
+    ) c
+    ON DUPLICATE KEY UPDATE total = c.total
+    """, nativeQuery = true)
+    int backfill();
+}
@@ -0,0 +1,9 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.UserInterest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserInterestRepository extends JpaRepository<UserInterest, Integer> {
+}
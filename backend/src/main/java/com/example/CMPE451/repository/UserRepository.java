@@ -4,6 +4,7 @@ package com.example.CMPE451.repository;
 import com.example.CMPE451.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +13,10 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
+
+    /** The id alone, for reads that only need the viewer: loading the user would also select its profile. */
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Integer> findIdByUsername(@Param("username") String username);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
     List<User> findAllByUsernameIn(List<String> usernames);
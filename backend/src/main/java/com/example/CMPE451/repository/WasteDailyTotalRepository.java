@@ -0,0 +1,55 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.WasteDailyTotal;
+import com.example.CMPE451.model.WastePeriodId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Repository
+public interface WasteDailyTotalRepository extends JpaRepository<WasteDailyTotal, WastePeriodId> {
+
+    @Modifying
+    @Query(value = """
+    INSERT INTO waste_daily_totals (user_id, type_id, period_start, total_grams)
+    VALUES (:userId, :typeId, :day, :grams)
+    ON DUPLICATE KEY UPDATE total_grams = total_grams + :grams
+    """, nativeQuery = true)
+    int add(@Param("userId") Integer userId, @Param("typeId") Integer typeId, @Param("day") LocalDate day,
+            @Param("grams") double grams);
+
+    /**
+     * Takes the logs of a goal about to be deleted out of the daily totals.
+     */
+    @Modifying
+    @Query(value = """
+    UPDATE waste_daily_totals t
+    JOIN (SELECT l.user_id, i.type_id, DATE(l.date) AS period_start,
+                 SUM(l.quantity * i.weight_in_grams) AS grams
+          FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+          WHERE l.goal_id = :goalId
+          GROUP BY l.user_id, i.type_id, DATE(l.date)) g
+      ON g.user_id = t.user_id AND g.type_id = t.type_id AND g.period_start = t.period_start
+    SET t.total_grams = t.total_grams - g.grams
+    """, nativeQuery = true)
+    int subtractGoal(@Param("goalId") Integer goalId);
+
+    /**
+     * Fills the table from the whole waste log; run once by {@code StartupBackfills}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+    INSERT INTO waste_daily_totals (user_id, type_id, period_start, total_grams)
+    SELECT l.user_id, i.type_id, DATE(l.date) AS period_start, SUM(l.quantity * i.weight_in_grams)
+    FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+    GROUP BY l.user_id, i.type_id, period_start
+    ON DUPLICATE KEY UPDATE total_grams = VALUES(total_grams)
+    """, nativeQuery = true)
+    int backfill();
+}
@@ -3,11 +3,16 @@ package com.example.CMPE451.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import com.example.CMPE451.model.GoalTotalDrift;
 import com.example.CMPE451.model.WasteGoal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
 public interface WasteGoalRepository extends JpaRepository<WasteGoal, Integer> {
@@ -21,4 +26,49 @@ public interface WasteGoalRepository extends JpaRepository<WasteGoal, Integer> {
     Page<WasteGoal> findTopGoals(@Param("username") String username,
                                  @Param("lastGoalId") Long lastGoalId,
                                  Pageable pageable);
+
+    /**
+     * Adds {@code grams} to the goal's running total in one statement, so concurrent logs serialize on the row
+     * lock instead of overwriting each other. The {@code goal_before_update} trigger derives progress and
+     * completion from the new total.
+     */
+    @Modifying
+    @Query("""
+    UPDATE WasteGoal g
+    SET g.totalGrams = g.totalGrams + :grams
+    WHERE g.goalId = :goalId
+    """)
+    int addToTotal(@Param("goalId") Integer goalId, @Param("grams") double grams);
+
+    @Query("SELECT MAX(g.goalId) FROM WasteGoal g")
+    Integer findMaxGoalId();
+
+    /**
+     * Goals in {@code [fromGoalId, toGoalId]} whose running total disagrees with the sum of their logs. Both come
+     * from one consistent read.
+     */
+    @Query(value = """
+    SELECT g.goal_id AS goalId, g.total_grams AS storedGrams,
+           IFNULL(SUM(wi.weight_in_grams * wl.quantity), 0) AS actualGrams
+    FROM waste_goal g
+    LEFT JOIN waste_log wl ON wl.goal_id = g.goal_id
+    LEFT JOIN waste_item wi ON wi.item_id = wl.item_id
+    WHERE g.goal_id BETWEEN :fromGoalId AND :toGoalId
+    GROUP BY g.goal_id, g.total_grams
+    HAVING ABS(storedGrams - actualGrams) > 0.001
+    """, nativeQuery = true)
+    List<GoalTotalDrift> findTotalDrift(@Param("fromGoalId") Integer fromGoalId, @Param("toGoalId") Integer toGoalId);
+
+    /**
+     * Replaces the running total unless a log changed it since {@code seenGrams} was read; returns 0 then.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE WasteGoal g
+    SET g.totalGrams = :grams
+    WHERE g.goalId = :goalId AND g.totalGrams = :seenGrams
+    """)
+    int replaceTotal(@Param("goalId") Integer goalId, @Param("seenGrams") double seenGrams,
+                     @Param("grams") double grams);
 }
@@ -0,0 +1,77 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.WasteHourId;
+import com.example.CMPE451.model.WasteHourlyTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface WasteHourlyTotalRepository extends JpaRepository<WasteHourlyTotal, WasteHourId> {
+
+    /**
+     * @param hour the start of the hour
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO waste_hourly_totals (type_id, period_start, total_grams, version)
+    VALUES (:typeId, :hour, :grams, 1)
+    ON DUPLICATE KEY UPDATE total_grams = total_grams + :grams, version = version + 1
+    """, nativeQuery = true)
+    int add(@Param("typeId") Integer typeId, @Param("hour") LocalDateTime hour, @Param("grams") double grams);
+
+    @Query("SELECT t.version FROM WasteHourlyTotal t WHERE t.id.typeId = :typeId AND t.id.periodStart = :hour")
+    long findVersion(@Param("typeId") Integer typeId, @Param("hour") LocalDateTime hour);
+
+    /**
+     * Takes the logs of a goal about to be deleted out of the hourly totals.
+     */
+    @Modifying
+    @Query(value = """
+    UPDATE waste_hourly_totals t
+    JOIN (SELECT i.type_id, DATE_FORMAT(l.date, '%Y-%m-%d %H:00:00') AS period_start,
+                 SUM(l.quantity * i.weight_in_grams) AS grams
+          FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+          WHERE l.goal_id = :goalId
+          GROUP BY i.type_id, period_start) g
+      ON g.type_id = t.type_id AND g.period_start = t.period_start
+    SET t.total_grams = t.total_grams - g.grams, t.version = t.version + 1
+    """, nativeQuery = true)
+    int subtractGoal(@Param("goalId") Integer goalId);
+
+    /**
+     * Takes the logs of a user about to be deleted out of the hourly totals.
+     */
+    @Modifying
+    @Query(value = """
+    UPDATE waste_hourly_totals t
+    JOIN (SELECT i.type_id, DATE_FORMAT(l.date, '%Y-%m-%d %H:00:00') AS period_start,
+                 SUM(l.quantity * i.weight_in_grams) AS grams
+          FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+          WHERE l.user_id = :userId
+          GROUP BY i.type_id, period_start) g
+      ON g.type_id = t.type_id AND g.period_start = t.period_start
+    SET t.total_grams = t.total_grams - g.grams, t.version = t.version + 1
+    """, nativeQuery = true)
+    int subtractUser(@Param("userId") Integer userId);
+
+    /**
+     * Fills the table from the whole waste log; run once by {@code StartupBackfills}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+    INSERT INTO waste_hourly_totals (type_id, period_start, total_grams)
+    SELECT i.type_id, DATE_FORMAT(l.date, '%Y-%m-%d %H:00:00') AS period_start,
+           SUM(l.quantity * i.weight_in_grams)
+    FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+    GROUP BY i.type_id, period_start
+    ON DUPLICATE KEY UPDATE total_grams = VALUES(total_grams), version = version + 1
+    """, nativeQuery = true)
+    int backfill();
+}
@@ -0,0 +1,62 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.WasteMonthlyTotal;
+import com.example.CMPE451.model.WastePeriodId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface WasteMonthlyTotalRepository extends JpaRepository<WasteMonthlyTotal, WastePeriodId> {
+
+    List<WasteMonthlyTotal> findByIdUserIdAndIdTypeIdAndIdPeriodStartGreaterThanEqualOrderByIdPeriodStart(
+            Integer userId, Integer typeId, LocalDate from);
+
+    /**
+     * @param month the first day of the month
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO waste_monthly_totals (user_id, type_id, period_start, total_grams)
+    VALUES (:userId, :typeId, :month, :grams)
+    ON DUPLICATE KEY UPDATE total_grams = total_grams + :grams
+    """, nativeQuery = true)
+    int add(@Param("userId") Integer userId, @Param("typeId") Integer typeId, @Param("month") LocalDate month,
+            @Param("grams") double grams);
+
+    /**
+     * Takes the logs of a goal about to be deleted out of the monthly totals.
+     */
+    @Modifying
+    @Query(value = """
+    UPDATE waste_monthly_totals t
+    JOIN (SELECT l.user_id, i.type_id, DATE(l.date) - INTERVAL (DAY(l.date) - 1) DAY AS period_start,
+                 SUM(l.quantity * i.weight_in_grams) AS grams
+          FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+          WHERE l.goal_id = :goalId
+          GROUP BY l.user_id, i.type_id, period_start) g
+      ON g.user_id = t.user_id AND g.type_id = t.type_id AND g.period_start = t.period_start
+    SET t.total_grams = t.total_grams - g.grams
+    """, nativeQuery = true)
+    int subtractGoal(@Param("goalId") Integer goalId);
+
+    /**
+     * Fills the table from the whole waste log; run once by {@code StartupBackfills}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+    INSERT INTO waste_monthly_totals (user_id, type_id, period_start, total_grams)
+    SELECT l.user_id, i.type_id, DATE(l.date) - INTERVAL (DAY(l.date) - 1) DAY AS period_start, SUM(l.quantity * i.weight_in_grams)
+    FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+    GROUP BY l.user_id, i.type_id, period_start
+    ON DUPLICATE KEY UPDATE total_grams = VALUES(total_grams)
+    """, nativeQuery = true)
+    int backfill();
+}
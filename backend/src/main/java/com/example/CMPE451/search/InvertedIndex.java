@@ -0,0 +1,387 @@
+package com.example.CMPE451.search;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over post content with Okapi BM25 ranking.
+ * <p>
+ * Post ids are dense auto-increment values, so per-document data lives in arrays indexed by id and query scores
+ * are accumulated in a reusable per-thread array rather than a map. Each document keeps the ids of its terms so
+ * an edit or delete only touches the posting lists it appears in. Author, creation time and photo flag are kept in
+ * the same arrays, so a filtered search skips non-matching posts while scoring instead of dropping them from the
+ * top hits afterwards.
+ */
+public class InvertedIndex {
+
+    public record Hit(int postId, float score) {
+    }
+
+    public record Page(List<Hit> hits, int totalMatches) {
+    }
+
+    /**
+     * Restricts a search to posts with matching attributes; {@code createdAt} is in epoch milliseconds.
+     */
+    @FunctionalInterface
+    public interface Filter {
+        boolean accepts(int authorId, long createdAt, boolean hasPhoto);
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x424d3235; // "BM25"
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int[] NO_TERMS = new int[0];
+
+    private final float k1;
+    private final float b;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<PostingList> postings = new ArrayList<>();
+    private int[] documentLengths = new int[1024];
+    private int[][] documentTerms = new int[1024][];
+    private int[] documentAuthors = new int[1024];
+    private long[] documentCreatedAt = new long[1024];
+    private boolean[] documentPhotos = new boolean[1024];
+    private int documentCount;
+    private long totalLength;
+
+    private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+
+    public InvertedIndex(float k1, float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    public InvertedIndex() {
+        this(1.2f, 0.75f);
+    }
+
+    /**
+     * Adds or replaces a post.
+     */
+    public void put(int postId, String content, int authorId, long createdAt, boolean hasPhoto) {
+        List<String> tokens = Tokenizer.tokenize(content);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+            if (tokens.isEmpty()) {
+                return;
+            }
+            ensureCapacity(postId);
+            int[] ids = new int[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                int termId = termIds.computeIfAbsent(entry.getKey(), term -> {
+                    terms.add(term);
+                    postings.add(new PostingList());
+                    return terms.size() - 1;
+                });
+                postings.get(termId).add(postId, entry.getValue());
+                ids[i++] = termId;
+            }
+            documentTerms[postId] = ids;
+            documentLengths[postId] = tokens.size();
+            documentAuthors[postId] = authorId;
+            documentCreatedAt[postId] = createdAt;
+            documentPhotos[postId] = hasPhoto;
+            documentCount++;
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int postId) {
+        if (postId >= documentTerms.length || documentTerms[postId] == null) {
+            return;
+        }
+        for (int termId : documentTerms[postId]) {
+            postings.get(termId).remove(postId);
+        }
+        documentCount--;
+        totalLength -= documentLengths[postId];
+        documentTerms[postId] = null;
+        documentLengths[postId] = 0;
+    }
+
+    public boolean contains(int postId) {
+        lock.readLock().lock();
+        try {
+            return postId < documentTerms.length && documentTerms[postId] != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the post ids currently indexed.
+     */
+    public List<Integer> postIds() {
+        lock.readLock().lock();
+        try {
+            List<Integer> ids = new ArrayList<>(documentCount);
+            for (int id = 0; id < documentTerms.length; id++) {
+                if (documentTerms[id] != null) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks posts matching any query term by BM25 and returns hits {@code [offset, offset + limit)}. Ties go to
+     * the newer (higher id) post.
+     */
+    public Page search(String query, int offset, int limit) {
+        return search(query, offset, limit, null);
+    }
+
+    /**
+     * Like {@link #search(String, int, int)} but only scores posts accepted by {@code filter}, so the page and
+     * {@link Page#totalMatches} are taken from the matching posts alone. A null filter accepts everything.
+     */
+    public Page search(String query, int offset, int limit, Filter filter) {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        Accumulator accumulator = accumulators.get();
+        lock.readLock().lock();
+        try {
+            if (queryTerms.isEmpty() || documentCount == 0) {
+                return new Page(List.of(), 0);
+            }
+            accumulator.reset(documentLengths.length);
+            float averageLength = (float) totalLength / documentCount;
+            for (String term : queryTerms) {
+                Integer termId = termIds.get(term);
+                if (termId == null) {
+                    continue;
+                }
+                PostingList list = postings.get(termId);
+                int df = list.documentFrequency();
+                if (df == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                list.forEach((docId, tf) -> {
+                    if (filter != null
+                            && !filter.accepts(documentAuthors[docId], documentCreatedAt[docId], documentPhotos[docId])) {
+                        return;
+                    }
+                    float norm = k1 * (1 - b + b * documentLengths[docId] / averageLength);
+                    accumulator.add(docId, idf * tf * (k1 + 1) / (tf + norm));
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return accumulator.top(offset, limit);
+    }
+
+    private void ensureCapacity(int postId) {
+        if (postId >= documentTerms.length) {
+            int capacity = Math.max(postId + 1, documentTerms.length * 2);
+            documentTerms = Arrays.copyOf(documentTerms, capacity);
+            documentLengths = Arrays.copyOf(documentLengths, capacity);
+            documentAuthors = Arrays.copyOf(documentAuthors, capacity);
+            documentCreatedAt = Arrays.copyOf(documentCreatedAt, capacity);
+            documentPhotos = Arrays.copyOf(documentPhotos, capacity);
+        }
+    }
+
+    /**
+     * Writes the index to {@code file} through a temporary file, so a crash never leaves a torn snapshot.
+     * {@code watermark} is stored alongside and returned by {@link #readSnapshot}. Holds only the read lock, so
+     * searches keep running while the snapshot is written; index updates wait for it.
+     */
+    public void writeSnapshot(Path file, long watermark) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(watermark);
+            out.writeInt(terms.size());
+            for (int termId = 0; termId < terms.size(); termId++) {
+                out.writeUTF(terms.get(termId));
+                postings.get(termId).writeTo(out);
+            }
+            out.writeInt(documentCount);
+            for (int id = 0; id < documentTerms.length; id++) {
+                int[] ids = documentTerms[id];
+                if (ids == null) {
+                    continue;
+                }
+                out.writeInt(id);
+                out.writeInt(documentLengths[id]);
+                out.writeInt(documentAuthors[id]);
+                out.writeLong(documentCreatedAt[id]);
+                out.writeBoolean(documentPhotos[id]);
+                out.writeInt(ids.length);
+                for (int termId : ids) {
+                    out.writeInt(termId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the contents of this index with a snapshot and returns its watermark.
+     */
+    public long readSnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a keyword index snapshot: " + file);
+            }
+            long watermark = in.readLong();
+            Map<String, Integer> loadedTermIds = new HashMap<>();
+            List<String> loadedTerms = new ArrayList<>();
+            List<PostingList> loadedPostings = new ArrayList<>();
+            int termCount = in.readInt();
+            for (int termId = 0; termId < termCount; termId++) {
+                String term = in.readUTF();
+                loadedTermIds.put(term, termId);
+                loadedTerms.add(term);
+                loadedPostings.add(PostingList.readFrom(in));
+            }
+            int count = in.readInt();
+            int[] lengths = new int[1024];
+            int[][] documentTermIds = new int[1024][];
+            int[] authors = new int[1024];
+            long[] createdAt = new long[1024];
+            boolean[] photos = new boolean[1024];
+            long length = 0;
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                if (id >= documentTermIds.length) {
+                    int capacity = Math.max(id + 1, documentTermIds.length * 2);
+                    documentTermIds = Arrays.copyOf(documentTermIds, capacity);
+                    lengths = Arrays.copyOf(lengths, capacity);
+                    authors = Arrays.copyOf(authors, capacity);
+                    createdAt = Arrays.copyOf(createdAt, capacity);
+                    photos = Arrays.copyOf(photos, capacity);
+                }
+                lengths[id] = in.readInt();
+                authors[id] = in.readInt();
+                createdAt[id] = in.readLong();
+                photos[id] = in.readBoolean();
+                int[] ids = new int[in.readInt()];
+                for (int j = 0; j < ids.length; j++) {
+                    ids[j] = in.readInt();
+                }
+                documentTermIds[id] = ids.length == 0 ? NO_TERMS : ids;
+                length += lengths[id];
+            }
+
+            lock.writeLock().lock();
+            try {
+                termIds.clear();
+                termIds.putAll(loadedTermIds);
+                terms.clear();
+                terms.addAll(loadedTerms);
+                postings.clear();
+                postings.addAll(loadedPostings);
+                documentLengths = lengths;
+                documentTerms = documentTermIds;
+                documentAuthors = authors;
+                documentCreatedAt = createdAt;
+                documentPhotos = photos;
+                documentCount = count;
+                totalLength = length;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return watermark;
+        }
+    }
+
+    /**
+     * Per-thread score array plus the list of ids it touched, so resetting costs O(matches) instead of O(ids).
+     */
+    private static final class Accumulator {
+        private float[] scores = new float[0];
+        private int[] touched = new int[1024];
+        private int touchedCount;
+
+        void reset(int capacity) {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+            }
+            touchedCount = 0;
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+            }
+        }
+
+        void add(int docId, float score) {
+            if (scores[docId] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = docId;
+            }
+            scores[docId] += score;
+        }
+
+        Page top(int offset, int limit) {
+            int k = offset + limit;
+            if (k <= 0) {
+                return new Page(List.of(), touchedCount);
+            }
+            // Min-heap on (score, id) holding the best k.
+            PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(k, Math.max(1, touchedCount)) + 1,
+                    Comparator.comparingDouble(Hit::score).thenComparingInt(Hit::postId));
+            for (int i = 0; i < touchedCount; i++) {
+                int docId = touched[i];
+                float score = scores[docId];
+                if (heap.size() < k) {
+                    heap.add(new Hit(docId, score));
+                } else {
+                    Hit worst = heap.peek();
+                    if (score > worst.score() || (score == worst.score() && docId > worst.postId())) {
+                        heap.poll();
+                        heap.add(new Hit(docId, score));
+                    }
+                }
+            }
+            List<Hit> ranked = new ArrayList<>(heap);
+            ranked.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::postId, Comparator.reverseOrder()));
+            List<Hit> page = offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+            return new Page(List.copyOf(page), touchedCount);
+        }
+    }
+}
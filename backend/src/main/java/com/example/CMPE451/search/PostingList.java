@@ -0,0 +1,181 @@
+package com.example.CMPE451.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The documents containing one term, with their term frequencies.
+ * <p>
+ * The bulk of the list is an immutable block of {@code (docId delta, tf)} varint pairs in ascending doc order,
+ * which keeps a posting at two or three bytes. Changes go to small pending add/remove sets that readers overlay
+ * on the block; once they grow past a fraction of the block it is re-encoded. Callers remove a document before
+ * adding it again, so an update is "suppress the encoded entry, add a pending one".
+ * <p>
+ * Not thread-safe; {@link InvertedIndex} guards it.
+ */
+final class PostingList {
+
+    interface Consumer {
+        void accept(int docId, int termFrequency);
+    }
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int MIN_PENDING_BEFORE_COMPACTION = 32;
+
+    private byte[] encoded = EMPTY;
+    private int encodedLength;
+    private final TreeMap<Integer, Integer> pendingAdds = new TreeMap<>();
+    private final Set<Integer> pendingRemoves = new HashSet<>();
+    private int documentFrequency;
+
+    int documentFrequency() {
+        return documentFrequency;
+    }
+
+    void add(int docId, int termFrequency) {
+        pendingAdds.put(docId, termFrequency);
+        documentFrequency++;
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes a document the caller knows to be in this list.
+     */
+    void remove(int docId) {
+        if (pendingAdds.remove(docId) == null || encodedLength > 0) {
+            pendingRemoves.add(docId);
+        }
+        documentFrequency--;
+        compactIfNeeded();
+    }
+
+    void forEach(Consumer consumer) {
+        int position = 0;
+        int docId = 0;
+        while (position < encodedLength) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[position++];
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            int termFrequency = 0;
+            shift = 0;
+            do {
+                b = encoded[position++];
+                termFrequency |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            docId += delta;
+            if (pendingRemoves.isEmpty() || !pendingRemoves.contains(docId)) {
+                consumer.accept(docId, termFrequency);
+            }
+        }
+        for (Map.Entry<Integer, Integer> entry : pendingAdds.entrySet()) {
+            consumer.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    int encodedBytes() {
+        return encodedLength;
+    }
+
+    private void compactIfNeeded() {
+        int pending = pendingAdds.size() + pendingRemoves.size();
+        if (pending > MIN_PENDING_BEFORE_COMPACTION && pending * 16 > encodedLength) {
+            compact();
+        }
+    }
+
+    void compact() {
+        if (pendingAdds.isEmpty() && pendingRemoves.isEmpty()) {
+            return;
+        }
+        encoded = encode();
+        encodedLength = encoded.length;
+        pendingAdds.clear();
+        pendingRemoves.clear();
+    }
+
+    /**
+     * The whole list, pending changes included, as one block; leaves this list untouched.
+     */
+    private byte[] encode() {
+        int[] docIds = new int[documentFrequency];
+        int[] frequencies = new int[documentFrequency];
+        int[] count = {0};
+        forEach((docId, termFrequency) -> {
+            docIds[count[0]] = docId;
+            frequencies[count[0]++] = termFrequency;
+        });
+        // Encoded entries and pending adds arrive as two sorted runs.
+        sortByDocId(docIds, frequencies, count[0]);
+        ByteSink sink = new ByteSink(Math.max(16, count[0] * 3));
+        int previous = 0;
+        for (int i = 0; i < count[0]; i++) {
+            sink.writeVarint(docIds[i] - previous);
+            sink.writeVarint(frequencies[i]);
+            previous = docIds[i];
+        }
+        return sink.toArray();
+    }
+
+    private static void sortByDocId(int[] docIds, int[] frequencies, int length) {
+        long[] packed = new long[length];
+        for (int i = 0; i < length; i++) {
+            packed[i] = ((long) docIds[i] << 32) | (frequencies[i] & 0xffffffffL);
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < length; i++) {
+            docIds[i] = (int) (packed[i] >>> 32);
+            frequencies[i] = (int) packed[i];
+        }
+    }
+
+    /**
+     * Writes the list as one block. Only reads this list, so it may run alongside searches.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        byte[] block = pendingAdds.isEmpty() && pendingRemoves.isEmpty() ? encoded : encode();
+        out.writeInt(documentFrequency);
+        out.writeInt(block.length);
+        out.write(block);
+    }
+
+    static PostingList readFrom(DataInput in) throws IOException {
+        PostingList list = new PostingList();
+        list.documentFrequency = in.readInt();
+        list.encodedLength = in.readInt();
+        list.encoded = new byte[list.encodedLength];
+        in.readFully(list.encoded);
+        return list;
+    }
+
+    private static final class ByteSink {
+        private byte[] bytes;
+        private int length;
+
+        ByteSink(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void writeVarint(int value) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2 + 5);
+            }
+            while ((value & ~0x7f) != 0) {
+                bytes[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.UserAvatar;
+import com.example.CMPE451.repository.ProfileRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves a user's current profile picture at read time.
+ * <p>
+ * Avatars used to be copied onto every post and notification the user authored, which turned a photo change into
+ * one row update per post and notification. They are now looked up by username through this cache instead, so a
+ * change is a single profile update plus a cache write.
+ * <p>
+ * Entries carry the write version they were loaded under. A cache fill that raced with a photo change is returned
+ * to its caller but not installed, so a stale URL read from MySQL can never overwrite a newer one. Entries expire
+ * after {@code avatar.cache.ttl-seconds}, which bounds how long other nodes keep serving an old avatar.
+ */
+@Service
+public class AvatarService {
+
+    private record Entry(String photoUrl, long version, long loadedAtNanos) {
+    }
+
+    private final ProfileRepository profileRepository;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong writeVersion = new AtomicLong();
+
+    public AvatarService(ProfileRepository profileRepository,
+                         @Value("${avatar.cache.max-entries:50000}") int maxEntries,
+                         @Value("${avatar.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.profileRepository = profileRepository;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * Returns the user's profile picture URL, or {@code null} if they have none.
+     */
+    public String avatarOf(String username) {
+        if (username == null) {
+            return null;
+        }
+        return avatarsOf(List.of(username)).get(username);
+    }
+
+    /**
+     * Resolves several users at once with at most one query for the cache misses. Users without a picture map to
+     * {@code null}.
+     */
+    public Map<String, String> avatarsOf(Collection<String> usernames) {
+        Map<String, String> avatars = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        long now = System.nanoTime();
+        for (String username : new LinkedHashSet<>(usernames)) {
+            Entry entry = cache.get(username);
+            if (entry != null && now - entry.loadedAtNanos() < ttlNanos) {
+                avatars.put(username, entry.photoUrl());
+            } else {
+                misses.add(username);
+            }
+        }
+        if (misses.isEmpty()) {
+            return avatars;
+        }
+
+        long version = writeVersion.get();
+        Map<String, String> loaded = new HashMap<>();
+        for (UserAvatar avatar : profileRepository.findAvatarsByUsernames(misses)) {
+            loaded.put(avatar.getUsername(), avatar.getPhotoUrl());
+        }
+        for (String username : misses) {
+            String photoUrl = loaded.get(username);
+            avatars.put(username, photoUrl);
+            install(username, new Entry(photoUrl, version, now));
+        }
+        return avatars;
+    }
+
+    /**
+     * Publishes a new avatar once the surrounding transaction commits; until then readers keep seeing the old
+     * one, exactly like MySQL.
+     */
+    public void onAvatarChanged(String username, String photoUrl) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(username, photoUrl);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(username, photoUrl);
+            }
+        });
+    }
+
+    private void publish(String username, String photoUrl) {
+        long version = writeVersion.incrementAndGet();
+        cache.put(username, new Entry(photoUrl, version, System.nanoTime()));
+    }
+
+    private void install(String username, Entry loaded) {
+        if (writeVersion.get() != loaded.version()) {
+            return;
+        }
+        if (cache.size() >= maxEntries) {
+            Iterator<String> keys = cache.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        cache.compute(username, (key, current) ->
+                current != null && current.version() > loaded.version() ? current : loaded);
+    }
+}
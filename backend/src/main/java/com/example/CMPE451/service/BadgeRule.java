@@ -0,0 +1,26 @@
+package com.example.CMPE451.service;
+
+/**
+ * A badge awarded the first time a user's {@code counter} goes above {@code threshold}. For counters kept per
+ * waste type, {@code name} is a format string that receives the upper-cased type name.
+ */
+public record BadgeRule(Counter counter, double threshold, String name) {
+
+    public enum Counter {
+        WASTE_GRAMS,
+        LIKES_GIVEN,
+        COMMENTS_WRITTEN;
+
+        String key(String scope) {
+            return scope == null ? name() : name() + ":" + scope;
+        }
+    }
+
+    boolean crossedBy(double before, double after) {
+        return before <= threshold && after > threshold;
+    }
+
+    String badgeName(String scope) {
+        return scope == null ? name : String.format(name, scope);
+    }
+}
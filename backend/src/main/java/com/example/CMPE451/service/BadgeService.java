@@ -0,0 +1,119 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.ChallengeUser;
+import com.example.CMPE451.model.WasteType;
+import com.example.CMPE451.repository.ChallengeUserRepository;
+import com.example.CMPE451.repository.UserCounterRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Awards badges from per-user running counters instead of re-aggregating a user's history on every write.
+ * <p>
+ * Writers report deltas in their own transaction. The counter is bumped with an upsert and read back under the
+ * row lock that takes, and every rule whose threshold lies between the old and the new total fires. Badges earned
+ * together are written with one multi-row {@code INSERT IGNORE}, which also makes a badge that was already
+ * awarded a no-op. Counters for likes and comments count every one ever given, so unliking does not lower them.
+ * {@link StartupBackfills} fills the counters once from the existing logs, likes and comments, so thresholds do not
+ * restart from zero.
+ * <p>
+ * Rules only fire when a counter crosses their threshold. A rule added to {@link #RULES} therefore reaches users
+ * whose counter is already past it only through a one-off award from {@code user_counters}, for example
+ * {@code INSERT IGNORE INTO badge (name, user_id) SELECT ..., user_id FROM user_counters WHERE counter = ? AND
+ * total > ?}, shipped with the rule.
+ */
+@Service
+public class BadgeService {
+
+    static final List<BadgeRule> RULES = List.of(
+            new BadgeRule(BadgeRule.Counter.WASTE_GRAMS, 1000, "%s SAVER"),
+            new BadgeRule(BadgeRule.Counter.WASTE_GRAMS, 5000, "%s HERO"),
+            new BadgeRule(BadgeRule.Counter.WASTE_GRAMS, 10000, "%s LEGEND"),
+            new BadgeRule(BadgeRule.Counter.LIKES_GIVEN, 0, "First Like"),
+            new BadgeRule(BadgeRule.Counter.COMMENTS_WRITTEN, 0, "First Comment")
+    );
+
+    static final String TOP_CHALLENGER = "Top Challenger";
+    static final int TOP_CHALLENGER_COUNT = 3;
+
+    private final UserCounterRepository userCounterRepository;
+    private final ChallengeUserRepository challengeUserRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BadgeService(UserCounterRepository userCounterRepository,
+                        ChallengeUserRepository challengeUserRepository,
+                        JdbcTemplate jdbcTemplate) {
+        this.userCounterRepository = userCounterRepository;
+        this.challengeUserRepository = challengeUserRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void onWasteLogged(Integer userId, WasteType type, double grams) {
+        record(userId, BadgeRule.Counter.WASTE_GRAMS, type.getName().toUpperCase(Locale.ROOT), grams);
+    }
+
+    public void onLikeGiven(Integer userId) {
+        record(userId, BadgeRule.Counter.LIKES_GIVEN, null, 1);
+    }
+
+    public void onCommentWritten(Integer userId) {
+        record(userId, BadgeRule.Counter.COMMENTS_WRITTEN, null, 1);
+    }
+
+    /**
+     * Awards {@value #TOP_CHALLENGER} to the users with the highest amounts in a challenge that just ended.
+     */
+    public void onChallengeEnded(Integer challengeId) {
+        List<Award> awards = challengeUserRepository
+                .findByIdChallengeIdOrderByAmountDesc(challengeId, PageRequest.of(0, TOP_CHALLENGER_COUNT))
+                .stream()
+                .map(ChallengeUser::getId)
+                .map(id -> new Award(TOP_CHALLENGER, id.getUserId()))
+                .toList();
+        award(awards);
+    }
+
+    private void record(Integer userId, BadgeRule.Counter counter, String scope, double delta) {
+        if (delta == 0) {
+            return;
+        }
+        String key = counter.key(scope);
+        userCounterRepository.add(userId, key, delta);
+        double after = userCounterRepository.findTotal(userId, key);
+        double before = after - delta;
+
+        List<Award> awards = Collections.emptyList();
+        for (BadgeRule rule : RULES) {
+            if (rule.counter() == counter && rule.crossedBy(before, after)) {
+                if (awards.isEmpty()) {
+                    awards = new ArrayList<>();
+                }
+                awards.add(new Award(rule.badgeName(scope), userId));
+            }
+        }
+        award(awards);
+    }
+
+    private void award(List<Award> awards) {
+        if (awards.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO badge (name, user_id) VALUES ");
+        Object[] args = new Object[awards.size() * 2];
+        for (int i = 0; i < awards.size(); i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+            args[2 * i] = awards.get(i).name();
+            args[2 * i + 1] = awards.get(i).userId();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private record Award(String name, Integer userId) {
+    }
+}
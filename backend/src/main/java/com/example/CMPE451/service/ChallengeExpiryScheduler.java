@@ -0,0 +1,34 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.Challenge;
+import com.example.CMPE451.repository.ChallengeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Ends active challenges once their end date has passed. Each challenge ends in its own transaction through
+ * {@link ChallengeService#expireChallenge}, so it gets the same badge awards as one ended by hand.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChallengeExpiryScheduler {
+
+    private final ChallengeRepository challengeRepository;
+    private final ChallengeService challengeService;
+
+    @Scheduled(fixedDelayString = "${challenge.expiry-check-interval-ms:3600000}", initialDelay = 0)
+    public void endExpiredChallenges() {
+        for (Integer id : challengeRepository.findIdsByStatusAndEndDateBefore(Challenge.Status.Active, LocalDate.now())) {
+            try {
+                if (challengeService.expireChallenge(id)) {
+                    System.out.println("Ended expired challenge " + id);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to end expired challenge " + id + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -31,6 +31,7 @@ public class ChallengeService {
     private final WasteTypeRepository wasteTypeRepository;
     private final ActivityLogger activityLogger;
     private final WasteItemRepository wasteItemRepository;
+    private final BadgeService badgeService;
 
 
     @Autowired
@@ -68,9 +69,13 @@ public class ChallengeService {
             throw new NotFoundException("Challenge with ID " + id + " not found.");
         }
         Challenge challenge = optionalChallenge.get();
+        boolean alreadyEnded = challenge.getStatus() == Challenge.Status.Ended;
         challenge.setStatus(Challenge.Status.Ended);
         challenge.setEndDate(LocalDate.now());
         challengeRepository.saveAndFlush(challenge);
+        if (!alreadyEnded) {
+            badgeService.onChallengeEnded(challenge.getChallengeId());
+        }
 
         List<String> users = getUsernamesForChallenge(id);
 
@@ -79,12 +84,25 @@ public class ChallengeService {
                 null, null,
                 "Challenge", challenge.getChallengeId(),
                 "Users", users,
-                challenge.getName(), ""
+                challenge.getName()
         );
 
         return new EndChallengeResponse(challenge.getChallengeId(), true);
     }
 
+    /**
+     * Ends an active challenge whose end date has passed and awards its badges. Returns false if it was no longer
+     * active.
+     */
+    @Transactional
+    public boolean expireChallenge(int id) {
+        if (challengeRepository.updateStatusIf(id, Challenge.Status.Active, Challenge.Status.Ended) == 0) {
+            return false;
+        }
+        badgeService.onChallengeEnded(id);
+        return true;
+    }
+
     @Transactional
     public AttendChallengeResponse attendChallenge(AttendChallengeRequest request,Integer id) {
         User user = userRepository.findByUsername(request.getUsername())
@@ -28,6 +28,9 @@ public class CommentService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final ActivityLogger activityLogger;
+    private final HotRankingService hotRankingService;
+    private final InterestService interestService;
+    private final BadgeService badgeService;
 
 
 
@@ -46,13 +49,16 @@ public class CommentService {
         comment.setCreatedAt(Timestamp.from(Instant.now()));
 
         Comment savedComment = commentRepository.save(comment);
+        hotRankingService.onCommentAdded(postId, savedComment.getCreatedAt());
+        badgeService.onCommentWritten(user.getId());
+        interestService.onInteraction(user.getId(), postId, post.getContent(), InterestService.Interaction.COMMENT);
 
         activityLogger.logAction(
                 "Create",
                 "User", user.getUsername(),
                 "Comment", postId,
                 "User", post.getUser().getUsername(),
-                getFirst255Characters(request.getContent()), user.getProfile().getPhotoUrl()
+                getFirst255Characters(request.getContent())
         );
 
         return convertToResponse(savedComment);
@@ -74,6 +80,7 @@ public class CommentService {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new InvalidCredentialsException("Comment not found with id: " + commentId));
         commentRepository.delete(comment);
+        hotRankingService.onCommentRemoved(comment.getPost().getPostId(), comment.getCreatedAt());
         return Map.of("success", true);
     }
 
@@ -1,24 +1,198 @@
 package com.example.CMPE451.service;
 
 import ai.djl.inference.Predictor;
-import ai.djl.translate.TranslateException;
+import ai.djl.repository.zoo.ZooModel;
+import com.example.CMPE451.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Sentence embeddings through a pool of model workers.
+ * <p>
+ * DJL predictors are not thread-safe, so every worker thread owns one. Callers enqueue their text on a bounded
+ * queue; a worker takes the first waiting request, keeps collecting until it has {@code embedding.max-batch-size}
+ * requests or {@code embedding.max-wait-micros} have passed, and runs them as one {@code batchPredict}. A full
+ * queue pushes back on callers for {@code embedding.enqueue-timeout-ms} and then fails fast with a 503, and
+ * callers give up after {@code embedding.request-timeout-ms}; abandoned requests are skipped by the workers.
+ */
 @Service
 public class EmbeddingService {
 
-    private final Predictor<String, float[]> predictor;
+    /**
+     * One worker's private handle on the model.
+     */
+    public interface Embedder extends AutoCloseable {
+        List<float[]> embed(List<String> texts) throws Exception;
+
+        @Override
+        default void close() {
+        }
+    }
+
+    private record Request(String text, CompletableFuture<float[]> result) {
+    }
+
+    private final BlockingQueue<Request> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long enqueueTimeoutNanos;
+    private final long requestTimeoutNanos;
+    private volatile boolean running = true;
 
-    public EmbeddingService(Predictor<String, float[]> predictor) {
-        this.predictor = predictor;
+    @Autowired
+    public EmbeddingService(ZooModel<String, float[]> model,
+                            @Value("${embedding.workers:0}") int workers,
+                            @Value("${embedding.max-batch-size:16}") int maxBatchSize,
+                            @Value("${embedding.max-wait-micros:500}") long maxWaitMicros,
+                            @Value("${embedding.queue-capacity:1024}") int queueCapacity,
+                            @Value("${embedding.enqueue-timeout-ms:200}") long enqueueTimeoutMillis,
+                            @Value("${embedding.request-timeout-ms:10000}") long requestTimeoutMillis) {
+        this(() -> predictorEmbedder(model.newPredictor()), workers, maxBatchSize, maxWaitMicros, queueCapacity,
+                enqueueTimeoutMillis, requestTimeoutMillis);
     }
 
+    /**
+     * @param workers number of worker threads, or 0 for half the available cores
+     */
+    public EmbeddingService(Supplier<Embedder> embedders,
+                            int workers,
+                            int maxBatchSize,
+                            long maxWaitMicros,
+                            int queueCapacity,
+                            long enqueueTimeoutMillis,
+                            long requestTimeoutMillis) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.enqueueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMillis);
+        this.requestTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(requestTimeoutMillis);
+
+        int count = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        for (int i = 0; i < count; i++) {
+            Thread worker = new Thread(() -> work(embedders), "embedding-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            this.workers.add(worker);
+        }
+    }
+
+    private static Embedder predictorEmbedder(Predictor<String, float[]> predictor) {
+        return new Embedder() {
+            @Override
+            public List<float[]> embed(List<String> texts) throws Exception {
+                return predictor.batchPredict(texts);
+            }
+
+            @Override
+            public void close() {
+                predictor.close();
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        Request pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new ServiceUnavailableException("Embedding service is shutting down"));
+        }
+    }
 
     public float[] createEmbedding(String text) {
+        CompletableFuture<float[]> result = submit(text);
+        try {
+            return result.get(requestTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new ServiceUnavailableException("Timed out waiting for an embedding");
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for an embedding");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Failed to create embedding", e.getCause());
+        }
+    }
+
+    /**
+     * Enqueues a text without waiting for its embedding.
+     */
+    public CompletableFuture<float[]> submit(String text) {
+        Request request = new Request(text, new CompletableFuture<>());
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(request, enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            throw new ServiceUnavailableException("Embedding queue is full, try again later");
+        }
+        return request.result();
+    }
+
+    private void work(Supplier<Embedder> embedders) {
+        try (Embedder embedder = embedders.get()) {
+            List<Request> batch = new ArrayList<>(maxBatchSize);
+            while (running) {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    Request next = queue.poll();
+                    if (next == null) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0 || (next = queue.poll(remaining, TimeUnit.NANOSECONDS)) == null) {
+                            break;
+                        }
+                    }
+                    batch.add(next);
+                }
+                run(embedder, batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Embedding worker " + Thread.currentThread().getName() + " stopped: " + e.getMessage());
+        }
+    }
+
+    private void run(Embedder embedder, List<Request> batch) {
+        // Requests whose caller already gave up are not worth a forward pass.
+        batch.removeIf(request -> request.result().isDone());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            texts.add(request.text());
+        }
         try {
-            return predictor.predict(text);
-        } catch (TranslateException e) {
-            throw new RuntimeException("Failed to create embedding", e);
+            List<float[]> embeddings = embedder.embed(texts);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(embeddings.get(i));
+            }
+        } catch (Exception e) {
+            RuntimeException failure = new RuntimeException("Failed to create embedding", e);
+            batch.forEach(request -> request.result().completeExceptionally(failure));
         }
     }
-}
\ No newline at end of file
+}
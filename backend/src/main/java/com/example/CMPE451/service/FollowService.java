@@ -25,6 +25,7 @@ public class FollowService {
     private final UserRepository userRepository;
     private final FollowRepository followRepository;
     private final ActivityLogger activityLogger;
+    private final TimelineService timelineService;
 
 
     private User findUserByUsername(String username) {
@@ -46,13 +47,14 @@ public class FollowService {
         Follow follow = new Follow(follower, following);
         followRepository.saveAndFlush(follow);
         Integer newFollowerCount = followRepository.countByFollowing(following);
+        timelineService.onFollowChanged(followerUser);
 
         activityLogger.logAction(
                 "Follow",
                 "User", follower.getUsername(),
                 "User", follower.getUsername(),
                 "User", following.getUsername(),
-                null, follower.getProfile().getPhotoUrl()
+                null
         );
 
         return new FollowingFeatureResponse(followerUser,followingUser,newFollowerCount);
@@ -69,6 +71,7 @@ public class FollowService {
         followRepository.delete(follow);
         followRepository.flush();
         Integer newFollowerCount = followRepository.countByFollowing(following);
+        timelineService.onFollowChanged(followerUsername);
 
         return new FollowingFeatureResponse(followerUsername,followingUserName, newFollowerCount);
 
@@ -1,18 +1,17 @@
 package com.example.CMPE451.service;
 
 
+import com.example.CMPE451.exception.BadRequestException;
 import com.example.CMPE451.exception.InvalidCredentialsException;
 import com.example.CMPE451.exception.NotFoundException;
-import com.example.CMPE451.model.Post;
 import com.example.CMPE451.model.User;
 import com.example.CMPE451.model.response.GetPostResponse;
 import com.example.CMPE451.model.wikidata.SparqlBindingValue;
 import com.example.CMPE451.model.wikidata.SparqlResponse;
 import com.example.CMPE451.model.wikidata.WikidataSearchResult;
-import com.example.CMPE451.repository.PostLikeRepository;
-import com.example.CMPE451.repository.PostRepository;
-import com.example.CMPE451.repository.SavedPostRepository;
+import com.example.CMPE451.repository.PostCardRepository;
 import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.search.InvertedIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,11 +27,12 @@ import static org.hibernate.internal.util.collections.CollectionHelper.listOf;
 @RequiredArgsConstructor
 public class ForumSearchService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     //private final WikidataLookUpService wikidataLookUpService;
-    private final PostRepository postRepository;
+    private final PostCardRepository postCardRepository;
     private final UserRepository userRepository;
-    private final PostLikeRepository postLikeRepository;
-    private final SavedPostRepository savedPostRepository;
+    private final KeywordIndexService keywordIndexService;
 
 
 
@@ -71,7 +71,14 @@ public class ForumSearchService {
             LIMIT 150
             """; */
 
-    public List<GetPostResponse> searchPostsSemantic(String query, String language, String username) {
+    /**
+     * Returns page {@code page} of the posts matching {@code query}, best BM25 match first. Until the keyword index
+     * has finished loading this falls back to substring matching, newest first.
+     */
+    public List<GetPostResponse> searchPostsSemantic(String query, String language, String username, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
         Integer requestingUserId = null;
         if (username != null) {
             User requestingUser = userRepository.findByUsername(username)
@@ -82,6 +89,14 @@ public class ForumSearchService {
         if (trimmedQuery.isEmpty()) {
             throw new InvalidCredentialsException("Null Query");
         }
+        if (keywordIndexService.isReady()) {
+            InvertedIndex.Page hits = keywordIndexService.search(trimmedQuery, page * size, size);
+            List<Integer> postIds = hits.hits().stream().map(InvertedIndex.Hit::postId).toList();
+            if (postIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return postCardRepository.findCardsInOrder(requestingUserId, postIds);
+        }
         Set<String> keywords = new HashSet<>();
         keywords.add(trimmedQuery.toLowerCase());
         //Optional<WikidataSearchResult> coreEntityOpt = Optional.empty();
@@ -115,7 +130,9 @@ public class ForumSearchService {
         //        keywords.addAll(relatedLabels);
         //    }
         //}
-        return searchPostsByKeywordSet(keywords,requestingUserId);
+        List<GetPostResponse> matches = searchPostsByKeywordSet(keywords,requestingUserId);
+        int from = Math.min(matches.size(), page * size);
+        return matches.subList(from, Math.min(matches.size(), from + size));
     }
 
     private Set<String> extractLabelsFromSparqlResponse(SparqlResponse sparqlResponse) {
@@ -140,56 +157,16 @@ public class ForumSearchService {
             return Collections.emptyList();
         }
 
-        Set<Post> resultSet = new HashSet<>();
+        Map<Integer, GetPostResponse> resultSet = new HashMap<>();
         for (String term : keywords) {
             if (term.length() < 2) continue;
-            List<Post> postsFound = postRepository.findByContentContainingIgnoreCase(term);
-            if (!postsFound.isEmpty()) {
-                resultSet.addAll(postsFound);
+            for (GetPostResponse card : postCardRepository.findCardsByContent(userId, term)) {
+                resultSet.putIfAbsent(card.getPostId(), card);
             }
         }
-        return resultSet.stream()
-                .filter(Objects::nonNull)
-                .sorted(Comparator.comparing(Post::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
-                .map(post -> convertToGetPostsResponse(post, userId))
+        return resultSet.values().stream()
+                .sorted(Comparator.comparing(GetPostResponse::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
                 .collect(Collectors.toList());
     }
 
-    private GetPostResponse convertToGetPostsResponse(Post post, Integer requestingUserId) {
-        if (post == null) {
-            return null;
-        }
-
-        String creatorUsername = (post.getUser() != null) ? post.getUser().getUsername() : null;
-
-        boolean isLiked = false;
-        boolean isSaved = false;
-
-        if (requestingUserId != null) {
-            Set<Integer> likedPostIds = postLikeRepository.findLikedPostIdsByUserIdAndPostIdIn(
-                    requestingUserId,
-                    List.of(post.getPostId())
-            );
-            Set<Integer> savedPostIds = savedPostRepository.findSavedPostIdsByUserIdAndPostIdIn(
-                    requestingUserId,
-                    List.of(post.getPostId())
-            );
-            isLiked = likedPostIds.contains(post.getPostId());
-            isSaved = savedPostIds.contains(post.getPostId());
-        }
-
-        return new GetPostResponse(
-                post.getPostId(),
-                post.getContent(),
-                post.getCreatedAt(),
-                post.getLikes(),
-                creatorUsername,
-                post.getPhotoUrl(),
-                post.getComments(),
-                isLiked,
-                isSaved,
-                post.getUser().getProfile().getPhotoUrl()
-        );
-    }
-
 }
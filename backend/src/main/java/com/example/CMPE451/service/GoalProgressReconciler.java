@@ -0,0 +1,60 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.GoalTotalDrift;
+import com.example.CMPE451.repository.WasteGoalRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Periodically checks the running {@code total_grams} of every goal against the sum of its logs and repairs the
+ * ones that drifted, e.g. through rows written outside {@link WasteLogService}. Goals are compared in id ranges
+ * of {@code waste-goal.reconcile-chunk-size}; a repair only applies if no log touched the goal since it was read,
+ * and a goal skipped that way is checked again on the next run. A run at startup fills in the totals of goals
+ * whose logs were loaded straight into the database, such as the seed data, which start at zero.
+ */
+@Service
+public class GoalProgressReconciler {
+
+    private final WasteGoalRepository wasteGoalRepository;
+    private final int chunkSize;
+
+    public GoalProgressReconciler(WasteGoalRepository wasteGoalRepository,
+                                  @Value("${waste-goal.reconcile-chunk-size:1000}") int chunkSize) {
+        this.wasteGoalRepository = wasteGoalRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            System.err.println("Waste goal reconciliation at startup failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns how many goals were repaired.
+     */
+    @Scheduled(cron = "${waste-goal.reconcile-cron:0 30 3 * * *}")
+    public int reconcile() {
+        Integer maxGoalId = wasteGoalRepository.findMaxGoalId();
+        if (maxGoalId == null) {
+            return 0;
+        }
+        int repaired = 0;
+        for (int from = 1; from <= maxGoalId; from += chunkSize) {
+            for (GoalTotalDrift drift : wasteGoalRepository.findTotalDrift(from, from + chunkSize - 1)) {
+                repaired += wasteGoalRepository.replaceTotal(drift.getGoalId(), drift.getStoredGrams(),
+                        drift.getActualGrams());
+            }
+        }
+        if (repaired > 0) {
+            System.out.println("Repaired the progress of " + repaired + " waste goals");
+        }
+        return repaired;
+    }
+}
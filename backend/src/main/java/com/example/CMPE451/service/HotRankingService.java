@@ -0,0 +1,335 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.PostActivity;
+import com.example.CMPE451.repository.CommentRepository;
+import com.example.CMPE451.repository.PostLikeRepository;
+import com.example.CMPE451.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Time-decayed "hot" ranking kept entirely in memory.
+ * <p>
+ * Every post creation, like and comment contributes {@code weight * 2^((t - epoch) / halfLife)} to the post's
+ * score. Because all contributions grow at the same rate, comparing these scores is the same as comparing the
+ * decayed scores at "now", so nothing has to be recomputed as time passes; the epoch is only moved forward when
+ * the exponents get large. Scores are indexed in a skip list so the top-K read never touches MySQL.
+ * <p>
+ * A rebuild replays the recent activity from MySQL at startup and then periodically, which also picks up activity
+ * recorded by other instances. The queries run outside the monitor, so every change applied while they run is
+ * recorded and replayed onto the new ranking before it is swapped in. A recorded addition that the queries already
+ * returned, matched by kind, post and time, is not counted again; a recorded removal only takes off what the new
+ * ranking still counts.
+ */
+@Service
+public class HotRankingService {
+
+    private static final double RESCALE_AFTER_HALF_LIVES = 512;
+    // Activity times read back from MySQL may be rounded to the second.
+    private static final long SAME_ACTIVITY_MILLIS = 1000;
+
+    private enum Kind { POST, LIKE, COMMENT }
+
+    /**
+     * One change applied live: an addition or removal of a post, like or comment, or with a null kind the
+     * deletion of the post itself.
+     */
+    private record Change(Kind kind, Integer postId, Timestamp at, boolean added) {
+    }
+
+    private final PostRepository postRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final CommentRepository commentRepository;
+
+    private final double halfLifeMillis;
+    private final double postWeight;
+    private final double likeWeight;
+    private final double commentWeight;
+    private final int maxTracked;
+    private final int rebuildWindowDays;
+
+    // Replaced as a whole by a rebuild or rescale, so lock-free readers never see it half cleared.
+    private volatile Ranking ranking = new Ranking(new ConcurrentHashMap<>(), new ConcurrentSkipListSet<>());
+    private long epochMillis = System.currentTimeMillis();
+    private final List<List<Change>> recordings = new ArrayList<>();
+    private volatile boolean ready;
+
+    public HotRankingService(PostRepository postRepository,
+                             PostLikeRepository postLikeRepository,
+                             CommentRepository commentRepository,
+                             @Value("${ranking.hot.half-life-hours:24}") double halfLifeHours,
+                             @Value("${ranking.hot.post-weight:1}") double postWeight,
+                             @Value("${ranking.hot.like-weight:1}") double likeWeight,
+                             @Value("${ranking.hot.comment-weight:2}") double commentWeight,
+                             @Value("${ranking.hot.max-tracked:100000}") int maxTracked,
+                             @Value("${ranking.hot.rebuild-window-days:30}") int rebuildWindowDays) {
+        this.postRepository = postRepository;
+        this.postLikeRepository = postLikeRepository;
+        this.commentRepository = commentRepository;
+        this.halfLifeMillis = halfLifeHours * 3_600_000d;
+        this.postWeight = postWeight;
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.maxTracked = maxTracked;
+        this.rebuildWindowDays = rebuildWindowDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("Hot ranking rebuild failed, falling back to likes ordering: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays the recent posts, likes and comments from MySQL. Activity older than the rebuild window has
+     * decayed by {@code 2^(window / halfLife)} and is ignored.
+     */
+    @Scheduled(fixedDelayString = "${ranking.hot.rebuild-interval-ms:3600000}",
+            initialDelayString = "${ranking.hot.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        List<Change> missed = new ArrayList<>();
+        synchronized (this) {
+            recordings.add(missed);
+        }
+        try {
+            Timestamp since = new Timestamp(System.currentTimeMillis() - rebuildWindowDays * 86_400_000L);
+            List<PostActivity> posts = postRepository.findCreatedSince(since);
+            List<PostActivity> likes = postLikeRepository.findLikedSince(since);
+            List<PostActivity> comments = commentRepository.findCommentedSince(since);
+
+            synchronized (this) {
+                epochMillis = System.currentTimeMillis();
+                // Likes and comments count for older posts too, as they do when they arrive live; the window only
+                // bounds which activity is replayed.
+                Map<Integer, Double> replayed = new HashMap<>();
+                posts.forEach(activity -> replayed.merge(activity.getPostId(), contribution(postWeight, activity.getOccurredAt()), Double::sum));
+                likes.forEach(activity -> replayed.merge(activity.getPostId(), contribution(likeWeight, activity.getOccurredAt()), Double::sum));
+                comments.forEach(activity -> replayed.merge(activity.getPostId(), contribution(commentWeight, activity.getOccurredAt()), Double::sum));
+                Ranking rebuilt = ranked(replayed);
+                replay(rebuilt, missed, Map.of(Kind.POST, posts, Kind.LIKE, likes, Kind.COMMENT, comments));
+                ranking = rebuilt;
+                ready = true;
+            }
+        } finally {
+            synchronized (this) {
+                recordings.removeIf(recording -> recording == missed);
+            }
+        }
+    }
+
+    /**
+     * Applies the changes recorded during a rebuild to the ranking it built from {@code read}, skipping those the
+     * queries already saw.
+     */
+    private void replay(Ranking rebuilt, List<Change> missed, Map<Kind, List<PostActivity>> read) {
+        Set<Integer> touched = new HashSet<>();
+        missed.forEach(change -> touched.add(change.postId()));
+        // Activity counted in the new ranking, per kind and post: first as read, then as matched or replayed.
+        Map<String, List<Long>> unmatched = new HashMap<>();
+        Map<String, List<Long>> matched = new HashMap<>();
+        read.forEach((kind, activities) -> activities.stream()
+                .filter(activity -> touched.contains(activity.getPostId()))
+                .forEach(activity -> unmatched.computeIfAbsent(kind + ":" + activity.getPostId(), key -> new ArrayList<>())
+                        .add(millis(activity.getOccurredAt()))));
+        for (Change change : missed) {
+            if (change.kind() == null) {
+                remove(rebuilt, change.postId());
+                continue;
+            }
+            String key = change.kind() + ":" + change.postId();
+            long at = millis(change.at());
+            if (change.added()) {
+                if (!take(unmatched, key, at)) {
+                    apply(rebuilt, change.postId(), contribution(weight(change.kind()), change.at()), true);
+                }
+                matched.computeIfAbsent(key, k -> new ArrayList<>()).add(at);
+            } else if (take(matched, key, at) || take(unmatched, key, at)) {
+                apply(rebuilt, change.postId(), -contribution(weight(change.kind()), change.at()), false);
+            }
+        }
+    }
+
+    private static boolean take(Map<String, List<Long>> activity, String key, long at) {
+        List<Long> times = activity.get(key);
+        if (times == null) {
+            return false;
+        }
+        for (Iterator<Long> it = times.iterator(); it.hasNext(); ) {
+            if (Math.abs(it.next() - at) < SAME_ACTIVITY_MILLIS) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void onPostCreated(Integer postId, Timestamp createdAt) {
+        afterCommit(() -> record(new Change(Kind.POST, postId, createdAt, true)));
+    }
+
+    public void onPostDeleted(Integer postId) {
+        afterCommit(() -> record(new Change(null, postId, null, false)));
+    }
+
+    public void onLikeAdded(Integer postId, Timestamp likedAt) {
+        afterCommit(() -> record(new Change(Kind.LIKE, postId, likedAt, true)));
+    }
+
+    public void onLikeRemoved(Integer postId, Timestamp likedAt) {
+        afterCommit(() -> record(new Change(Kind.LIKE, postId, likedAt, false)));
+    }
+
+    public void onCommentAdded(Integer postId, Timestamp createdAt) {
+        afterCommit(() -> record(new Change(Kind.COMMENT, postId, createdAt, true)));
+    }
+
+    public void onCommentRemoved(Integer postId, Timestamp createdAt) {
+        afterCommit(() -> record(new Change(Kind.COMMENT, postId, createdAt, false)));
+    }
+
+    /**
+     * Returns up to {@code limit} post ids, hottest first. Reads are lock-free; an entry superseded by a
+     * concurrent update is skipped by checking it against the current score.
+     */
+    public List<Integer> topPostIds(int limit) {
+        List<Integer> top = new ArrayList<>(Math.min(limit, 256));
+        Ranking ranking = this.ranking;
+        Map<Integer, Double> scores = ranking.scores();
+        for (RankedPost entry : ranking.entries()) {
+            if (top.size() >= limit) {
+                break;
+            }
+            Double current = scores.get(entry.postId());
+            if (current != null && current == entry.score()) {
+                top.add(entry.postId());
+            }
+        }
+        return top;
+    }
+
+    private synchronized void record(Change change) {
+        for (List<Change> recording : recordings) {
+            recording.add(change);
+        }
+        if (change.kind() == null) {
+            remove(ranking, change.postId());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if ((now - epochMillis) / halfLifeMillis > RESCALE_AFTER_HALF_LIVES) {
+            rescale(now);
+        }
+        double contribution = contribution(weight(change.kind()), change.at());
+        apply(ranking, change.postId(), change.added() ? contribution : -contribution, change.added());
+    }
+
+    private double weight(Kind kind) {
+        return switch (kind) {
+            case POST -> postWeight;
+            case LIKE -> likeWeight;
+            case COMMENT -> commentWeight;
+        };
+    }
+
+    private static void remove(Ranking ranking, Integer postId) {
+        Double score = ranking.scores().remove(postId);
+        if (score != null) {
+            ranking.entries().remove(new RankedPost(score, postId));
+        }
+    }
+
+    private void apply(Ranking ranking, Integer postId, double delta, boolean track) {
+        Map<Integer, Double> scores = ranking.scores();
+        NavigableSet<RankedPost> entries = ranking.entries();
+        Double old = scores.get(postId);
+        if (old == null && !track) {
+            // Activity on a post that was evicted or is outside the window; its remaining score is negligible.
+            return;
+        }
+        double updated = (old == null ? 0 : old) + delta;
+        if (old != null) {
+            entries.remove(new RankedPost(old, postId));
+        }
+        scores.put(postId, updated);
+        entries.add(new RankedPost(updated, postId));
+
+        while (scores.size() > maxTracked) {
+            RankedPost coldest = entries.pollLast();
+            if (coldest == null) {
+                break;
+            }
+            scores.remove(coldest.postId());
+        }
+    }
+
+    private void rescale(long now) {
+        double halfLives = Math.floor((now - epochMillis) / halfLifeMillis);
+        double factor = Math.pow(2, -halfLives);
+        epochMillis += (long) (halfLives * halfLifeMillis);
+        Map<Integer, Double> scaled = new HashMap<>(ranking.scores());
+        scaled.replaceAll((postId, score) -> score * factor);
+        ranking = ranked(scaled);
+    }
+
+    /**
+     * A ranking of {@code scores}, keeping only the {@code maxTracked} hottest posts.
+     */
+    private Ranking ranked(Map<Integer, Double> scores) {
+        Map<Integer, Double> tracked = new ConcurrentHashMap<>(scores);
+        NavigableSet<RankedPost> entries = new ConcurrentSkipListSet<>();
+        tracked.forEach((postId, score) -> entries.add(new RankedPost(score, postId)));
+        for (int excess = tracked.size() - maxTracked; excess > 0; excess--) {
+            tracked.remove(entries.pollLast().postId());
+        }
+        return new Ranking(tracked, entries);
+    }
+
+    private double contribution(double weight, Timestamp at) {
+        return weight * Math.pow(2, (millis(at) - epochMillis) / halfLifeMillis);
+    }
+
+    private static long millis(Timestamp at) {
+        return at == null ? System.currentTimeMillis() : at.getTime();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Ranking(Map<Integer, Double> scores, NavigableSet<RankedPost> entries) {
+    }
+
+    record RankedPost(double score, Integer postId) implements Comparable<RankedPost> {
+        @Override
+        public int compareTo(RankedPost other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Integer.compare(other.postId, postId);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.BadRequestException;
+import com.example.CMPE451.exception.InvalidCredentialsException;
+import com.example.CMPE451.exception.NotFoundException;
+import com.example.CMPE451.model.SearchCursor;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.request.SearchFilterRequest;
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.model.response.SearchPageResponse;
+import com.example.CMPE451.model.response.SearchResultResponse;
+import com.example.CMPE451.repository.FollowRepository;
+import com.example.CMPE451.repository.PostCardRepository;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.search.InvertedIndex;
+import com.example.CMPE451.vector.VectorFilter;
+import com.example.CMPE451.vector.VectorIndex;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Forum search that combines the BM25 keyword index with Qdrant vector search.
+ * <p>
+ * The vector leg (embedding plus Qdrant) runs on a small pool while the keyword leg runs on the request thread,
+ * so a query costs roughly the slower leg rather than both. The two rankings are merged with reciprocal rank
+ * fusion, {@code score = sum over legs of 1 / (k + rank)}, which needs no score calibration between BM25 and
+ * cosine similarity. A leg that fails or exceeds its timeout is left out and the page is marked partial.
+ * <p>
+ * Pages are cut from the fused list by a {@code (score, postId)} cursor, so each request is stateless. Each leg
+ * contributes at most {@code search.hybrid.candidates} posts, which bounds how deep the pages go.
+ * <p>
+ * Author, date and photo filters are pushed into both legs: Qdrant filters on the vector payload and the keyword
+ * index skips non-matching posts while scoring, so each leg still returns a full candidate list however selective
+ * the filter is.
+ */
+@Service
+public class HybridSearchService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    record Fused(int postId, double score, Integer keywordRank, Float keywordScore,
+                 Integer vectorRank, Float vectorScore) {
+    }
+
+    private final KeywordIndexService keywordIndexService;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final VectorIndex vectorIndex;
+    private final PostCardRepository postCardRepository;
+    private final UserRepository userRepository;
+    private final FollowRepository followRepository;
+    private final int rrfK;
+    private final int candidates;
+    private final long legTimeoutMs;
+    private final ExecutorService vectorExecutor;
+
+    public HybridSearchService(KeywordIndexService keywordIndexService,
+                               QueryEmbeddingCache queryEmbeddingCache,
+                               VectorIndex vectorIndex,
+                               PostCardRepository postCardRepository,
+                               UserRepository userRepository,
+                               FollowRepository followRepository,
+                               @Value("${search.hybrid.rrf-k:60}") int rrfK,
+                               @Value("${search.hybrid.candidates:100}") int candidates,
+                               @Value("${search.hybrid.leg-timeout-ms:2000}") long legTimeoutMs,
+                               @Value("${search.hybrid.threads:4}") int threads) {
+        this.keywordIndexService = keywordIndexService;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.vectorIndex = vectorIndex;
+        this.postCardRepository = postCardRepository;
+        this.userRepository = userRepository;
+        this.followRepository = followRepository;
+        this.rrfK = rrfK;
+        this.candidates = candidates;
+        this.legTimeoutMs = legTimeoutMs;
+        this.vectorExecutor = Executors.newFixedThreadPool(threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        vectorExecutor.shutdownNow();
+    }
+
+    public SearchPageResponse search(String query, String username, String cursor, int size) {
+        return search(query, username, cursor, size, SearchFilterRequest.none());
+    }
+
+    public SearchPageResponse search(String query, String username, String cursor, int size,
+                                     SearchFilterRequest filters) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String trimmedQuery = query == null ? "" : query.trim();
+        if (trimmedQuery.isEmpty()) {
+            throw new InvalidCredentialsException("Null Query");
+        }
+        SearchCursor position = cursor == null ? null : SearchCursor.decode(cursor);
+        Integer viewerId = null;
+        if (username != null) {
+            User viewer = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new NotFoundException("User not found: " + username));
+            viewerId = viewer.getId();
+        }
+        VectorFilter filter = toVectorFilter(filters, username);
+
+        Future<List<VectorIndex.ScoredPost>> vectorLeg = vectorExecutor.submit(() ->
+                vectorIndex.search(queryEmbeddingCache.embed(trimmedQuery), candidates, filter));
+        boolean partial = false;
+        List<InvertedIndex.Hit> keywordHits = List.of();
+        if (keywordIndexService.isReady()) {
+            if (!filter.matchesNothing()) {
+                keywordHits = keywordIndexService.search(trimmedQuery, 0, candidates, filter).hits();
+            }
+        } else {
+            partial = true;
+        }
+        List<VectorIndex.ScoredPost> vectorHits = List.of();
+        try {
+            vectorHits = vectorLeg.get(legTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            vectorLeg.cancel(true);
+            Thread.currentThread().interrupt();
+            partial = true;
+        } catch (ExecutionException | TimeoutException e) {
+            vectorLeg.cancel(true);
+            System.err.println("Vector search leg skipped for hybrid search: " + e);
+            partial = true;
+        }
+
+        List<Fused> ranked = fuse(keywordHits, vectorHits, rrfK);
+        List<Fused> page = new ArrayList<>(size);
+        boolean more = false;
+        for (Fused fused : ranked) {
+            if (position != null && !position.isBefore(fused.score(), fused.postId())) {
+                continue;
+            }
+            if (page.size() == size) {
+                more = true;
+                break;
+            }
+            page.add(fused);
+        }
+
+        Map<Integer, GetPostResponse> cards = postCardRepository
+                .findCardsInOrder(viewerId, page.stream().map(Fused::postId).toList()).stream()
+                .collect(Collectors.toMap(GetPostResponse::getPostId, Function.identity()));
+        List<SearchResultResponse> results = new ArrayList<>(page.size());
+        for (Fused fused : page) {
+            GetPostResponse card = cards.get(fused.postId());
+            if (card != null) {
+                results.add(new SearchResultResponse(card, fused.score(), fused.keywordRank(), fused.keywordScore(),
+                        fused.vectorRank(), fused.vectorScore()));
+            }
+        }
+        String nextCursor = null;
+        if (more) {
+            Fused last = page.get(page.size() - 1);
+            nextCursor = new SearchCursor(last.score(), last.postId()).encode();
+        }
+        return new SearchPageResponse(results, nextCursor, partial);
+    }
+
+    private VectorFilter toVectorFilter(SearchFilterRequest filters, String username) {
+        Set<Integer> authorIds = null;
+        if (filters.isFollowing()) {
+            if (username == null) {
+                throw new BadRequestException("username is required to search posts from followed users");
+            }
+            authorIds = new HashSet<>(followRepository.findFollowingUserIds(username));
+        }
+        if (filters.getAuthorId() != null) {
+            authorIds = authorIds == null || authorIds.contains(filters.getAuthorId())
+                    ? Set.of(filters.getAuthorId())
+                    : Set.of();
+        }
+        Long from = filters.getFrom() == null ? null : Timestamp.valueOf(filters.getFrom()).getTime();
+        Long to = filters.getTo() == null ? null : Timestamp.valueOf(filters.getTo()).getTime();
+        return new VectorFilter(authorIds, from, to, filters.getHasPhoto());
+    }
+
+    /**
+     * Reciprocal rank fusion of the two legs with 1-based ranks, best first; ties go to the newer post.
+     */
+    static List<Fused> fuse(List<InvertedIndex.Hit> keywordHits, List<VectorIndex.ScoredPost> vectorHits, int k) {
+        Map<Integer, Fused> byPost = new HashMap<>();
+        for (int i = 0; i < keywordHits.size(); i++) {
+            InvertedIndex.Hit hit = keywordHits.get(i);
+            byPost.putIfAbsent(hit.postId(),
+                    new Fused(hit.postId(), 1.0 / (k + i + 1), i + 1, hit.score(), null, null));
+        }
+        for (int i = 0; i < vectorHits.size(); i++) {
+            VectorIndex.ScoredPost hit = vectorHits.get(i);
+            int rank = i + 1;
+            byPost.compute(hit.postId(), (postId, fused) -> fused == null
+                    ? new Fused(postId, 1.0 / (k + rank), null, null, rank, hit.score())
+                    : fused.vectorRank() != null ? fused
+                    : new Fused(postId, fused.score() + 1.0 / (k + rank), fused.keywordRank(), fused.keywordScore(),
+                    rank, hit.score()));
+        }
+        List<Fused> ranked = new ArrayList<>(byPost.values());
+        ranked.sort(Comparator.comparingDouble(Fused::score).reversed()
+                .thenComparing(Fused::postId, Comparator.reverseOrder()));
+        return ranked;
+    }
+}
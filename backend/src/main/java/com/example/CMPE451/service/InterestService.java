@@ -0,0 +1,228 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.BadRequestException;
+import com.example.CMPE451.exception.NotFoundException;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.UserInterest;
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.repository.PostCardRepository;
+import com.example.CMPE451.repository.UserInterestRepository;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.vector.VectorIndex;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user interest vectors and the "For You" feed built on them.
+ * <p>
+ * Liking, saving or commenting on a post moves the user's vector towards the post's embedding by
+ * {@code interest.alpha} times the interaction's weight, an exponentially weighted average updated in
+ * O(dimension) without revisiting older interactions. Updates run in the background after the interaction
+ * commits, so the request does not wait for the embedding. They are spread over {@code interest.update-threads}
+ * single-thread executors by user id, so updates of one user run in order and never race. Each executor queues at
+ * most {@code interest.update-queue-capacity} updates; beyond that an update is dropped and logged, which only
+ * leaves the vector one interaction behind.
+ * <p>
+ * The feed is an ANN query on the vector for {@code interest.candidate-factor} times the page size, re-ranked by
+ * similarity blended with an exponential recency decay. The user's own posts and posts they already liked are
+ * left out, and a page they leave short is filled up with the latest posts. Users with no interactions yet get the
+ * latest posts.
+ */
+@Service
+public class InterestService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    public enum Interaction {
+        LIKE(1.0),
+        COMMENT(1.5),
+        SAVE(2.0);
+
+        private final double weight;
+
+        Interaction(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final UserInterestRepository userInterestRepository;
+    private final UserRepository userRepository;
+    private final PostCardRepository postCardRepository;
+    private final PostEmbeddingStore embeddingStore;
+    private final VectorIndex vectorIndex;
+
+    private final double alpha;
+    private final int candidateFactor;
+    private final double recencyWeight;
+    private final double halfLifeMillis;
+
+    private final ThreadPoolExecutor[] updaters;
+
+    public InterestService(UserInterestRepository userInterestRepository,
+                           UserRepository userRepository,
+                           PostCardRepository postCardRepository,
+                           PostEmbeddingStore embeddingStore,
+                           VectorIndex vectorIndex,
+                           @Value("${interest.alpha:0.1}") double alpha,
+                           @Value("${interest.candidate-factor:4}") int candidateFactor,
+                           @Value("${interest.recency-weight:0.3}") double recencyWeight,
+                           @Value("${interest.recency-half-life-hours:48}") double halfLifeHours,
+                           @Value("${interest.update-threads:4}") int updateThreads,
+                           @Value("${interest.update-queue-capacity:1000}") int updateQueueCapacity) {
+        this.userInterestRepository = userInterestRepository;
+        this.userRepository = userRepository;
+        this.postCardRepository = postCardRepository;
+        this.embeddingStore = embeddingStore;
+        this.vectorIndex = vectorIndex;
+        this.alpha = alpha;
+        this.candidateFactor = candidateFactor;
+        this.recencyWeight = recencyWeight;
+        this.halfLifeMillis = halfLifeHours * 3_600_000;
+        this.updaters = new ThreadPoolExecutor[updateThreads];
+        for (int i = 0; i < updateThreads; i++) {
+            updaters[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(updateQueueCapacity),
+                    (task, executor) -> System.err.println("Interest update queue is full, dropping an update"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor updater : updaters) {
+            updater.shutdown();
+        }
+    }
+
+    /**
+     * Queues an update of the user's interest vector; it runs once the caller's transaction commits.
+     */
+    public void onInteraction(Integer userId, Integer postId, String content, Interaction interaction) {
+        Runnable update = () -> {
+            try {
+                apply(userId, postId, content, interaction);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to update interests of user " + userId + ": " + e.getMessage());
+            }
+        };
+        ThreadPoolExecutor updater = updaters[Math.floorMod(userId.hashCode(), updaters.length)];
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            updater.execute(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                updater.execute(update);
+            }
+        });
+    }
+
+    void apply(Integer userId, Integer postId, String content, Interaction interaction) {
+        float[] embedding = normalize(embeddingStore.embed(postId, content));
+        UserInterest interest = userInterestRepository.findById(userId).orElseGet(() -> new UserInterest(userId));
+        if (interest.getVector() == null) {
+            interest.setVector(embedding);
+        } else {
+            float[] vector = interest.vector();
+            float rate = (float) Math.min(1, alpha * interaction.weight);
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] += rate * (embedding[i] - vector[i]);
+            }
+            interest.setVector(vector);
+        }
+        interest.setInteractions(interest.getInteractions() + 1);
+        interest.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        userInterestRepository.save(interest);
+    }
+
+    public List<GetPostResponse> getForYou(String username, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + size);
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found: " + username));
+        Optional<UserInterest> interest = userInterestRepository.findById(user.getId());
+        if (interest.isEmpty()) {
+            return postCardRepository.findFeedCards(user.getId(), PageRequest.of(0, size));
+        }
+
+        Map<Integer, Float> similarity = new LinkedHashMap<>();
+        for (VectorIndex.ScoredPost hit : vectorIndex.search(interest.get().vector(), size * candidateFactor)) {
+            similarity.put(hit.postId(), hit.score());
+        }
+        long now = System.currentTimeMillis();
+        Map<Integer, Double> blended = new HashMap<>();
+        List<GetPostResponse> candidates = new ArrayList<>();
+        for (GetPostResponse card : postCardRepository.findCardsInOrder(user.getId(), List.copyOf(similarity.keySet()))) {
+            if (leftOut(card, username)) {
+                continue;
+            }
+            double age = Math.max(0, now - card.getCreatedAt().getTime());
+            double recency = Math.pow(0.5, age / halfLifeMillis);
+            blended.put(card.getPostId(),
+                    (1 - recencyWeight) * similarity.get(card.getPostId()) + recencyWeight * recency);
+            candidates.add(card);
+        }
+        candidates.sort(Comparator.comparingDouble((GetPostResponse card) -> -blended.get(card.getPostId())));
+        List<GetPostResponse> page = new ArrayList<>(candidates.subList(0, Math.min(size, candidates.size())));
+        if (page.size() < size) {
+            fillWithLatest(page, user.getId(), username, size);
+        }
+        return page;
+    }
+
+    /**
+     * Appends the latest posts not already on the page and not left out until it holds {@code size} posts or every
+     * post has been read.
+     */
+    private void fillWithLatest(List<GetPostResponse> page, Integer userId, String username, int size) {
+        Set<Integer> onPage = new HashSet<>();
+        page.forEach(card -> onPage.add(card.getPostId()));
+        List<GetPostResponse> latest = postCardRepository.findFeedCards(userId, PageRequest.of(0, size));
+        while (!latest.isEmpty()) {
+            for (GetPostResponse card : latest) {
+                if (!leftOut(card, username) && onPage.add(card.getPostId())) {
+                    page.add(card);
+                    if (page.size() == size) {
+                        return;
+                    }
+                }
+            }
+            if (latest.size() < size) {
+                return;
+            }
+            GetPostResponse last = latest.get(latest.size() - 1);
+            latest = postCardRepository.findFeedCardsAfter(userId, last.getCreatedAt(), last.getPostId(),
+                    PageRequest.of(0, size));
+        }
+    }
+
+    private static boolean leftOut(GetPostResponse card, String username) {
+        return card.isLiked() || username.equals(card.getCreatorUsername());
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] unit = vector.clone();
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < unit.length; i++) {
+                unit[i] *= scale;
+            }
+        }
+        return unit;
+    }
+}
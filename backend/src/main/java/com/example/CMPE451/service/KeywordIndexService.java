@@ -0,0 +1,206 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.PostText;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.search.InvertedIndex;
+import com.example.CMPE451.vector.PostPayload;
+import com.example.CMPE451.vector.VectorFilter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the in-process {@link InvertedIndex} in step with the posts table.
+ * <p>
+ * On startup the index is restored from its last snapshot and caught up with posts updated since, or rebuilt
+ * page by page if there is no usable snapshot. Writes on this node are applied as soon as they commit; writes on
+ * other nodes are picked up by the periodic refresh, which re-reads posts by {@code updated_at}. Posts deleted
+ * elsewhere may linger in the index until the next restart, which is harmless because search results are loaded
+ * from MySQL and missing posts drop out there.
+ */
+@Service
+public class KeywordIndexService {
+
+    // Re-read a little before the watermark so a transaction that committed late is not missed.
+    private static final long CATCH_UP_OVERLAP_MILLIS = 60_000;
+
+    private final PostRepository postRepository;
+    private final InvertedIndex index = new InvertedIndex();
+    private final Path snapshotFile;
+    private final int rebuildPageSize;
+
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    private volatile long watermark;
+
+    public KeywordIndexService(PostRepository postRepository,
+                               @Value("${search.index.snapshot-path:./app/search/keyword-index.bin}") String snapshotPath,
+                               @Value("${search.index.rebuild-page-size:5000}") int rebuildPageSize) {
+        this.postRepository = postRepository;
+        this.snapshotFile = Paths.get(snapshotPath);
+        this.rebuildPageSize = rebuildPageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            load();
+        } catch (Exception e) {
+            System.err.println("Keyword index load failed, falling back to LIKE search: " + e.getMessage());
+        }
+    }
+
+    void load() {
+        long started = System.currentTimeMillis();
+        boolean restored = false;
+        if (Files.isRegularFile(snapshotFile)) {
+            try {
+                watermark = index.readSnapshot(snapshotFile);
+                restored = true;
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable keyword index snapshot " + snapshotFile + ": " + e.getMessage());
+            }
+        }
+        if (restored) {
+            catchUp();
+            Set<Integer> existing = new HashSet<>(postRepository.findAllPostIds());
+            for (Integer postId : index.postIds()) {
+                if (!existing.contains(postId)) {
+                    index.remove(postId);
+                }
+            }
+        } else {
+            rebuild();
+        }
+        dirty = true;
+        ready = true;
+        System.out.println("Keyword index ready with " + index.size() + " posts in "
+                + (System.currentTimeMillis() - started) + " ms" + (restored ? " (from snapshot)" : ""));
+    }
+
+    private void rebuild() {
+        int afterId = 0;
+        List<PostText> page;
+        do {
+            page = postRepository.findTextsAfter(afterId, PageRequest.of(0, rebuildPageSize));
+            for (PostText text : page) {
+                apply(text);
+                afterId = text.getPostId();
+            }
+        } while (page.size() == rebuildPageSize);
+    }
+
+    private void catchUp() {
+        long previous = watermark;
+        for (PostText text : postRepository.findTextsUpdatedSince(new Timestamp(previous - CATCH_UP_OVERLAP_MILLIS))) {
+            apply(text);
+        }
+        if (watermark > previous) {
+            dirty = true;
+        }
+    }
+
+    private void apply(PostText text) {
+        put(text.getPostId(), text.getContent(), PostPayload.of(text));
+        if (text.getUpdatedAt() != null) {
+            watermark = Math.max(watermark, text.getUpdatedAt().getTime());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        try {
+            catchUp();
+        } catch (Exception e) {
+            System.err.println("Keyword index refresh failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        if (!ready || !dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            index.writeSnapshot(snapshotFile, watermark);
+        } catch (IOException e) {
+            dirty = true;
+            System.err.println("Failed to write keyword index snapshot: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public InvertedIndex.Page search(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    /**
+     * Ranks only the posts that pass {@code filter}; see {@link InvertedIndex#search(String, int, int, InvertedIndex.Filter)}.
+     */
+    public InvertedIndex.Page search(String query, int offset, int limit, VectorFilter filter) {
+        return index.search(query, offset, limit, filter.isEmpty() ? null : filter::matches);
+    }
+
+    /**
+     * Indexes a post's content and its filterable fields once its transaction commits.
+     */
+    public void onPostSaved(Post post) {
+        Integer postId = post.getPostId();
+        String content = post.getContent();
+        PostPayload payload = PostPayload.of(post);
+        afterCommit(() -> put(postId, content, payload));
+    }
+
+    private void put(int postId, String content, PostPayload payload) {
+        index.put(postId, content, payload.authorId(), payload.createdAt(), payload.hasPhoto());
+    }
+
+    public void onPostDeleted(Integer postId) {
+        afterCommit(() -> index.remove(postId));
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable marked = () -> {
+            change.run();
+            dirty = true;
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            marked.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                marked.run();
+            }
+        });
+    }
+}
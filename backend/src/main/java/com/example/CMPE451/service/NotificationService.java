@@ -4,22 +4,27 @@ import com.example.CMPE451.model.Notification;
 import com.example.CMPE451.model.User;
 import com.example.CMPE451.model.response.NotificationResponse;
 import com.example.CMPE451.repository.NotificationRepository;
-import com.example.CMPE451.repository.ProfileRepository;
-import com.example.CMPE451.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    /**
+     * Notifications about these objects come from moderators or the system, whose avatars were never shown.
+     */
+    private static final Set<String> ANONYMOUS_OBJECT_TYPES = Set.of("Challenge", "Feedback", "Report");
+
     private final NotificationRepository notificationRepository;
-    private final ProfileRepository profileRepository;
+    private final AvatarService avatarService;
 
-    public Notification createNotification(User user, String type, String objectType, String actorId ,String objectId, String preview, String profile_picture) {
+    public Notification createNotification(User user, String type, String objectType, String actorId ,String objectId, String preview) {
         Notification notification = new Notification();
         notification.setUser(user);
         notification.setActorId(actorId);
@@ -28,14 +33,17 @@ public class NotificationService {
         notification.setObjectType(objectType);
         notification.setObjectId(objectId);
         notification.setPreview(preview);
-        notification.setProfile_picture(profile_picture);
         return notificationRepository.save(notification);
     }
 
 
     public List<NotificationResponse> getNotifications(User user) {
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user)
-                .stream()
+        List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(user);
+        Map<String, String> avatars = avatarService.avatarsOf(notifications.stream()
+                .filter(n -> !ANONYMOUS_OBJECT_TYPES.contains(n.getObjectType()))
+                .map(Notification::getActorId)
+                .toList());
+        return notifications.stream()
                 .map(n -> {
                     NotificationResponse dto = new NotificationResponse();
                     dto.setId(n.getId());
@@ -46,7 +54,8 @@ public class NotificationService {
                     dto.setObjectId(n.getObjectId());
                     dto.setObjectType(n.getObjectType());
                     dto.setPreview(n.getPreview());
-                    dto.setProfile_picture(n.getProfile_picture());
+                    String avatar = ANONYMOUS_OBJECT_TYPES.contains(n.getObjectType()) ? null : avatars.get(n.getActorId());
+                    dto.setProfile_picture(avatar == null ? "" : avatar);
                     return dto;
                 })
                 .toList();
@@ -0,0 +1,283 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.OutboxEvent;
+import com.example.CMPE451.model.OutboxEventType;
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.PostCursor;
+import com.example.CMPE451.model.response.GetFollowersResponse;
+import com.example.CMPE451.repository.OutboxEventRepository;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.vector.PostPayload;
+import com.example.CMPE451.vector.VectorIndex;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transactional outbox for the side effects of post writes.
+ * <p>
+ * Writers only insert an {@link OutboxEvent} in their own transaction. After commit, and on every poll, a
+ * dispatcher claims due events in batches ({@code FOR UPDATE SKIP LOCKED}, then a lease) and hands them to a worker
+ * pool, one post per task so the events of a post run in order. Handlers reconcile with the post's current state,
+ * so redelivery and reordering across nodes converge: a post that exists ends up embedded and indexed, a post
+ * that does not ends up out of the index. Failures are retried with jittered exponential backoff; after
+ * {@code outbox.max-attempts} the event is parked with its last error.
+ */
+@Service
+public class OutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PostRepository postRepository;
+    private final PostEmbeddingStore embeddingStore;
+    private final VectorIndex vectorIndex;
+    private final RelatedPostService relatedPostService;
+    private final FollowService followService;
+    private final TimelineService timelineService;
+    private final ActivityLogger activityLogger;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor();
+    private final ExecutorService workers;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         PostRepository postRepository,
+                         PostEmbeddingStore embeddingStore,
+                         VectorIndex vectorIndex,
+                         RelatedPostService relatedPostService,
+                         FollowService followService,
+                         TimelineService timelineService,
+                         ActivityLogger activityLogger,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${outbox.threads:4}") int threads,
+                         @Value("${outbox.batch-size:50}") int batchSize,
+                         @Value("${outbox.lease-seconds:60}") long leaseSeconds,
+                         @Value("${outbox.max-attempts:10}") int maxAttempts,
+                         @Value("${outbox.backoff-base-ms:1000}") long backoffBaseMillis,
+                         @Value("${outbox.backoff-max-ms:300000}") long backoffMaxMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.postRepository = postRepository;
+        this.embeddingStore = embeddingStore;
+        this.vectorIndex = vectorIndex;
+        this.relatedPostService = relatedPostService;
+        this.followService = followService;
+        this.timelineService = timelineService;
+        this.activityLogger = activityLogger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.batchSize = batchSize;
+        this.leaseMillis = leaseSeconds * 1000;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+        workers.shutdown();
+    }
+
+    /**
+     * Records an event in the caller's transaction; the outbox is drained as soon as that transaction commits.
+     */
+    public void record(OutboxEventType type, Integer postId) {
+        outboxEventRepository.save(new OutboxEvent(type, postId));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wake();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wake();
+            }
+        });
+    }
+
+    /**
+     * Picks up retries that became due and events committed by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wake();
+    }
+
+    void wake() {
+        wakeRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            dispatcher.execute(this::drainLoop);
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            while (wakeRequested.getAndSet(false)) {
+                while (drainBatch() == batchSize) {
+                    // A full batch means more may be waiting.
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Outbox drain failed: " + e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+        if (wakeRequested.get()) {
+            wake();
+        }
+    }
+
+    /**
+     * Claims and processes one batch, returning how many events were claimed.
+     */
+    int drainBatch() {
+        List<OutboxEvent> claimed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> due = outboxEventRepository.lockDue(now(), batchSize);
+            if (!due.isEmpty()) {
+                outboxEventRepository.lease(due.stream().map(OutboxEvent::getId).toList(),
+                        new Timestamp(System.currentTimeMillis() + leaseMillis));
+            }
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        // The lease detached the claimed events; only the copies are brought up to the stored attempt count, so the
+        // commit cannot write their old availableAt back over the lease.
+        claimed.forEach(e -> e.setAttempts(e.getAttempts() + 1));
+
+        Map<Integer, List<OutboxEvent>> byPost = new LinkedHashMap<>();
+        for (OutboxEvent event : claimed) {
+            byPost.computeIfAbsent(event.getPostId(), id -> new ArrayList<>()).add(event);
+        }
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(byPost.size());
+        for (List<OutboxEvent> events : byPost.values()) {
+            tasks.add(CompletableFuture.runAsync(() -> processInOrder(events), workers));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        return claimed.size();
+    }
+
+    private void processInOrder(List<OutboxEvent> events) {
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            try {
+                handle(event);
+            } catch (Exception e) {
+                // Later events of the same post wait with this one so they are not applied out of order.
+                String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+                Timestamp retryAt = retryAt(event.getAttempts());
+                for (OutboxEvent pending : events.subList(i, events.size())) {
+                    outboxEventRepository.reschedule(pending.getId(), retryAt, truncate(error));
+                }
+                System.err.println("Outbox event " + event.getId() + " (" + event.getType() + " for post "
+                        + event.getPostId() + ") failed on attempt " + event.getAttempts() + ": " + error);
+                return;
+            }
+        }
+    }
+
+    void handle(OutboxEvent event) {
+        switch (event.getType()) {
+            case POST_CREATED -> {
+                Optional<Post> post = syncVector(event.getPostId());
+                transactionTemplate.executeWithoutResult(status -> {
+                    post.ifPresent(this::fanOut);
+                    outboxEventRepository.deleteById(event.getId());
+                });
+            }
+            case POST_EDITED -> {
+                syncVector(event.getPostId());
+                outboxEventRepository.deleteById(event.getId());
+            }
+            case POST_DELETED -> {
+                vectorIndex.delete(event.getPostId());
+                embeddingStore.delete(event.getPostId());
+                outboxEventRepository.deleteById(event.getId());
+            }
+        }
+    }
+
+    /**
+     * Makes the vector index agree with MySQL for one post and returns the post if it still exists.
+     */
+    private Optional<Post> syncVector(Integer postId) {
+        Optional<Post> post = postRepository.findById(postId);
+        if (post.isEmpty()) {
+            vectorIndex.delete(postId);
+            embeddingStore.delete(postId);
+            return post;
+        }
+        // An edit that left the text alone (a photo, say) reuses the stored embedding.
+        float[] vector = embeddingStore.embed(postId, post.get().getContent());
+        vectorIndex.upsert(postId, vector, PostPayload.of(post.get()));
+        if (!postRepository.existsById(postId)) {
+            // Deleted while we were embedding; its delete event may already have run.
+            vectorIndex.delete(postId);
+            embeddingStore.delete(postId);
+            return Optional.empty();
+        }
+        relatedPostService.onPostIndexed(postId, vector);
+        return post;
+    }
+
+    private void fanOut(Post post) {
+        String author = post.getUser().getUsername();
+        List<String> followerUsernames = followService.getFollowers(author)
+                .stream()
+                .map(GetFollowersResponse::getUsername)
+                .toList();
+        timelineService.onPostCreated(author, PostCursor.of(post), followerUsernames);
+
+        String preview = post.getPhotoUrl() != null ? post.getPhotoUrl() : post.getContent();
+        activityLogger.logAction(
+                "Create",
+                "User", author,
+                "Post", post.getPostId(),
+                "Users", followerUsernames,
+                PostService.getFirst255Characters(preview)
+        );
+    }
+
+    /**
+     * Returns when a failed event is due again, or {@code null} to park it after its last attempt.
+     */
+    Timestamp retryAt(int attempts) {
+        if (attempts >= maxAttempts) {
+            return null;
+        }
+        long backoff = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempts - 1, 30));
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        return new Timestamp(System.currentTimeMillis() + jittered);
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.config.AppConfig;
+import com.example.CMPE451.vector.EmbeddingLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Post embeddings kept in an {@link EmbeddingLog} so a post is only run through the model again when its content
+ * or the model changes. Each stored vector is tagged with {@code embedding.model-id} and a hash of the content it
+ * was computed from; a lookup whose tag or hash differs misses and the fresh embedding replaces the stored one.
+ * <p>
+ * The log is an accelerator, not a source of truth: with {@code embedding.store.path} blank, or when the file
+ * cannot be opened or written, every call goes to the {@link EmbeddingService}.
+ */
+@Service
+public class PostEmbeddingStore {
+
+    private final EmbeddingService embeddingService;
+    private final String path;
+    private final int modelTag;
+    private final long segmentBytes;
+
+    private volatile EmbeddingLog log;
+
+    public PostEmbeddingStore(EmbeddingService embeddingService,
+                              @Value("${embedding.store.path:./app/vectors/post-embeddings.log}") String path,
+                              @Value("${embedding.model-id:" + AppConfig.EMBEDDING_MODEL_URL + "}") String modelId,
+                              @Value("${embedding.store.segment-mb:64}") int segmentMegabytes) {
+        this.embeddingService = embeddingService;
+        this.path = path;
+        this.modelTag = modelId.hashCode();
+        this.segmentBytes = segmentMegabytes * 1024L * 1024L;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (path == null || path.isBlank()) {
+            return;
+        }
+        try {
+            log = EmbeddingLog.open(Paths.get(path), AppConfig.VECTOR_DIMENSION, segmentBytes);
+            System.out.println("Loaded " + log.size() + " stored post embeddings from " + path);
+        } catch (IOException e) {
+            System.err.println("Post embeddings will not be stored, " + path + " is unusable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The embedding of {@code content} for post {@code postId}, from the log when it was stored for the same
+     * content and model.
+     */
+    public float[] embed(int postId, String content) {
+        long hash = contentHash(content);
+        float[] stored = lookup(postId, hash);
+        if (stored != null) {
+            return stored;
+        }
+        float[] vector = embeddingService.createEmbedding(content);
+        store(postId, hash, vector);
+        return vector;
+    }
+
+    /**
+     * Like {@link #embed}, but through {@link EmbeddingService#submit} so callers embedding many posts keep the
+     * model's batches full.
+     */
+    public CompletableFuture<float[]> embedAsync(int postId, String content) {
+        long hash = contentHash(content);
+        float[] stored = lookup(postId, hash);
+        if (stored != null) {
+            return CompletableFuture.completedFuture(stored);
+        }
+        return embeddingService.submit(content).thenApply(vector -> {
+            store(postId, hash, vector);
+            return vector;
+        });
+    }
+
+    public void delete(int postId) {
+        EmbeddingLog current = log;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.delete(postId);
+        } catch (IOException e) {
+            System.err.println("Failed to drop stored embedding of post " + postId + ": " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${embedding.store.flush-interval-ms:10000}")
+    public void force() {
+        EmbeddingLog current = log;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        EmbeddingLog current = log;
+        log = null;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close post embedding log: " + e.getMessage());
+        }
+    }
+
+    private float[] lookup(int postId, long hash) {
+        EmbeddingLog current = log;
+        return current == null ? null : current.get(postId, modelTag, hash);
+    }
+
+    private void store(int postId, long hash, float[] vector) {
+        EmbeddingLog current = log;
+        if (current == null || vector.length != current.dimension()) {
+            return;
+        }
+        try {
+            current.put(postId, modelTag, hash, vector);
+        } catch (IOException e) {
+            System.err.println("Failed to store embedding of post " + postId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * First eight bytes of the SHA-256 of the content.
+     */
+    static long contentHash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -25,6 +25,9 @@ public class PostLikeService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final ActivityLogger activityLogger;
+    private final HotRankingService hotRankingService;
+    private final InterestService interestService;
+    private final BadgeService badgeService;
 
 
     @Transactional
@@ -39,7 +42,10 @@ public class PostLikeService {
             throw new AlreadyExistsException("This post is already liked by " + user.getUsername());
         }
         PostLike like = new PostLike(user.getId(), postId);
-        postLikeRepository.save(like);
+        PostLike savedLike = postLikeRepository.save(like);
+        hotRankingService.onLikeAdded(postId, savedLike.getLikedAt());
+        badgeService.onLikeGiven(user.getId());
+        interestService.onInteraction(user.getId(), postId, post.getContent(), InterestService.Interaction.LIKE);
 
         String preview = null;
         if (post.getPhotoUrl() != null) {
@@ -52,7 +58,7 @@ public class PostLikeService {
                 "User", user.getUsername(),
                 "Post", post.getPostId(),
                 "User", post.getUser().getUsername(),
-                getFirst255Characters(preview), user.getProfile().getPhotoUrl()
+                getFirst255Characters(preview)
 
         );
 
@@ -63,10 +69,12 @@ public class PostLikeService {
     public Map<String, Boolean>  removeLike(String username, Integer postId) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new InvalidCredentialsException("User not found with username: " + username));
-        if (!postLikeRepository.existsByUserIdAndPostId(user.getId(), postId)) {
+        PostLike like = postLikeRepository.findByUserIdAndPostId(user.getId(), postId);
+        if (like == null) {
             throw new InvalidCredentialsException("Like not found for this post by user : " + username);
         }
         postLikeRepository.deleteByUserIdAndPostId(user.getId(), postId);
+        hotRankingService.onLikeRemoved(postId, like.getLikedAt());
         postRepository.findById(postId)
                 .orElseThrow(() -> new InvalidCredentialsException("Post not found with id: " + postId));
         return Map.of("success", true);
@@ -0,0 +1,332 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.BadRequestException;
+import com.example.CMPE451.exception.UploadFailedException;
+import com.example.CMPE451.model.OutboxEventType;
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.storage.ImageStorage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background pipeline for post photos.
+ * <p>
+ * The request thread only spools the upload to local disk and stores the photo's fresh object key on the post. A
+ * job file naming the post and the original is written next to the spool in the post's transaction and removed
+ * when the job ends, so jobs that a restart interrupted are picked up again at startup. A spooled original whose
+ * transaction does not commit is deleted. Once the post is committed a worker decodes the original, applies and
+ * drops its EXIF data, renders the {@link Derivative} sizes plus a BlurHash placeholder and uploads the
+ * derivatives in parallel. Only then are the derivative URLs and the blurhash written to the post, so clients never
+ * see URLs that do not resolve yet; until then the post shows its previous photo, if any, and it keeps that one if
+ * processing fails. The original upload itself is never published.
+ */
+@Service
+public class PostPhotoService {
+
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final String JOB_SUFFIX = ".job";
+
+    public enum Derivative {
+        FULL("full", 1600),
+        FEED("feed", 720),
+        THUMB("thumb", 240);
+
+        private final String suffix;
+        private final int maxEdge;
+
+        Derivative(String suffix, int maxEdge) {
+            this.suffix = suffix;
+            this.maxEdge = maxEdge;
+        }
+    }
+
+    /**
+     * A photo waiting for the pipeline; its original is either a spooled multipart file or a direct upload under
+     * {@link ImageStorage#STAGING_PREFIX}.
+     */
+    public record PendingPhoto(Path spooledFile, String uploadKey, String objectKeyBase,
+                               String fullUrl, String feedUrl, String thumbUrl) {
+    }
+
+    private final PostRepository postRepository;
+    private final ImageStorage imageStorage;
+    private final OutboxService outboxService;
+    private final KeywordIndexService keywordIndexService;
+    private final String postPhotoFolder;
+    private final Path spoolDirectory;
+    private final long maxPixels;
+    private final ExecutorService processingExecutor;
+    private final ExecutorService uploadExecutor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PostPhotoService(PostRepository postRepository,
+                            ImageStorage imageStorage,
+                            OutboxService outboxService,
+                            KeywordIndexService keywordIndexService,
+                            @Value("${digitalocean.spaces.post-photo-folder}") String postPhotoFolder,
+                            @Value("${photo.pipeline.spool-dir:./app/photos/spool}") String spoolDirectory,
+                            @Value("${photo.pipeline.threads:2}") int threads,
+                            @Value("${photo.pipeline.upload-threads:6}") int uploadThreads,
+                            @Value("${photo.pipeline.max-pixels:40000000}") long maxPixels) {
+        this.postRepository = postRepository;
+        this.imageStorage = imageStorage;
+        this.outboxService = outboxService;
+        this.keywordIndexService = keywordIndexService;
+        this.postPhotoFolder = postPhotoFolder;
+        this.spoolDirectory = Paths.get(spoolDirectory);
+        this.maxPixels = maxPixels;
+        this.processingExecutor = Executors.newFixedThreadPool(threads);
+        this.uploadExecutor = Executors.newFixedThreadPool(uploadThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        processingExecutor.shutdown();
+        uploadExecutor.shutdown();
+    }
+
+    public PendingPhoto spool(MultipartFile file) {
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new BadRequestException("Post photo must be an image, got: " + contentType);
+        }
+        String id = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(spoolDirectory);
+            Path spooled = spoolDirectory.resolve(id + ".upload");
+            deleteUnlessCommitted(spooled);
+            file.transferTo(spooled);
+            return pending(spooled, null, id);
+        } catch (IOException e) {
+            throw new UploadFailedException("Failed to read file data for upload: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes a spooled original once the caller's transaction ends without committing, including when it rolls
+     * back before {@link #processAfterCommit} has taken the photo over.
+     */
+    private static void deleteUnlessCommitted(Path spooled) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    Files.deleteIfExists(spooled);
+                } catch (IOException e) {
+                    System.err.println("Failed to delete spooled photo " + spooled + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    public PendingPhoto fromUpload(String uploadKey) {
+        return pending(null, uploadKey, UUID.randomUUID().toString());
+    }
+
+    private PendingPhoto pending(Path spooledFile, String uploadKey, String id) {
+        String keyBase = postPhotoFolder + "/" + id;
+        return new PendingPhoto(spooledFile, uploadKey, keyBase,
+                imageStorage.publicUrl(objectKey(keyBase, Derivative.FULL)),
+                imageStorage.publicUrl(objectKey(keyBase, Derivative.FEED)),
+                imageStorage.publicUrl(objectKey(keyBase, Derivative.THUMB)));
+    }
+
+    /**
+     * Schedules processing once the surrounding transaction commits, or discards the spooled file if it rolls
+     * back.
+     */
+    public void processAfterCommit(Integer postId, PendingPhoto photo) {
+        saveJob(postId, photo);
+        inFlight.add(id(photo));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            processingExecutor.execute(() -> process(postId, photo));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    processingExecutor.execute(() -> process(postId, photo));
+                } else {
+                    finish(photo);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the jobs left in the spool directory by an earlier run. A job whose post never committed, or whose
+     * photo has since been replaced, only has its original discarded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingJobs() {
+        if (!Files.isDirectory(spoolDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> jobs = Files.newDirectoryStream(spoolDirectory, "*" + JOB_SUFFIX)) {
+            for (Path job : jobs) {
+                Properties properties = new Properties();
+                try (Reader reader = Files.newBufferedReader(job)) {
+                    properties.load(reader);
+                    String id = properties.getProperty("id");
+                    Integer postId = Integer.valueOf(properties.getProperty("postId"));
+                    if (!inFlight.add(id)) {
+                        continue;
+                    }
+                    String uploadKey = properties.getProperty("uploadKey");
+                    PendingPhoto photo = pending(uploadKey == null ? spoolDirectory.resolve(id + ".upload") : null,
+                            uploadKey, id);
+                    System.out.println("Resuming photo processing for post " + postId);
+                    processingExecutor.execute(() -> process(postId, photo));
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Dropping unreadable photo job " + job + ": " + e.getMessage());
+                    Files.deleteIfExists(job);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to scan photo spool " + spoolDirectory + ": " + e.getMessage());
+        }
+    }
+
+    void process(Integer postId, PendingPhoto photo) {
+        try {
+            Optional<Post> post = postRepository.findById(postId);
+            if (post.isEmpty() || !Objects.equals(post.get().getPhotoKey(), photo.objectKeyBase())) {
+                return;
+            }
+            byte[] original = readOriginal(photo);
+            BufferedImage full = ImageProcessor.resize(ImageProcessor.decode(original, maxPixels), Derivative.FULL.maxEdge);
+            BufferedImage feed = ImageProcessor.resize(full, Derivative.FEED.maxEdge);
+            BufferedImage thumb = ImageProcessor.resize(feed, Derivative.THUMB.maxEdge);
+            String blurhash = BlurHash.encode(ImageProcessor.resize(thumb, 32), 4, 3);
+
+            List<CompletableFuture<Void>> uploads = List.of(
+                    uploadAsync(photo.objectKeyBase(), Derivative.FULL, full),
+                    uploadAsync(photo.objectKeyBase(), Derivative.FEED, feed),
+                    uploadAsync(photo.objectKeyBase(), Derivative.THUMB, thumb));
+            CompletableFuture.allOf(uploads.toArray(new CompletableFuture[0])).join();
+
+            // Keyed on the photo key, so a job for a photo that was replaced in the meantime cannot show it.
+            if (postRepository.publishPhoto(postId, photo.objectKeyBase(), photo.fullUrl(), photo.feedUrl(),
+                    photo.thumbUrl(), blurhash) == 1) {
+                // The vector payload and the keyword index both record whether the post has a photo.
+                Post published = post.get();
+                published.setPhotoUrl(photo.fullUrl());
+                outboxService.record(OutboxEventType.POST_EDITED, postId);
+                keywordIndexService.onPostSaved(published);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to process photo for post " + postId + ": " + e.getMessage());
+        } finally {
+            finish(photo);
+        }
+    }
+
+    private void saveJob(Integer postId, PendingPhoto photo) {
+        Properties properties = new Properties();
+        properties.setProperty("postId", postId.toString());
+        properties.setProperty("id", id(photo));
+        if (photo.uploadKey() != null) {
+            properties.setProperty("uploadKey", photo.uploadKey());
+        }
+        try {
+            Files.createDirectories(spoolDirectory);
+            Path temporary = spoolDirectory.resolve(id(photo) + JOB_SUFFIX + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                properties.store(out, null);
+            }
+            Files.move(temporary, jobFile(photo), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UploadFailedException("Failed to queue photo processing: " + e.getMessage(), e);
+        }
+    }
+
+    private void finish(PendingPhoto photo) {
+        discardOriginal(photo);
+        try {
+            Files.deleteIfExists(jobFile(photo));
+        } catch (IOException e) {
+            System.err.println("Failed to delete photo job for " + photo.objectKeyBase() + ": " + e.getMessage());
+        }
+        inFlight.remove(id(photo));
+    }
+
+    private Path jobFile(PendingPhoto photo) {
+        return spoolDirectory.resolve(id(photo) + JOB_SUFFIX);
+    }
+
+    private static String id(PendingPhoto photo) {
+        return photo.objectKeyBase().substring(photo.objectKeyBase().lastIndexOf('/') + 1);
+    }
+
+    private CompletableFuture<Void> uploadAsync(String keyBase, Derivative derivative, BufferedImage image) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                byte[] jpeg = ImageProcessor.encodeJpeg(image, JPEG_QUALITY);
+                imageStorage.put(objectKey(keyBase, derivative), new ByteArrayInputStream(jpeg), jpeg.length, "image/jpeg");
+            } catch (IOException e) {
+                throw new UploadFailedException("Failed to encode " + derivative.suffix + " derivative: " + e.getMessage(), e);
+            }
+        }, uploadExecutor);
+    }
+
+    private static String objectKey(String keyBase, Derivative derivative) {
+        return keyBase + "-" + derivative.suffix + ".jpg";
+    }
+
+    private byte[] readOriginal(PendingPhoto photo) throws IOException {
+        if (photo.spooledFile() != null) {
+            return Files.readAllBytes(photo.spooledFile());
+        }
+        try (InputStream in = imageStorage.open(photo.uploadKey())) {
+            return in.readAllBytes();
+        }
+    }
+
+    private void discardOriginal(PendingPhoto photo) {
+        try {
+            if (photo.spooledFile() != null) {
+                Files.deleteIfExists(photo.spooledFile());
+            } else {
+                imageStorage.delete(photo.uploadKey());
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to delete original photo for " + photo.objectKeyBase() + ": " + e.getMessage());
+        }
+    }
+}
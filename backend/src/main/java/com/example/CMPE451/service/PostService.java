@@ -1,31 +1,31 @@
 package com.example.CMPE451.service;
 
 import com.example.CMPE451.exception.AlreadyExistsException;
+import com.example.CMPE451.exception.BadRequestException;
 import com.example.CMPE451.exception.InvalidCredentialsException;
 import com.example.CMPE451.exception.NotFoundException;
-import com.example.CMPE451.exception.UploadFailedException;
 import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.PostCursor;
 import com.example.CMPE451.model.Comment;
+import com.example.CMPE451.model.OutboxEventType;
 import com.example.CMPE451.model.SavedPost;
+import com.example.CMPE451.model.UploadPurpose;
 import com.example.CMPE451.model.User;
 import com.example.CMPE451.model.request.CommentRequest;
+import com.example.CMPE451.model.request.ConfirmUploadRequest;
 import com.example.CMPE451.model.request.CreatePostRequest;
 import com.example.CMPE451.model.request.SavePostRequest;
 import com.example.CMPE451.model.response.*;
 import com.example.CMPE451.repository.*;
+import com.example.CMPE451.vector.VectorIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 
-import java.io.IOException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.*;
@@ -35,40 +35,72 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final PostRepository postRepository;
-    private final PostLikeRepository postLikeRepository;
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
     private final SavedPostRepository savedPostRepository;
+    private final PostCardRepository postCardRepository;
 
-    private final ActivityLogger activityLogger;
-
-    private final EmbeddingService embeddingService;
-    private final VectorDBService vectorDBService;
-    private final FollowService followService;
-
-    private final S3Client s3Client;
-
-    @Value("${digitalocean.spaces.bucket-name}")
-    private String bucketName;
-
-    @Value("${digitalocean.spaces.region}")
-    private String region;
-
-    @Value("${digitalocean.spaces.post-photo-folder}")
-    private String postPhotoFolder;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final VectorIndex vectorIndex;
+    private final TimelineService timelineService;
+    private final OutboxService outboxService;
+    private final PostPhotoService postPhotoService;
+    private final HotRankingService hotRankingService;
+    private final UploadService uploadService;
+    private final AvatarService avatarService;
+    private final KeywordIndexService keywordIndexService;
+    private final InterestService interestService;
 
 
 
     public List<GetPostResponse> getPosts(String requestingUsername, int size, Long lastPostId) {
         Integer requestingUserId = null;
         if (requestingUsername != null) {
-            User requestingUser = userRepository.findByUsername(requestingUsername)
+            requestingUserId = userRepository.findIdByUsername(requestingUsername)
                     .orElseThrow(() -> new NotFoundException("User not found: " + requestingUsername));
-            requestingUserId = requestingUser.getId();
         }
-        List<Post> posts = postRepository.findTopPosts(lastPostId, PageRequest.of(0, size));
-        return convertToGetPostsResponse(posts, requestingUserId);
+        if (lastPostId == null) {
+            return postCardRepository.findFeedCards(requestingUserId, PageRequest.of(0, size));
+        }
+        Optional<Post> lastPost = postRepository.findById(lastPostId.intValue());
+        if (lastPost.isEmpty()) {
+            return Collections.emptyList();
+        }
+        PostCursor position = PostCursor.of(lastPost.get());
+        return postCardRepository.findFeedCardsAfter(requestingUserId, position.getCreatedAt(), position.getPostId(),
+                PageRequest.of(0, size));
+    }
+
+    public PostFeedPageResponse getPostsPage(String requestingUsername, int size, String cursor) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + size);
+        }
+        Integer requestingUserId = null;
+        if (requestingUsername != null) {
+            requestingUserId = userRepository.findIdByUsername(requestingUsername)
+                    .orElseThrow(() -> new NotFoundException("User not found: " + requestingUsername));
+        }
+
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<GetPostResponse> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postCardRepository.findFeedCards(requestingUserId, pageRequest);
+        } else {
+            PostCursor position = PostCursor.decode(cursor);
+            posts = postCardRepository.findFeedCardsAfter(requestingUserId, position.getCreatedAt(),
+                    position.getPostId(), pageRequest);
+        }
+
+        String nextCursor = null;
+        if (posts.size() > size) {
+            posts = posts.subList(0, size);
+            GetPostResponse last = posts.get(size - 1);
+            nextCursor = new PostCursor(last.getCreatedAt(), last.getPostId()).encode();
+        }
+        return new PostFeedPageResponse(posts, nextCursor);
     }
 
     private List<CommentResponse> getCommentsForPost(Integer postId) {
@@ -88,46 +120,31 @@ public class PostService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new NotFoundException("User not found: " + username));
 
-        String photoUrl = null;
+        PostPhotoService.PendingPhoto photo = null;
         if (photoFile != null && !photoFile.isEmpty()) {
-            photoUrl = uploadFileToSpaces(photoFile, postPhotoFolder);
+            photo = postPhotoService.spool(photoFile);
         }
 
         Post post = new Post(
                 user,
                 content,
-                photoUrl,
+                null,
                 0,
                 0
         );
+        if (photo != null) {
+            // The URLs are set by the photo pipeline once the derivatives exist.
+            post.setPhotoKey(photo.objectKeyBase());
+        }
         post.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         Post savedPost = postRepository.saveAndFlush(post);
-
-        try {
-            float[] vector = embeddingService.createEmbedding(savedPost.getContent());
-            vectorDBService.upsertVector(savedPost.getPostId(), vector);
-        } catch (Exception e) {
-            System.err.println("Failed to create embedding for post " + savedPost.getPostId() + ": " + e.getMessage());
+        if (photo != null) {
+            postPhotoService.processAfterCommit(savedPost.getPostId(), photo);
         }
-
-        List<String> followerUsernames = followService.getFollowers(username)
-                .stream()
-                .map(GetFollowersResponse::getUsername)
-                .toList();
-
-        String preview = null;
-        if (post.getPhotoUrl() != null) {
-            preview = post.getPhotoUrl();
-        }
-        else preview = post.getContent();
-
-        activityLogger.logAction(
-                "Create",
-                "User", user.getUsername(),
-                "Post", savedPost.getPostId(),
-                "Users", followerUsernames,
-                getFirst255Characters(preview), user.getProfile().getPhotoUrl()
-        );
+        // Embedding, indexing, timeline fan-out and follower notifications happen in the outbox worker.
+        outboxService.record(OutboxEventType.POST_CREATED, savedPost.getPostId());
+        hotRankingService.onPostCreated(savedPost.getPostId(), savedPost.getCreatedAt());
+        keywordIndexService.onPostSaved(savedPost);
 
         return new CreateOrEditPostResponse(
                 post.getPostId(),
@@ -135,29 +152,21 @@ public class PostService {
                 post.getCreatedAt(),
                 post.getUser().getUsername(),
                 post.getPhotoUrl(),
-                post.getProfile_picture()
+                avatarService.avatarOf(username)
 
         );
     }
 
     public GetPostResponse getPost(Integer postId, String username) {
-        Optional<Post> existingPostOpt = postRepository.findById(postId);
-        if (existingPostOpt.isEmpty()) {
-            throw new NotFoundException("Post not found: " + postId);
-        }
-        Post post = existingPostOpt.get();
-
-
         Integer requestingUserId = null;
         if (username != null) {
-            User requestingUser = userRepository.findByUsername(username)
+            requestingUserId = userRepository.findIdByUsername(username)
                     .orElseThrow(() -> new NotFoundException("User not found: " + username));
-            requestingUserId = requestingUser.getId();
         }
 
-
-        return convertToGetPostResponse(post, requestingUserId);
-
+        return postCardRepository.findCardsByIds(requestingUserId, List.of(postId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Post not found: " + postId));
     }
 
     @Transactional
@@ -169,29 +178,22 @@ public class PostService {
         }
 
         Post existingPost = existingPostOpt.get();
+        boolean contentChanged = content != null && !content.equals(existingPost.getContent());
         if (content!= null) {
             existingPost.setContent(content);
         }
+        PostPhotoService.PendingPhoto photo = null;
         if (photoFile != null && !photoFile.isEmpty()) {
-            String photoUrl = uploadFileToSpaces(photoFile, postPhotoFolder);
-            existingPost.setPhotoUrl(photoUrl);
+            photo = postPhotoService.spool(photoFile);
+            existingPost.setPhotoKey(photo.objectKeyBase());
         }
         Post updatedPost = postRepository.saveAndFlush(existingPost);
-        boolean contentChanged = false;
-        if (content != null && !content.equals(existingPost.getContent())) {
-            existingPost.setContent(content);
-            contentChanged = true;
+        if (photo != null) {
+            postPhotoService.processAfterCommit(updatedPost.getPostId(), photo);
         }
         if (contentChanged) {
-            System.out.println("Content changed for post " + postId + ". Updating vector in Qdrant...");
-            try {
-                float[] newVector = embeddingService.createEmbedding(updatedPost.getContent());
-                vectorDBService.upsertVector(updatedPost.getPostId(), newVector);
-                System.out.println("Vector updated successfully for post " + postId);
-            } catch (Exception e) {
-                System.err.println("CRITICAL: Failed to update Qdrant vector for post "
-                        + updatedPost.getPostId() + ". Search index is now stale.");
-            }
+            outboxService.record(OutboxEventType.POST_EDITED, updatedPost.getPostId());
+            keywordIndexService.onPostSaved(updatedPost);
         }
         return new CreateOrEditPostResponse(
                 updatedPost.getPostId(),
@@ -199,18 +201,73 @@ public class PostService {
                 updatedPost.getCreatedAt(),
                 updatedPost.getUser().getUsername(),
                 updatedPost.getPhotoUrl(),
-                updatedPost.getProfile_picture()
+                avatarService.avatarOf(updatedPost.getUser().getUsername())
+
+        );
+    }
+
+    /**
+     * Attaches a photo the author uploaded directly to storage; it goes through the same pipeline as a multipart
+     * photo once this transaction commits.
+     */
+    @Transactional
+    public CreateOrEditPostResponse attachUploadedPhoto(Integer postId, ConfirmUploadRequest request) {
+        User user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found: " + request.getUsername()));
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new NotFoundException("Post not found: " + postId));
+        if (!post.getUser().getId().equals(user.getId())) {
+            throw new InvalidCredentialsException("Only the author can change the photo of post " + postId);
+        }
+        uploadService.requireUpload(user, UploadPurpose.POST_PHOTO, request.getUploadKey());
 
+        PostPhotoService.PendingPhoto photo = postPhotoService.fromUpload(request.getUploadKey());
+        post.setPhotoKey(photo.objectKeyBase());
+        Post updatedPost = postRepository.saveAndFlush(post);
+        postPhotoService.processAfterCommit(updatedPost.getPostId(), photo);
+
+        return new CreateOrEditPostResponse(
+                updatedPost.getPostId(),
+                updatedPost.getContent(),
+                updatedPost.getCreatedAt(),
+                user.getUsername(),
+                updatedPost.getPhotoUrl(),
+                avatarService.avatarOf(updatedPost.getUser().getUsername())
         );
     }
 
     @Transactional
     public void deletePost(Integer postId) {
-        if (!postRepository.existsById(postId)) {
-            throw new RuntimeException("Post with ID " + postId + " not found.");
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new RuntimeException("Post with ID " + postId + " not found."));
+        postRepository.delete(post);
+        outboxService.record(OutboxEventType.POST_DELETED, postId);
+        timelineService.onPostDeleted(post.getUser().getUsername(), postId);
+        hotRankingService.onPostDeleted(postId);
+        keywordIndexService.onPostDeleted(postId);
+
+    }
+
+    public PostFeedPageResponse getHomeTimeline(String username, int size, String cursor) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + size);
         }
-        postRepository.deleteById(postId);
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found: " + username));
 
+        PostCursor position = (cursor == null || cursor.isBlank()) ? null : PostCursor.decode(cursor);
+
+        // Followers' timelines can still hold posts deleted since they were pushed; those have no card, so keep
+        // reading past them until the page is full or the timeline ends.
+        List<GetPostResponse> posts = new ArrayList<>(size);
+        do {
+            TimelineService.TimelinePage page = timelineService.readPage(username, size - posts.size(), position);
+            posts.addAll(postCardRepository.findCardsInOrder(user.getId(), page.postIds()));
+            position = page.nextCursor();
+        } while (posts.size() < size && position != null);
+
+        String nextCursor = position == null ? null : position.encode();
+        return new PostFeedPageResponse(posts, nextCursor);
     }
 
 
@@ -218,13 +275,28 @@ public class PostService {
     public List<GetPostResponse> getMostLikedPosts(Integer size, String username) {
         Integer userId = null;
         if (username != null) {
-            User user = userRepository.findByUsername(username)
+            userId = userRepository.findIdByUsername(username)
                     .orElseThrow(() -> new NotFoundException("User not found: " + username));
-            userId = user.getId();
         }
 
-        List<Post> posts = postRepository.findMostLikedPosts(PageRequest.of(0, size));
-        return convertToGetPostsResponse(posts, userId);
+        if (!hotRankingService.isReady()) {
+            return postCardRepository.findMostLikedCards(userId, PageRequest.of(0, size));
+        }
+        List<GetPostResponse> cards = new ArrayList<>(
+                postCardRepository.findCardsInOrder(userId, hotRankingService.topPostIds(size)));
+        if (cards.size() < size) {
+            // Too little recent activity to fill the page; the all-time most liked posts make up the rest.
+            Set<Integer> ranked = cards.stream().map(GetPostResponse::getPostId).collect(Collectors.toSet());
+            for (GetPostResponse card : postCardRepository.findMostLikedCards(userId, PageRequest.of(0, size))) {
+                if (cards.size() >= size) {
+                    break;
+                }
+                if (ranked.add(card.getPostId())) {
+                    cards.add(card);
+                }
+            }
+        }
+        return cards;
     }
 
 
@@ -244,6 +316,7 @@ public class PostService {
             throw new AlreadyExistsException("This post is already saved by user" + user.getUsername());
         }
         savedPostRepository.save(saved);
+        interestService.onInteraction(user.getId(), postId, post.getContent(), InterestService.Interaction.SAVE);
 
         return new SavePostResponse(
                 request.getUsername(),
@@ -267,121 +340,21 @@ public class PostService {
         return Map.of("deleted", true);
     }
 
-    private List<GetPostResponse> convertToGetPostsResponse(List<Post> posts, Integer requestingUserId) {
-        if (posts.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Integer> postIds = posts.stream().map(Post::getPostId).collect(Collectors.toList());
-
-        Set<Integer> likedPostIds;
-        Set<Integer> savedPostIds;
-
-        if (requestingUserId != null) {
-            likedPostIds = postLikeRepository.findLikedPostIdsByUserIdAndPostIdIn(requestingUserId, postIds);
-            savedPostIds = savedPostRepository.findSavedPostIdsByUserIdAndPostIdIn(requestingUserId, postIds);
-        } else {
-            savedPostIds = Collections.emptySet();
-            likedPostIds = Collections.emptySet();
-        }
-
-        return posts.stream()
-                .map(post -> {
-                    GetPostResponse postResponse = new GetPostResponse();
-                    postResponse.setPostId(post.getPostId());
-                    postResponse.setContent(post.getContent());
-                    postResponse.setCreatedAt(post.getCreatedAt());
-                    postResponse.setLikes(post.getLikes());
-                    postResponse.setCreatorUsername(post.getUser().getUsername());
-                    postResponse.setComments(post.getComments());
-                    postResponse.setPhotoUrl(post.getPhotoUrl());
-                    postResponse.setLiked(likedPostIds.contains(post.getPostId()));
-                    postResponse.setSaved(savedPostIds.contains(post.getPostId()));
-                    postResponse.setProfile_picture(post.getProfile_picture());
-
-                    return postResponse;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private GetPostResponse convertToGetPostResponse(Post post, Integer requestingUserId) {
-
-        GetPostResponse postResponse = new GetPostResponse();
-
-        Set<Integer> likedPostIds;
-        Set<Integer> savedPostIds;
-
-        if (requestingUserId != null) {
-            likedPostIds = postLikeRepository
-                    .findLikedPostIdsByUserIdAndPostIdIn(requestingUserId, Collections.singletonList(post.getPostId()));
-
-            savedPostIds = savedPostRepository
-                    .findSavedPostIdsByUserIdAndPostIdIn(requestingUserId, Collections.singletonList(post.getPostId()));
-        } else {
-            likedPostIds = Collections.emptySet();
-            savedPostIds = Collections.emptySet();
-        }
-
-        postResponse.setPostId(post.getPostId());
-        postResponse.setContent(post.getContent());
-        postResponse.setCreatedAt(post.getCreatedAt());
-        postResponse.setLikes(post.getLikes());
-        postResponse.setCreatorUsername(post.getUser().getUsername());
-        postResponse.setComments(post.getComments());
-        postResponse.setPhotoUrl(post.getPhotoUrl());
-        postResponse.setLiked(likedPostIds.contains(post.getPostId()));
-        postResponse.setSaved(savedPostIds.contains(post.getPostId()));
-        postResponse.setProfile_picture(post.getProfile_picture());
-
-        return postResponse;
-    }
-
-
-    private String uploadFileToSpaces(MultipartFile file, String folder) {
-        if (file.isEmpty()) {
-            return null;
-        }
-
-        String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String uniqueFileName = UUID.randomUUID().toString() + extension;
-        String objectKey = folder + "/" + uniqueFileName;
-
-        try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .contentType(file.getContentType())
-                    .acl(ObjectCannedACL.PUBLIC_READ)
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
-
-            return String.format("https://%s.%s.digitaloceanspaces.com/%s",
-                    bucketName, region, objectKey);
-        } catch (IOException e) {
-            throw new UploadFailedException("Failed to read file data for upload: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new UploadFailedException("Failed to upload photo to DigitalOcean Spaces: " + e.getMessage(), e);
-        }
-    }
 
     public List<GetPostResponse> semanticSearch(String query,String username) {
-        User user = userRepository.findByUsername(username)
+        Integer userId = userRepository.findIdByUsername(username)
                 .orElseThrow(() -> new NotFoundException("User not found: " + username));
 
-        float[] queryVector = embeddingService.createEmbedding(query);
+        float[] queryVector = queryEmbeddingCache.embed(query);
 
-        List<Integer> postIds = vectorDBService.search(queryVector, 5);
+        List<Integer> postIds = vectorIndex.search(queryVector, 5).stream()
+                .map(VectorIndex.ScoredPost::postId)
+                .toList();
 
         if (postIds.isEmpty()) {
             return List.of();
         }
-        List<Post> posts = postRepository.findAllById(postIds);
-        return convertToGetPostsResponse(posts, user.getId());
+        return postCardRepository.findCardsInOrder(userId, postIds);
     }
     public static String getFirst255Characters(String text) {
         if (text == null) {
@@ -1,6 +1,7 @@
 package com.example.CMPE451.service;
 
 import com.example.CMPE451.exception.AlreadyExistsException;
+import com.example.CMPE451.exception.BadRequestException;
 import com.example.CMPE451.exception.NotFoundException;
 import com.example.CMPE451.exception.UploadFailedException;
 import com.example.CMPE451.model.*;
@@ -11,19 +12,13 @@ import com.example.CMPE451.model.response.ProfileResponse;
 import com.example.CMPE451.repository.*;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import java.util.Optional;
 
@@ -35,19 +30,9 @@ public class ProfileService {
     private final ProfileRepository profileRepository;
     private final UserRepository userRepository;
     private final FollowRepository followRepository;
-    private final S3Client s3Client;
     private final BadgeRepository badgeRepository;
-    private final NotificationRepository notificationRepository;
-    private final PostRepository postRepository;
-
-    @Value("${digitalocean.spaces.bucket-name}")
-    private String bucketName;
-
-    @Value("${digitalocean.spaces.region}")
-    private String region;
-
-    @Value("${digitalocean.spaces.photo-folder}")
-    private String photoFolder;
+    private final UploadService uploadService;
+    private final AvatarService avatarService;
 
     public ProfileResponse getProfileInfo(String username) {
         User user = userRepository
@@ -108,58 +93,52 @@ public class ProfileService {
             throw new IllegalArgumentException("Cannot upload an empty file. Please select a file.");
         }
 
-        String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String uniqueFileName = UUID.randomUUID().toString() + extension;
-        String objectKey = this.photoFolder + "/" + uniqueFileName;
-
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(this.bucketName)
-                    .key(objectKey)
-                    .contentType(file.getContentType())
-                    .acl(ObjectCannedACL.PUBLIC_READ)
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
-
-            String publicUrl = String.format("https://%s.%s.digitaloceanspaces.com/%s",
-                    this.bucketName,
-                    this.region,
-                    objectKey);
-
-            List<Notification> notifications = notificationRepository.findByActorId(username);
-
-            notifications.forEach(n -> n.setProfile_picture(publicUrl));
-
-            List<Post> posts = postRepository.findByUserId(user.getId());
+            String publicUrl = uploadService.storeProfilePhoto(user, file.getBytes());
+            return setProfilePhoto(user, profile, publicUrl);
+        } catch (IOException e) {
+            throw new UploadFailedException("Failed to read file data for upload: " + e.getMessage(), e);
+        } catch (UploadFailedException | BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UploadFailedException("Failed to upload profile photo. Reason: " + e.getMessage(), e);
+        }
+    }
 
-            posts.forEach(p -> p.setProfile_picture(publicUrl));
+    /**
+     * Makes a photo the user uploaded directly to storage their profile picture.
+     */
+    @Transactional
+    public ProfileResponse attachUploadedPhoto(String username, String uploadKey) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found: " + username));
+        String publicUrl = uploadService.publishProfilePhoto(user, uploadKey);
 
-            notificationRepository.saveAll(notifications);
-            postRepository.saveAll(posts);
+        Profile profile = profileRepository.findByUser(user)
+                .orElseGet(() -> profileRepository.save(new Profile(user, null, "")));
+        return setProfilePhoto(user, profile, publicUrl);
+    }
 
-            profile.setPhotoUrl(publicUrl);
-            profileRepository.save(profile);
+    /**
+     * Posts and notifications resolve avatars through {@link AvatarService} when read, so changing the photo only
+     * touches the profile row.
+     */
+    private ProfileResponse setProfilePhoto(User user, Profile profile, String publicUrl) {
+        String username = user.getUsername();
+        profile.setPhotoUrl(publicUrl);
+        profileRepository.save(profile);
+        avatarService.onAvatarChanged(username, publicUrl);
 
-            Integer followersCount = followRepository.countByFollowing(user);
-            Integer followingCount = followRepository.countByFollower(user);
+        Integer followersCount = followRepository.countByFollowing(user);
+        Integer followingCount = followRepository.countByFollower(user);
 
-            return new ProfileResponse(
-                    username,
-                    profile.getBiography(),
-                    profile.getPhotoUrl(),
-                    followersCount,
-                    followingCount
-            );
-        } catch (IOException e) {
-            throw new UploadFailedException("Failed to read file data for upload: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new UploadFailedException("Failed to upload profile photo to DigitalOcean Spaces. Reason: " + e.getMessage(), e);
-        }
+        return new ProfileResponse(
+                username,
+                profile.getBiography(),
+                profile.getPhotoUrl(),
+                followersCount,
+                followingCount
+        );
     }
 }
 
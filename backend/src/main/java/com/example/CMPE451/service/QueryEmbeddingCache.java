@@ -0,0 +1,236 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.config.AppConfig;
+import com.example.CMPE451.exception.ServiceUnavailableException;
+import com.example.CMPE451.model.response.EmbeddingCacheStatsResponse;
+import com.example.CMPE451.search.FrequencySketch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Embeddings of search queries, keyed by the normalized query text. The model is given the query as typed; the
+ * first variant of a query to miss is the one whose embedding all its variants share.
+ * <p>
+ * Entries are kept in LRU order, and when the cache is full a new query is only admitted if a frequency sketch
+ * has seen it more often recently than the entry it would evict (TinyLFU). That keeps one-off queries from
+ * flushing the popular ones. Concurrent misses for the same query share one inference.
+ * <p>
+ * If {@code search.query-cache.persist-path} is set, the cache is written there on shutdown and reloaded on
+ * startup. The file records {@code embedding.model-id}, and a file written for another model is discarded.
+ */
+@Service
+public class QueryEmbeddingCache {
+
+    private static final int FILE_MAGIC = 0x51454d42; // "QEMB"
+    private static final int FILE_VERSION = 2;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final EmbeddingService embeddingService;
+    private final int maxEntries;
+    private final long requestTimeoutMs;
+    private final String persistPath;
+    private final String modelId;
+
+    private final LinkedHashMap<String, float[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final ConcurrentHashMap<String, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    public QueryEmbeddingCache(EmbeddingService embeddingService,
+                               @Value("${search.query-cache.max-entries:10000}") int maxEntries,
+                               @Value("${embedding.request-timeout-ms:10000}") long requestTimeoutMs,
+                               @Value("${search.query-cache.persist-path:}") String persistPath,
+                               @Value("${embedding.model-id:" + AppConfig.EMBEDDING_MODEL_URL + "}") String modelId) {
+        this.embeddingService = embeddingService;
+        this.maxEntries = maxEntries;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.persistPath = persistPath;
+        this.modelId = modelId;
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    static String normalize(String query) {
+        return WHITESPACE.matcher(query.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    public float[] embed(String query) {
+        String key = normalize(query);
+        float[] cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        CompletableFuture<float[]> load = new CompletableFuture<>();
+        CompletableFuture<float[]> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            deduplicated.incrementAndGet();
+            return await(existing);
+        }
+        misses.incrementAndGet();
+        try {
+            embeddingService.submit(query).whenComplete((vector, error) -> {
+                if (error == null) {
+                    admit(key, vector);
+                }
+                // Remove only after admitting so a concurrent caller finds either the entry or the load.
+                inFlight.remove(key, load);
+                if (error == null) {
+                    load.complete(vector);
+                } else {
+                    load.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+        return await(load);
+    }
+
+    // Callers never cancel the shared future; a waiter that gives up leaves the load running for the others.
+    private float[] await(CompletableFuture<float[]> load) {
+        try {
+            return load.get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Timed out waiting for an embedding");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for an embedding");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Failed to create embedding", e.getCause());
+        }
+    }
+
+    private synchronized float[] lookup(String key) {
+        sketch.increment(key);
+        return entries.get(key);
+    }
+
+    private synchronized void admit(String key, float[] vector) {
+        if (entries.containsKey(key) || entries.size() < maxEntries) {
+            entries.put(key, vector);
+            return;
+        }
+        Map.Entry<String, float[]> victim = entries.entrySet().iterator().next();
+        if (sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+            entries.remove(victim.getKey());
+            entries.put(key, vector);
+            evictions.incrementAndGet();
+        } else {
+            rejections.incrementAndGet();
+        }
+    }
+
+    public EmbeddingCacheStatsResponse stats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get() + deduplicated.get();
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new EmbeddingCacheStatsResponse(size, maxEntries, hitCount, misses.get(), deduplicated.get(),
+                lookups == 0 ? 0 : (double) hitCount / lookups, evictions.get(), rejections.get());
+    }
+
+    @PostConstruct
+    public void load() {
+        if (persistPath.isBlank() || !Files.isRegularFile(Paths.get(persistPath))) {
+            return;
+        }
+        String fileModelId;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(persistPath))))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("not a query embedding cache file");
+            }
+            fileModelId = in.readUTF();
+            if (fileModelId.equals(modelId)) {
+                loadEntries(in);
+                return;
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring query embedding cache file " + persistPath + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(persistPath));
+            System.out.println("Discarded query embedding cache file " + persistPath + " written for model " + fileModelId);
+        } catch (IOException e) {
+            System.err.println("Failed to delete stale query embedding cache file " + persistPath + ": " + e.getMessage());
+        }
+    }
+
+    private void loadEntries(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, float[]> loaded = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            float[] vector = new float[in.readInt()];
+            for (int j = 0; j < vector.length; j++) {
+                vector[j] = in.readFloat();
+            }
+            loaded.put(key, vector);
+        }
+        synchronized (this) {
+            // Oldest first, so the most recently used entries stay at the LRU tail.
+            loaded.forEach((key, vector) -> {
+                if (entries.size() < maxEntries) {
+                    entries.put(key, vector);
+                    sketch.increment(key);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void save() {
+        if (persistPath.isBlank()) {
+            return;
+        }
+        List<Map.Entry<String, float[]>> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(entries.entrySet());
+        }
+        Path file = Paths.get(persistPath);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeUTF(modelId);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, float[]> entry : snapshot) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    for (float value : entry.getValue()) {
+                        out.writeFloat(value);
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to save query embedding cache: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.ConflictException;
+import com.example.CMPE451.exception.NotFoundException;
+import com.example.CMPE451.model.PostText;
+import com.example.CMPE451.model.ReindexJob;
+import com.example.CMPE451.model.ReindexJobStatus;
+import com.example.CMPE451.model.response.ReindexJobResponse;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.repository.ReindexJobRepository;
+import com.example.CMPE451.vector.PostPayload;
+import com.example.CMPE451.vector.VectorIndex;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Re-embeds every post into the vector index as a resumable background job.
+ * <p>
+ * Posts are read in keyset chunks by id, embedded through the {@link PostEmbeddingStore}, which only sends posts
+ * whose stored embedding is missing or stale to the {@link EmbeddingService} micro-batcher, and written
+ * with batched upserts. Every {@code reindex.checkpoint-interval-ms} the target is flushed and the last post id is
+ * stored with a heartbeat, so a job interrupted by a crash or a cancel continues from that id instead of from the
+ * start. A RUNNING job whose heartbeat goes stale is taken over by the next node that checks.
+ * <p>
+ * In shadow mode the job fills a new collection while searches keep using the live one, replays the posts written
+ * since it started, then switches the live index to the new collection in one step and replays the posts written
+ * during the switch. Otherwise vectors are overwritten in place. Replays read the posts in keyset chunks by update
+ * time and id. The job is only marked COMPLETED if it is still RUNNING, so a cancel that lands during the final
+ * steps is not overwritten.
+ */
+@Service
+public class ReindexService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final long CATCH_UP_OVERLAP_MS = 60_000;
+    private static final DateTimeFormatter SHADOW_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final ReindexJobRepository reindexJobRepository;
+    private final PostRepository postRepository;
+    private final PostEmbeddingStore embeddingStore;
+    private final VectorIndex vectorIndex;
+
+    private final int chunkSize;
+    private final int upsertBatchSize;
+    private final long checkpointIntervalMillis;
+    private final long staleAfterMillis;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean cancelRequested = new AtomicBoolean();
+
+    private volatile Integer currentJobId;
+    private volatile long runStartedAt;
+    private volatile int runStartProcessed;
+    private volatile int currentProcessed;
+
+    public ReindexService(ReindexJobRepository reindexJobRepository,
+                          PostRepository postRepository,
+                          PostEmbeddingStore embeddingStore,
+                          VectorIndex vectorIndex,
+                          @Value("${reindex.chunk-size:256}") int chunkSize,
+                          @Value("${reindex.upsert-batch-size:256}") int upsertBatchSize,
+                          @Value("${reindex.checkpoint-interval-ms:30000}") long checkpointIntervalMillis,
+                          @Value("${reindex.stale-after-ms:120000}") long staleAfterMillis) {
+        this.reindexJobRepository = reindexJobRepository;
+        this.postRepository = postRepository;
+        this.embeddingStore = embeddingStore;
+        this.vectorIndex = vectorIndex;
+        this.chunkSize = chunkSize;
+        this.upsertBatchSize = upsertBatchSize;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.staleAfterMillis = staleAfterMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancelRequested.set(true);
+        runner.shutdown();
+    }
+
+    public ReindexJobResponse start(boolean shadow) {
+        if (running.get() || reindexJobRepository.existsByStatus(ReindexJobStatus.RUNNING)) {
+            throw new ConflictException("A reindex job is already running");
+        }
+        ReindexJob job = new ReindexJob();
+        job.setStatus(ReindexJobStatus.RUNNING);
+        if (shadow) {
+            job.setShadowCollection("forum_posts_" + LocalDateTime.now().format(SHADOW_SUFFIX));
+        }
+        job.setTotal((int) postRepository.count());
+        job.setStartedAt(now());
+        job.setHeartbeatAt(now());
+        job = reindexJobRepository.save(job);
+        launch(job);
+        return toResponse(job);
+    }
+
+    public ReindexJobResponse resume(Integer jobId) {
+        ReindexJob job = find(jobId);
+        if (job.getStatus() != ReindexJobStatus.FAILED && job.getStatus() != ReindexJobStatus.CANCELLED) {
+            throw new ConflictException("Only failed or cancelled jobs can be resumed");
+        }
+        if (running.get() || reindexJobRepository.existsByStatus(ReindexJobStatus.RUNNING)) {
+            throw new ConflictException("A reindex job is already running");
+        }
+        job.setStatus(ReindexJobStatus.RUNNING);
+        job.setLastError(null);
+        job.setFinishedAt(null);
+        job.setHeartbeatAt(now());
+        job = reindexJobRepository.save(job);
+        launch(job);
+        return toResponse(job);
+    }
+
+    /**
+     * Stops a running job at its next chunk. The node running it notices either through the local flag or when its
+     * next checkpoint finds the job no longer RUNNING.
+     */
+    public ReindexJobResponse cancel(Integer jobId) {
+        ReindexJob job = find(jobId);
+        if (job.getStatus() != ReindexJobStatus.RUNNING) {
+            throw new ConflictException("Job " + jobId + " is not running");
+        }
+        if (jobId.equals(currentJobId)) {
+            cancelRequested.set(true);
+        }
+        job.setStatus(ReindexJobStatus.CANCELLED);
+        job.setFinishedAt(now());
+        return toResponse(reindexJobRepository.save(job));
+    }
+
+    public ReindexJobResponse getStatus(Integer jobId) {
+        return toResponse(find(jobId));
+    }
+
+    public ReindexJobResponse getLatest() {
+        return reindexJobRepository.findFirstByOrderByIdDesc()
+                .map(this::toResponse)
+                .orElseThrow(() -> new NotFoundException("No reindex job has been started"));
+    }
+
+    /**
+     * Takes over jobs left RUNNING by a node that stopped heartbeating, including this node before a restart.
+     */
+    @Scheduled(fixedDelayString = "${reindex.resume-check-interval-ms:60000}")
+    public void resumeAbandoned() {
+        if (running.get()) {
+            return;
+        }
+        for (ReindexJob job : reindexJobRepository.findByStatus(ReindexJobStatus.RUNNING)) {
+            Timestamp now = now();
+            if (reindexJobRepository.claimStale(job.getId(), now, new Timestamp(now.getTime() - staleAfterMillis)) == 1) {
+                System.out.println("Resuming abandoned reindex job " + job.getId() + " after post " + job.getLastPostId());
+                job.setHeartbeatAt(now);
+                launch(job);
+                return;
+            }
+        }
+    }
+
+    private void launch(ReindexJob job) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A reindex job is already running");
+        }
+        cancelRequested.set(false);
+        currentJobId = job.getId();
+        runStartedAt = System.currentTimeMillis();
+        runStartProcessed = job.getProcessed();
+        currentProcessed = job.getProcessed();
+        runner.execute(() -> {
+            try {
+                run(job);
+            } finally {
+                currentJobId = null;
+                running.set(false);
+            }
+        });
+    }
+
+    void run(ReindexJob job) {
+        try {
+            VectorIndex target = job.getShadowCollection() == null
+                    ? vectorIndex
+                    : vectorIndex.beginShadow(job.getShadowCollection());
+            if (!copyAll(job, target)) {
+                return;
+            }
+
+            Timestamp catchUpFrom = now();
+            replayUpdatedSince(target, new Timestamp(job.getStartedAt().getTime() - CATCH_UP_OVERLAP_MS));
+            if (!checkpoint(job, target)) {
+                return;
+            }
+            if (job.getShadowCollection() != null) {
+                vectorIndex.promoteShadow(job.getShadowCollection());
+                replayUpdatedSince(vectorIndex, new Timestamp(catchUpFrom.getTime() - CATCH_UP_OVERLAP_MS));
+                vectorIndex.flush();
+            }
+
+            Timestamp finishedAt = now();
+            if (reindexJobRepository.complete(job.getId(), job.getLastPostId(), job.getProcessed(), finishedAt) == 0) {
+                System.out.println("Reindex job " + job.getId() + " was cancelled before it could complete");
+                return;
+            }
+            job.setStatus(ReindexJobStatus.COMPLETED);
+            job.setFinishedAt(finishedAt);
+            job.setHeartbeatAt(finishedAt);
+            System.out.println("Reindex job " + job.getId() + " finished after " + job.getProcessed() + " posts");
+        } catch (Exception e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            System.err.println("Reindex job " + job.getId() + " failed after post " + job.getLastPostId() + ": " + error);
+            reindexJobRepository.findById(job.getId()).ifPresent(stored -> {
+                if (stored.getStatus() == ReindexJobStatus.RUNNING) {
+                    stored.setStatus(ReindexJobStatus.FAILED);
+                    stored.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                    stored.setFinishedAt(now());
+                    reindexJobRepository.save(stored);
+                }
+            });
+        }
+    }
+
+    /**
+     * Copies every post after the job's checkpoint into the target; returns false if the job was cancelled.
+     */
+    private boolean copyAll(ReindexJob job, VectorIndex target) {
+        long lastCheckpoint = System.currentTimeMillis();
+        while (true) {
+            if (cancelRequested.get()) {
+                checkpoint(job, target);
+                return false;
+            }
+            List<PostText> chunk = postRepository.findTextsAfter(job.getLastPostId(), PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                return true;
+            }
+            embedAndUpsert(chunk, target);
+            job.setLastPostId(chunk.get(chunk.size() - 1).getPostId());
+            job.setProcessed(job.getProcessed() + chunk.size());
+            currentProcessed = job.getProcessed();
+
+            if (System.currentTimeMillis() - lastCheckpoint >= checkpointIntervalMillis) {
+                if (!checkpoint(job, target)) {
+                    return false;
+                }
+                lastCheckpoint = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Makes the target durable up to the job's last post id and records it. Returns false if the job was cancelled
+     * elsewhere in the meantime; the progress is still recorded so a resume skips what was done.
+     */
+    private boolean checkpoint(ReindexJob job, VectorIndex target) {
+        target.flush();
+        Optional<ReindexJob> stored = reindexJobRepository.findById(job.getId());
+        if (stored.isEmpty()) {
+            return false;
+        }
+        ReindexJob current = stored.get();
+        current.setLastPostId(job.getLastPostId());
+        current.setProcessed(job.getProcessed());
+        current.setHeartbeatAt(now());
+        reindexJobRepository.save(current);
+        return current.getStatus() == ReindexJobStatus.RUNNING;
+    }
+
+    /**
+     * Re-embeds the posts updated since {@code since}, read in keyset chunks by update time and id.
+     */
+    private void replayUpdatedSince(VectorIndex target, Timestamp since) {
+        Timestamp updatedAt = since;
+        Integer postId = 0;
+        while (true) {
+            List<PostText> chunk = postRepository.findTextsUpdatedAfter(updatedAt, postId,
+                    PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                return;
+            }
+            embedAndUpsert(chunk, target);
+            PostText last = chunk.get(chunk.size() - 1);
+            updatedAt = last.getUpdatedAt();
+            postId = last.getPostId();
+        }
+    }
+
+    /**
+     * Embeds and upserts {@code posts}, keeping at most {@code chunkSize} embeddings queued at the
+     * {@link EmbeddingService} so a large list cannot overflow its queue.
+     */
+    private void embedAndUpsert(List<PostText> posts, VectorIndex target) {
+        List<CompletableFuture<float[]>> embeddings = new ArrayList<>(posts.size());
+        List<VectorIndex.PostVector> batch = new ArrayList<>(upsertBatchSize);
+        for (int i = 0; i < posts.size(); i++) {
+            while (embeddings.size() < Math.min(posts.size(), i + chunkSize)) {
+                PostText next = posts.get(embeddings.size());
+                embeddings.add(embeddingStore.embedAsync(next.getPostId(), next.getContent()));
+            }
+            PostText post = posts.get(i);
+            batch.add(new VectorIndex.PostVector(post.getPostId(), embeddings.get(i).join(), PostPayload.of(post)));
+            if (batch.size() == upsertBatchSize) {
+                target.upsertAll(batch);
+                batch = new ArrayList<>(upsertBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            target.upsertAll(batch);
+        }
+    }
+
+    private ReindexJob find(Integer jobId) {
+        return reindexJobRepository.findById(jobId)
+                .orElseThrow(() -> new NotFoundException("Reindex job not found: " + jobId));
+    }
+
+    private ReindexJobResponse toResponse(ReindexJob job) {
+        Double postsPerSecond = null;
+        Long etaSeconds = null;
+        int processed = job.getProcessed();
+        if (job.getId() != null && job.getId().equals(currentJobId)) {
+            processed = Math.max(processed, currentProcessed);
+            double elapsedSeconds = (System.currentTimeMillis() - runStartedAt) / 1000.0;
+            if (elapsedSeconds > 0) {
+                postsPerSecond = (processed - runStartProcessed) / elapsedSeconds;
+                if (postsPerSecond > 0) {
+                    etaSeconds = (long) Math.ceil(Math.max(0, job.getTotal() - processed) / postsPerSecond);
+                }
+            }
+        }
+        return new ReindexJobResponse(job.getId(), job.getStatus().name(), job.getShadowCollection(), processed,
+                job.getTotal(), postsPerSecond, etaSeconds, job.getStartedAt(), job.getFinishedAt(), job.getLastError());
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.BadRequestException;
+import com.example.CMPE451.exception.NotFoundException;
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.PostNeighbors;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.repository.PostCardRepository;
+import com.example.CMPE451.repository.PostNeighborsRepository;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.vector.VectorIndex;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * "More like this" lists served from precomputed neighbours, so opening a post costs a primary-key read and one
+ * card query instead of a vector search.
+ * <p>
+ * A post's {@code related.neighbors} nearest posts are computed when the outbox indexes it. The same search tells
+ * which existing lists the post should now appear in, and those are marked stale. Stale lists, and lists that turn
+ * out to name a deleted post, are still served and are recomputed in the background. A post indexed before this
+ * existed gets its list computed on first read.
+ */
+@Service
+public class RelatedPostService {
+
+    private final PostNeighborsRepository postNeighborsRepository;
+    private final PostRepository postRepository;
+    private final PostCardRepository postCardRepository;
+    private final UserRepository userRepository;
+    private final PostEmbeddingStore embeddingStore;
+    private final VectorIndex vectorIndex;
+    private final int neighborCount;
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor();
+    private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+
+    public RelatedPostService(PostNeighborsRepository postNeighborsRepository,
+                              PostRepository postRepository,
+                              PostCardRepository postCardRepository,
+                              UserRepository userRepository,
+                              PostEmbeddingStore embeddingStore,
+                              VectorIndex vectorIndex,
+                              @Value("${related.neighbors:10}") int neighborCount) {
+        if (neighborCount < 1 || neighborCount > PostNeighbors.MAX_NEIGHBORS) {
+            throw new IllegalArgumentException("related.neighbors must be between 1 and "
+                    + PostNeighbors.MAX_NEIGHBORS + ": " + neighborCount);
+        }
+        this.postNeighborsRepository = postNeighborsRepository;
+        this.postRepository = postRepository;
+        this.postCardRepository = postCardRepository;
+        this.userRepository = userRepository;
+        this.embeddingStore = embeddingStore;
+        this.vectorIndex = vectorIndex;
+        this.neighborCount = neighborCount;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdown();
+    }
+
+    public List<GetPostResponse> getRelatedPosts(Integer postId, String username, int size) {
+        if (size < 1) {
+            throw new BadRequestException("Page size must be positive: " + size);
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found: " + username));
+
+        Optional<PostNeighbors> stored = postNeighborsRepository.findById(postId);
+        int[] neighbors;
+        if (stored.isPresent()) {
+            neighbors = stored.get().neighbors();
+            if (stored.get().getStale()) {
+                refreshLater(postId);
+            }
+        } else {
+            neighbors = compute(postId);
+        }
+
+        // Never more than the stored list, whatever the caller asked for.
+        int count = Math.min(size, neighbors.length);
+        List<Integer> page = Arrays.stream(neighbors, 0, count).boxed().toList();
+        List<GetPostResponse> posts = postCardRepository.findCardsInOrder(user.getId(), page);
+        if (posts.size() < page.size()) {
+            // A neighbour was deleted since the list was computed.
+            refreshLater(postId);
+        }
+        return posts;
+    }
+
+    /**
+     * Stores the neighbours of a post the outbox just wrote to the vector index and marks stale the lists it
+     * now belongs in. Best effort: a failure only leaves the list to be computed on first read.
+     */
+    public void onPostIndexed(int postId, float[] vector) {
+        try {
+            List<VectorIndex.ScoredPost> nearest = nearest(postId, vector);
+            postNeighborsRepository.save(neighbors(postId, nearest));
+
+            Map<Integer, Float> scores = new HashMap<>();
+            nearest.forEach(hit -> scores.put(hit.postId(), hit.score()));
+            List<Integer> displaced = postNeighborsRepository.findAllById(scores.keySet()).stream()
+                    .filter(list -> !list.getStale())
+                    .filter(list -> list.neighbors().length < neighborCount
+                            || scores.get(list.getPostId()) > list.getMinScore())
+                    .map(PostNeighbors::getPostId)
+                    .toList();
+            if (!displaced.isEmpty()) {
+                postNeighborsRepository.markStale(displaced);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to store related posts of post " + postId + ": " + e.getMessage());
+        }
+    }
+
+    private int[] compute(Integer postId) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new NotFoundException("Post not found: " + postId));
+        float[] vector = embeddingStore.embed(postId, post.getContent());
+        PostNeighbors neighbors = neighbors(postId, nearest(postId, vector));
+        postNeighborsRepository.save(neighbors);
+        return neighbors.neighbors();
+    }
+
+    private void refreshLater(Integer postId) {
+        if (!refreshing.add(postId)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                compute(postId);
+            } catch (NotFoundException e) {
+                // Deleted meanwhile; its row went with it.
+            } catch (RuntimeException e) {
+                System.err.println("Failed to refresh related posts of post " + postId + ": " + e.getMessage());
+            } finally {
+                refreshing.remove(postId);
+            }
+        });
+    }
+
+    private List<VectorIndex.ScoredPost> nearest(int postId, float[] vector) {
+        return vectorIndex.search(vector, neighborCount + 1).stream()
+                .filter(hit -> hit.postId() != postId)
+                .limit(neighborCount)
+                .toList();
+    }
+
+    private static PostNeighbors neighbors(int postId, List<VectorIndex.ScoredPost> nearest) {
+        int[] ids = nearest.stream().mapToInt(VectorIndex.ScoredPost::postId).toArray();
+        double minScore = nearest.isEmpty() ? -1 : nearest.get(nearest.size() - 1).score();
+        return new PostNeighbors(postId, ids, minScore);
+    }
+}
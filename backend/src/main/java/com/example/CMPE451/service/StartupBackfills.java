@@ -0,0 +1,91 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.repository.UserCounterRepository;
+import com.example.CMPE451.repository.WasteDailyTotalRepository;
+import com.example.CMPE451.repository.WasteHourlyTotalRepository;
+import com.example.CMPE451.repository.WasteMonthlyTotalRepository;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Fills the tables kept incrementally from history (badge counters and the daily, monthly and hourly waste
+ * rollups) the first time the application starts with them.
+ * <p>
+ * Each backfill runs once, recorded by a row in {@code backfill_markers} that is inserted in the backfill's own
+ * transaction: a failed backfill leaves no marker and is retried at the next start, and a second instance starting
+ * at the same time waits on the marker row and then skips it. Testing for an empty table instead would skip the
+ * backfill for good once a single live write got in first. This runs as a lifecycle phase before the web server's,
+ * so no request can write to a table while it is being filled.
+ */
+@Service
+public class StartupBackfills implements SmartLifecycle {
+
+    // The embedded web server starts its connector in phase DEFAULT_PHASE - 2048.
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final UserCounterRepository userCounterRepository;
+    private final WasteDailyTotalRepository wasteDailyTotalRepository;
+    private final WasteMonthlyTotalRepository wasteMonthlyTotalRepository;
+    private final WasteHourlyTotalRepository wasteHourlyTotalRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean running;
+
+    public StartupBackfills(UserCounterRepository userCounterRepository,
+                            WasteDailyTotalRepository wasteDailyTotalRepository,
+                            WasteMonthlyTotalRepository wasteMonthlyTotalRepository,
+                            WasteHourlyTotalRepository wasteHourlyTotalRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.userCounterRepository = userCounterRepository;
+        this.wasteDailyTotalRepository = wasteDailyTotalRepository;
+        this.wasteMonthlyTotalRepository = wasteMonthlyTotalRepository;
+        this.wasteHourlyTotalRepository = wasteHourlyTotalRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void start() {
+        runOnce("user_counters", userCounterRepository::backfill);
+        runOnce("waste_daily_totals", wasteDailyTotalRepository::backfill);
+        runOnce("waste_monthly_totals", wasteMonthlyTotalRepository::backfill);
+        runOnce("waste_hourly_totals", wasteHourlyTotalRepository::backfill);
+        running = true;
+    }
+
+    void runOnce(String table, IntSupplier backfill) {
+        try {
+            Integer rows = transactionTemplate.execute(status ->
+                    jdbcTemplate.update("INSERT IGNORE INTO backfill_markers (name) VALUES (?)", table) == 0
+                            ? null
+                            : backfill.getAsInt());
+            if (rows != null) {
+                System.out.println("Backfilled " + rows + " rows of " + table);
+            }
+        } catch (Exception e) {
+            System.err.println("Backfill of " + table + " failed, retrying at next start: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.PostCursor;
+import com.example.CMPE451.repository.FollowRepository;
+import com.example.CMPE451.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Home timelines built with hybrid fan-out.
+ * <p>
+ * Posts by regular authors are pushed into a bounded, in-memory timeline of every follower whose timeline is
+ * currently cached. Authors with at least {@code timeline.celebrity-follower-threshold} followers are never
+ * fanned out; their recent posts are kept once per author and k-way merged into the reader's page at read time.
+ * A timeline that is not cached is rebuilt from MySQL on first read, so the caches can be evicted freely. The empty
+ * timeline is cached before MySQL is queried and the query result is merged into it, so a post pushed while the
+ * rebuild runs is kept even though the query may not have seen it. Posts deleted after being pushed stay in
+ * followers' timelines until they are rebuilt; they are skipped when the page is hydrated.
+ */
+@Service
+public class TimelineService {
+
+    private final PostRepository postRepository;
+    private final FollowRepository followRepository;
+
+    private final int capacity;
+    private final int celebrityThreshold;
+    private final int maxCachedTimelines;
+
+    private final Map<String, HomeTimeline> homeTimelines;
+    private final Map<String, BoundedTimeline> celebrityTimelines = new ConcurrentHashMap<>();
+    private final Set<String> celebrities = ConcurrentHashMap.newKeySet();
+
+    public TimelineService(PostRepository postRepository,
+                           FollowRepository followRepository,
+                           @Value("${timeline.capacity:800}") int capacity,
+                           @Value("${timeline.celebrity-follower-threshold:10000}") int celebrityThreshold,
+                           @Value("${timeline.max-cached-timelines:50000}") int maxCachedTimelines) {
+        this.postRepository = postRepository;
+        this.followRepository = followRepository;
+        this.capacity = capacity;
+        this.celebrityThreshold = celebrityThreshold;
+        this.maxCachedTimelines = maxCachedTimelines;
+        this.homeTimelines = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HomeTimeline> eldest) {
+                return size() > TimelineService.this.maxCachedTimelines;
+            }
+        });
+    }
+
+    public void onPostCreated(String authorUsername, PostCursor entry, List<String> followerUsernames) {
+        boolean celebrity = followerUsernames.size() >= celebrityThreshold;
+
+        HomeTimeline own = homeTimelines.get(authorUsername);
+        if (own != null) {
+            own.pushed.insert(entry);
+        }
+
+        if (celebrity) {
+            if (celebrities.add(authorUsername)) {
+                // Followers cached this author as a regular account; let them rebuild with the pull source.
+                followerUsernames.forEach(homeTimelines::remove);
+            }
+            BoundedTimeline authored = celebrityTimelines.get(authorUsername);
+            if (authored != null) {
+                authored.insert(entry);
+            }
+            return;
+        }
+
+        celebrities.remove(authorUsername);
+        celebrityTimelines.remove(authorUsername);
+        for (String follower : followerUsernames) {
+            HomeTimeline timeline = homeTimelines.get(follower);
+            if (timeline != null) {
+                timeline.pushed.insert(entry);
+            }
+        }
+    }
+
+    /**
+     * Drops a deleted post from its author's cached timelines once the deleting transaction commits, so a rollback
+     * leaves them untouched.
+     */
+    public void onPostDeleted(String authorUsername, Integer postId) {
+        afterCommit(() -> removePost(authorUsername, postId));
+    }
+
+    private void removePost(String authorUsername, Integer postId) {
+        HomeTimeline own = homeTimelines.get(authorUsername);
+        if (own != null) {
+            own.pushed.remove(postId);
+        }
+        BoundedTimeline authored = celebrityTimelines.get(authorUsername);
+        if (authored != null) {
+            authored.remove(postId);
+        }
+        // Copies in followers' timelines are dropped when the page is hydrated.
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public void onFollowChanged(String followerUsername) {
+        homeTimelines.remove(followerUsername);
+    }
+
+    public TimelinePage readPage(String username, int size, PostCursor cursor) {
+        HomeTimeline home = homeTimelines.computeIfAbsent(username, key -> new HomeTimeline(new BoundedTimeline(capacity)));
+        home.pushed.seedOnce(() -> rebuild(username, home));
+
+        List<BoundedTimeline.Slice> slices = new ArrayList<>();
+        slices.add(home.pushed.slice(cursor, size + 1));
+        for (String celebrity : home.followedCelebrities) {
+            BoundedTimeline authored = celebrityTimelines.computeIfAbsent(celebrity, key -> new BoundedTimeline(capacity));
+            authored.seedOnce(() -> loadAuthorTimeline(celebrity));
+            slices.add(authored.slice(cursor, size + 1));
+        }
+
+        List<PostCursor> merged = merge(slices, size + 1);
+
+        // Below the horizon of a truncated source the cache no longer has every post, so the merged order is only
+        // trusted down to the newest such horizon. Anything older comes from MySQL.
+        PostCursor horizon = null;
+        for (BoundedTimeline.Slice slice : slices) {
+            if (slice.horizon() != null && (horizon == null || compareDescending(slice.horizon(), horizon) < 0)) {
+                horizon = slice.horizon();
+            }
+        }
+        if (horizon != null) {
+            final PostCursor boundary = horizon;
+            merged = new ArrayList<>(merged.stream().filter(entry -> compareDescending(entry, boundary) <= 0).toList());
+            if (merged.size() <= size) {
+                PostCursor from = merged.isEmpty() ? cursor : merged.get(merged.size() - 1);
+                PageRequest remainder = PageRequest.of(0, size + 1 - merged.size());
+                merged.addAll(from == null
+                        ? postRepository.findHomeTimelineEntries(username, remainder)
+                        : postRepository.findHomeTimelineEntriesAfter(username, from.getCreatedAt(), from.getPostId(), remainder));
+            }
+        }
+
+        PostCursor next = null;
+        if (merged.size() > size) {
+            merged = merged.subList(0, size);
+            next = merged.get(size - 1);
+        }
+        return new TimelinePage(merged.stream().map(PostCursor::getPostId).toList(), next);
+    }
+
+    private List<PostCursor> rebuild(String username, HomeTimeline home) {
+        List<String> regularAuthors = new ArrayList<>();
+        List<String> followedCelebrities = new ArrayList<>();
+        regularAuthors.add(username);
+        for (FollowRepository.FollowingCount following : followRepository.findFollowingWithFollowerCounts(username)) {
+            if (following.getFollowerCount() >= celebrityThreshold) {
+                followedCelebrities.add(following.getUsername());
+                celebrities.add(following.getUsername());
+            } else {
+                regularAuthors.add(following.getUsername());
+            }
+        }
+        home.followedCelebrities = followedCelebrities;
+        return postRepository.findTimelineEntriesByAuthors(regularAuthors, PageRequest.of(0, capacity));
+    }
+
+    private List<PostCursor> loadAuthorTimeline(String authorUsername) {
+        return postRepository.findTimelineEntriesByAuthors(List.of(authorUsername), PageRequest.of(0, capacity));
+    }
+
+    private static List<PostCursor> merge(List<BoundedTimeline.Slice> slices, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) ->
+                compareDescending(slices.get(a[0]).entries.get(a[1]), slices.get(b[0]).entries.get(b[1])));
+        for (int i = 0; i < slices.size(); i++) {
+            if (!slices.get(i).entries.isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+
+        List<PostCursor> merged = new ArrayList<>(limit);
+        PostCursor previous = null;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<PostCursor> entries = slices.get(head[0]).entries;
+            PostCursor entry = entries.get(head[1]);
+            if (previous == null || !previous.getPostId().equals(entry.getPostId())) {
+                merged.add(entry);
+                previous = entry;
+            }
+            if (head[1] + 1 < entries.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    static int compareDescending(PostCursor a, PostCursor b) {
+        int byTime = Long.compare(b.getCreatedAt().getTime(), a.getCreatedAt().getTime());
+        return byTime != 0 ? byTime : Integer.compare(b.getPostId(), a.getPostId());
+    }
+
+    public record TimelinePage(List<Integer> postIds, PostCursor nextCursor) {
+    }
+
+    private static final class HomeTimeline {
+
+        private final BoundedTimeline pushed;
+        /** Set by the rebuild before the seed is merged, so it is visible once {@link BoundedTimeline#seedOnce} returns. */
+        private List<String> followedCelebrities = List.of();
+
+        private HomeTimeline(BoundedTimeline pushed) {
+            this.pushed = pushed;
+        }
+    }
+
+    /**
+     * Newest-first ring of (createdAt, postId) pairs stored in primitive arrays and capped at a fixed capacity.
+     * A timeline is cached empty and seeded from MySQL on first read; inserts that arrive before the seed are kept.
+     */
+    static final class BoundedTimeline {
+
+        private final long[] createdAt;
+        private final int[] postIds;
+        private int size;
+        private boolean truncated;
+        private final Object seedLock = new Object();
+        private volatile boolean seeded;
+
+        BoundedTimeline(int capacity) {
+            this.createdAt = new long[capacity];
+            this.postIds = new int[capacity];
+        }
+
+        /**
+         * Merges the newest-first entries from {@code loader} once. Concurrent readers wait for the first load; the
+         * loader runs outside this timeline's own lock, so pushes are not held up by the query.
+         */
+        void seedOnce(Supplier<List<PostCursor>> loader) {
+            if (seeded) {
+                return;
+            }
+            synchronized (seedLock) {
+                if (!seeded) {
+                    seed(loader.get());
+                    seeded = true;
+                }
+            }
+        }
+
+        private synchronized void seed(List<PostCursor> seedNewestFirst) {
+            seedNewestFirst.forEach(this::insert);
+            if (seedNewestFirst.size() >= createdAt.length) {
+                truncated = true;
+            }
+        }
+
+        synchronized void insert(PostCursor entry) {
+            long time = entry.getCreatedAt().getTime();
+            int id = entry.getPostId();
+            int position = positionOf(time, id);
+            if (position < size && createdAt[position] == time && postIds[position] == id) {
+                return;
+            }
+            if (position == createdAt.length) {
+                truncated = true;
+                return;
+            }
+            int toMove = Math.min(size, createdAt.length - 1) - position;
+            System.arraycopy(createdAt, position, createdAt, position + 1, toMove);
+            System.arraycopy(postIds, position, postIds, position + 1, toMove);
+            createdAt[position] = time;
+            postIds[position] = id;
+            if (size == createdAt.length) {
+                truncated = true;
+            } else {
+                size++;
+            }
+        }
+
+        synchronized void remove(int postId) {
+            for (int i = 0; i < size; i++) {
+                if (postIds[i] == postId) {
+                    System.arraycopy(createdAt, i + 1, createdAt, i, size - i - 1);
+                    System.arraycopy(postIds, i + 1, postIds, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        synchronized Slice slice(PostCursor after, int limit) {
+            int start = after == null ? 0 : positionOf(after.getCreatedAt().getTime(), after.getPostId());
+            if (after != null && start < size
+                    && createdAt[start] == after.getCreatedAt().getTime() && postIds[start] == after.getPostId()) {
+                start++;
+            }
+            int end = Math.min(size, start + limit);
+            List<PostCursor> entries = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                entries.add(new PostCursor(new Timestamp(createdAt[i]), postIds[i]));
+            }
+            PostCursor horizon = truncated && size > 0 ? new PostCursor(new Timestamp(createdAt[size - 1]), postIds[size - 1]) : null;
+            return new Slice(entries, horizon);
+        }
+
+        /** First index whose entry is not newer than (time, id). */
+        private int positionOf(long time, int id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                boolean newer = createdAt[mid] > time || (createdAt[mid] == time && postIds[mid] > id);
+                if (newer) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** {@code horizon} is the oldest cached entry of a truncated timeline, older posts may exist only in MySQL. */
+        record Slice(List<PostCursor> entries, PostCursor horizon) {
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.BadRequestException;
+import com.example.CMPE451.exception.InvalidCredentialsException;
+import com.example.CMPE451.exception.NotFoundException;
+import com.example.CMPE451.exception.UploadFailedException;
+import com.example.CMPE451.model.UploadPurpose;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.request.UploadTicketRequest;
+import com.example.CMPE451.model.response.UploadTicketResponse;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.storage.ImageStorage;
+import com.example.CMPE451.storage.PresignedUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Direct-to-storage uploads. A ticket is a presigned PUT for a fresh object key that embeds the uploader's id;
+ * confirming checks that the object exists, belongs to the confirming user and stayed within the size limit, so
+ * post photo bytes never pass through the application. Every upload lands under {@link ImageStorage#STAGING_PREFIX};
+ * a profile photo, which is served as uploaded, is decoded and copied to its public key only once confirmed.
+ */
+@Service
+public class UploadService {
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/webp", ".webp");
+
+    private final UserRepository userRepository;
+    private final ImageStorage imageStorage;
+    private final String profilePhotoFolder;
+    private final long maxBytes;
+    private final long maxPixels;
+    private final Duration ticketTtl;
+
+    public UploadService(UserRepository userRepository,
+                         ImageStorage imageStorage,
+                         @Value("${digitalocean.spaces.photo-folder}") String profilePhotoFolder,
+                         @Value("${upload.max-bytes:10485760}") long maxBytes,
+                         @Value("${upload.ticket-ttl-seconds:900}") long ticketTtlSeconds,
+                         @Value("${photo.pipeline.max-pixels:40000000}") long maxPixels) {
+        this.userRepository = userRepository;
+        this.imageStorage = imageStorage;
+        this.profilePhotoFolder = profilePhotoFolder;
+        this.maxBytes = maxBytes;
+        this.maxPixels = maxPixels;
+        this.ticketTtl = Duration.ofSeconds(ticketTtlSeconds);
+    }
+
+    public UploadTicketResponse createTicket(UploadTicketRequest request) {
+        User user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found: " + request.getUsername()));
+        if (request.getPurpose() == null) {
+            throw new BadRequestException("Upload purpose is required");
+        }
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new BadRequestException("Uploads must be images, got: " + contentType);
+        }
+        if (request.getPurpose() == UploadPurpose.PROFILE_PHOTO && !EXTENSIONS.containsKey(contentType)) {
+            throw new BadRequestException("Profile photos must be JPEG, PNG or WebP, got: " + contentType);
+        }
+        if (request.getSize() == null || request.getSize() <= 0 || request.getSize() > maxBytes) {
+            throw new BadRequestException("Upload size must be between 1 and " + maxBytes + " bytes");
+        }
+
+        String key = ownedPrefix(request.getPurpose(), user.getId()) + UUID.randomUUID()
+                + (request.getPurpose() == UploadPurpose.PROFILE_PHOTO ? EXTENSIONS.get(contentType) : "");
+        PresignedUpload upload = imageStorage.presignPut(key, contentType, request.getSize(), ticketTtl);
+        return new UploadTicketResponse(key, upload.url(), "PUT", upload.headers(), upload.expiresAt());
+    }
+
+    /**
+     * Validates a finished upload before it is attached to something of {@code user}'s.
+     */
+    public void requireUpload(User user, UploadPurpose purpose, String uploadKey) {
+        if (uploadKey == null || !uploadKey.startsWith(ownedPrefix(purpose, user.getId())) || uploadKey.contains("..")) {
+            throw new InvalidCredentialsException("Upload " + uploadKey + " does not belong to " + user.getUsername());
+        }
+        OptionalLong size = imageStorage.size(uploadKey);
+        if (size.isEmpty()) {
+            throw new NotFoundException("Nothing has been uploaded to " + uploadKey);
+        }
+        if (size.getAsLong() > maxBytes) {
+            imageStorage.delete(uploadKey);
+            throw new BadRequestException("Upload exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    /**
+     * Validates a profile photo uploaded by {@code user}, moves it from staging to its public key and returns its
+     * URL.
+     */
+    public String publishProfilePhoto(User user, String uploadKey) {
+        requireUpload(user, UploadPurpose.PROFILE_PHOTO, uploadKey);
+        byte[] data;
+        try (InputStream in = imageStorage.open(uploadKey)) {
+            data = in.readNBytes((int) maxBytes + 1);
+        } catch (IOException e) {
+            throw new UploadFailedException("Failed to read upload " + uploadKey + ": " + e.getMessage(), e);
+        }
+        String url;
+        try {
+            url = storeProfilePhoto(user, data);
+        } catch (BadRequestException e) {
+            imageStorage.delete(uploadKey);
+            throw e;
+        }
+        imageStorage.delete(uploadKey);
+        return url;
+    }
+
+    /**
+     * Stores {@code data} as a profile photo of {@code user} and returns its URL. The bytes must be a JPEG, PNG or
+     * WebP image whatever content type or file name the client claimed; the stored key and content type follow the
+     * sniffed type, so nothing else can end up served as a profile photo.
+     */
+    public String storeProfilePhoto(User user, byte[] data) {
+        String contentType = imageType(data, maxPixels);
+        if (contentType == null) {
+            throw new BadRequestException("Profile photo is not a readable JPEG, PNG or WebP image of at most "
+                    + maxPixels + " pixels");
+        }
+        String key = profilePhotoFolder + "/" + user.getId() + "-" + UUID.randomUUID()
+                + EXTENSIONS.get(contentType);
+        return imageStorage.put(key, new ByteArrayInputStream(data), data.length, contentType);
+    }
+
+    /**
+     * The content type of {@code data} by its signature, or null unless it is one of the profile photo types and,
+     * for JPEG and PNG, decodes within {@code maxPixels}. WebP has no decoder here, so only its RIFF header is checked.
+     */
+    static String imageType(byte[] data, long maxPixels) {
+        if (data.length >= 12 && startsWith(data, 0, "RIFF") && startsWith(data, 8, "WEBP")) {
+            return "image/webp";
+        }
+        String contentType;
+        if (data.length >= 3 && (data[0] & 0xff) == 0xFF && (data[1] & 0xff) == 0xD8 && (data[2] & 0xff) == 0xFF) {
+            contentType = "image/jpeg";
+        } else if (data.length >= 8 && (data[0] & 0xff) == 0x89 && startsWith(data, 1, "PNG\r\n")) {
+            contentType = "image/png";
+        } else {
+            return null;
+        }
+        try {
+            ImageProcessor.read(data, maxPixels);
+            return contentType;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean startsWith(byte[] data, int offset, String ascii) {
+        byte[] expected = ascii.getBytes(StandardCharsets.US_ASCII);
+        return Arrays.equals(data, offset, offset + expected.length, expected, 0, expected.length);
+    }
+
+    private String ownedPrefix(UploadPurpose purpose, Integer userId) {
+        return switch (purpose) {
+            case POST_PHOTO -> ImageStorage.STAGING_PREFIX + userId + "/";
+            case PROFILE_PHOTO -> ImageStorage.STAGING_PREFIX + userId + "/profile-";
+        };
+    }
+}
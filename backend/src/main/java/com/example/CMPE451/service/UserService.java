@@ -3,12 +3,11 @@ package com.example.CMPE451.service;
 import com.example.CMPE451.exception.InvalidCredentialsException;
 import com.example.CMPE451.exception.NotFoundException;
 import com.example.CMPE451.model.Badge;
-import com.example.CMPE451.model.Post;
-import com.example.CMPE451.model.SavedPost;
 import com.example.CMPE451.model.User;
 import com.example.CMPE451.model.request.DeleteUserRequest;
 import com.example.CMPE451.model.response.*;
 import com.example.CMPE451.repository.*;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -16,11 +15,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,9 +24,8 @@ public class UserService {
     private final UserRepository userRepository;
     private final ChallengeRepository  challengeRepository;
     private final BadgeRepository badgeRepository;
-    private final SavedPostRepository savedPostRepository;
-    private final PostRepository postRepository;
-    private final PostLikeRepository postLikeRepository;
+    private final PostCardRepository postCardRepository;
+    private final WasteTotalsIndex wasteTotalsIndex;
 
     @Autowired
     private final PasswordEncoder passwordEncoder;
@@ -42,48 +36,18 @@ public class UserService {
     }
 
     public List<GetSavedPostResponse> getSavedPosts(String username) {
-        User user = userRepository.findByUsername(username)
+        Integer userId = userRepository.findIdByUsername(username)
                 .orElseThrow(() -> new NotFoundException("User not found: " + username));
 
-        List<SavedPost> savedPosts =
-                savedPostRepository.findAllByUserIdOrderBySavedAtDesc(user.getId());
-
-        List<Integer> postIds = savedPosts.stream()
-                .map(sp -> sp.getPost().getPostId())
-                .toList();
-
-        Set<Integer> likedPostIds = postLikeRepository.findLikedPostIdsByUserIdAndPostIdIn(
-                user.getId(), postIds
-        );
-
-        return savedPosts.stream()
-                .map(sp -> {
-                    Post post = sp.getPost();
-                    boolean isLiked = likedPostIds.contains(post.getPostId());
-                    return new GetSavedPostResponse(
-                            post.getPostId(),
-                            post.getContent(),
-                            post.getLikes(),
-                            post.getComments(),
-                            post.getUser().getUsername(),
-                            sp.getSavedAt(),
-                            post.getPhotoUrl(),
-                            isLiked,
-                            true,
-                            post.getUser().getProfile().getPhotoUrl()
-                    );
-                })
-                .collect(Collectors.toList());
+        return postCardRepository.findSavedCards(userId);
     }
 
 
     public List<GetPostResponse> getPostsForUser(String username) {
-        User user = userRepository.findByUsername(username)
+        Integer userId = userRepository.findIdByUsername(username)
                 .orElseThrow(() -> new NotFoundException("User not found: " + username));
 
-        List<Post> posts = postRepository.findByUserId(user.getId());
-
-        return convertToGetPostsResponse(posts, user.getId());
+        return postCardRepository.findCardsByAuthor(userId, userId);
     }
 
     public List<BadgeResponse> getBadges(String username) {
@@ -98,6 +62,7 @@ public class UserService {
                 .toList();
     }
 
+    @Transactional
     public UserDeleteResponse deleteUser(String username, DeleteUserRequest request) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new NotFoundException("User not found: " + username));
@@ -108,43 +73,10 @@ public class UserService {
 
         UserDeleteResponse response = new UserDeleteResponse(user.getId(), username);
 
+        // The user's waste logs go with the row, so take them out of the community totals first.
+        wasteTotalsIndex.onUserDeleted(user.getId());
         userRepository.delete(user);
 
         return response;
     }
-
-    private List<GetPostResponse> convertToGetPostsResponse(List<Post> posts, Integer requestingUserId) {
-        if (posts.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Integer> postIds = posts.stream().map(Post::getPostId).collect(Collectors.toList());
-
-        Set<Integer> likedPostIds;
-        Set<Integer> savedPostIds;
-
-        if (requestingUserId != null) {
-            likedPostIds = postLikeRepository.findLikedPostIdsByUserIdAndPostIdIn(requestingUserId, postIds);
-            savedPostIds = savedPostRepository.findSavedPostIdsByUserIdAndPostIdIn(requestingUserId, postIds);
-        } else {
-            savedPostIds = Collections.emptySet();
-            likedPostIds = Collections.emptySet();
-        }
-
-        return posts.stream()
-                .map(post -> {
-                    GetPostResponse postResponse = new GetPostResponse();
-                    postResponse.setPostId(post.getPostId());
-                    postResponse.setContent(post.getContent());
-                    postResponse.setCreatedAt(post.getCreatedAt());
-                    postResponse.setLikes(post.getLikes());
-                    postResponse.setCreatorUsername(post.getUser().getUsername());
-                    postResponse.setComments(post.getComments());
-                    postResponse.setPhotoUrl(post.getPhotoUrl());
-                    postResponse.setLiked(likedPostIds.contains(post.getPostId()));
-                    postResponse.setSaved(savedPostIds.contains(post.getPostId()));
-                    return postResponse;
-                })
-                .collect(Collectors.toList());
-    }
 }
\ No newline at end of file
@@ -3,9 +3,13 @@ import com.example.CMPE451.exception.NotFoundException;
 import com.example.CMPE451.model.request.CreateOrEditWasteGoalRequest;
 import com.example.CMPE451.model.response.CreateWasteGoalResponse;
 import com.example.CMPE451.model.response.GetWasteGoalResponse;
+import com.example.CMPE451.repository.UserCounterRepository;
 import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.repository.WasteDailyTotalRepository;
 import com.example.CMPE451.repository.WasteItemRepository;
+import com.example.CMPE451.repository.WasteMonthlyTotalRepository;
 import com.example.CMPE451.repository.WasteTypeRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -26,6 +30,10 @@ public class WasteGoalService {
 
     private final UserRepository userRepository;
     private final WasteItemRepository wasteItemRepository;
+    private final WasteDailyTotalRepository wasteDailyTotalRepository;
+    private final WasteMonthlyTotalRepository wasteMonthlyTotalRepository;
+    private final WasteTotalsIndex wasteTotalsIndex;
+    private final UserCounterRepository userCounterRepository;
 
 
 
@@ -69,33 +77,26 @@ public class WasteGoalService {
         WasteType wasteType = wasteTypeRepository.findByName(request.getType())
                 .orElseThrow(() -> new NotFoundException("WasteType not found: " + request.getType()));
 
-        double oldAmount = existingGoal.getRestrictionAmountGrams();
-        double oldProgress = existingGoal.getPercentOfProgress();
-        double newAmount = request.getRestrictionAmountGrams();
-
+        // Progress and completion follow from the stored total; goal_before_update recomputes them on every update.
         existingGoal.setDuration(request.getDuration());
         existingGoal.setType(wasteType);
         existingGoal.setRestrictionAmountGrams(request.getRestrictionAmountGrams());
 
-        double newProgress = 0.0;
-        if (newAmount > 0 && oldAmount > 0) {
-            newProgress = oldProgress * (oldAmount / newAmount);
-        }
-
-        newProgress = Math.min(newProgress, 100.0);
-
-        existingGoal.setPercentOfProgress(newProgress);
-        existingGoal.setCompleted(newProgress >= 100.0 ? 1 : 0);
-
         wasteGoalRepository.saveAndFlush(existingGoal);
 
         return new CreateWasteGoalResponse(existingGoal.getOwner().getUsername(), existingGoal.getGoalId());
     }
 
+    @Transactional
     public void deleteWasteGoal(Integer goalId) {
         WasteGoal goal = wasteGoalRepository.findById(goalId)
                 .orElseThrow(() -> new NotFoundException("Goal not found: " + goalId));
 
+        // The goal's logs go with it, so their weight leaves the user's rollups and badge counters too.
+        wasteDailyTotalRepository.subtractGoal(goalId);
+        userCounterRepository.subtractGoal(goalId);
+        wasteMonthlyTotalRepository.subtractGoal(goalId);
+        wasteTotalsIndex.onGoalDeleted(goalId);
         wasteGoalRepository.delete(goal);
     }
 
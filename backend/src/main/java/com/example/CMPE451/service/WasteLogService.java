@@ -1,29 +1,53 @@
 package com.example.CMPE451.service;
 
+import com.example.CMPE451.exception.BadRequestException;
 import com.example.CMPE451.exception.NotFoundException;
 import com.example.CMPE451.model.*;
+import com.example.CMPE451.model.request.CreateWasteLogBatchRequest;
 import com.example.CMPE451.model.request.CreateWasteLogRequest;
 import com.example.CMPE451.model.request.UpdateWasteLogRequest;
 import com.example.CMPE451.model.response.*;
 import com.example.CMPE451.repository.*;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class WasteLogService {
+    static final int MAX_BATCH_SIZE = 100;
+
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO waste_log (user_id, goal_id, item_id, quantity, date) VALUES (?, ?, ?, ?, ?)";
+
     private final UserRepository userRepository;
     private final WasteItemRepository wasteItemRepository;
     private final WasteTypeRepository wasteTypeRepository;
 
     private final WasteLogRepository wasteLogRepository;
     private final WasteGoalRepository wasteGoalRepository;
+    private final BadgeService badgeService;
+    private final WasteDailyTotalRepository wasteDailyTotalRepository;
+    private final WasteMonthlyTotalRepository wasteMonthlyTotalRepository;
+    private final WasteTotalsIndex wasteTotalsIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Waste items are seeded with the schema and never edited, so they are cached until an unknown id shows up.
+    private final Map<Integer, WasteItem> itemsById = new ConcurrentHashMap<>();
 
     public List<GetWasteLogResponse> getWasteLogsForGoal(Integer goalId) {
         WasteGoal goal = wasteGoalRepository.findById(goalId)
@@ -58,6 +82,7 @@ public class WasteLogService {
 
 
         wasteLogRepository.save(wasteLog);
+        addToTotals(wasteLog, grams(item, wasteLog.getQuantity()));
 
         return new CreateOrEditWasteLogResponse(
                 wasteLog.getLogId(),
@@ -67,12 +92,106 @@ public class WasteLogService {
         );
     }
 
+    /**
+     * Logs several items against one goal at once: the items are checked against the cached catalogue, the logs
+     * go in as one JDBC batch (one multi-row insert with {@code rewriteBatchedStatements}) and the running totals
+     * are updated once with the combined weight.
+     */
+    @Transactional
+    public List<CreateOrEditWasteLogResponse> createWasteLogs(CreateWasteLogBatchRequest request, Integer goalId) {
+        List<CreateWasteLogBatchRequest.Entry> entries = request.getEntries();
+        if (entries == null || entries.isEmpty()) {
+            throw new BadRequestException("No waste log entries given");
+        }
+        if (entries.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " waste log entries per request");
+        }
+        for (CreateWasteLogBatchRequest.Entry entry : entries) {
+            if (entry == null || entry.getItemId() == null) {
+                throw new BadRequestException("Every waste log entry needs an itemId");
+            }
+            if (entry.getQuantity() <= 0) {
+                throw new BadRequestException("Quantity must be positive, got: " + entry.getQuantity());
+            }
+        }
+        User user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found: " + request.getUsername()));
+
+        WasteGoal goal = wasteGoalRepository.findById(goalId)
+                .orElseThrow(() -> new NotFoundException("WasteGoal not found: " + goalId));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<WasteLog> logs = new ArrayList<>(entries.size());
+        double grams = 0;
+        for (CreateWasteLogBatchRequest.Entry entry : entries) {
+            // The constructor rejects an item whose type is not the goal's.
+            WasteLog wasteLog = new WasteLog(user, goal, item(entry.getItemId()), entry.getQuantity());
+            wasteLog.setDate(now);
+            logs.add(wasteLog);
+            grams += grams(wasteLog.getItem(), wasteLog.getQuantity());
+        }
+
+        List<Integer> logIds = insertAll(logs);
+        addToTotals(user.getId(), goalId, goal.getType(), now, grams);
+
+        List<CreateOrEditWasteLogResponse> responses = new ArrayList<>(logs.size());
+        for (int i = 0; i < logs.size(); i++) {
+            WasteLog wasteLog = logs.get(i);
+            responses.add(new CreateOrEditWasteLogResponse(logIds.get(i), wasteLog.getItem().getDisplayName(),
+                    wasteLog.getQuantity(), now));
+        }
+        return responses;
+    }
+
+    private WasteItem item(Integer itemId) {
+        WasteItem item = itemsById.get(itemId);
+        if (item == null) {
+            wasteItemRepository.findAll().forEach(each -> itemsById.put(each.getId(), each));
+            item = itemsById.get(itemId);
+        }
+        if (item == null) {
+            throw new NotFoundException("WasteItem not found: " + itemId);
+        }
+        return item;
+    }
+
+    /**
+     * Inserts the logs in one batch and returns their generated ids, in order.
+     */
+    private List<Integer> insertAll(List<WasteLog> logs) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Integer>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_LOG_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (WasteLog wasteLog : logs) {
+                    statement.setInt(1, wasteLog.getUser().getId());
+                    statement.setInt(2, wasteLog.getGoal().getGoalId());
+                    statement.setInt(3, wasteLog.getItem().getId());
+                    statement.setInt(4, wasteLog.getQuantity());
+                    statement.setTimestamp(5, Timestamp.valueOf(wasteLog.getDate()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Integer> ids = new ArrayList<>(logs.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getInt(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
     @Transactional
     public CreateOrEditWasteLogResponse updateWasteLog(Integer logId, UpdateWasteLogRequest request) {
         WasteLog existingLog = wasteLogRepository.findById(logId)
                 .orElseThrow(() -> new NotFoundException("WasteLog not found: " + logId));
+        int oldQuantity = existingLog.getQuantity();
         existingLog.setQuantity(request.getQuantity());
         wasteLogRepository.save(existingLog);
+        if (oldQuantity != existingLog.getQuantity()) {
+            addToTotals(existingLog, grams(existingLog.getItem(), existingLog.getQuantity() - oldQuantity));
+        }
 
         return new CreateOrEditWasteLogResponse(existingLog.getLogId(), existingLog.getItem().getDisplayName(), existingLog.getQuantity(), existingLog.getDate());
     }
@@ -82,51 +201,62 @@ public class WasteLogService {
         WasteLog wasteLog = wasteLogRepository.findById(logId)
                 .orElseThrow(() -> new NotFoundException("WasteLog not found: " + logId));
         wasteLogRepository.delete(wasteLog);
+        addToTotals(wasteLog, -grams(wasteLog.getItem(), wasteLog.getQuantity()));
         return new DeleteWasteLogResponse(logId);
     }
 
+    private static double grams(WasteItem item, int quantity) {
+        return item.getWeightInGrams() * quantity;
+    }
+
+    /**
+     * Adds a change of {@code grams} in one log to everything kept as a running total: the goal's progress, the
+     * owner's badge counters, the owner's daily and monthly rollups for the day the log was made and the
+     * community-wide hourly totals.
+     */
+    private void addToTotals(WasteLog wasteLog, double grams) {
+        addToTotals(wasteLog.getUser().getId(), wasteLog.getGoal().getGoalId(), wasteLog.getItem().getType(),
+                wasteLog.getDate(), grams);
+    }
+
+    private void addToTotals(Integer userId, Integer goalId, WasteType type, LocalDateTime loggedAt, double grams) {
+        LocalDate day = loggedAt.toLocalDate();
+        wasteGoalRepository.addToTotal(goalId, grams);
+        badgeService.onWasteLogged(userId, type, grams);
+        wasteDailyTotalRepository.add(userId, type.getId(), day, grams);
+        wasteMonthlyTotalRepository.add(userId, type.getId(), day.withDayOfMonth(1), grams);
+        wasteTotalsIndex.add(type, loggedAt, grams);
+    }
+
     public TotalLogResponse getTotalWasteAmountByTypeAndInterval(String wasteTypeName, LocalDateTime startDate, LocalDateTime endDate) {
         WasteType wasteType = wasteTypeRepository.findByName(wasteTypeName)
                 .orElseThrow(() -> new NotFoundException("WasteType not found: " + wasteTypeName));
-        Double totalAmount = wasteLogRepository.findTotalAmountByDateRange(wasteTypeName, startDate, endDate);
+        Double totalAmount = wasteTotalsIndex.total(wasteType, startDate, endDate);
         return new TotalLogResponse(wasteType, totalAmount);
     }
 
     public WasteLogMonthlyResponse getLogsForUserPerMonth(String username, String wasteTypeName) {
-        userRepository.findByUsername(username)
+        User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new NotFoundException("User not found: " + username));
-        wasteTypeRepository.findByName(wasteTypeName)
+        WasteType wasteType = wasteTypeRepository.findByName(wasteTypeName)
                 .orElseThrow(() -> new NotFoundException("WasteType not found: " + wasteTypeName));
 
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startDate = now.minusMonths(11)
-                .withDayOfMonth(1)
-                .withHour(0)
-                .withMinute(0)
-                .withSecond(0)
-                .withNano(0);
-
-        List<MonthlyWasteData> queryResults = wasteLogRepository.findMonthlyWasteSumForUser(
-                username,
-                wasteTypeName,
-                startDate
-        );
+        LocalDate startDate = LocalDate.now().minusMonths(11).withDayOfMonth(1);
 
-        Map<String, Double> resultsMap = queryResults.stream()
-                .collect(Collectors.toMap(
-                        data -> String.format("%d-%02d", data.getYear(), data.getMonth()),
-                        MonthlyWasteData::getTotalWeight
-                ));
+        // At most one rollup row per month, so at most 12 rows however much the user has logged.
+        Map<LocalDate, Double> resultsMap = wasteMonthlyTotalRepository
+                .findByIdUserIdAndIdTypeIdAndIdPeriodStartGreaterThanEqualOrderByIdPeriodStart(
+                        user.getId(), wasteType.getId(), startDate)
+                .stream()
+                .collect(Collectors.toMap(total -> total.getId().getPeriodStart(), WasteMonthlyTotal::getTotalGrams));
 
         List<MonthlyWasteData> completeMonthlyData = new java.util.ArrayList<>();
-        LocalDateTime monthIterator = startDate;
+        LocalDate monthIterator = startDate;
 
         for (int i = 0; i < 12; i++) {
-            int year = monthIterator.getYear();
-            int month = monthIterator.getMonthValue();
-            String key = String.format("%d-%02d", year, month);
-            double totalWeight = resultsMap.getOrDefault(key, 0.0);
-            completeMonthlyData.add(new MonthlyWasteData(year, month, totalWeight));
+            double totalWeight = resultsMap.getOrDefault(monthIterator, 0.0);
+            completeMonthlyData.add(new MonthlyWasteData(monthIterator.getYear(), monthIterator.getMonthValue(),
+                    totalWeight));
             monthIterator = monthIterator.plusMonths(1);
         }
         return new WasteLogMonthlyResponse(username, wasteTypeName, completeMonthlyData);
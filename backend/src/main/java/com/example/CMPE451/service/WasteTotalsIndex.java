@@ -0,0 +1,276 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.WasteHourId;
+import com.example.CMPE451.model.WasteHourlyTotal;
+import com.example.CMPE451.model.WasteType;
+import com.example.CMPE451.repository.WasteHourlyTotalRepository;
+import com.example.CMPE451.repository.WasteLogRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Community-wide grams logged per waste type over any time range, from hourly buckets.
+ * <p>
+ * {@code waste_hourly_totals} holds one row per type and hour, updated in the transaction of every log write. In
+ * memory each type's hours are kept in a Fenwick tree, so the total of any run of whole hours is the difference of
+ * two prefix sums, each {@code O(log hours)}. Only the partial hours at the two ends of a range are summed from
+ * {@code waste_log}, through its date index. The table is filled from the log once by {@link StartupBackfills}. The
+ * trees are rebuilt from the table at startup and periodically, which also picks up writes made by other instances.
+ * <p>
+ * The table is read outside the monitor, so writes committed meanwhile may be missing from the rows. A rebuild
+ * therefore records every in-memory add made while it runs and replays those the rows do not reflect onto the new
+ * trees before swapping them in. Every write to a row bumps its {@code version}, and an add remembers the version
+ * its write produced, so an add is replayed only if the row read is older than it.
+ * <p>
+ * Changes that cannot be applied in memory (deleted goals and users, a log older than every hour in the trees)
+ * only flag the trees as stale; a rebuild picks them up within {@code waste-totals.stale-check-interval-ms}.
+ */
+@Service
+public class WasteTotalsIndex {
+
+    private final WasteHourlyTotalRepository wasteHourlyTotalRepository;
+    private final WasteLogRepository wasteLogRepository;
+
+    private Map<Integer, HourBuckets> bucketsByType = new HashMap<>();
+    private final List<List<HourDelta>> recordings = new ArrayList<>();
+    private final AtomicBoolean stale = new AtomicBoolean();
+    private volatile boolean ready;
+
+    /**
+     * An add to the row of {@code typeId} and {@code hour} that left it at {@code version}.
+     */
+    private record HourDelta(Integer typeId, LocalDateTime hour, double grams, long version) {
+    }
+
+    public WasteTotalsIndex(WasteHourlyTotalRepository wasteHourlyTotalRepository,
+                            WasteLogRepository wasteLogRepository) {
+        this.wasteHourlyTotalRepository = wasteHourlyTotalRepository;
+        this.wasteLogRepository = wasteLogRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("Waste totals rebuild failed, summing the waste log instead: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${waste-totals.rebuild-interval-ms:3600000}",
+            initialDelayString = "${waste-totals.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        List<HourDelta> missed = new ArrayList<>();
+        synchronized (this) {
+            recordings.add(missed);
+        }
+        boolean complete = true;
+        try {
+            List<WasteHourlyTotal> rows = wasteHourlyTotalRepository.findAll();
+            Map<WasteHourId, Long> versions = new HashMap<>();
+            rows.forEach(row -> versions.put(row.getId(), row.getVersion()));
+            Map<Integer, LocalDateTime> origins = new HashMap<>();
+            for (WasteHourlyTotal row : rows) {
+                origins.merge(row.getId().getTypeId(), row.getId().getPeriodStart(),
+                        (a, b) -> a.isBefore(b) ? a : b);
+            }
+            Map<Integer, HourBuckets> rebuilt = new HashMap<>();
+            origins.forEach((typeId, origin) -> rebuilt.put(typeId, new HourBuckets(origin)));
+            for (WasteHourlyTotal row : rows) {
+                rebuilt.get(row.getId().getTypeId()).add(row.getId().getPeriodStart(), row.getTotalGrams());
+            }
+            synchronized (this) {
+                for (HourDelta delta : missed) {
+                    Long read = versions.get(new WasteHourId(delta.typeId(), delta.hour()));
+                    if (read == null || read < delta.version()) {
+                        complete &= addTo(rebuilt, delta);
+                    }
+                }
+                bucketsByType = rebuilt;
+                ready = true;
+            }
+        } finally {
+            synchronized (this) {
+                recordings.removeIf(recording -> recording == missed);
+            }
+        }
+        if (!complete) {
+            // A missed add older than everything read; it is in the table now.
+            stale.set(true);
+        }
+    }
+
+    /**
+     * Rebuilds the trees if a change since the last rebuild could not be applied in memory.
+     */
+    @Scheduled(fixedDelayString = "${waste-totals.stale-check-interval-ms:5000}")
+    public void rebuildIfStale() {
+        if (stale.getAndSet(false)) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds {@code grams} to the hour of {@code loggedAt}, in the caller's transaction and, once it commits, in
+     * memory.
+     */
+    public void add(WasteType type, LocalDateTime loggedAt, double grams) {
+        LocalDateTime hour = loggedAt.truncatedTo(ChronoUnit.HOURS);
+        wasteHourlyTotalRepository.add(type.getId(), hour, grams);
+        // The upsert holds the row lock until commit, so this is the version this add produced.
+        long version = wasteHourlyTotalRepository.findVersion(type.getId(), hour);
+        afterCommit(() -> addInMemory(new HourDelta(type.getId(), hour, grams, version)));
+    }
+
+    /**
+     * Takes the logs of a goal about to be deleted out of the totals.
+     */
+    public void onGoalDeleted(Integer goalId) {
+        wasteHourlyTotalRepository.subtractGoal(goalId);
+        afterCommit(() -> stale.set(true));
+    }
+
+    /**
+     * Takes the logs of a user about to be deleted out of the totals.
+     */
+    public void onUserDeleted(Integer userId) {
+        wasteHourlyTotalRepository.subtractUser(userId);
+        afterCommit(() -> stale.set(true));
+    }
+
+    /**
+     * Grams of {@code type} logged between {@code start} and {@code end}, both inclusive.
+     */
+    public double total(WasteType type, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime firstHour = start.truncatedTo(ChronoUnit.HOURS);
+        if (firstHour.isBefore(start)) {
+            firstHour = firstHour.plusHours(1);
+        }
+        LocalDateTime lastHour = end.truncatedTo(ChronoUnit.HOURS);
+        if (!ready || !firstHour.isBefore(lastHour)) {
+            return wasteLogRepository.findTotalAmountByDateRange(type.getName(), start, end);
+        }
+        double total = wholeHours(type.getId(), firstHour, lastHour);
+        if (start.isBefore(firstHour)) {
+            total += wasteLogRepository.findTotalAmountForTypeBefore(type.getId(), start, firstHour);
+        }
+        // The hour holding the end of the range is always partial, since the range stops at its first instant.
+        return total + wasteLogRepository.findTotalAmountByDateRange(type.getName(), lastHour, end);
+    }
+
+    private synchronized double wholeHours(Integer typeId, LocalDateTime from, LocalDateTime before) {
+        HourBuckets buckets = bucketsByType.get(typeId);
+        return buckets == null ? 0 : buckets.sumBefore(before) - buckets.sumBefore(from);
+    }
+
+    private void addInMemory(HourDelta delta) {
+        boolean added;
+        synchronized (this) {
+            for (List<HourDelta> recording : recordings) {
+                recording.add(delta);
+            }
+            added = addTo(bucketsByType, delta);
+        }
+        if (!added) {
+            // Only possible for a log older than everything in the table; the table already has it.
+            stale.set(true);
+        }
+    }
+
+    /**
+     * Adds {@code delta} to its type's tree, unless it falls before the tree's first hour.
+     */
+    private static boolean addTo(Map<Integer, HourBuckets> bucketsByType, HourDelta delta) {
+        HourBuckets buckets = bucketsByType.computeIfAbsent(delta.typeId(), id -> new HourBuckets(delta.hour()));
+        if (delta.hour().isBefore(buckets.origin)) {
+            return false;
+        }
+        buckets.add(delta.hour(), delta.grams());
+        return true;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * A Fenwick tree over the hours since {@code origin}. {@code tree[i]} holds the hours
+     * {@code (i - lowbit(i), i]} (1-based), which do not depend on the tree's size, so growing it only fills in
+     * the new nodes.
+     */
+    static final class HourBuckets {
+        private final LocalDateTime origin;
+        private double[] tree = new double[1025];
+
+        HourBuckets(LocalDateTime origin) {
+            this.origin = origin;
+        }
+
+        void add(LocalDateTime hour, double grams) {
+            int index = (int) ChronoUnit.HOURS.between(origin, hour);
+            if (index >= tree.length - 1) {
+                grow(index + 1);
+            }
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += grams;
+            }
+        }
+
+        /**
+         * Total of the hours before {@code hour}.
+         */
+        double sumBefore(LocalDateTime hour) {
+            long count = Math.min(ChronoUnit.HOURS.between(origin, hour), tree.length - 1);
+            return count <= 0 ? 0 : prefix((int) count);
+        }
+
+        private double prefix(int count) {
+            double sum = 0;
+            for (int i = count; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private void grow(int hours) {
+            int size = tree.length - 1;
+            int grown = size;
+            while (grown < hours) {
+                grown *= 2;
+            }
+            double[] old = tree;
+            double[] larger = Arrays.copyOf(old, grown + 1);
+            for (int i = size + 1; i <= grown; i++) {
+                int low = i - (i & -i);
+                larger[i] = low >= size ? 0 : prefix(size) - prefix(low);
+            }
+            tree = larger;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.CMPE451.storage;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Where uploaded images live. Object keys are generated per upload and never reused, so every implementation may
+ * tell clients to cache the returned URL forever. Keys under {@link #STAGING_PREFIX} hold direct uploads that
+ * have not been processed yet and are never publicly readable.
+ */
+public interface ImageStorage {
+
+    String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    String STAGING_PREFIX = "uploads/";
+
+    /**
+     * Stores {@code length} bytes under {@code key} and returns the public URL.
+     */
+    String put(String key, InputStream content, long length, String contentType);
+
+    String publicUrl(String key);
+
+    /**
+     * Signs a PUT of exactly {@code length} bytes of {@code contentType} to {@code key}, valid for {@code ttl}.
+     */
+    PresignedUpload presignPut(String key, String contentType, long length, Duration ttl);
+
+    /**
+     * Returns the stored size of {@code key}, or empty if nothing has been uploaded there.
+     */
+    OptionalLong size(String key);
+
+    InputStream open(String key);
+
+    void delete(String key);
+}
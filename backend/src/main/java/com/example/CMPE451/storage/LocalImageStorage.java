@@ -0,0 +1,154 @@
+package com.example.CMPE451.storage;
+
+import com.example.CMPE451.exception.UploadFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Stores images under {@code storage.local.root} and serves them through {@code LocalImageController}. Files are
+ * written to a temporary name and moved into place, so a reader never sees a partial image. Presigned uploads are
+ * PUTs back to the controller carrying an HMAC over key, content type, length and expiry.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private final Path root;
+    private final String publicBaseUrl;
+    private final byte[] uploadSecret;
+
+    public LocalImageStorage(@Value("${storage.local.root:./app/images/}") String root,
+                             @Value("${storage.local.public-base-url:/images}") String publicBaseUrl,
+                             @Value("${storage.local.upload-secret:}") String uploadSecret) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+        if (uploadSecret.isBlank()) {
+            // Tickets then only survive until restart, which is fine for a single node.
+            this.uploadSecret = new byte[32];
+            new SecureRandom().nextBytes(this.uploadSecret);
+        } else {
+            this.uploadSecret = uploadSecret.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public String put(String key, InputStream content, long length, String contentType) {
+        Path target = resolve(key)
+                .orElseThrow(() -> new UploadFailedException("Invalid object key: " + key));
+        try {
+            Files.createDirectories(target.getParent());
+            Path temporary = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try {
+                Files.copy(content, temporary, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            return publicUrl(key);
+        } catch (IOException e) {
+            throw new UploadFailedException("Failed to store photo on local disk: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return publicBaseUrl + "/" + key;
+    }
+
+    @Override
+    public PresignedUpload presignPut(String key, String contentType, long length, Duration ttl) {
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        String url = publicUrl(key) + "?expires=" + expires + "&signature=" + sign(key, contentType, length, expires);
+        return new PresignedUpload(url, Map.of("Content-Type", contentType), Instant.ofEpochSecond(expires));
+    }
+
+    public boolean verifyUpload(String key, String contentType, long length, long expires, String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        byte[] expected = sign(key, contentType, length, expires).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String sign(String key, String contentType, long length, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(uploadSecret, "HmacSHA256"));
+            String payload = key + "\n" + contentType + "\n" + length + "\n" + expires;
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    @Override
+    public OptionalLong size(String key) {
+        Optional<Path> path = resolve(key).filter(Files::isRegularFile);
+        if (path.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Files.size(path.get()));
+        } catch (IOException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public InputStream open(String key) {
+        Path path = resolve(key).orElseThrow(() -> new UploadFailedException("Invalid object key: " + key));
+        try {
+            return Files.newInputStream(path);
+        } catch (NoSuchFileException e) {
+            throw new UploadFailedException("No object stored under " + key, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        Optional<Path> path = resolve(key);
+        if (path.isEmpty()) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path.get());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps an object key to its file, rejecting keys that would escape the storage root.
+     */
+    public Optional<Path> resolve(String key) {
+        if (key == null || key.isBlank()) {
+            return Optional.empty();
+        }
+        Path path = root.resolve(key).normalize();
+        return path.startsWith(root) && !path.equals(root) ? Optional.of(path) : Optional.empty();
+    }
+}
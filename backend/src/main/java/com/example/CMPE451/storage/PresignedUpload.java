@@ -0,0 +1,11 @@
+package com.example.CMPE451.storage;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A one-off PUT the client performs directly against storage. Every header in {@code headers} is part of the
+ * signature and must be sent unchanged.
+ */
+public record PresignedUpload(String url, Map<String, String> headers, Instant expiresAt) {
+}
@@ -0,0 +1,179 @@
+package com.example.CMPE451.vector;
+
+import com.example.CMPE451.config.AppConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * In-JVM {@link HnswGraph} instead of Qdrant, for deployments small enough to keep every post vector in memory.
+ * The graph is loaded from {@code vector.embedded.snapshot-path} at startup and written back periodically and on
+ * shutdown. A graph whose dead nodes outnumber its live ones is rebuilt on load. A shadow graph for a rebuild is
+ * kept next to the snapshot as {@code <snapshot>.<name>} until it is promoted.
+ */
+@Component
+@ConditionalOnProperty(name = "vector.backend", havingValue = "embedded")
+public class EmbeddedVectorIndex implements VectorIndex {
+
+    private final Path snapshotFile;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    private volatile HnswGraph graph;
+    private volatile boolean dirty;
+    private volatile HnswGraph shadow;
+    private volatile String shadowName;
+
+    public EmbeddedVectorIndex(@Value("${vector.embedded.snapshot-path:./app/vectors/forum_posts.hnsw}") String snapshotPath,
+                               @Value("${vector.embedded.m:16}") int m,
+                               @Value("${vector.embedded.ef-construction:200}") int efConstruction,
+                               @Value("${vector.embedded.ef-search:64}") int efSearch) {
+        this.snapshotFile = Paths.get(snapshotPath);
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.graph = new HnswGraph(AppConfig.VECTOR_DIMENSION, m, efConstruction);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return;
+        }
+        try {
+            HnswGraph loaded = HnswGraph.readFrom(snapshotFile);
+            if (loaded.dimension() != AppConfig.VECTOR_DIMENSION) {
+                System.err.println("Ignoring vector snapshot with " + loaded.dimension() + " dimensions");
+                return;
+            }
+            if (loaded.tombstones() > loaded.size()) {
+                loaded = loaded.compacted();
+                dirty = true;
+            }
+            graph = loaded;
+            System.out.println("Loaded " + loaded.size() + " post vectors from " + snapshotFile);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable vector snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void upsert(int postId, float[] vector, PostPayload payload) {
+        graph.upsert(postId, vector, payload);
+        dirty = true;
+    }
+
+    @Override
+    public void delete(int postId) {
+        graph.delete(postId);
+        HnswGraph building = shadow;
+        if (building != null) {
+            building.delete(postId);
+        }
+        dirty = true;
+    }
+
+    @Override
+    public List<ScoredPost> search(float[] queryVector, int limit, VectorFilter filter) {
+        return graph.search(queryVector, limit, efSearch, filter);
+    }
+
+    @Override
+    public void flush() {
+        snapshot();
+    }
+
+    @Override
+    public synchronized VectorIndex beginShadow(String name) {
+        if (!name.equals(shadowName)) {
+            HnswGraph building = new HnswGraph(AppConfig.VECTOR_DIMENSION, m, efConstruction);
+            Path file = shadowFile(name);
+            if (Files.isRegularFile(file)) {
+                try {
+                    building = HnswGraph.readFrom(file);
+                } catch (IOException e) {
+                    System.err.println("Starting shadow index " + name + " from scratch: " + e.getMessage());
+                }
+            }
+            shadow = building;
+            shadowName = name;
+        }
+        HnswGraph building = shadow;
+        return new VectorIndex() {
+            @Override
+            public void upsert(int postId, float[] vector, PostPayload payload) {
+                building.upsert(postId, vector, payload);
+            }
+
+            @Override
+            public void delete(int postId) {
+                building.delete(postId);
+            }
+
+            @Override
+            public List<ScoredPost> search(float[] queryVector, int limit, VectorFilter filter) {
+                return building.search(queryVector, limit, efSearch, filter);
+            }
+
+            @Override
+            public void flush() {
+                try {
+                    building.writeTo(shadowFile(name));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to write shadow index " + name, e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized void promoteShadow(String name) {
+        if (!name.equals(shadowName)) {
+            throw new IllegalStateException("No shadow index named " + name);
+        }
+        graph = shadow;
+        shadow = null;
+        shadowName = null;
+        dirty = true;
+        snapshot();
+        try {
+            Files.deleteIfExists(shadowFile(name));
+        } catch (IOException e) {
+            System.err.println("Failed to delete shadow index file: " + e.getMessage());
+        }
+    }
+
+    private Path shadowFile(String name) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + "." + name);
+    }
+
+    @Scheduled(fixedDelayString = "${vector.embedded.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            graph.writeTo(snapshotFile);
+        } catch (IOException e) {
+            dirty = true;
+            System.err.println("Failed to write vector snapshot: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+}
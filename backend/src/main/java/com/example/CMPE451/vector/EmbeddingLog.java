@@ -0,0 +1,253 @@
+package com.example.CMPE451.vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of post embeddings, memory-mapped in fixed-size segments.
+ * <p>
+ * Every record has the same size, {@code crc, postId, modelTag, contentHash, length, float[dimension]}, so records
+ * never straddle a segment and a record's position follows from its slot number. A put or delete appends a
+ * record; the last record of a post wins. On open the file is scanned up to the first slot whose checksum does not
+ * match, which drops a record torn by a crash along with the unused tail. Reads take no lock and decode straight
+ * from the mapped pages.
+ * <p>
+ * Overwritten and deleted records stay in the file until it is opened with more dead records than live ones;
+ * then it is first rewritten with only the live ones.
+ */
+public class EmbeddingLog implements Closeable {
+
+    private static final int FILE_MAGIC = 0x454d4c47; // "EMLG"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 24;
+
+    private final Path file;
+    private final int dimension;
+    private final int recordBytes;
+    private final int recordsPerSegment;
+    private final FileChannel channel;
+    private final Map<Integer, Integer> slotByPost = new ConcurrentHashMap<>();
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int nextSlot;
+
+    private EmbeddingLog(Path file, int dimension, long segmentBytes, FileChannel channel) {
+        this.file = file;
+        this.dimension = dimension;
+        this.recordBytes = RECORD_HEADER_BYTES + Float.BYTES * dimension;
+        this.recordsPerSegment = (int) Math.max(1, Math.min(Integer.MAX_VALUE / recordBytes, segmentBytes / recordBytes));
+        this.channel = channel;
+    }
+
+    /**
+     * Opens {@code file}, creating it if missing. A file written for another dimension is rejected.
+     */
+    public static EmbeddingLog open(Path file, int dimension, long segmentBytes) throws IOException {
+        EmbeddingLog log = openAsIs(file, dimension, segmentBytes);
+        if (log.garbage() <= log.size()) {
+            return log;
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        try (EmbeddingLog compacted = openAsIs(temporary, dimension, segmentBytes)) {
+            log.copyLiveTo(compacted);
+        } finally {
+            log.close();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return openAsIs(file, dimension, segmentBytes);
+    }
+
+    private static EmbeddingLog openAsIs(Path file, int dimension, long segmentBytes) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        EmbeddingLog log = new EmbeddingLog(file, dimension, segmentBytes, channel);
+        try {
+            log.readHeader();
+            log.scan();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int size() {
+        return slotByPost.size();
+    }
+
+    /**
+     * Records that no longer hold a live embedding.
+     */
+    public int garbage() {
+        return nextSlot - slotByPost.size();
+    }
+
+    /**
+     * The stored embedding of {@code postId} if it was computed by the model tagged {@code modelTag} from content
+     * hashing to {@code contentHash}; null otherwise.
+     */
+    public float[] get(int postId, int modelTag, long contentHash) {
+        Integer slot = slotByPost.get(postId);
+        if (slot == null) {
+            return null;
+        }
+        MappedByteBuffer segment = segments[slot / recordsPerSegment];
+        int offset = (slot % recordsPerSegment) * recordBytes;
+        if (segment.getInt(offset + 4) != postId || segment.getInt(offset + 8) != modelTag
+                || segment.getLong(offset + 12) != contentHash) {
+            return null;
+        }
+        float[] vector = new float[dimension];
+        int base = offset + RECORD_HEADER_BYTES;
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = segment.getFloat(base + i * Float.BYTES);
+        }
+        return vector;
+    }
+
+    public synchronized void put(int postId, int modelTag, long contentHash, float[] vector) throws IOException {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected " + dimension + " dimensions, got " + vector.length);
+        }
+        slotByPost.put(postId, append(postId, modelTag, contentHash, vector));
+    }
+
+    public synchronized void delete(int postId) throws IOException {
+        if (slotByPost.containsKey(postId)) {
+            append(postId, 0, 0, null);
+            slotByPost.remove(postId);
+        }
+    }
+
+    /**
+     * Writes mapped pages that changed to disk.
+     */
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    private void copyLiveTo(EmbeddingLog target) throws IOException {
+        int[] live = slotByPost.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        byte[] record = new byte[recordBytes];
+        for (int slot : live) {
+            segments[slot / recordsPerSegment].get((slot % recordsPerSegment) * recordBytes, record);
+            target.appendRaw(record);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private int append(int postId, int modelTag, long contentHash, float[] vector) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(recordBytes);
+        record.putInt(4, postId);
+        record.putInt(8, modelTag);
+        record.putLong(12, contentHash);
+        record.putInt(20, vector == null ? 0 : vector.length);
+        if (vector != null) {
+            for (int i = 0; i < vector.length; i++) {
+                record.putFloat(RECORD_HEADER_BYTES + i * Float.BYTES, vector[i]);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, recordBytes - 4);
+        record.putInt(0, (int) crc.getValue());
+        return appendRaw(record.array());
+    }
+
+    private int appendRaw(byte[] record) throws IOException {
+        int slot = nextSlot;
+        ensureSegment(slot);
+        segments[slot / recordsPerSegment].put((slot % recordsPerSegment) * recordBytes, record);
+        nextSlot = slot + 1;
+        return slot;
+    }
+
+    private void ensureSegment(int slot) throws IOException {
+        int index = slot / recordsPerSegment;
+        if (index < segments.length) {
+            return;
+        }
+        long segmentBytes = (long) recordsPerSegment * recordBytes;
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, index + 1);
+        for (int i = segments.length; i <= index; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes, segmentBytes);
+        }
+        segments = grown;
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.size() == 0) {
+            header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(dimension).putInt(recordsPerSegment).flip();
+            channel.write(header, 0);
+            return;
+        }
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != FILE_MAGIC || header.getInt() != FILE_VERSION) {
+            throw new IOException("Not an embedding log: " + file);
+        }
+        int storedDimension = header.getInt();
+        if (storedDimension != dimension) {
+            throw new IOException("Embedding log " + file + " holds " + storedDimension + " dimensions, not "
+                    + dimension);
+        }
+        if (header.getInt() != recordsPerSegment) {
+            throw new IOException("Embedding log " + file + " was written with another segment size");
+        }
+    }
+
+    private void scan() throws IOException {
+        long segmentBytes = (long) recordsPerSegment * recordBytes;
+        long stored = Math.max(0, channel.size() - HEADER_BYTES);
+        int segmentCount = (int) ((stored + segmentBytes - 1) / segmentBytes);
+        byte[] record = new byte[recordBytes];
+        CRC32 crc = new CRC32();
+        int slot = 0;
+        scanning:
+        for (int index = 0; index < segmentCount; index++) {
+            ensureSegment(index * recordsPerSegment);
+            MappedByteBuffer segment = segments[index];
+            for (int i = 0; i < recordsPerSegment; i++, slot++) {
+                segment.get(i * recordBytes, record);
+                crc.reset();
+                crc.update(record, 4, recordBytes - 4);
+                ByteBuffer view = ByteBuffer.wrap(record);
+                if (view.getInt(0) != (int) crc.getValue()) {
+                    break scanning;
+                }
+                int postId = view.getInt(4);
+                if (view.getInt(20) == 0) {
+                    slotByPost.remove(postId);
+                } else {
+                    slotByPost.put(postId, slot);
+                }
+            }
+        }
+        nextSlot = slot;
+    }
+}
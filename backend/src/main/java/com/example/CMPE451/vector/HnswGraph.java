@@ -0,0 +1,764 @@
+package com.example.CMPE451.vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical navigable small world graph (Malkov and Yashunin) over vectors normalized to unit length, so
+ * cosine similarity is a dot product.
+ * <p>
+ * Vectors live in fixed-size chunks of one flat {@code float[]} each, so growing the graph never copies them.
+ * Inserts are serialized by a lock; searches take no lock at all. Neighbour lists are immutable arrays that an
+ * insert replaces with a release store and a search reads with an acquire load, so a search always sees either
+ * the old or the new list and every node reachable through it is fully written.
+ * <p>
+ * A delete or re-insert only unmaps the post; its old node stays in the graph as a routing point and is skipped in
+ * results. {@link #tombstones()} counts them so the owner can {@link #compacted() rebuild} when they pile up.
+ * <p>
+ * Each node also carries its post's {@link PostPayload}. A filtered search walks the same graph, routing through
+ * every node but collecting only matching ones; if the filter is so selective that the walk exceeds its visit
+ * budget, it scans the payloads directly and scores only the matches, which is then the cheaper plan.
+ */
+public class HnswGraph {
+
+    private static final int SNAPSHOT_MAGIC = 0x484e5357; // "HNSW"
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int VISIT_BUDGET_FACTOR = 8;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int[] NO_NEIGHBOURS = new int[0];
+    private static final VarHandle LINKS = MethodHandles.arrayElementVarHandle(int[][].class);
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ConcurrentHashMap<Integer, Integer> nodeByPost = new ConcurrentHashMap<>();
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int nodeCount;
+    private volatile int entryPoint = -1;
+
+    private final class Chunk {
+        final float[] vectors = new float[CHUNK_SIZE * dimension];
+        final int[] postIds = new int[CHUNK_SIZE];
+        final int[] authorIds = new int[CHUNK_SIZE];
+        final long[] createdAt = new long[CHUNK_SIZE];
+        final boolean[] hasPhoto = new boolean[CHUNK_SIZE];
+        // links[slot][level] is replaced, never mutated, through LINKS.
+        final int[][][] links = new int[CHUNK_SIZE][][];
+    }
+
+    /**
+     * @param m              neighbours kept per node on the upper levels; level 0 keeps {@code 2 * m}
+     * @param efConstruction candidate list size while linking a new node
+     */
+    public HnswGraph(int dimension, int m, int efConstruction) {
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int size() {
+        return nodeByPost.size();
+    }
+
+    public int tombstones() {
+        return nodeCount - nodeByPost.size();
+    }
+
+    public boolean contains(int postId) {
+        return nodeByPost.containsKey(postId);
+    }
+
+    public void upsert(int postId, float[] vector) {
+        upsert(postId, vector, new PostPayload(0, 0, false));
+    }
+
+    public void upsert(int postId, float[] vector, PostPayload payload) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected " + dimension + " dimensions, got " + vector.length);
+        }
+        float[] unit = normalize(vector);
+        writeLock.lock();
+        try {
+            int node = insert(postId, unit, payload, (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier));
+            nodeByPost.put(postId, node);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void delete(int postId) {
+        nodeByPost.remove(postId);
+    }
+
+    /**
+     * Up to {@code limit} live posts nearest to {@code query}, most similar first. {@code ef} is the candidate
+     * list size at level 0; larger values trade latency for recall.
+     */
+    public List<VectorIndex.ScoredPost> search(float[] query, int limit, int ef) {
+        return search(query, limit, ef, VectorFilter.NONE);
+    }
+
+    /**
+     * As {@link #search(float[], int, int)}, keeping only posts whose payload matches {@code filter}.
+     */
+    public List<VectorIndex.ScoredPost> search(float[] query, int limit, int ef, VectorFilter filter) {
+        int entry = entryPoint;
+        if (entry < 0 || limit <= 0 || filter.matchesNothing()) {
+            return List.of();
+        }
+        float[] unit = normalize(query);
+        for (int level = levels(entry) - 1; level > 0; level--) {
+            entry = greedyClosest(unit, entry, level);
+        }
+        int width = Math.max(ef, limit);
+        if (filter.isEmpty()) {
+            return best(searchLayer(unit, entry, width, 0), limit);
+        }
+        NodeHeap found = searchFiltered(unit, entry, width, filter, width * maxM0 * VISIT_BUDGET_FACTOR);
+        return best(found != null ? found : scan(unit, limit, filter), limit);
+    }
+
+    /**
+     * The live posts in a min-heap of candidates, best first.
+     */
+    private List<VectorIndex.ScoredPost> best(NodeHeap candidates, int limit) {
+        List<VectorIndex.ScoredPost> results = new ArrayList<>(candidates.size());
+        while (candidates.size() > 0) {
+            float score = candidates.peekKey();
+            int node = candidates.pop();
+            if (isLive(node)) {
+                results.add(new VectorIndex.ScoredPost(chunk(node).postIds[node & CHUNK_MASK], score));
+            }
+        }
+        // The heap pops worst first.
+        List<VectorIndex.ScoredPost> best = new ArrayList<>(Math.min(limit, results.size()));
+        for (int i = results.size() - 1; i >= 0 && best.size() < limit; i--) {
+            best.add(results.get(i));
+        }
+        return best;
+    }
+
+    private boolean isLive(int node) {
+        Integer current = nodeByPost.get(chunk(node).postIds[node & CHUNK_MASK]);
+        return current != null && current == node;
+    }
+
+    private boolean accepts(int node, VectorFilter filter) {
+        Chunk chunk = chunk(node);
+        int slot = node & CHUNK_MASK;
+        return filter.matches(chunk.authorIds[slot], chunk.createdAt[slot], chunk.hasPhoto[slot]) && isLive(node);
+    }
+
+    /**
+     * A new graph holding only the live posts.
+     */
+    public HnswGraph compacted() {
+        HnswGraph graph = new HnswGraph(dimension, m, efConstruction);
+        float[] vector = new float[dimension];
+        for (var entry : nodeByPost.entrySet()) {
+            int node = entry.getValue();
+            Chunk chunk = chunk(node);
+            int slot = node & CHUNK_MASK;
+            System.arraycopy(chunk.vectors, slot * dimension, vector, 0, dimension);
+            graph.upsert(entry.getKey(), vector,
+                    new PostPayload(chunk.authorIds[slot], chunk.createdAt[slot], chunk.hasPhoto[slot]));
+        }
+        return graph;
+    }
+
+    private int insert(int postId, float[] unit, PostPayload payload, int level) {
+        int node = nodeCount;
+        if ((node >>> CHUNK_SHIFT) == chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = new Chunk();
+            chunks = grown;
+        }
+        Chunk chunk = chunk(node);
+        int slot = node & CHUNK_MASK;
+        System.arraycopy(unit, 0, chunk.vectors, slot * dimension, dimension);
+        chunk.postIds[slot] = postId;
+        chunk.authorIds[slot] = payload.authorId();
+        chunk.createdAt[slot] = payload.createdAt();
+        chunk.hasPhoto[slot] = payload.hasPhoto();
+        int[][] links = new int[level + 1][];
+        Arrays.fill(links, NO_NEIGHBOURS);
+        chunk.links[slot] = links;
+        nodeCount = node + 1;
+
+        int entry = entryPoint;
+        if (entry < 0) {
+            entryPoint = node;
+            return node;
+        }
+        int entryLevel = levels(entry) - 1;
+        for (int l = entryLevel; l > level; l--) {
+            entry = greedyClosest(unit, entry, l);
+        }
+        int top = Math.min(level, entryLevel);
+        for (int l = top; l >= 0; l--) {
+            NodeHeap found = searchLayer(unit, entry, efConstruction, l);
+            int[] candidates = new int[found.size()];
+            float[] scores = new float[found.size()];
+            for (int i = candidates.length - 1; i >= 0; i--) {
+                scores[i] = found.peekKey();
+                candidates[i] = found.pop();
+            }
+            entry = candidates[0];
+            LINKS.setRelease(links, l, selectNeighbours(candidates, scores, candidates.length, l == 0 ? maxM0 : m));
+        }
+        // Searches reach the node only through these back links, so they go in once all of its own levels are
+        // linked; otherwise a search could descend into it and find no way on at level 0.
+        for (int l = top; l >= 0; l--) {
+            for (int neighbour : (int[]) LINKS.getAcquire(links, l)) {
+                link(neighbour, node, l);
+            }
+        }
+        if (level > entryLevel) {
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    private void link(int from, int to, int level) {
+        int[][] links = chunk(from).links[from & CHUNK_MASK];
+        int[] current = (int[]) LINKS.getAcquire(links, level);
+        int max = level == 0 ? maxM0 : m;
+        int[] updated;
+        if (current.length < max) {
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = to;
+        } else {
+            int[] candidates = Arrays.copyOf(current, current.length + 1);
+            candidates[current.length] = to;
+            float[] scores = new float[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                scores[i] = similarity(from, candidates[i]);
+            }
+            sortDescending(candidates, scores);
+            updated = selectNeighbours(candidates, scores, candidates.length, max);
+        }
+        LINKS.setRelease(links, level, updated);
+    }
+
+    /**
+     * The neighbour-selection heuristic: walking candidates best first, keep one only if it is closer to the base
+     * than to every neighbour already kept. That spreads links across directions instead of into one cluster.
+     */
+    private int[] selectNeighbours(int[] candidates, float[] scores, int count, int max) {
+        int[] selected = new int[Math.min(max, count)];
+        int size = 0;
+        for (int i = 0; i < count && size < selected.length; i++) {
+            boolean keep = true;
+            for (int j = 0; j < size; j++) {
+                if (similarity(candidates[i], selected[j]) > scores[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[size++] = candidates[i];
+            }
+        }
+        return size == selected.length ? selected : Arrays.copyOf(selected, size);
+    }
+
+    private int greedyClosest(float[] query, int entry, int level) {
+        int best = entry;
+        float bestScore = similarity(query, entry);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : neighbours(best, level)) {
+                float score = similarity(query, neighbour);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Best-first search of one level; returns up to {@code ef} nodes in a min-heap on similarity.
+     */
+    private NodeHeap searchLayer(float[] query, int entry, int ef, int level) {
+        Visited seen = visited.get();
+        seen.reset(nodeCount);
+        NodeHeap candidates = new NodeHeap(ef);
+        NodeHeap results = new NodeHeap(ef + 1);
+        float entryScore = similarity(query, entry);
+        seen.mark(entry);
+        candidates.push(-entryScore, entry);
+        results.push(entryScore, entry);
+        while (candidates.size() > 0) {
+            float score = -candidates.peekKey();
+            if (results.size() >= ef && score < results.peekKey()) {
+                break;
+            }
+            int node = candidates.pop();
+            for (int neighbour : neighbours(node, level)) {
+                if (!seen.mark(neighbour)) {
+                    continue;
+                }
+                float neighbourScore = similarity(query, neighbour);
+                if (results.size() < ef || neighbourScore > results.peekKey()) {
+                    candidates.push(-neighbourScore, neighbour);
+                    results.push(neighbourScore, neighbour);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Level-0 search that routes through every node but keeps only live nodes matching {@code filter}, so the walk
+     * goes on past non-matching regions until it has {@code ef} matches. Returns null once it has examined
+     * {@code maxVisits} nodes, which means matches are too rare for the graph walk to pay off.
+     */
+    private NodeHeap searchFiltered(float[] query, int entry, int ef, VectorFilter filter, int maxVisits) {
+        Visited seen = visited.get();
+        seen.reset(nodeCount);
+        NodeHeap candidates = new NodeHeap(ef);
+        NodeHeap results = new NodeHeap(ef + 1);
+        float entryScore = similarity(query, entry);
+        seen.mark(entry);
+        candidates.push(-entryScore, entry);
+        if (accepts(entry, filter)) {
+            results.push(entryScore, entry);
+        }
+        int visits = 1;
+        while (candidates.size() > 0) {
+            float score = -candidates.peekKey();
+            if (results.size() >= ef && score < results.peekKey()) {
+                break;
+            }
+            int node = candidates.pop();
+            for (int neighbour : neighbours(node, 0)) {
+                if (!seen.mark(neighbour)) {
+                    continue;
+                }
+                if (++visits > maxVisits) {
+                    return null;
+                }
+                float neighbourScore = similarity(query, neighbour);
+                if (results.size() < ef || neighbourScore > results.peekKey()) {
+                    candidates.push(-neighbourScore, neighbour);
+                    if (accepts(neighbour, filter)) {
+                        results.push(neighbourScore, neighbour);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Exact search over the nodes whose payload matches; only those are scored.
+     */
+    private NodeHeap scan(float[] query, int limit, VectorFilter filter) {
+        NodeHeap results = new NodeHeap(limit + 1);
+        int count = nodeCount;
+        for (int node = 0; node < count; node++) {
+            if (!accepts(node, filter)) {
+                continue;
+            }
+            float score = similarity(query, node);
+            if (results.size() < limit || score > results.peekKey()) {
+                results.push(score, node);
+                if (results.size() > limit) {
+                    results.pop();
+                }
+            }
+        }
+        return results;
+    }
+
+    private int[] neighbours(int node, int level) {
+        return (int[]) LINKS.getAcquire(chunk(node).links[node & CHUNK_MASK], level);
+    }
+
+    private int levels(int node) {
+        return chunk(node).links[node & CHUNK_MASK].length;
+    }
+
+    private Chunk chunk(int node) {
+        return chunks[node >>> CHUNK_SHIFT];
+    }
+
+    private float similarity(float[] query, int node) {
+        float[] vectors = chunk(node).vectors;
+        int offset = (node & CHUNK_MASK) * dimension;
+        float sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += query[i] * vectors[offset + i];
+        }
+        return sum;
+    }
+
+    private float similarity(int a, int b) {
+        float[] vectorsA = chunk(a).vectors;
+        float[] vectorsB = chunk(b).vectors;
+        int offsetA = (a & CHUNK_MASK) * dimension;
+        int offsetB = (b & CHUNK_MASK) * dimension;
+        float sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += vectorsA[offsetA + i] * vectorsB[offsetB + i];
+        }
+        return sum;
+    }
+
+    private float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float scale = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] * scale;
+        }
+        return unit;
+    }
+
+    private static void sortDescending(int[] nodes, float[] scores) {
+        Integer[] order = new Integer[nodes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Float.compare(scores[y], scores[x]));
+        int[] sortedNodes = new int[nodes.length];
+        float[] sortedScores = new float[nodes.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedNodes[i] = nodes[order[i]];
+            sortedScores[i] = scores[order[i]];
+        }
+        System.arraycopy(sortedNodes, 0, nodes, 0, nodes.length);
+        System.arraycopy(sortedScores, 0, scores, 0, scores.length);
+    }
+
+    /**
+     * Writes the graph through memory-mapped windows of a temporary file, then moves it over {@code file}.
+     * Inserts wait while this runs; searches do not.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        writeLock.lock();
+        try (MappedOutput out = new MappedOutput(temporary)) {
+            int count = nodeCount;
+            out.putInt(SNAPSHOT_MAGIC);
+            out.putInt(SNAPSHOT_VERSION);
+            out.putInt(dimension);
+            out.putInt(m);
+            out.putInt(efConstruction);
+            out.putInt(count);
+            out.putInt(entryPoint);
+            for (int node = 0; node < count; node++) {
+                Chunk chunk = chunk(node);
+                int slot = node & CHUNK_MASK;
+                int postId = chunk.postIds[slot];
+                Integer current = nodeByPost.get(postId);
+                out.putInt(postId);
+                out.putInt(current != null && current == node ? 1 : 0);
+                out.putInt(chunk.authorIds[slot]);
+                out.putLong(chunk.createdAt[slot]);
+                out.putInt(chunk.hasPhoto[slot] ? 1 : 0);
+                int offset = slot * dimension;
+                for (int i = 0; i < dimension; i++) {
+                    out.putFloat(chunk.vectors[offset + i]);
+                }
+                int[][] links = chunk.links[slot];
+                out.putInt(links.length);
+                for (int level = 0; level < links.length; level++) {
+                    int[] neighbours = neighbours(node, level);
+                    out.putInt(neighbours.length);
+                    for (int neighbour : neighbours) {
+                        out.putInt(neighbour);
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static HnswGraph readFrom(Path file) throws IOException {
+        try (MappedInput in = new MappedInput(file)) {
+            if (in.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not an HNSW snapshot: " + file);
+            }
+            int version = in.getInt();
+            if (version < 1 || version > SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported HNSW snapshot version " + version + ": " + file);
+            }
+            HnswGraph graph = new HnswGraph(in.getInt(), in.getInt(), in.getInt());
+            int count = in.getInt();
+            int entry = in.getInt();
+            Chunk[] chunks = new Chunk[(count + CHUNK_SIZE - 1) >>> CHUNK_SHIFT];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = graph.new Chunk();
+            }
+            for (int node = 0; node < count; node++) {
+                Chunk chunk = chunks[node >>> CHUNK_SHIFT];
+                int slot = node & CHUNK_MASK;
+                int postId = in.getInt();
+                chunk.postIds[slot] = postId;
+                if (in.getInt() == 1) {
+                    graph.nodeByPost.put(postId, node);
+                }
+                // Version 1 snapshots predate payloads; those posts keep an empty payload until they are re-indexed.
+                if (version >= 2) {
+                    chunk.authorIds[slot] = in.getInt();
+                    chunk.createdAt[slot] = in.getLong();
+                    chunk.hasPhoto[slot] = in.getInt() == 1;
+                }
+                int offset = slot * graph.dimension;
+                for (int i = 0; i < graph.dimension; i++) {
+                    chunk.vectors[offset + i] = in.getFloat();
+                }
+                int[][] links = new int[in.getInt()][];
+                for (int level = 0; level < links.length; level++) {
+                    int[] neighbours = new int[in.getInt()];
+                    for (int i = 0; i < neighbours.length; i++) {
+                        neighbours[i] = in.getInt();
+                    }
+                    links[level] = neighbours;
+                }
+                chunk.links[slot] = links;
+            }
+            graph.chunks = chunks;
+            graph.nodeCount = count;
+            graph.entryPoint = entry;
+            return graph;
+        }
+    }
+
+    private static final class MappedOutput implements Closeable {
+        private static final long WINDOW = 64L << 20;
+
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private long windowStart;
+
+        MappedOutput(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer == null || buffer.remaining() < bytes) {
+                if (buffer != null) {
+                    windowStart += buffer.position();
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, WINDOW);
+            }
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putFloat(float value) throws IOException {
+            ensure(Float.BYTES);
+            buffer.putFloat(value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (buffer != null) {
+                    buffer.force();
+                    channel.truncate(windowStart + buffer.position());
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private static final class MappedInput implements Closeable {
+        private static final long WINDOW = 64L << 20;
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer buffer;
+        private long windowStart;
+
+        MappedInput(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            size = channel.size();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer == null || buffer.remaining() < bytes) {
+                if (buffer != null) {
+                    windowStart += buffer.position();
+                }
+                if (windowStart + bytes > size) {
+                    throw new IOException("Truncated HNSW snapshot");
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW, size - windowStart));
+            }
+        }
+
+        int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensure(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        float getFloat() throws IOException {
+            ensure(Float.BYTES);
+            return buffer.getFloat();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Binary min-heap of (float key, node) pairs; a max-heap is the same heap over negated keys.
+     */
+    private static final class NodeHeap {
+        private float[] keys;
+        private int[] nodes;
+        private int size;
+
+        NodeHeap(int capacity) {
+            keys = new float[Math.max(capacity, 4)];
+            nodes = new int[keys.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        float peekKey() {
+            return keys[0];
+        }
+
+        void push(float key, int node) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            float key = keys[--size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+            return top;
+        }
+    }
+
+    /**
+     * Per-thread visited marks; bumping the stamp clears them in O(1).
+     */
+    private static final class Visited {
+        private int[] stamps = new int[0];
+        private int stamp;
+
+        void reset(int capacity) {
+            if (stamps.length < capacity) {
+                stamps = new int[Math.max(capacity, stamps.length * 2)];
+                stamp = 0;
+            }
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+        }
+
+        boolean mark(int node) {
+            if (node >= stamps.length) {
+                stamps = Arrays.copyOf(stamps, Math.max(node + 1, stamps.length * 2));
+            }
+            if (stamps[node] == stamp) {
+                return false;
+            }
+            stamps[node] = stamp;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.CMPE451.vector;
+
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.PostText;
+
+/**
+ * The post fields stored next to its vector so searches can filter on them inside the index.
+ *
+ * @param createdAt creation time in epoch milliseconds
+ */
+public record PostPayload(int authorId, long createdAt, boolean hasPhoto) {
+
+    public static PostPayload of(Post post) {
+        return new PostPayload(post.getUser().getId(), post.getCreatedAt().getTime(), post.getPhotoUrl() != null);
+    }
+
+    public static PostPayload of(PostText text) {
+        return new PostPayload(text.getAuthorId(), text.getCreatedAt().getTime(), text.getPhotoUrl() != null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.CMPE451.vector;
+
+import com.example.CMPE451.config.AppConfig;
+import io.qdrant.client.grpc.Collections.CreateCollection;
+import io.qdrant.client.grpc.Collections.Distance;
+import io.qdrant.client.grpc.Collections.HnswConfigDiff;
+import io.qdrant.client.grpc.Collections.QuantizationConfig;
+import io.qdrant.client.grpc.Collections.QuantizationType;
+import io.qdrant.client.grpc.Collections.ScalarQuantization;
+import io.qdrant.client.grpc.Collections.VectorParams;
+import io.qdrant.client.grpc.Collections.VectorsConfig;
+import io.qdrant.client.grpc.Points.QuantizationSearchParams;
+import io.qdrant.client.grpc.Points.SearchParams;
+
+/**
+ * How Qdrant collections are built and searched, from {@code vector.qdrant.*}.
+ * <p>
+ * With {@code quantization} on, each vector is also kept as int8 codes (a quarter of the float32 size), clipped
+ * to the {@code quantile} of the value distribution. The graph search scores the codes, then, if {@code rescore}
+ * is set, re-ranks the best {@code limit * oversampling} hits with the original vectors. With {@code onDisk} the
+ * originals stay on disk and only the codes have to fit in memory.
+ * <p>
+ * Collection settings apply when a collection is created; a shadow reindex moves the live index onto new ones.
+ *
+ * @param m           graph links per node
+ * @param efConstruct candidate list size while building the graph
+ * @param efSearch    candidate list size per query; higher is slower and more accurate
+ */
+public record QdrantSettings(int m, int efConstruct, boolean onDisk, boolean quantization, float quantile,
+                             int efSearch, boolean rescore, double oversampling) {
+
+    public CreateCollection collectionSpec(String name) {
+        CreateCollection.Builder spec = CreateCollection.newBuilder()
+                .setCollectionName(name)
+                .setVectorsConfig(VectorsConfig.newBuilder()
+                        .setParams(VectorParams.newBuilder()
+                                .setSize(AppConfig.VECTOR_DIMENSION)
+                                .setDistance(Distance.Cosine)
+                                .setOnDisk(onDisk)))
+                .setHnswConfig(HnswConfigDiff.newBuilder()
+                        .setM(m)
+                        .setEfConstruct(efConstruct));
+        if (quantization) {
+            spec.setQuantizationConfig(QuantizationConfig.newBuilder()
+                    .setScalar(ScalarQuantization.newBuilder()
+                            .setType(QuantizationType.Int8)
+                            .setQuantile(quantile)
+                            .setAlwaysRam(true)));
+        }
+        return spec.build();
+    }
+
+    public SearchParams searchParams() {
+        SearchParams.Builder params = SearchParams.newBuilder().setHnswEf(efSearch);
+        if (quantization) {
+            params.setQuantization(QuantizationSearchParams.newBuilder()
+                    .setRescore(rescore)
+                    .setOversampling(oversampling));
+        }
+        return params.build();
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.CMPE451.vector;
+
+import com.example.CMPE451.config.AppConfig;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Collections.PayloadSchemaType;
+import io.qdrant.client.grpc.Collections.AliasDescription;
+import io.qdrant.client.grpc.Collections.AliasOperations;
+import io.qdrant.client.grpc.Collections.CreateAlias;
+import io.qdrant.client.grpc.Collections.DeleteAlias;
+import io.qdrant.client.grpc.Points.Condition;
+import io.qdrant.client.grpc.Points.Filter;
+import io.qdrant.client.grpc.Points.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.Range;
+import io.qdrant.client.grpc.Points.ScoredPoint;
+import io.qdrant.client.grpc.Points.SearchPoints;
+import io.qdrant.client.grpc.Points.Vector;
+import io.qdrant.client.grpc.Points.Vectors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import static io.qdrant.client.ConditionFactory.match;
+import static io.qdrant.client.ConditionFactory.matchValues;
+import static io.qdrant.client.ConditionFactory.range;
+import static io.qdrant.client.ValueFactory.value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Qdrant-backed index. Reads and writes go through the alias {@link AppConfig#COLLECTION_ALIAS}, so a rebuilt
+ * collection can replace the live one with a single atomic alias update.
+ * <p>
+ * Each point carries its {@link PostPayload} as {@code author_id}, {@code created_at} (epoch milliseconds) and
+ * {@code has_photo}, all with payload indexes, and a {@link VectorFilter} becomes the search's Qdrant filter, so
+ * Qdrant applies it while walking its graph or, for very selective filters, plans a scan of the payload index.
+ */
+@Component
+@ConditionalOnProperty(name = "vector.backend", havingValue = "qdrant", matchIfMissing = true)
+public class QdrantVectorIndex implements VectorIndex {
+
+    private final QdrantClient client;
+    private final QdrantSettings settings;
+    private final Set<String> shadows = ConcurrentHashMap.newKeySet();
+
+    public QdrantVectorIndex(QdrantClient client, QdrantSettings settings) {
+        this.client = client;
+        this.settings = settings;
+    }
+
+    public static final String AUTHOR_ID = "author_id";
+    public static final String CREATED_AT = "created_at";
+    public static final String HAS_PHOTO = "has_photo";
+
+    /**
+     * Creates the payload indexes the search filters use; Qdrant treats an existing index as a no-op.
+     */
+    public static void createPayloadIndexes(QdrantClient client, String collection) throws Exception {
+        client.createPayloadIndexAsync(collection, AUTHOR_ID, PayloadSchemaType.Integer, null, true, null, null).get();
+        client.createPayloadIndexAsync(collection, CREATED_AT, PayloadSchemaType.Integer, null, true, null, null).get();
+        client.createPayloadIndexAsync(collection, HAS_PHOTO, PayloadSchemaType.Bool, null, true, null, null).get();
+    }
+
+    /**
+     * The Qdrant filter equivalent to {@code filter}, or null if it has no conditions.
+     */
+    static Filter toQdrantFilter(VectorFilter filter) {
+        if (filter.isEmpty()) {
+            return null;
+        }
+        List<Condition> must = new ArrayList<>(3);
+        if (filter.authorIds() != null) {
+            must.add(matchValues(AUTHOR_ID, filter.authorIds().stream().map(Integer::longValue).toList()));
+        }
+        if (filter.createdFrom() != null || filter.createdTo() != null) {
+            Range.Builder created = Range.newBuilder();
+            if (filter.createdFrom() != null) {
+                created.setGte(filter.createdFrom());
+            }
+            if (filter.createdTo() != null) {
+                created.setLt(filter.createdTo());
+            }
+            must.add(range(CREATED_AT, created.build()));
+        }
+        if (filter.hasPhoto() != null) {
+            must.add(match(HAS_PHOTO, filter.hasPhoto()));
+        }
+        return Filter.newBuilder().addAllMust(must).build();
+    }
+
+    @Override
+    public void upsert(int postId, float[] vector, PostPayload payload) {
+        upsertInto(AppConfig.COLLECTION_ALIAS, List.of(new PostVector(postId, vector, payload)));
+    }
+
+    @Override
+    public void upsertAll(List<PostVector> vectors) {
+        upsertInto(AppConfig.COLLECTION_ALIAS, vectors);
+    }
+
+    @Override
+    public void delete(int postId) {
+        deleteFrom(AppConfig.COLLECTION_ALIAS, postId);
+        for (String shadow : shadows) {
+            deleteFrom(shadow, postId);
+        }
+    }
+
+    @Override
+    public List<ScoredPost> search(float[] queryVector, int limit, VectorFilter filter) {
+        return searchIn(AppConfig.COLLECTION_ALIAS, queryVector, limit, filter);
+    }
+
+    @Override
+    public VectorIndex beginShadow(String name) {
+        try {
+            if (!client.collectionExistsAsync(name).get()) {
+                System.out.println("Creating shadow Qdrant collection: " + name);
+                client.createCollectionAsync(settings.collectionSpec(name)).get();
+            }
+            createPayloadIndexes(client, name);
+        } catch (Exception e) {
+            throw new RuntimeException("Could not create Qdrant collection " + name, e);
+        }
+        shadows.add(name);
+        return new VectorIndex() {
+            @Override
+            public void upsert(int postId, float[] vector, PostPayload payload) {
+                upsertInto(name, List.of(new PostVector(postId, vector, payload)));
+            }
+
+            @Override
+            public void upsertAll(List<PostVector> vectors) {
+                upsertInto(name, vectors);
+            }
+
+            @Override
+            public void delete(int postId) {
+                deleteFrom(name, postId);
+            }
+
+            @Override
+            public List<ScoredPost> search(float[] queryVector, int limit, VectorFilter filter) {
+                return searchIn(name, queryVector, limit, filter);
+            }
+        };
+    }
+
+    @Override
+    public void promoteShadow(String name) {
+        String previous;
+        try {
+            previous = client.listAliasesAsync().get().stream()
+                    .filter(alias -> alias.getAliasName().equals(AppConfig.COLLECTION_ALIAS))
+                    .map(AliasDescription::getCollectionName)
+                    .findFirst()
+                    .orElse(null);
+            client.updateAliasesAsync(List.of(
+                    AliasOperations.newBuilder()
+                            .setDeleteAlias(DeleteAlias.newBuilder().setAliasName(AppConfig.COLLECTION_ALIAS))
+                            .build(),
+                    AliasOperations.newBuilder()
+                            .setCreateAlias(CreateAlias.newBuilder()
+                                    .setAliasName(AppConfig.COLLECTION_ALIAS)
+                                    .setCollectionName(name))
+                            .build()
+            )).get();
+            shadows.remove(name);
+            System.out.println("Qdrant alias " + AppConfig.COLLECTION_ALIAS + " now points to " + name);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to switch Qdrant alias to " + name, e);
+        }
+        if (previous != null && !previous.equals(name)) {
+            try {
+                client.deleteCollectionAsync(previous).get();
+                System.out.println("Dropped previous Qdrant collection " + previous);
+            } catch (Exception e) {
+                System.err.println("Failed to drop previous Qdrant collection " + previous + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void upsertInto(String collection, List<PostVector> vectors) {
+        List<PointStruct> points = new ArrayList<>(vectors.size());
+        for (PostVector post : vectors) {
+            // addData(float) appends to protobuf's primitive float list; no boxed List<Float> in between.
+            Vector.Builder vector = Vector.newBuilder();
+            for (float f : post.vector()) {
+                vector.addData(f);
+            }
+            points.add(PointStruct.newBuilder()
+                    .setId(PointId.newBuilder().setNum(post.postId()).build())
+                    .setVectors(Vectors.newBuilder().setVector(vector))
+                    .putPayload(AUTHOR_ID, value(post.payload().authorId()))
+                    .putPayload(CREATED_AT, value(post.payload().createdAt()))
+                    .putPayload(HAS_PHOTO, value(post.payload().hasPhoto()))
+                    .build());
+        }
+
+        try {
+            client.upsertAsync(collection, points).get();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to upsert vector", e);
+        }
+    }
+
+    private void deleteFrom(String collection, int postId) {
+        PointId id = PointId.newBuilder().setNum(postId).build();
+        try {
+            client.deleteAsync(collection, List.of(id)).get();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to delete vector", e);
+        }
+    }
+
+    private List<ScoredPost> searchIn(String collection, float[] queryVector, int limit, VectorFilter filter) {
+        if (filter.matchesNothing()) {
+            return List.of();
+        }
+        SearchPoints.Builder searchPoints = SearchPoints.newBuilder()
+                .setCollectionName(collection)
+                .setLimit(limit)
+                .setParams(settings.searchParams());
+        for (float f : queryVector) {
+            searchPoints.addVector(f);
+        }
+        Filter qdrantFilter = toQdrantFilter(filter);
+        if (qdrantFilter != null) {
+            searchPoints.setFilter(qdrantFilter);
+        }
+
+        try {
+            List<ScoredPoint> results = client.searchAsync(searchPoints.build()).get();
+
+            return results.stream()
+                    .map(sp -> new ScoredPost((int) sp.getId().getNum(), sp.getScore()))
+                    .collect(Collectors.toList());
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to search vectors", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.CMPE451.vector;
+
+import java.util.Set;
+
+/**
+ * Conditions on {@link PostPayload} that a search result must meet; null fields are not checked.
+ *
+ * @param authorIds   posts by one of these users; an empty set matches nothing
+ * @param createdFrom earliest creation time in epoch milliseconds, inclusive
+ * @param createdTo   latest creation time in epoch milliseconds, exclusive
+ */
+public record VectorFilter(Set<Integer> authorIds, Long createdFrom, Long createdTo, Boolean hasPhoto) {
+
+    public static final VectorFilter NONE = new VectorFilter(null, null, null, null);
+
+    public boolean isEmpty() {
+        return authorIds == null && createdFrom == null && createdTo == null && hasPhoto == null;
+    }
+
+    public boolean matchesNothing() {
+        return (authorIds != null && authorIds.isEmpty())
+                || (createdFrom != null && createdTo != null && createdFrom >= createdTo);
+    }
+
+    public boolean matches(int authorId, long createdAt, boolean photo) {
+        return (authorIds == null || authorIds.contains(authorId))
+                && (createdFrom == null || createdAt >= createdFrom)
+                && (createdTo == null || createdAt < createdTo)
+                && (hasPhoto == null || hasPhoto == photo);
+    }
+
+    public boolean matches(PostPayload payload) {
+        return matches(payload.authorId(), payload.createdAt(), payload.hasPhoto());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.CMPE451.vector;
+
+import java.util.List;
+
+/**
+ * Nearest-neighbour index over post embeddings of {@code AppConfig.VECTOR_DIMENSION} dimensions, compared by
+ * cosine similarity. Each post has at most one vector, stored with its {@link PostPayload}; upserting a post again
+ * replaces both.
+ */
+public interface VectorIndex {
+
+    record ScoredPost(int postId, float score) {
+    }
+
+    record PostVector(int postId, float[] vector, PostPayload payload) {
+    }
+
+    void upsert(int postId, float[] vector, PostPayload payload);
+
+    default void upsertAll(List<PostVector> vectors) {
+        for (PostVector vector : vectors) {
+            upsert(vector.postId(), vector.vector(), vector.payload());
+        }
+    }
+
+    void delete(int postId);
+
+    /**
+     * Nearest posts to {@code queryVector}, most similar first.
+     */
+    default List<ScoredPost> search(float[] queryVector, int limit) {
+        return search(queryVector, limit, VectorFilter.NONE);
+    }
+
+    /**
+     * Nearest posts to {@code queryVector} whose payload matches {@code filter}, most similar first. The filter is
+     * applied while the index is searched, so a selective filter still yields up to {@code limit} posts.
+     */
+    List<ScoredPost> search(float[] queryVector, int limit, VectorFilter filter);
+
+    /**
+     * Makes every write so far durable. Writes to remote backends are durable when they return.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Starts, or resumes after a restart, building a replacement index called {@code name} and returns it for the
+     * rebuild to write into. Searches and upserts keep using the live index; deletes on this node also reach the
+     * shadow, so it does not bring deleted posts back.
+     */
+    default VectorIndex beginShadow(String name) {
+        throw new UnsupportedOperationException("This vector index cannot build a shadow index");
+    }
+
+    /**
+     * Atomically makes the shadow started under {@code name} the live index and drops the index it replaced.
+     */
+    default void promoteShadow(String name) {
+        throw new UnsupportedOperationException("This vector index cannot build a shadow index");
+    }
+}
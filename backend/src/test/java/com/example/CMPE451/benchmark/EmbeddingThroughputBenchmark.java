@@ -0,0 +1,155 @@
+package com.example.CMPE451.benchmark;
+
+import ai.djl.Application;
+import ai.djl.inference.Predictor;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ZooModel;
+import com.example.CMPE451.service.EmbeddingService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Load test for {@link EmbeddingService}: N client threads embed short forum posts back to back, first through a
+ * single predictor behind a lock (what the old shared bean amounts to once it is made safe), then through the
+ * pooled, micro-batched service. Reports embeddings/sec and p50/p99 latency per client count.
+ * <p>
+ * By default the model is simulated by a CPU-bound embedder with a fixed per-call cost and a smaller per-text
+ * cost, which is the shape that makes batching pay off. To measure the real model (downloads all-MiniLM-L6-v2):
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.CMPE451.benchmark.EmbeddingThroughputBenchmark \
+ *     -Dbench.model=djl -Dbench.clients=1,8,32 -Dbench.seconds=10
+ * </pre>
+ */
+public class EmbeddingThroughputBenchmark {
+
+    private static final String[] TEXTS = {
+            "Tips for composting kitchen scraps in a small apartment",
+            "How do you recycle glass jars with metal lids?",
+            "Our street cleanup collected 40 kg of plastic this weekend",
+            "Is it better to reuse or recycle aluminium foil?",
+            "Looking for a repair cafe near the campus",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int[] clients = Arrays.stream(System.getProperty("bench.clients", "1,4,16,64").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int seconds = Integer.getInteger("bench.seconds", 5);
+        int workers = Integer.getInteger("bench.workers", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        int maxBatch = Integer.getInteger("bench.max-batch", 16);
+        long maxWaitMicros = Long.getLong("bench.max-wait-micros", 500);
+
+        ZooModel<String, float[]> model = "djl".equals(System.getProperty("bench.model")) ? loadModel() : null;
+        Supplier<EmbeddingService.Embedder> embedders = model == null
+                ? SimulatedEmbedder::new
+                : () -> {
+                    Predictor<String, float[]> predictor = model.newPredictor();
+                    return predictor::batchPredict;
+                };
+
+        System.out.printf("%-10s %8s %14s %10s %10s%n", "mode", "clients", "embeddings/s", "p50 ms", "p99 ms");
+        for (int c : clients) {
+            EmbeddingService.Embedder shared = embedders.get();
+            Object lock = new Object();
+            run("locked", c, seconds, text -> {
+                synchronized (lock) {
+                    return shared.embed(List.of(text)).get(0);
+                }
+            });
+
+            EmbeddingService pooled = new EmbeddingService(embedders, workers, maxBatch, maxWaitMicros, 4096, 1000, 30000);
+            run("batched", c, seconds, pooled::createEmbedding);
+            pooled.shutdown();
+        }
+        if (model != null) {
+            model.close();
+        }
+    }
+
+    private interface Call {
+        float[] embed(String text) throws Exception;
+    }
+
+    private static void run(String mode, int clients, int seconds, Call call) throws Exception {
+        // Warm up JIT and the model before measuring.
+        for (int i = 0; i < 20; i++) {
+            call.embed(TEXTS[i % TEXTS.length]);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < clients; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                long[] latencies = new long[1024];
+                int n = 0;
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    call.embed(TEXTS[(offset + n) % TEXTS.length]);
+                    if (n == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, n * 2);
+                    }
+                    latencies[n++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, n);
+            }));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        pool.shutdown();
+        Arrays.sort(all);
+        System.out.printf("%-10s %8d %14.0f %10.2f %10.2f%n", mode, clients, all.length / (double) seconds,
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static ZooModel<String, float[]> loadModel() throws Exception {
+        return Criteria.builder()
+                .optApplication(Application.NLP.TEXT_EMBEDDING)
+                .setTypes(String.class, float[].class)
+                .optModelUrls("djl://ai.djl.huggingface.pytorch/sentence-transformers/all-MiniLM-L6-v2")
+                .build()
+                .loadModel();
+    }
+
+    /**
+     * Spins for 2 ms per call plus 0.25 ms per text and returns a 384-dimensional vector.
+     */
+    private static final class SimulatedEmbedder implements EmbeddingService.Embedder {
+
+        private static final long CALL_NANOS = 2_000_000;
+        private static final long TEXT_NANOS = 250_000;
+
+        @Override
+        public List<float[]> embed(List<String> texts) {
+            long until = System.nanoTime() + CALL_NANOS + TEXT_NANOS * texts.size();
+            double sink = 0;
+            while (System.nanoTime() < until) {
+                sink += Math.sqrt(sink + 1);
+            }
+            List<float[]> result = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                float[] vector = new float[384];
+                vector[0] = text.length();
+                vector[1] = (float) sink;
+                result.add(vector);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.CMPE451.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Compares page latency of the old feed query (correlated subquery on lastPostId, ORDER BY created_at only)
+ * with the keyset cursor query on (created_at, post_id) at increasing scroll depths, both with the cursor written
+ * as the expanded OR condition the repositories use and as a row comparison, and prints the EXPLAIN of each.
+ *
+ * Run against a MySQL instance created from database/init.sql, e.g.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.CMPE451.benchmark.FeedPaginationBenchmark \
+ *     -Dbench.url=jdbc:mysql://localhost:3306/waste_less -Dbench.user=root -Dbench.password=root \
+ *     -Dbench.seed=1100000
+ * </pre>
+ * {@code bench.seed} tops the posts table up to that many rows before measuring.
+ */
+public class FeedPaginationBenchmark {
+
+    private static final String LEGACY_SQL = """
+            SELECT p.post_id, p.created_at FROM posts p
+            WHERE (? IS NULL OR p.created_at < (SELECT sub.created_at FROM posts sub WHERE sub.post_id = ?))
+            ORDER BY p.created_at DESC
+            LIMIT ?
+            """;
+
+    private static final String KEYSET_FIRST_SQL = """
+            SELECT p.post_id, p.created_at FROM posts p
+            ORDER BY p.created_at DESC, p.post_id DESC
+            LIMIT ?
+            """;
+
+    private static final String KEYSET_SQL = """
+            SELECT p.post_id, p.created_at FROM posts p
+            WHERE p.created_at < ? OR (p.created_at = ? AND p.post_id < ?)
+            ORDER BY p.created_at DESC, p.post_id DESC
+            LIMIT ?
+            """;
+
+    private static final String TUPLE_SQL = """
+            SELECT p.post_id, p.created_at FROM posts p
+            WHERE (p.created_at, p.post_id) < (?, ?)
+            ORDER BY p.created_at DESC, p.post_id DESC
+            LIMIT ?
+            """;
+
+    private static final int[] DEPTHS = {0, 10_000, 1_000_000};
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("bench.url", "jdbc:mysql://localhost:3306/waste_less");
+        String user = System.getProperty("bench.user", "root");
+        String password = System.getProperty("bench.password", "root");
+        int pageSize = Integer.getInteger("bench.pageSize", 20);
+        int iterations = Integer.getInteger("bench.iterations", 50);
+        int seed = Integer.getInteger("bench.seed", 0);
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            if (seed > 0) {
+                seedPosts(connection, seed);
+            }
+            System.out.printf("%-10s %-8s %12s %12s%n", "depth", "query", "p50 (us)", "p95 (us)");
+            for (int depth : DEPTHS) {
+                Anchor anchor = depth == 0 ? null : anchorAt(connection, depth);
+                if (depth > 0 && anchor == null) {
+                    System.out.printf("%-10d skipped: table has fewer rows%n", depth);
+                    continue;
+                }
+                long[] legacy = measure(iterations, () -> runLegacy(connection, anchor, pageSize));
+                long[] keyset = measure(iterations, () -> runKeyset(connection, anchor, pageSize));
+                report(depth, "legacy", legacy);
+                report(depth, "keyset", keyset);
+                if (anchor != null) {
+                    report(depth, "tuple", measure(iterations, () -> runTuple(connection, anchor, pageSize)));
+                }
+            }
+            Anchor deepest = anchorAt(connection, DEPTHS[DEPTHS.length - 1]);
+            if (deepest != null) {
+                explain(connection, "keyset", KEYSET_SQL, true, deepest, pageSize);
+                explain(connection, "tuple", TUPLE_SQL, false, deepest, pageSize);
+            }
+        }
+    }
+
+    private static void explain(Connection connection, String name, String sql, boolean expanded, Anchor anchor,
+                                int pageSize) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            bindCursor(statement, expanded, anchor, pageSize);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    System.out.printf("EXPLAIN %-6s type=%s key=%s rows=%s extra=%s%n", name,
+                            rs.getString("type"), rs.getString("key"), rs.getString("rows"), rs.getString("Extra"));
+                }
+            }
+        }
+    }
+
+    private static void bindCursor(PreparedStatement statement, boolean expanded, Anchor anchor, int pageSize)
+            throws SQLException {
+        int index = 1;
+        statement.setTimestamp(index++, anchor.createdAt());
+        if (expanded) {
+            statement.setTimestamp(index++, anchor.createdAt());
+        }
+        statement.setInt(index++, anchor.postId());
+        statement.setInt(index, pageSize);
+    }
+
+    private record Anchor(int postId, Timestamp createdAt) {
+    }
+
+    private interface Query {
+        void run() throws SQLException;
+    }
+
+    private static Anchor anchorAt(Connection connection, int depth) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT post_id, created_at FROM posts ORDER BY created_at DESC, post_id DESC LIMIT 1 OFFSET ?")) {
+            statement.setInt(1, depth);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? new Anchor(rs.getInt(1), rs.getTimestamp(2)) : null;
+            }
+        }
+    }
+
+    private static void runLegacy(Connection connection, Anchor anchor, int pageSize) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(LEGACY_SQL)) {
+            if (anchor == null) {
+                statement.setNull(1, Types.BIGINT);
+                statement.setNull(2, Types.BIGINT);
+            } else {
+                statement.setLong(1, anchor.postId());
+                statement.setLong(2, anchor.postId());
+            }
+            statement.setInt(3, pageSize);
+            drain(statement);
+        }
+    }
+
+    private static void runKeyset(Connection connection, Anchor anchor, int pageSize) throws SQLException {
+        if (anchor == null) {
+            try (PreparedStatement statement = connection.prepareStatement(KEYSET_FIRST_SQL)) {
+                statement.setInt(1, pageSize);
+                drain(statement);
+            }
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(KEYSET_SQL)) {
+            bindCursor(statement, true, anchor, pageSize);
+            drain(statement);
+        }
+    }
+
+    private static void runTuple(Connection connection, Anchor anchor, int pageSize) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(TUPLE_SQL)) {
+            bindCursor(statement, false, anchor, pageSize);
+            drain(statement);
+        }
+    }
+
+    private static void drain(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rs.getInt(1);
+            }
+        }
+    }
+
+    private static long[] measure(int iterations, Query query) throws SQLException {
+        for (int i = 0; i < Math.max(3, iterations / 10); i++) {
+            query.run();
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static void report(int depth, String name, long[] samples) {
+        long p50 = samples[samples.length / 2];
+        long p95 = samples[Math.min(samples.length - 1, (int) Math.ceil(samples.length * 0.95) - 1)];
+        System.out.printf("%-10d %-8s %12d %12d%n", depth, name, p50, p95);
+    }
+
+    private static void seedPosts(Connection connection, int target) throws SQLException {
+        int existing;
+        int authorId;
+        try (PreparedStatement count = connection.prepareStatement("SELECT COUNT(*) FROM posts");
+             ResultSet rs = count.executeQuery()) {
+            rs.next();
+            existing = rs.getInt(1);
+        }
+        try (PreparedStatement author = connection.prepareStatement("SELECT MIN(user_id) FROM users");
+             ResultSet rs = author.executeQuery()) {
+            rs.next();
+            authorId = rs.getInt(1);
+        }
+        if (existing >= target) {
+            return;
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long now = System.currentTimeMillis();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO posts (user_id, content, created_at, likes, comments) VALUES (?, ?, ?, 0, 0)")) {
+            for (int i = existing; i < target; i++) {
+                insert.setInt(1, authorId);
+                insert.setString(2, "benchmark post " + i);
+                // Several posts per second so that created_at ties are exercised as well.
+                insert.setTimestamp(3, new Timestamp(now - (target - i) * 250L));
+                insert.addBatch();
+                if (i % 5_000 == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
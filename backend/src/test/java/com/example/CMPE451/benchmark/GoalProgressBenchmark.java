@@ -0,0 +1,191 @@
+package com.example.CMPE451.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Latency of logging waste against a goal as the goal's history grows, for the old trigger-side recompute
+ * (insert, then SUM over every log of the goal and rewrite the progress) and the running total that
+ * {@code WasteLogService} now maintains (insert, then one increment of {@code total_grams}). The old statement is
+ * issued by the benchmark itself since the triggers are gone from the schema.
+ *
+ * Run against a MySQL instance created from database/init.sql, e.g.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.CMPE451.benchmark.GoalProgressBenchmark \
+ *     -Dbench.url=jdbc:mysql://localhost:3306/waste_less -Dbench.user=root -Dbench.password=root
+ * </pre>
+ * It creates one goal per history size for the first user and first waste item of the first type, and deletes
+ * them afterwards.
+ */
+public class GoalProgressBenchmark {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO waste_log (user_id, goal_id, item_id, quantity, date) VALUES (?, ?, ?, 1, NOW(6))";
+
+    private static final String RECOMPUTE_SQL = """
+            UPDATE waste_goal
+            SET percent_of_progress = (
+                SELECT IFNULL(SUM(wi.weight_in_grams * wl.quantity), 0)
+                FROM waste_log wl JOIN waste_item wi ON wl.item_id = wi.item_id
+                WHERE wl.goal_id = ?) / restriction_amount_grams * 100
+            WHERE goal_id = ?
+            """;
+
+    private static final String INCREMENT_SQL = """
+            UPDATE waste_goal
+            SET percent_of_progress = (total_grams + ?) * 100 / restriction_amount_grams,
+                total_grams = total_grams + ?
+            WHERE goal_id = ?
+            """;
+
+    private static final int[] HISTORY = {0, 1_000, 10_000, 100_000};
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("bench.url", "jdbc:mysql://localhost:3306/waste_less");
+        String user = System.getProperty("bench.user", "root");
+        String password = System.getProperty("bench.password", "root");
+        int iterations = Integer.getInteger("bench.iterations", 200);
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            Fixture fixture = fixture(connection);
+            System.out.printf("%-10s %-12s %12s %12s%n", "history", "progress", "p50 (us)", "p95 (us)");
+            for (int history : HISTORY) {
+                int goalId = createGoal(connection, fixture);
+                try {
+                    seedLogs(connection, fixture, goalId, history);
+                    report(history, "recompute", measure(connection, iterations, () -> {
+                        insertLog(connection, fixture, goalId);
+                        try (PreparedStatement update = connection.prepareStatement(RECOMPUTE_SQL)) {
+                            update.setInt(1, goalId);
+                            update.setInt(2, goalId);
+                            update.executeUpdate();
+                        }
+                    }));
+                    report(history, "increment", measure(connection, iterations, () -> {
+                        insertLog(connection, fixture, goalId);
+                        try (PreparedStatement update = connection.prepareStatement(INCREMENT_SQL)) {
+                            update.setDouble(1, fixture.weightInGrams());
+                            update.setDouble(2, fixture.weightInGrams());
+                            update.setInt(3, goalId);
+                            update.executeUpdate();
+                        }
+                    }));
+                } finally {
+                    deleteGoal(connection, goalId);
+                }
+            }
+        }
+    }
+
+    private record Fixture(int userId, int typeId, int itemId, double weightInGrams) {
+    }
+
+    private interface Write {
+        void run() throws SQLException;
+    }
+
+    private static Fixture fixture(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT (SELECT MIN(user_id) FROM users), wi.type_id, wi.item_id, wi.weight_in_grams
+                FROM waste_item wi ORDER BY wi.type_id, wi.item_id LIMIT 1
+                """);
+             ResultSet rs = statement.executeQuery()) {
+            if (!rs.next() || rs.getObject(1) == null) {
+                throw new IllegalStateException("Needs at least one user and one waste item");
+            }
+            return new Fixture(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getDouble(4));
+        }
+    }
+
+    private static int createGoal(Connection connection, Fixture fixture) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("""
+                INSERT INTO waste_goal (user_id, type_id, restriction_amount_grams, duration, date)
+                VALUES (?, ?, 1000000000, 30, NOW(6))
+                """, Statement.RETURN_GENERATED_KEYS)) {
+            insert.setInt(1, fixture.userId());
+            insert.setInt(2, fixture.typeId());
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static void seedLogs(Connection connection, Fixture fixture, int goalId, int count) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            for (int i = 1; i <= count; i++) {
+                insert.setInt(1, fixture.userId());
+                insert.setInt(2, goalId);
+                insert.setInt(3, fixture.itemId());
+                insert.addBatch();
+                if (i % 5_000 == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void insertLog(Connection connection, Fixture fixture, int goalId) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            insert.setInt(1, fixture.userId());
+            insert.setInt(2, goalId);
+            insert.setInt(3, fixture.itemId());
+            insert.executeUpdate();
+        }
+    }
+
+    private static void deleteGoal(Connection connection, int goalId) throws SQLException {
+        try (PreparedStatement logs = connection.prepareStatement("DELETE FROM waste_log WHERE goal_id = ?");
+             PreparedStatement goal = connection.prepareStatement("DELETE FROM waste_goal WHERE goal_id = ?")) {
+            logs.setInt(1, goalId);
+            logs.executeUpdate();
+            goal.setInt(1, goalId);
+            goal.executeUpdate();
+        }
+    }
+
+    /**
+     * Times each write as one transaction, as the service runs it.
+     */
+    private static long[] measure(Connection connection, int iterations, Write write) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int i = 0; i < Math.max(3, iterations / 10); i++) {
+                write.run();
+                connection.commit();
+            }
+            long[] samples = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                write.run();
+                connection.commit();
+                samples[i] = (System.nanoTime() - start) / 1_000;
+            }
+            Arrays.sort(samples);
+            return samples;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void report(int history, String name, long[] samples) {
+        long p50 = samples[samples.length / 2];
+        long p95 = samples[Math.min(samples.length - 1, (int) Math.ceil(samples.length * 0.95) - 1)];
+        System.out.printf("%-10d %-12s %12d %12d%n", history, name, p50, p95);
+    }
+}
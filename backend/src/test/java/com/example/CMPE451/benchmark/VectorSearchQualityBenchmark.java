@@ -0,0 +1,275 @@
+package com.example.CMPE451.benchmark;
+
+import com.example.CMPE451.config.AppConfig;
+import com.example.CMPE451.vector.HnswGraph;
+import com.example.CMPE451.vector.QdrantSettings;
+import com.example.CMPE451.vector.VectorIndex;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.QdrantGrpcClient;
+import io.qdrant.client.grpc.Collections.CollectionStatus;
+import io.qdrant.client.grpc.Points.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.ScoredPoint;
+import io.qdrant.client.grpc.Points.SearchPoints;
+import io.qdrant.client.grpc.Points.Vector;
+import io.qdrant.client.grpc.Points.Vectors;
+
+import java.util.*;
+
+/**
+ * Recall and latency of vector search per quantization setting and {@code ef}, against exact nearest neighbours.
+ * Reports recall@10, p50/p99 query latency and the in-memory bytes per vector, which is what int8 quantization
+ * with on-disk originals saves.
+ * <p>
+ * By default it runs against an in-process stand-in for Qdrant: an {@link HnswGraph} over the vectors, and for
+ * int8 a graph over the vectors after an int8 round trip with the same quantile clipping, whose best
+ * {@code limit * oversampling} hits are re-ranked with the original vectors as Qdrant's rescoring does. To measure
+ * a real Qdrant (creates and drops {@code bench_*} collections):
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.CMPE451.benchmark.VectorSearchQualityBenchmark \
+ *     -Dbench.qdrant=localhost:6334 -Dbench.size=50000 -Dbench.ef=32,64,128,256
+ * </pre>
+ * The synthetic vectors are clustered, like sentence embeddings of posts about a handful of topics.
+ */
+public class VectorSearchQualityBenchmark {
+
+    private static final int K = 10;
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.getInteger("bench.size", 20000);
+        int queries = Integer.getInteger("bench.queries", 200);
+        int dimension = Integer.getInteger("bench.dimension", AppConfig.VECTOR_DIMENSION);
+        int m = Integer.getInteger("bench.m", 16);
+        int efConstruct = Integer.getInteger("bench.ef-construct", 128);
+        float quantile = Float.parseFloat(System.getProperty("bench.quantile", "0.99"));
+        double oversampling = Double.parseDouble(System.getProperty("bench.oversampling", "2.0"));
+        int[] efs = Arrays.stream(System.getProperty("bench.ef", "16,32,64,128,256").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+
+        Random random = new Random(11);
+        float[][] vectors = clustered(size, dimension, 64, random);
+        float[][] queryVectors = clustered(queries, dimension, 64, new Random(12));
+        List<Set<Integer>> truth = new ArrayList<>(queries);
+        for (float[] query : queryVectors) {
+            truth.add(exactNearest(vectors, query));
+        }
+
+        System.out.printf("%-16s %6s %10s %10s %10s %14s%n", "index", "ef", "recall@10", "p50 ms", "p99 ms",
+                "RAM bytes/vec");
+        String qdrant = System.getProperty("bench.qdrant");
+        if (qdrant != null) {
+            String[] hostPort = qdrant.split(":");
+            QdrantClient client = new QdrantClient(
+                    QdrantGrpcClient.newBuilder(hostPort[0], Integer.parseInt(hostPort[1]), false).build());
+            try {
+                runQdrant(client, "float32", new QdrantSettings(m, efConstruct, false, false, quantile, 0, false,
+                        oversampling), vectors, queryVectors, truth, efs);
+                runQdrant(client, "int8+rescore", new QdrantSettings(m, efConstruct, true, true, quantile, 0, true,
+                        oversampling), vectors, queryVectors, truth, efs);
+                runQdrant(client, "int8", new QdrantSettings(m, efConstruct, true, true, quantile, 0, false,
+                        oversampling), vectors, queryVectors, truth, efs);
+            } finally {
+                client.close();
+            }
+            return;
+        }
+
+        HnswGraph exactGraph = new HnswGraph(dimension, m, efConstruct);
+        float[][] quantized = quantize(vectors, quantile);
+        HnswGraph quantizedGraph = new HnswGraph(dimension, m, efConstruct);
+        for (int id = 0; id < size; id++) {
+            exactGraph.upsert(id, vectors[id]);
+            quantizedGraph.upsert(id, quantized[id]);
+        }
+        int rescoreLimit = (int) Math.ceil(K * oversampling);
+        for (int ef : efs) {
+            report("float32", ef, 4L * dimension, queryVectors, truth,
+                    query -> ids(exactGraph.search(query, K, ef)));
+            report("int8+rescore", ef, dimension, queryVectors, truth,
+                    query -> rescore(quantizedGraph.search(query, rescoreLimit, ef), vectors, query));
+            report("int8", ef, dimension, queryVectors, truth,
+                    query -> ids(quantizedGraph.search(query, K, ef)));
+        }
+    }
+
+    private interface Search {
+        List<Integer> top(float[] query) throws Exception;
+    }
+
+    private static void report(String index, int ef, long bytesPerVector, float[][] queries, List<Set<Integer>> truth,
+                               Search search) throws Exception {
+        for (int i = 0; i < Math.min(20, queries.length); i++) {
+            search.top(queries[i]);
+        }
+        long[] latencies = new long[queries.length];
+        int found = 0;
+        for (int i = 0; i < queries.length; i++) {
+            long start = System.nanoTime();
+            List<Integer> top = search.top(queries[i]);
+            latencies[i] = System.nanoTime() - start;
+            found += (int) top.stream().filter(truth.get(i)::contains).count();
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-16s %6d %10.3f %10.3f %10.3f %14d%n", index, ef, found / (double) (queries.length * K),
+                percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6, bytesPerVector);
+    }
+
+    private static void runQdrant(QdrantClient client, String index, QdrantSettings settings, float[][] vectors,
+                                  float[][] queries, List<Set<Integer>> truth, int[] efs) throws Exception {
+        String collection = "bench_" + index.replace('+', '_');
+        if (client.collectionExistsAsync(collection).get()) {
+            client.deleteCollectionAsync(collection).get();
+        }
+        client.createCollectionAsync(settings.collectionSpec(collection)).get();
+        try {
+            List<PointStruct> batch = new ArrayList<>(512);
+            for (int id = 0; id < vectors.length; id++) {
+                Vector.Builder vector = Vector.newBuilder();
+                for (float f : vectors[id]) {
+                    vector.addData(f);
+                }
+                batch.add(PointStruct.newBuilder()
+                        .setId(PointId.newBuilder().setNum(id))
+                        .setVectors(Vectors.newBuilder().setVector(vector))
+                        .build());
+                if (batch.size() == 512 || id == vectors.length - 1) {
+                    client.upsertAsync(collection, batch).get();
+                    batch = new ArrayList<>(512);
+                }
+            }
+            // Optimization runs in the background; measuring before it finishes would mostly hit unindexed segments.
+            while (client.getCollectionInfoAsync(collection).get().getStatus() != CollectionStatus.Green) {
+                Thread.sleep(500);
+            }
+            long bytesPerVector = settings.quantization() ? vectors[0].length : 4L * vectors[0].length;
+            for (int ef : efs) {
+                QdrantSettings atEf = new QdrantSettings(settings.m(), settings.efConstruct(), settings.onDisk(),
+                        settings.quantization(), settings.quantile(), ef, settings.rescore(), settings.oversampling());
+                report(index, ef, bytesPerVector, queries, truth, query -> {
+                    SearchPoints.Builder search = SearchPoints.newBuilder()
+                            .setCollectionName(collection)
+                            .setLimit(K)
+                            .setParams(atEf.searchParams());
+                    for (float f : query) {
+                        search.addVector(f);
+                    }
+                    List<Integer> top = new ArrayList<>(K);
+                    for (ScoredPoint point : client.searchAsync(search.build()).get()) {
+                        top.add((int) point.getId().getNum());
+                    }
+                    return top;
+                });
+            }
+        } finally {
+            client.deleteCollectionAsync(collection).get();
+        }
+    }
+
+    /**
+     * Gaussian clusters around random unit centres, with noise comparable to the spread between topics.
+     */
+    private static float[][] clustered(int count, int dimension, int clusters, Random random) {
+        float[][] centres = new float[clusters][dimension];
+        Random centreRandom = new Random(7);
+        for (float[] centre : centres) {
+            for (int i = 0; i < dimension; i++) {
+                centre[i] = (float) centreRandom.nextGaussian();
+            }
+        }
+        float[][] vectors = new float[count][dimension];
+        for (float[] vector : vectors) {
+            float[] centre = centres[random.nextInt(clusters)];
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = centre[i] + (float) (random.nextGaussian() * 0.8);
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * Normalizes each vector, clips every component to the central {@code quantile} of all components and rounds it
+     * to one of 256 levels, as int8 scalar quantization does; returns the reconstructed vectors.
+     */
+    private static float[][] quantize(float[][] vectors, float quantile) {
+        int dimension = vectors[0].length;
+        float[][] units = new float[vectors.length][];
+        float[] sample = new float[Math.min(vectors.length, 2000) * dimension];
+        for (int id = 0; id < vectors.length; id++) {
+            units[id] = normalize(vectors[id]);
+            if (id < 2000) {
+                System.arraycopy(units[id], 0, sample, id * dimension, dimension);
+            }
+        }
+        Arrays.sort(sample);
+        float tail = (1 - quantile) / 2;
+        float low = sample[(int) (tail * (sample.length - 1))];
+        float high = sample[(int) ((1 - tail) * (sample.length - 1))];
+        float step = (high - low) / 255;
+        float[][] quantized = new float[vectors.length][dimension];
+        for (int id = 0; id < vectors.length; id++) {
+            for (int i = 0; i < dimension; i++) {
+                float clipped = Math.min(high, Math.max(low, units[id][i]));
+                quantized[id][i] = low + Math.round((clipped - low) / step) * step;
+            }
+        }
+        return quantized;
+    }
+
+    private static List<Integer> rescore(List<VectorIndex.ScoredPost> candidates, float[][] vectors, float[] query) {
+        float[] unitQuery = normalize(query);
+        return candidates.stream()
+                .map(VectorIndex.ScoredPost::postId)
+                .sorted(Comparator.comparingDouble((Integer id) -> -dot(normalize(vectors[id]), unitQuery)))
+                .limit(K)
+                .toList();
+    }
+
+    private static Set<Integer> exactNearest(float[][] vectors, float[] query) {
+        float[] unitQuery = normalize(query);
+        PriorityQueue<double[]> best = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        for (int id = 0; id < vectors.length; id++) {
+            best.add(new double[]{dot(normalize(vectors[id]), unitQuery), id});
+            if (best.size() > K) {
+                best.poll();
+            }
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (double[] entry : best) {
+            ids.add((int) entry[1]);
+        }
+        return ids;
+    }
+
+    private static List<Integer> ids(List<VectorIndex.ScoredPost> hits) {
+        return hits.stream().map(VectorIndex.ScoredPost::postId).toList();
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] * scale;
+        }
+        return unit;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
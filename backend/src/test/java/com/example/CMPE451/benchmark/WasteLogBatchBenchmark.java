@@ -0,0 +1,276 @@
+package com.example.CMPE451.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Time to log a session of several items against one goal, issued as {@code WasteLogService} does it: once as one
+ * request per item ({@code createWasteLog}: user, goal and item lookups, the insert and every running total), and
+ * once as one batch request ({@code createWasteLogs}: user and goal lookups, one JDBC batch insert and every
+ * running total once).
+ *
+ * Run against a MySQL instance created from database/init.sql, e.g.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.CMPE451.benchmark.WasteLogBatchBenchmark \
+ *     -Dbench.url=jdbc:mysql://localhost:3306/waste_less -Dbench.user=root -Dbench.password=root
+ * </pre>
+ * {@code rewriteBatchedStatements=true} is added to the URL, as the application sets it. It creates a goal for the
+ * first user and first waste type, logs the type's first item against it and deletes the goal afterwards, taking
+ * its logs out of the rollup tables as {@code WasteGoalService.deleteWasteGoal} does and dropping the user's
+ * {@code bench} counter, so the user's statistics and badges are left as they were.
+ */
+public class WasteLogBatchBenchmark {
+
+    private static final String USER_SQL = "SELECT user_id FROM users WHERE username = ?";
+    private static final String GOAL_SQL = "SELECT goal_id, type_id FROM waste_goal WHERE goal_id = ?";
+    private static final String ITEM_SQL = "SELECT item_id, weight_in_grams, type_id FROM waste_item WHERE item_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO waste_log (user_id, goal_id, item_id, quantity, date) VALUES (?, ?, ?, 1, NOW(6))";
+    private static final String[] TOTALS_SQL = {
+            """
+            UPDATE waste_goal
+            SET percent_of_progress = (total_grams + ?) * 100 / restriction_amount_grams,
+                total_grams = total_grams + ?
+            WHERE goal_id = ?
+            """,
+            """
+            INSERT INTO user_counters (user_id, counter, total) VALUES (?, 'bench', ?)
+            ON DUPLICATE KEY UPDATE total = total + VALUES(total)
+            """,
+            """
+            INSERT INTO waste_daily_totals (user_id, type_id, period_start, total_grams) VALUES (?, ?, CURDATE(), ?)
+            ON DUPLICATE KEY UPDATE total_grams = total_grams + VALUES(total_grams)
+            """,
+            """
+            INSERT INTO waste_monthly_totals (user_id, type_id, period_start, total_grams)
+            VALUES (?, ?, CURDATE() - INTERVAL (DAY(CURDATE()) - 1) DAY, ?)
+            ON DUPLICATE KEY UPDATE total_grams = total_grams + VALUES(total_grams)
+            """,
+            """
+            INSERT INTO waste_hourly_totals (type_id, period_start, total_grams)
+            VALUES (?, DATE_FORMAT(NOW(), '%Y-%m-%d %H:00:00'), ?)
+            ON DUPLICATE KEY UPDATE total_grams = total_grams + VALUES(total_grams)
+            """
+    };
+
+    private static final String[] CLEANUP_SQL = {
+            """
+            UPDATE waste_daily_totals t
+            JOIN (SELECT l.user_id, i.type_id, DATE(l.date) AS period_start,
+                         SUM(l.quantity * i.weight_in_grams) AS grams
+                  FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+                  WHERE l.goal_id = ?
+                  GROUP BY l.user_id, i.type_id, DATE(l.date)) g
+              ON g.user_id = t.user_id AND g.type_id = t.type_id AND g.period_start = t.period_start
+            SET t.total_grams = t.total_grams - g.grams
+            """,
+            """
+            UPDATE waste_monthly_totals t
+            JOIN (SELECT l.user_id, i.type_id, DATE(l.date) - INTERVAL (DAY(l.date) - 1) DAY AS period_start,
+                         SUM(l.quantity * i.weight_in_grams) AS grams
+                  FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+                  WHERE l.goal_id = ?
+                  GROUP BY l.user_id, i.type_id, period_start) g
+              ON g.user_id = t.user_id AND g.type_id = t.type_id AND g.period_start = t.period_start
+            SET t.total_grams = t.total_grams - g.grams
+            """,
+            """
+            UPDATE waste_hourly_totals t
+            JOIN (SELECT i.type_id, DATE_FORMAT(l.date, '%Y-%m-%d %H:00:00') AS period_start,
+                         SUM(l.quantity * i.weight_in_grams) AS grams
+                  FROM waste_log l JOIN waste_item i ON i.item_id = l.item_id
+                  WHERE l.goal_id = ?
+                  GROUP BY i.type_id, period_start) g
+              ON g.type_id = t.type_id AND g.period_start = t.period_start
+            SET t.total_grams = t.total_grams - g.grams
+            """,
+            "DELETE FROM waste_log WHERE goal_id = ?",
+            "DELETE FROM waste_goal WHERE goal_id = ?"
+    };
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("bench.url", "jdbc:mysql://localhost:3306/waste_less");
+        String user = System.getProperty("bench.user", "root");
+        String password = System.getProperty("bench.password", "root");
+        int entries = Integer.getInteger("bench.entries", 20);
+        int sessions = Integer.getInteger("bench.sessions", 100);
+        url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            Fixture fixture = fixture(connection);
+            int goalId = createGoal(connection, fixture);
+            try {
+                System.out.printf("%-10s %8s %14s %14s %12s%n", "mode", "entries", "p50 (us)", "p95 (us)", "logs/s");
+                report("per-item", entries, measure(connection, sessions, () -> {
+                    for (int i = 0; i < entries; i++) {
+                        lookUpUserAndGoal(connection, fixture, goalId);
+                        lookUpItem(connection, fixture);
+                        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                            bindLog(insert, fixture, goalId);
+                            insert.executeUpdate();
+                        }
+                        addToTotals(connection, fixture, goalId, fixture.weightInGrams());
+                        connection.commit();
+                    }
+                }));
+                report("batch", entries, measure(connection, sessions, () -> {
+                    lookUpUserAndGoal(connection, fixture, goalId);
+                    try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL,
+                            Statement.RETURN_GENERATED_KEYS)) {
+                        for (int i = 0; i < entries; i++) {
+                            bindLog(insert, fixture, goalId);
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                        try (ResultSet keys = insert.getGeneratedKeys()) {
+                            while (keys.next()) {
+                                keys.getInt(1);
+                            }
+                        }
+                    }
+                    addToTotals(connection, fixture, goalId, entries * fixture.weightInGrams());
+                    connection.commit();
+                }));
+            } finally {
+                deleteGoal(connection, fixture, goalId);
+            }
+        }
+    }
+
+    private record Fixture(int userId, String username, int typeId, int itemId, double weightInGrams) {
+    }
+
+    private interface Session {
+        void run() throws SQLException;
+    }
+
+    private static Fixture fixture(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT u.user_id, u.username, wi.type_id, wi.item_id, wi.weight_in_grams
+                FROM users u, waste_item wi
+                ORDER BY u.user_id, wi.type_id, wi.item_id LIMIT 1
+                """);
+             ResultSet rs = statement.executeQuery()) {
+            if (!rs.next()) {
+                throw new IllegalStateException("Needs at least one user and one waste item");
+            }
+            return new Fixture(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getDouble(5));
+        }
+    }
+
+    private static void lookUpUserAndGoal(Connection connection, Fixture fixture, int goalId) throws SQLException {
+        try (PreparedStatement users = connection.prepareStatement(USER_SQL);
+             PreparedStatement goals = connection.prepareStatement(GOAL_SQL)) {
+            users.setString(1, fixture.username());
+            users.executeQuery().close();
+            goals.setInt(1, goalId);
+            goals.executeQuery().close();
+        }
+    }
+
+    private static void lookUpItem(Connection connection, Fixture fixture) throws SQLException {
+        try (PreparedStatement items = connection.prepareStatement(ITEM_SQL)) {
+            items.setInt(1, fixture.itemId());
+            items.executeQuery().close();
+        }
+    }
+
+    private static void bindLog(PreparedStatement insert, Fixture fixture, int goalId) throws SQLException {
+        insert.setInt(1, fixture.userId());
+        insert.setInt(2, goalId);
+        insert.setInt(3, fixture.itemId());
+    }
+
+    private static void addToTotals(Connection connection, Fixture fixture, int goalId, double grams)
+            throws SQLException {
+        try (PreparedStatement goal = connection.prepareStatement(TOTALS_SQL[0]);
+             PreparedStatement counter = connection.prepareStatement(TOTALS_SQL[1]);
+             PreparedStatement daily = connection.prepareStatement(TOTALS_SQL[2]);
+             PreparedStatement monthly = connection.prepareStatement(TOTALS_SQL[3]);
+             PreparedStatement hourly = connection.prepareStatement(TOTALS_SQL[4])) {
+            goal.setDouble(1, grams);
+            goal.setDouble(2, grams);
+            goal.setInt(3, goalId);
+            goal.executeUpdate();
+            counter.setInt(1, fixture.userId());
+            counter.setDouble(2, grams);
+            counter.executeUpdate();
+            for (PreparedStatement rollup : new PreparedStatement[]{daily, monthly}) {
+                rollup.setInt(1, fixture.userId());
+                rollup.setInt(2, fixture.typeId());
+                rollup.setDouble(3, grams);
+                rollup.executeUpdate();
+            }
+            hourly.setInt(1, fixture.typeId());
+            hourly.setDouble(2, grams);
+            hourly.executeUpdate();
+        }
+    }
+
+    private static int createGoal(Connection connection, Fixture fixture) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("""
+                INSERT INTO waste_goal (user_id, type_id, restriction_amount_grams, duration, date)
+                VALUES (?, ?, 1000000000, 30, NOW(6))
+                """, Statement.RETURN_GENERATED_KEYS)) {
+            insert.setInt(1, fixture.userId());
+            insert.setInt(2, fixture.typeId());
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Takes the goal's logs out of the rollups before deleting them, then drops the benchmark's counter.
+     */
+    private static void deleteGoal(Connection connection, Fixture fixture, int goalId) throws SQLException {
+        for (String sql : CLEANUP_SQL) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setInt(1, goalId);
+                statement.executeUpdate();
+            }
+        }
+        try (PreparedStatement counter = connection.prepareStatement(
+                "DELETE FROM user_counters WHERE user_id = ? AND counter = 'bench'")) {
+            counter.setInt(1, fixture.userId());
+            counter.executeUpdate();
+        }
+    }
+
+    /**
+     * Times whole sessions; the per-item mode commits once per item, as separate requests would.
+     */
+    private static long[] measure(Connection connection, int sessions, Session session) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int i = 0; i < Math.max(3, sessions / 10); i++) {
+                session.run();
+            }
+            long[] samples = new long[sessions];
+            for (int i = 0; i < sessions; i++) {
+                long start = System.nanoTime();
+                session.run();
+                samples[i] = (System.nanoTime() - start) / 1_000;
+            }
+            Arrays.sort(samples);
+            return samples;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void report(String mode, int entries, long[] samples) {
+        long p50 = samples[samples.length / 2];
+        long p95 = samples[Math.min(samples.length - 1, (int) Math.ceil(samples.length * 0.95) - 1)];
+        System.out.printf("%-10s %8d %14d %14d %12.0f%n", mode, entries, p50, p95, entries * 1e6 / Math.max(1, p50));
+    }
+}
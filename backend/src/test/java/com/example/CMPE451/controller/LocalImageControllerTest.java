@@ -0,0 +1,164 @@
+package com.example.CMPE451.controller;
+
+import com.example.CMPE451.security.JwtAuthFilter;
+import com.example.CMPE451.security.MyUserDetailsService;
+import com.example.CMPE451.storage.LocalImageStorage;
+import com.example.CMPE451.storage.PresignedUpload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = LocalImageController.class, properties = "storage.backend=local")
+@AutoConfigureMockMvc(addFilters = false)
+class LocalImageControllerTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @TestConfiguration
+    static class LocalImageControllerTestConfiguration {
+
+        @Bean
+        public LocalImageStorage localImageStorage() throws IOException {
+            return new LocalImageStorage(Files.createTempDirectory("images").toString(), "/images", "");
+        }
+
+        @Bean
+        public MyUserDetailsService myUserDetailsService() {
+            return Mockito.mock(MyUserDetailsService.class);
+        }
+
+        @Bean
+        public JwtAuthFilter jwtAuthFilter() {
+            return Mockito.mock(JwtAuthFilter.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private LocalImageStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        String url = storage.put("post/photo-full.jpg", new ByteArrayInputStream(CONTENT), CONTENT.length, "image/jpeg");
+        assertThat(url).isEqualTo("/images/post/photo-full.jpg");
+    }
+
+    @Test
+    void servesTheWholeFileWithImmutableCaching() throws Exception {
+        mvc.perform(get("/images/post/photo-full.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void servesMarkupAndUnknownTypesOnlyAsDownloads() throws Exception {
+        storage.put("profile/7-x.html", new ByteArrayInputStream(CONTENT), CONTENT.length, "text/html");
+        storage.put("profile/7-x.svg", new ByteArrayInputStream(CONTENT), CONTENT.length, "image/svg+xml");
+
+        for (String key : new String[]{"profile/7-x.html", "profile/7-x.svg"}) {
+            mvc.perform(get("/images/" + key))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment"))
+                    .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+        }
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        mvc.perform(get("/images/post/photo-full.jpg").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/20"))
+                .andExpect(content().string("2345"));
+
+        mvc.perform(get("/images/post/photo-full.jpg").header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 17-19/20"))
+                .andExpect(content().string("hij"));
+    }
+
+    @Test
+    void rejectsUnsatisfiableRanges() throws Exception {
+        mvc.perform(get("/images/post/photo-full.jpg").header(HttpHeaders.RANGE, "bytes=50-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    @Test
+    void answersConditionalRequestsWithNotModified() throws Exception {
+        String etag = mvc.perform(get("/images/post/photo-full.jpg"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/images/post/photo-full.jpg").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void doesNotServeMissingFilesOrEscapeTheRoot() throws Exception {
+        mvc.perform(get("/images/post/missing.jpg"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/images/post/%2E%2E/%2E%2E/etc/passwd"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void acceptsPresignedUploadsAndKeepsStagedOnesPrivate() throws Exception {
+        PresignedUpload profile = storage.presignPut("profile/7-avatar.png", "image/png", CONTENT.length, Duration.ofMinutes(5));
+        mvc.perform(put(profile.url()).contentType("image/png").content(CONTENT))
+                .andExpect(status().isOk());
+        mvc.perform(get("/images/profile/7-avatar.png"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+
+        PresignedUpload staged = storage.presignPut("uploads/7/abc", "image/jpeg", CONTENT.length, Duration.ofMinutes(5));
+        mvc.perform(put(staged.url()).contentType("image/jpeg").content(CONTENT))
+                .andExpect(status().isOk());
+        assertThat(storage.size("uploads/7/abc")).hasValue(CONTENT.length);
+        mvc.perform(get("/images/uploads/7/abc"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rejectsUploadsThatDoNotMatchTheSignature() throws Exception {
+        PresignedUpload upload = storage.presignPut("uploads/7/def", "image/jpeg", CONTENT.length, Duration.ofMinutes(5));
+
+        mvc.perform(put(upload.url()).contentType("image/jpeg").content("too short".getBytes(StandardCharsets.US_ASCII)))
+                .andExpect(status().isForbidden());
+        mvc.perform(put(upload.url()).contentType("image/png").content(CONTENT))
+                .andExpect(status().isForbidden());
+        mvc.perform(put(upload.url().replace("uploads/7/def", "uploads/8/def")).contentType("image/jpeg").content(CONTENT))
+                .andExpect(status().isForbidden());
+
+        PresignedUpload expired = storage.presignPut("uploads/7/ghi", "image/jpeg", CONTENT.length, Duration.ofSeconds(-5));
+        mvc.perform(put(expired.url()).contentType("image/jpeg").content(CONTENT))
+                .andExpect(status().isForbidden());
+
+        assertThat(storage.size("uploads/7/def")).isEmpty();
+    }
+}
@@ -4,7 +4,9 @@ import com.example.CMPE451.model.request.SavePostRequest;
 import com.example.CMPE451.model.response.*;
 import com.example.CMPE451.security.JwtAuthFilter;
 import com.example.CMPE451.security.MyUserDetailsService;
+import com.example.CMPE451.service.InterestService;
 import com.example.CMPE451.service.PostService;
+import com.example.CMPE451.service.RelatedPostService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,6 +46,16 @@ class PostControllerTest {
             return Mockito.mock(PostService.class);
         }
 
+        @Bean
+        public InterestService interestService() {
+            return Mockito.mock(InterestService.class);
+        }
+
+        @Bean
+        public RelatedPostService relatedPostService() {
+            return Mockito.mock(RelatedPostService.class);
+        }
+
         @Bean
         public MyUserDetailsService myUserDetailsService() {
             return Mockito.mock(MyUserDetailsService.class);
@@ -61,6 +73,12 @@ class PostControllerTest {
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private RelatedPostService relatedPostService;
+
+    @Autowired
+    private InterestService interestService;
+
     private JacksonTester<List<GetPostResponse>> jsonPostsList;
     private JacksonTester<CreateOrEditPostResponse> jsonCreateOrEditResponse;
     private JacksonTester<DeletePostResponse> jsonDeleteResponse;
@@ -93,6 +111,58 @@ class PostControllerTest {
                 .andExpect(content().json(jsonPostsList.write(posts).getJson()));
     }
 
+    @Test
+    @WithMockUser
+    void testGetPostsPageWithCursor() throws Exception {
+        GetPostResponse post = new GetPostResponse(2, "Older post",
+                new Timestamp(System.currentTimeMillis()), 3, "testuser", null, 0, false, false,"https://example.com");
+        PostFeedPageResponse page = new PostFeedPageResponse(List.of(post), "djE6MTcwMDAwMDAwMDAwMDoy");
+
+        given(postService.getPostsPage("testuser", 1, "djE6MTcwMDAwMDAwMDAwMDoz")).willReturn(page);
+
+        mvc.perform(get("/api/posts/feed")
+                        .param("username", "testuser")
+                        .param("size", "1")
+                        .param("cursor", "djE6MTcwMDAwMDAwMDAwMDoz")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts[0].postId").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("djE6MTcwMDAwMDAwMDAwMDoy"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetPostsFirstPageWithoutCursor() throws Exception {
+        PostFeedPageResponse page = new PostFeedPageResponse(List.of(), null);
+
+        given(postService.getPostsPage(null, 10, null)).willReturn(page);
+
+        mvc.perform(get("/api/posts/feed")
+                        .param("size", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetHomeTimeline() throws Exception {
+        GetPostResponse post = new GetPostResponse(7, "From someone I follow",
+                new Timestamp(System.currentTimeMillis()), 1, "friend", null, 0, false, false,"https://example.com");
+        PostFeedPageResponse page = new PostFeedPageResponse(List.of(post), "djE6MTcwMDAwMDAwMDAwMDo3");
+
+        given(postService.getHomeTimeline("testuser", 1, null)).willReturn(page);
+
+        mvc.perform(get("/api/posts/home")
+                        .param("username", "testuser")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts[0].creatorUsername").value("friend"))
+                .andExpect(jsonPath("$.nextCursor").value("djE6MTcwMDAwMDAwMDAwMDo3"));
+    }
+
     @Test
     @WithMockUser
     void testCreatePost() throws Exception {
@@ -163,6 +233,39 @@ class PostControllerTest {
                 .andExpect(content().json(jsonPostsList.write(posts).getJson()));
     }
 
+    @Test
+    @WithMockUser
+    void testGetRelatedPosts() throws Exception {
+        GetPostResponse post = new GetPostResponse(2, "Composting in winter",
+                new Timestamp(System.currentTimeMillis()), 3, "bob", null, 1, false, false, null);
+        List<GetPostResponse> posts = List.of(post);
+
+        given(relatedPostService.getRelatedPosts(1, "alice", 5)).willReturn(posts);
+
+        mvc.perform(get("/api/posts/{postId}/related", 1)
+                        .param("username", "alice")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonPostsList.write(posts).getJson()));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetForYou() throws Exception {
+        GetPostResponse post = new GetPostResponse(3, "Reusing jars",
+                new Timestamp(System.currentTimeMillis()), 8, "carol", null, 2, false, false, null);
+        List<GetPostResponse> posts = List.of(post);
+
+        given(interestService.getForYou("alice", 10)).willReturn(posts);
+
+        mvc.perform(get("/api/posts/for-you")
+                        .param("username", "alice")
+                        .param("size", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonPostsList.write(posts).getJson()));
+    }
+
     @Test
     @WithMockUser
     void testSavePost() throws Exception {
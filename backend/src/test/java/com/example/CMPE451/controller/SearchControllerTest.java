@@ -1,10 +1,14 @@
 package com.example.CMPE451.controller;
 
+import com.example.CMPE451.model.response.EmbeddingCacheStatsResponse;
 import com.example.CMPE451.model.response.GetPostResponse;
 import com.example.CMPE451.security.JwtAuthFilter;
 import com.example.CMPE451.security.MyUserDetailsService;
 import com.example.CMPE451.service.ForumSearchService;
-import com.example.CMPE451.service.PostService;
+import com.example.CMPE451.model.response.SearchPageResponse;
+import com.example.CMPE451.model.response.SearchResultResponse;
+import com.example.CMPE451.service.HybridSearchService;
+import com.example.CMPE451.service.QueryEmbeddingCache;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
@@ -18,12 +22,17 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(SearchController.class)
@@ -39,7 +48,10 @@ class SearchControllerTest {
     private ForumSearchService forumSearchService;
 
     @MockBean
-    private PostService postService;
+    private HybridSearchService hybridSearchService;
+
+    @MockBean
+    private QueryEmbeddingCache queryEmbeddingCache;
 
     @MockBean
     private MyUserDetailsService myUserDetailsService;
@@ -74,7 +86,7 @@ class SearchControllerTest {
         List<GetPostResponse> responseList = List.of(post);
 
 
-        given(postService.semanticSearch(query, username))
+        given(forumSearchService.searchPostsSemantic(query, language, username, 0, 20))
                 .willReturn(responseList);
 
         mvc.perform(get("/api/forum/search/semantic")
@@ -92,14 +104,76 @@ class SearchControllerTest {
         String query = "unknown topic";
         String username = "alice";
 
-        given(postService.semanticSearch(query, username))
+        given(forumSearchService.searchPostsSemantic(query, "en", username, 2, 10))
                 .willReturn(Collections.emptyList());
 
         mvc.perform(get("/api/forum/search/semantic")
                         .param("query", query)
                         .param("username", username)
+                        .param("page", "2")
+                        .param("size", "10")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().json("[]"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void testHybridSearchReturnsScoreBreakdown() throws Exception {
+        GetPostResponse post = new GetPostResponse(7, "Composting at home", Timestamp.from(Instant.now()),
+                3, "carol", null, 1, false, false, null);
+        SearchResultResponse result = new SearchResultResponse(post, 0.0325, 1, 4.2f, 2, 0.81f);
+
+        given(hybridSearchService.search(eq("compost"), eq("alice"), eq("abc"), eq(10), any()))
+                .willReturn(new SearchPageResponse(List.of(result), "next", false));
+
+        mvc.perform(get("/api/forum/search")
+                        .param("query", "compost")
+                        .param("username", "alice")
+                        .param("cursor", "abc")
+                        .param("size", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].post.postId").value(7))
+                .andExpect(jsonPath("$.results[0].keywordRank").value(1))
+                .andExpect(jsonPath("$.results[0].vectorRank").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.partial").value(false));
+    }
+
+    @Test
+    @WithMockUser
+    void testHybridSearchPassesFilters() throws Exception {
+        given(hybridSearchService.search(eq("compost"), eq("alice"), any(), eq(20), argThat(filters ->
+                filters.isFollowing()
+                        && filters.getAuthorId() == null
+                        && LocalDateTime.of(2025, 5, 1, 0, 0).equals(filters.getFrom())
+                        && filters.getTo() == null
+                        && Boolean.TRUE.equals(filters.getHasPhoto()))))
+                .willReturn(new SearchPageResponse(List.of(), null, false));
+
+        mvc.perform(get("/api/forum/search")
+                        .param("query", "compost")
+                        .param("username", "alice")
+                        .param("following", "true")
+                        .param("from", "2025-05-01T00:00:00")
+                        .param("hasPhoto", "true")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results").isEmpty());
+    }
+
+    @Test
+    @WithMockUser
+    void testEmbeddingCacheStats() throws Exception {
+        given(queryEmbeddingCache.stats())
+                .willReturn(new EmbeddingCacheStatsResponse(3, 10000, 30, 10, 2, 0.714, 0, 1));
+
+        mvc.perform(get("/api/forum/search/embedding-cache")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(30))
+                .andExpect(jsonPath("$.hitRate").value(0.714))
+                .andExpect(jsonPath("$.rejections").value(1));
+    }
+}
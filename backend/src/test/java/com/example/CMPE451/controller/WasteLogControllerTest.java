@@ -2,6 +2,7 @@ package com.example.CMPE451.controller;
 
 import com.example.CMPE451.model.WasteItem;
 import com.example.CMPE451.model.WasteType;
+import com.example.CMPE451.model.request.CreateWasteLogBatchRequest;
 import com.example.CMPE451.model.request.CreateWasteLogRequest;
 import com.example.CMPE451.model.request.UpdateWasteLogRequest;
 import com.example.CMPE451.model.response.*;
@@ -71,6 +72,7 @@ class WasteLogControllerTest {
     private JacksonTester<List<GetWasteLogResponse>> jsonGetLogsResponse;
     private JacksonTester<CreateWasteLogRequest> jsonCreateLogRequest;
     private JacksonTester<CreateOrEditWasteLogResponse> jsonCreateOrEditResponse;
+    private JacksonTester<List<CreateOrEditWasteLogResponse>> jsonCreateBatchResponse;
     private JacksonTester<UpdateWasteLogRequest> jsonUpdateLogRequest;
     private JacksonTester<DeleteWasteLogResponse> jsonDeleteResponse;
     private JacksonTester<TotalLogResponse> jsonTotalLogResponse;
@@ -154,6 +156,25 @@ class WasteLogControllerTest {
                 .andExpect(content().json(jsonCreateOrEditResponse.write(createResponse).getJson()));
     }
 
+    @Test
+    @WithMockUser
+    void testCreateWasteLogs() throws Exception {
+        CreateWasteLogBatchRequest batchRequest = new CreateWasteLogBatchRequest("test_user", List.of(
+                new CreateWasteLogBatchRequest.Entry(2, 4),
+                new CreateWasteLogBatchRequest.Entry(3, 1)));
+        List<CreateOrEditWasteLogResponse> batchResponse = List.of(createResponse,
+                new CreateOrEditWasteLogResponse(2, "Plastic Bag", 1, testDate));
+        given(wasteLogService.createWasteLogs(any(CreateWasteLogBatchRequest.class), eq(1)))
+                .willReturn(batchResponse);
+
+        mvc.perform(post("/api/waste-goals/1/logs/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(batchRequest))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonCreateBatchResponse.write(batchResponse).getJson()));
+    }
+
     @Test
     @WithMockUser
     void testUpdateWasteLog() throws Exception {
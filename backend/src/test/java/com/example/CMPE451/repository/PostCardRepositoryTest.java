@@ -0,0 +1,154 @@
+package com.example.CMPE451.repository;
+
+import com.example.CMPE451.model.*;
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.model.response.GetSavedPostResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every listing endpoint reads its cards through {@link PostCardRepository}; each read must stay a single
+ * statement no matter how many posts, authors, likes or saves are involved.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PostCardRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostCardRepository postCardRepository;
+
+    private Statistics statistics;
+    private User viewer;
+    private User author;
+    private List<Post> posts;
+
+    @BeforeEach
+    void setUp() {
+        viewer = persistUser("viewer");
+        author = persistUser("author");
+
+        posts = List.of(
+                entityManager.persist(new Post(author, "plastic bottles", null, 3, 0)),
+                entityManager.persist(new Post(author, "glass jars", null, 7, 1)),
+                entityManager.persist(new Post(viewer, "more plastic", null, 1, 2)));
+
+        entityManager.persist(new PostLike(viewer.getId(), posts.get(0).getPostId()));
+        entityManager.persist(new SavedPost(viewer.getId(), posts.get(0).getPostId()));
+        entityManager.persist(new SavedPost(viewer.getId(), posts.get(1).getPostId()));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private User persistUser(String username) {
+        User user = entityManager.persist(new User(username + "@example.com", username, "hash"));
+        entityManager.persist(new Profile(user, "https://cdn.example.com/" + username + ".jpg", null));
+        return user;
+    }
+
+    private void assertSingleStatement() {
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void feedPagesAreOneStatement() {
+        List<GetPostResponse> first = postCardRepository.findFeedCards(viewer.getId(), PageRequest.of(0, 2));
+
+        assertSingleStatement();
+        assertThat(first).extracting(GetPostResponse::getPostId)
+                .containsExactly(posts.get(2).getPostId(), posts.get(1).getPostId());
+
+        statistics.clear();
+        GetPostResponse last = first.get(1);
+        List<GetPostResponse> second = postCardRepository.findFeedCardsAfter(viewer.getId(), last.getCreatedAt(),
+                last.getPostId(), PageRequest.of(0, 2));
+
+        assertSingleStatement();
+        assertThat(second).singleElement().satisfies(card -> {
+            assertThat(card.getPostId()).isEqualTo(posts.get(0).getPostId());
+            assertThat(card.getCreatorUsername()).isEqualTo("author");
+            assertThat(card.getProfile_picture()).isEqualTo("https://cdn.example.com/author.jpg");
+            assertThat(card.isLiked()).isTrue();
+            assertThat(card.isSaved()).isTrue();
+        });
+    }
+
+    @Test
+    void anonymousViewerGetsFalseFlags() {
+        List<GetPostResponse> cards = postCardRepository.findFeedCards(null, PageRequest.of(0, 10));
+
+        assertSingleStatement();
+        assertThat(cards).hasSize(3).noneMatch(GetPostResponse::isLiked).noneMatch(GetPostResponse::isSaved);
+    }
+
+    @Test
+    void rankedCardsKeepTheGivenOrderInOneStatement() {
+        List<GetPostResponse> cards = postCardRepository.findCardsInOrder(viewer.getId(),
+                List.of(posts.get(0).getPostId(), -1, posts.get(2).getPostId()));
+
+        assertSingleStatement();
+        assertThat(cards).extracting(GetPostResponse::getPostId)
+                .containsExactly(posts.get(0).getPostId(), posts.get(2).getPostId());
+    }
+
+    @Test
+    void mostLikedFallbackIsOneStatement() {
+        List<GetPostResponse> cards = postCardRepository.findMostLikedCards(viewer.getId(), PageRequest.of(0, 2));
+
+        assertSingleStatement();
+        assertThat(cards).extracting(GetPostResponse::getPostId)
+                .containsExactly(posts.get(1).getPostId(), posts.get(0).getPostId());
+    }
+
+    @Test
+    void userPostsAreOneStatement() {
+        List<GetPostResponse> cards = postCardRepository.findCardsByAuthor(viewer.getId(), author.getId());
+
+        assertSingleStatement();
+        assertThat(cards).extracting(GetPostResponse::getCreatorUsername).containsOnly("author");
+        assertThat(cards).extracting(GetPostResponse::isSaved).containsExactly(true, true);
+    }
+
+    @Test
+    void savedPostsAreOneStatement() {
+        List<GetSavedPostResponse> cards = postCardRepository.findSavedCards(viewer.getId());
+
+        assertSingleStatement();
+        assertThat(cards).extracting(GetSavedPostResponse::getPostId)
+                .containsExactlyInAnyOrder(posts.get(0).getPostId(), posts.get(1).getPostId());
+        assertThat(cards).allMatch(GetSavedPostResponse::isSaved);
+        assertThat(cards).filteredOn(GetSavedPostResponse::isLiked).hasSize(1);
+    }
+
+    @Test
+    void searchIsOneStatementPerTerm() {
+        List<GetPostResponse> cards = postCardRepository.findCardsByContent(viewer.getId(), "PLASTIC");
+
+        assertSingleStatement();
+        assertThat(cards).extracting(GetPostResponse::getPostId)
+                .containsExactlyInAnyOrder(posts.get(0).getPostId(), posts.get(2).getPostId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.CMPE451.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    private static List<Integer> ids(InvertedIndex.Page page) {
+        return page.hits().stream().map(InvertedIndex.Hit::postId).toList();
+    }
+
+    private static void put(InvertedIndex index, int postId, String content) {
+        index.put(postId, content, 1, postId * 1000L, false);
+    }
+
+    @Test
+    void ranksByBm25AndPaginates() {
+        InvertedIndex index = new InvertedIndex();
+        put(index, 1, "Composting tips for beginners");
+        put(index, 2, "Composting composting composting: a guide to compost bins");
+        put(index, 3, "Recycling glass jars");
+        put(index, 4, "Where to recycle batteries");
+
+        InvertedIndex.Page page = index.search("composting", 0, 10);
+        assertThat(ids(page)).containsExactly(2, 1);
+        assertThat(page.totalMatches()).isEqualTo(2);
+
+        assertThat(ids(index.search("recycling glass", 0, 1))).containsExactly(3);
+        assertThat(ids(index.search("recycling glass", 1, 1))).isEmpty();
+        assertThat(index.search("the of and", 0, 10).hits()).isEmpty();
+    }
+
+    @Test
+    void editsAndDeletesReplacePostings() {
+        InvertedIndex index = new InvertedIndex();
+        put(index, 1, "plastic bottles");
+        put(index, 2, "plastic bags");
+
+        put(index, 1, "glass bottles");
+        index.remove(2);
+
+        assertThat(ids(index.search("plastic", 0, 10))).isEmpty();
+        assertThat(ids(index.search("glass bottles", 0, 10))).containsExactly(1);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.contains(2)).isFalse();
+    }
+
+    @Test
+    void survivesCompactionUnderChurn() {
+        InvertedIndex index = new InvertedIndex();
+        for (int id = 1; id <= 2000; id++) {
+            put(index, id, id % 2 == 0 ? "reuse shelf" : "repair shelf");
+        }
+        for (int id = 1; id <= 2000; id += 4) {
+            index.remove(id);
+        }
+
+        InvertedIndex.Page page = index.search("repair", 0, 5);
+        assertThat(page.totalMatches()).isEqualTo(500);
+        assertThat(ids(page)).containsExactly(1999, 1995, 1991, 1987, 1983);
+        assertThat(index.search("shelf", 0, 0).totalMatches()).isEqualTo(1500);
+    }
+
+    @Test
+    void snapshotRoundTripsIndexAndWatermark(@TempDir Path directory) throws Exception {
+        InvertedIndex index = new InvertedIndex();
+        put(index, 7, "Zero waste kitchen");
+        put(index, 9, "Kitchen scraps to compost");
+        index.remove(7);
+        put(index, 12, "Zero waste shopping");
+        Path file = directory.resolve("index.bin");
+        index.writeSnapshot(file, 1234L);
+
+        InvertedIndex restored = new InvertedIndex();
+        assertThat(restored.readSnapshot(file)).isEqualTo(1234L);
+
+        assertThat(restored.postIds()).containsExactly(9, 12);
+        for (String query : List.of("kitchen", "zero waste", "compost shopping")) {
+            assertThat(restored.search(query, 0, 10)).isEqualTo(index.search(query, 0, 10));
+        }
+        put(restored, 13, "kitchen compost");
+        assertThat(ids(restored.search("compost", 0, 10))).containsExactlyInAnyOrder(9, 13);
+    }
+
+    @Test
+    void filtersWhileScoringSoMatchesBelowTheGlobalTopAreFound() {
+        InvertedIndex index = new InvertedIndex();
+        for (int id = 1; id <= 200; id++) {
+            index.put(id, "compost compost compost bins", 1, id * 1000L, false);
+        }
+        index.put(201, "a long post that mentions compost only once among many other words", 2, 5_000L, true);
+
+        assertThat(ids(index.search("compost", 0, 100))).doesNotContain(201);
+
+        InvertedIndex.Page byAuthor = index.search("compost", 0, 100, (author, createdAt, photo) -> author == 2);
+        assertThat(ids(byAuthor)).containsExactly(201);
+        assertThat(byAuthor.totalMatches()).isEqualTo(1);
+
+        InvertedIndex.Page early = index.search("compost", 0, 100, (author, createdAt, photo) -> createdAt < 3_000L);
+        assertThat(ids(early)).containsExactly(2, 1);
+        assertThat(index.search("compost", 0, 100, (author, createdAt, photo) -> photo).hits()).hasSize(1);
+    }
+
+    @Test
+    void snapshotKeepsFilterAttributes(@TempDir Path directory) throws Exception {
+        InvertedIndex index = new InvertedIndex();
+        index.put(3, "reuse jars", 5, 42L, true);
+        index.put(4, "reuse jars", 6, 43L, false);
+        Path file = directory.resolve("index.bin");
+        index.writeSnapshot(file, 1L);
+
+        InvertedIndex restored = new InvertedIndex();
+        restored.readSnapshot(file);
+
+        assertThat(ids(restored.search("jars", 0, 10, (author, createdAt, photo) -> author == 5 && createdAt == 42L && photo)))
+                .containsExactly(3);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.UserAvatar;
+import com.example.CMPE451.repository.ProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AvatarServiceTest {
+
+    private ProfileRepository profileRepository;
+    private AvatarService avatarService;
+
+    @BeforeEach
+    void setUp() {
+        profileRepository = Mockito.mock(ProfileRepository.class);
+        avatarService = new AvatarService(profileRepository, 100, 300);
+    }
+
+    private static UserAvatar avatar(String username, String photoUrl) {
+        return new UserAvatar() {
+            public String getUsername() {
+                return username;
+            }
+
+            public String getPhotoUrl() {
+                return photoUrl;
+            }
+        };
+    }
+
+    @Test
+    void resolvesMissesInOneQueryAndServesRepeatsFromTheCache() {
+        given(profileRepository.findAvatarsByUsernames(anyCollection()))
+                .willReturn(List.of(avatar("alice", "a.jpg"), avatar("bob", null)));
+
+        Map<String, String> avatars = avatarService.avatarsOf(List.of("alice", "bob", "alice", "ghost"));
+        assertThat(avatars).containsEntry("alice", "a.jpg").containsEntry("bob", null).containsEntry("ghost", null);
+
+        assertThat(avatarService.avatarOf("alice")).isEqualTo("a.jpg");
+        assertThat(avatarService.avatarOf("bob")).isNull();
+        verify(profileRepository, times(1)).findAvatarsByUsernames(anyCollection());
+    }
+
+    @Test
+    void aChangedAvatarWinsOverAFillThatRacedWithIt() {
+        given(profileRepository.findAvatarsByUsernames(anyCollection())).willAnswer(inv -> {
+            // The photo changes while the old URL is being read from MySQL.
+            avatarService.onAvatarChanged("alice", "new.jpg");
+            return List.of(avatar("alice", "old.jpg"));
+        });
+
+        assertThat(avatarService.avatarOf("alice")).isEqualTo("old.jpg");
+        assertThat(avatarService.avatarOf("alice")).isEqualTo("new.jpg");
+        verify(profileRepository, times(1)).findAvatarsByUsernames(anyCollection());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.ChallengeUser;
+import com.example.CMPE451.model.ChallengeUserId;
+import com.example.CMPE451.model.WasteType;
+import com.example.CMPE451.repository.ChallengeUserRepository;
+import com.example.CMPE451.repository.UserCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class BadgeServiceTest {
+
+    private UserCounterRepository userCounterRepository;
+    private ChallengeUserRepository challengeUserRepository;
+    private JdbcTemplate jdbcTemplate;
+    private BadgeService badgeService;
+
+    @BeforeEach
+    void setUp() {
+        userCounterRepository = Mockito.mock(UserCounterRepository.class);
+        challengeUserRepository = Mockito.mock(ChallengeUserRepository.class);
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        badgeService = new BadgeService(userCounterRepository, challengeUserRepository, jdbcTemplate);
+    }
+
+    private static WasteType plastic() {
+        WasteType type = new WasteType();
+        type.setId(1);
+        type.setName("Plastic");
+        return type;
+    }
+
+    @Test
+    void everyThresholdCrossedByOneLogIsAwardedInOneInsert() {
+        given(userCounterRepository.findTotal(6, "WASTE_GRAMS:PLASTIC")).willReturn(5500.0);
+
+        badgeService.onWasteLogged(6, plastic(), 4800);
+
+        verify(userCounterRepository).add(6, "WASTE_GRAMS:PLASTIC", 4800);
+        verify(jdbcTemplate).update("INSERT IGNORE INTO badge (name, user_id) VALUES (?, ?), (?, ?)",
+                "PLASTIC SAVER", 6, "PLASTIC HERO", 6);
+    }
+
+    @Test
+    void counterKeysDoNotDependOnTheDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            given(userCounterRepository.findTotal(6, "WASTE_GRAMS:PLASTIC")).willReturn(1200.0);
+
+            badgeService.onWasteLogged(6, plastic(), 300);
+
+            verify(userCounterRepository).add(6, "WASTE_GRAMS:PLASTIC", 300);
+            verify(jdbcTemplate).update("INSERT IGNORE INTO badge (name, user_id) VALUES (?, ?)", "PLASTIC SAVER", 6);
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    void logsThatCrossNoThresholdWriteNoBadges() {
+        given(userCounterRepository.findTotal(6, "WASTE_GRAMS:PLASTIC")).willReturn(900.0);
+
+        badgeService.onWasteLogged(6, plastic(), -200);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void firstLikeIsAwardedOnlyOnce() {
+        given(userCounterRepository.findTotal(6, "LIKES_GIVEN")).willReturn(1.0).willReturn(2.0);
+
+        badgeService.onLikeGiven(6);
+        badgeService.onLikeGiven(6);
+
+        verify(jdbcTemplate).update("INSERT IGNORE INTO badge (name, user_id) VALUES (?, ?)", "First Like", 6);
+    }
+
+    @Test
+    void topChallengersAreAwardedTogether() {
+        given(challengeUserRepository.findByIdChallengeIdOrderByAmountDesc(3, PageRequest.of(0, 3))).willReturn(List.of(
+                new ChallengeUser(new ChallengeUserId(3, 7), 90.0, null, null),
+                new ChallengeUser(new ChallengeUserId(3, 8), 50.0, null, null)));
+
+        badgeService.onChallengeEnded(3);
+
+        verify(jdbcTemplate).update("INSERT IGNORE INTO badge (name, user_id) VALUES (?, ?), (?, ?)",
+                "Top Challenger", 7, "Top Challenger", 8);
+    }
+}
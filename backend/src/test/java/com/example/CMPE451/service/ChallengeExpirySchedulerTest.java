@@ -0,0 +1,30 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.Challenge;
+import com.example.CMPE451.repository.ChallengeRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+class ChallengeExpirySchedulerTest {
+
+    @Test
+    void endsEveryExpiredChallengeAndKeepsGoingAfterAFailure() {
+        ChallengeRepository challengeRepository = Mockito.mock(ChallengeRepository.class);
+        ChallengeService challengeService = Mockito.mock(ChallengeService.class);
+        given(challengeRepository.findIdsByStatusAndEndDateBefore(eq(Challenge.Status.Active), any()))
+                .willReturn(List.of(3, 4, 5));
+        given(challengeService.expireChallenge(4)).willThrow(new IllegalStateException("deadlock"));
+
+        new ChallengeExpiryScheduler(challengeRepository, challengeService).endExpiredChallenges();
+
+        verify(challengeService).expireChallenge(3);
+        verify(challengeService).expireChallenge(5);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmbeddingServiceTest {
+
+    private EmbeddingService embeddingService;
+
+    @AfterEach
+    void tearDown() {
+        embeddingService.shutdown();
+    }
+
+    private static float[] fakeEmbedding(String text) {
+        return new float[]{text.length()};
+    }
+
+    @Test
+    void collectsConcurrentRequestsIntoBatches() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        embeddingService = new EmbeddingService(() -> texts -> {
+            batchSizes.add(texts.size());
+            return texts.stream().map(EmbeddingServiceTest::fakeEmbedding).toList();
+        }, 1, 4, 200_000, 64, 1000, 5000);
+
+        List<CompletableFuture<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(embeddingService.submit("x".repeat(i + 1)));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).containsExactly(i + 1);
+        }
+        assertThat(batchSizes).allMatch(size -> size <= 4);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+        assertThat(batchSizes.size()).isLessThan(10);
+        assertThat(embeddingService.createEmbedding("abc")).containsExactly(3);
+    }
+
+    @Test
+    void pushesBackWhenTheQueueIsFullAndTimesOutSlowRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        embeddingService = new EmbeddingService(() -> texts -> {
+            started.countDown();
+            release.await();
+            return texts.stream().map(EmbeddingServiceTest::fakeEmbedding).toList();
+        }, 1, 1, 0, 1, 20, 50);
+
+        CompletableFuture<float[]> running = embeddingService.submit("first");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<float[]> queued = embeddingService.submit("second");
+
+        assertThatThrownBy(() -> embeddingService.submit("third"))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).containsExactly(5);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).containsExactly(6);
+    }
+
+    @Test
+    void failsTheWholeBatchWhenTheModelFails() {
+        embeddingService = new EmbeddingService(() -> texts -> {
+            throw new IllegalStateException("model crashed");
+        }, 1, 8, 0, 8, 100, 5000);
+
+        assertThatThrownBy(() -> embeddingService.createEmbedding("text"))
+                .hasMessage("Failed to create embedding")
+                .hasRootCauseMessage("model crashed");
+    }
+}
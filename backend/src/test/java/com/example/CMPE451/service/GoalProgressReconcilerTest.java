@@ -0,0 +1,50 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.GoalTotalDrift;
+import com.example.CMPE451.repository.WasteGoalRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+class GoalProgressReconcilerTest {
+
+    private static GoalTotalDrift drift(int goalId, double stored, double actual) {
+        return new GoalTotalDrift() {
+            @Override
+            public Integer getGoalId() {
+                return goalId;
+            }
+
+            @Override
+            public Double getStoredGrams() {
+                return stored;
+            }
+
+            @Override
+            public Double getActualGrams() {
+                return actual;
+            }
+        };
+    }
+
+    @Test
+    void repairsDriftedGoalsChunkByChunk() {
+        WasteGoalRepository wasteGoalRepository = Mockito.mock(WasteGoalRepository.class);
+        given(wasteGoalRepository.findMaxGoalId()).willReturn(25);
+        given(wasteGoalRepository.findTotalDrift(1, 10)).willReturn(List.of(drift(3, 40, 65)));
+        given(wasteGoalRepository.findTotalDrift(21, 30)).willReturn(List.of(drift(22, 10, 0)));
+        given(wasteGoalRepository.replaceTotal(3, 40, 65)).willReturn(1);
+        // A log changed goal 22 after it was read, so the repair is left to the next run.
+        given(wasteGoalRepository.replaceTotal(22, 10, 0)).willReturn(0);
+
+        int repaired = new GoalProgressReconciler(wasteGoalRepository, 10).reconcile();
+
+        assertThat(repaired).isEqualTo(1);
+        verify(wasteGoalRepository).findTotalDrift(11, 20);
+    }
+}
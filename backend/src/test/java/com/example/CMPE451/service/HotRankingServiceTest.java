@@ -0,0 +1,167 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.PostActivity;
+import com.example.CMPE451.repository.CommentRepository;
+import com.example.CMPE451.repository.PostLikeRepository;
+import com.example.CMPE451.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+class HotRankingServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private PostRepository postRepository;
+    private PostLikeRepository postLikeRepository;
+    private CommentRepository commentRepository;
+    private HotRankingService hotRankingService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = Mockito.mock(PostRepository.class);
+        postLikeRepository = Mockito.mock(PostLikeRepository.class);
+        commentRepository = Mockito.mock(CommentRepository.class);
+        hotRankingService = new HotRankingService(postRepository, postLikeRepository, commentRepository,
+                1, 1, 1, 2, 3, 30);
+    }
+
+    private static Timestamp hoursAgo(long hours) {
+        return new Timestamp(System.currentTimeMillis() - hours * HOUR);
+    }
+
+    private static PostActivity activity(int postId, Timestamp at) {
+        return new PostActivity() {
+            public Integer getPostId() {
+                return postId;
+            }
+
+            public Timestamp getOccurredAt() {
+                return at;
+            }
+        };
+    }
+
+    @Test
+    void recentActivityOutranksOlderActivityWithMoreLikes() {
+        hotRankingService.onPostCreated(1, hoursAgo(10));
+        hotRankingService.onLikeAdded(1, hoursAgo(10));
+        hotRankingService.onLikeAdded(1, hoursAgo(10));
+        hotRankingService.onLikeAdded(1, hoursAgo(10));
+
+        hotRankingService.onPostCreated(2, hoursAgo(1));
+        hotRankingService.onLikeAdded(2, hoursAgo(1));
+
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(2, 1);
+
+        hotRankingService.onCommentAdded(1, hoursAgo(0));
+        hotRankingService.onCommentAdded(1, hoursAgo(0));
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(1, 2);
+
+        hotRankingService.onCommentRemoved(1, hoursAgo(0));
+        hotRankingService.onCommentRemoved(1, hoursAgo(0));
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(2, 1);
+    }
+
+    @Test
+    void removingALikeSubtractsItsDecayedContribution() {
+        Timestamp likedAt = hoursAgo(0);
+        hotRankingService.onPostCreated(1, hoursAgo(0));
+        hotRankingService.onPostCreated(2, hoursAgo(0));
+        hotRankingService.onLikeAdded(1, likedAt);
+        assertThat(hotRankingService.topPostIds(1)).containsExactly(1);
+
+        hotRankingService.onLikeRemoved(1, likedAt);
+        hotRankingService.onLikeAdded(2, hoursAgo(0));
+        assertThat(hotRankingService.topPostIds(2)).containsExactly(2, 1);
+
+        hotRankingService.onPostDeleted(2);
+        assertThat(hotRankingService.topPostIds(2)).containsExactly(1);
+    }
+
+    @Test
+    void evictsTheColdestPostsBeyondTheTrackedLimitUntilTheyGetNewActivity() {
+        hotRankingService.onPostCreated(1, hoursAgo(5));
+        hotRankingService.onPostCreated(2, hoursAgo(4));
+        hotRankingService.onPostCreated(3, hoursAgo(3));
+        hotRankingService.onPostCreated(4, hoursAgo(2));
+
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(4, 3, 2);
+
+        hotRankingService.onLikeAdded(1, hoursAgo(0));
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(1, 4, 3);
+    }
+
+    @Test
+    void rebuildsFromRecentActivity() {
+        given(postRepository.findCreatedSince(any())).willReturn(List.of(
+                activity(1, hoursAgo(20)), activity(2, hoursAgo(2))));
+        given(postLikeRepository.findLikedSince(any())).willReturn(List.of(
+                activity(1, hoursAgo(1)), activity(1, hoursAgo(1))));
+        given(commentRepository.findCommentedSince(any())).willReturn(List.of());
+
+        assertThat(hotRankingService.isReady()).isFalse();
+        hotRankingService.rebuild();
+
+        assertThat(hotRankingService.isReady()).isTrue();
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(1, 2);
+    }
+
+    @Test
+    void rebuildKeepsActivityOnPostsOlderThanTheWindowUpToTheTrackedLimit() {
+        given(postRepository.findCreatedSince(any())).willReturn(List.of(
+                activity(1, hoursAgo(3)), activity(2, hoursAgo(2))));
+        given(postLikeRepository.findLikedSince(any())).willReturn(List.of(
+                activity(7, hoursAgo(0)), activity(7, hoursAgo(0)), activity(8, hoursAgo(10))));
+        given(commentRepository.findCommentedSince(any())).willReturn(List.of(activity(9, hoursAgo(1))));
+
+        hotRankingService.rebuild();
+
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(7, 9, 2);
+        hotRankingService.onLikeAdded(8, hoursAgo(0));
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(7, 8, 9);
+    }
+
+    @Test
+    void activityCommittedWhileTheRebuildReadsIsReplayedOntoTheNewRanking() {
+        given(postRepository.findCreatedSince(any())).willReturn(List.of(
+                activity(1, hoursAgo(2)), activity(2, hoursAgo(2))));
+        given(postLikeRepository.findLikedSince(any())).willAnswer(inv -> {
+            hotRankingService.onLikeAdded(1, hoursAgo(0));
+            return List.of();
+        });
+        given(commentRepository.findCommentedSince(any())).willReturn(List.of());
+
+        hotRankingService.rebuild();
+
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(1, 2);
+    }
+
+    @Test
+    void activityTheRebuildAlreadyReadIsNotCountedTwice() {
+        hotRankingService = new HotRankingService(postRepository, postLikeRepository, commentRepository,
+                1, 1, 1, 2, 10, 30);
+        Timestamp likedAt = hoursAgo(0);
+        // Read back rounded to the second, as a timestamp column without fractions returns it.
+        Timestamp stored = new Timestamp(likedAt.getTime() / 1000 * 1000);
+        given(postRepository.findCreatedSince(any())).willReturn(List.of(
+                activity(1, hoursAgo(2)), activity(2, hoursAgo(2)), activity(3, hoursAgo(2)), activity(4, hoursAgo(3))));
+        given(postLikeRepository.findLikedSince(any())).willAnswer(inv -> {
+            hotRankingService.onLikeAdded(1, likedAt);
+            hotRankingService.onLikeRemoved(3, likedAt);
+            return List.of(activity(1, stored), activity(2, stored));
+        });
+        given(commentRepository.findCommentedSince(any())).willReturn(List.of());
+
+        hotRankingService.rebuild();
+
+        assertThat(hotRankingService.topPostIds(10)).containsExactly(2, 1, 3, 4);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.model.response.SearchPageResponse;
+import com.example.CMPE451.model.response.SearchResultResponse;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.request.SearchFilterRequest;
+import com.example.CMPE451.repository.FollowRepository;
+import com.example.CMPE451.repository.PostCardRepository;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.search.InvertedIndex;
+import com.example.CMPE451.vector.VectorFilter;
+import com.example.CMPE451.vector.VectorIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class HybridSearchServiceTest {
+
+    private KeywordIndexService keywordIndexService;
+    private QueryEmbeddingCache queryEmbeddingCache;
+    private VectorIndex vectorIndex;
+    private FollowRepository followRepository;
+    private HybridSearchService hybridSearchService;
+
+    @BeforeEach
+    void setUp() {
+        keywordIndexService = Mockito.mock(KeywordIndexService.class);
+        queryEmbeddingCache = Mockito.mock(QueryEmbeddingCache.class);
+        vectorIndex = Mockito.mock(VectorIndex.class);
+        followRepository = Mockito.mock(FollowRepository.class);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        User alice = new User("alice@example.com", "alice", "hash");
+        alice.setId(1);
+        given(userRepository.findByUsername("alice")).willReturn(Optional.of(alice));
+        PostCardRepository postCardRepository = Mockito.mock(PostCardRepository.class);
+        given(postCardRepository.findCardsInOrder(any(), anyList())).willAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(1);
+            return ids.stream()
+                    .map(id -> new GetPostResponse(id, "post " + id, null, 0, "u", null, 0, false, false, null))
+                    .toList();
+        });
+        given(keywordIndexService.isReady()).willReturn(true);
+        given(queryEmbeddingCache.embed(anyString())).willReturn(new float[]{1f});
+        hybridSearchService = new HybridSearchService(keywordIndexService, queryEmbeddingCache, vectorIndex,
+                postCardRepository, userRepository, followRepository,
+                60, 100, 500, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hybridSearchService.shutdown();
+    }
+
+    private void keywordLegReturns(int... postIds) {
+        List<InvertedIndex.Hit> hits = new ArrayList<>();
+        for (int i = 0; i < postIds.length; i++) {
+            hits.add(new InvertedIndex.Hit(postIds[i], 10f - i));
+        }
+        given(keywordIndexService.search(anyString(), eq(0), eq(100), any(VectorFilter.class)))
+                .willReturn(new InvertedIndex.Page(hits, hits.size()));
+    }
+
+    private static List<VectorIndex.ScoredPost> vectorHits(int... postIds) {
+        List<VectorIndex.ScoredPost> hits = new ArrayList<>();
+        for (int i = 0; i < postIds.length; i++) {
+            hits.add(new VectorIndex.ScoredPost(postIds[i], 0.9f - i * 0.1f));
+        }
+        return hits;
+    }
+
+    private static List<Integer> ids(SearchPageResponse page) {
+        return page.getResults().stream().map(result -> result.getPost().getPostId()).toList();
+    }
+
+    @Test
+    void fusesRanksReciprocally() {
+        List<HybridSearchService.Fused> fused = HybridSearchService.fuse(
+                List.of(new InvertedIndex.Hit(1, 5f), new InvertedIndex.Hit(2, 4f)),
+                vectorHits(2, 3), 60);
+
+        assertThat(fused).extracting(HybridSearchService.Fused::postId).containsExactly(2, 1, 3);
+        assertThat(fused.get(0).score()).isCloseTo(1.0 / 62 + 1.0 / 61, within(1e-12));
+        assertThat(fused.get(0).keywordRank()).isEqualTo(2);
+        assertThat(fused.get(0).vectorRank()).isEqualTo(1);
+        assertThat(fused.get(1).vectorRank()).isNull();
+        assertThat(fused.get(2).keywordRank()).isNull();
+    }
+
+    @Test
+    void pagesThroughFusedRankingWithCursor() {
+        keywordLegReturns(10, 11, 12);
+        given(vectorIndex.search(any(), eq(100), any())).willReturn(vectorHits(12, 13, 14));
+
+        SearchPageResponse first = hybridSearchService.search("compost", null, null, 2);
+        assertThat(ids(first)).containsExactly(12, 10);
+        SearchResultResponse top = first.getResults().get(0);
+        assertThat(top.getKeywordRank()).isEqualTo(3);
+        assertThat(top.getVectorRank()).isEqualTo(1);
+        assertThat(first.isPartial()).isFalse();
+
+        SearchPageResponse second = hybridSearchService.search("compost", null, first.getNextCursor(), 2);
+        // 11 and 13 are both second in a single leg, so they tie and the newer post goes first.
+        assertThat(ids(second)).containsExactly(13, 11);
+
+        SearchPageResponse last = hybridSearchService.search("compost", null, second.getNextCursor(), 2);
+        assertThat(ids(last)).containsExactly(14);
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void runsLegsConcurrentlyAndDropsSlowVectorLeg() {
+        CountDownLatch keywordStarted = new CountDownLatch(1);
+        given(keywordIndexService.search(anyString(), eq(0), eq(100), any(VectorFilter.class))).willAnswer(invocation -> {
+            keywordStarted.countDown();
+            return new InvertedIndex.Page(List.of(new InvertedIndex.Hit(5, 1f)), 1);
+        });
+        // The vector leg only finishes once the keyword leg has started, which cannot happen if they run in turn.
+        given(vectorIndex.search(any(), eq(100), any())).willAnswer(invocation -> {
+            assertThat(keywordStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return vectorHits(6);
+        });
+        assertThat(ids(hybridSearchService.search("glass", null, null, 10))).containsExactly(6, 5);
+
+        given(vectorIndex.search(any(), eq(100), any())).willAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return vectorHits(6);
+        });
+        long started = System.nanoTime();
+        SearchPageResponse page = hybridSearchService.search("glass", null, null, 10);
+        assertThat(ids(page)).containsExactly(5);
+        assertThat(page.isPartial()).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2_000);
+    }
+
+    @Test
+    void pushesFiltersIntoBothLegs() {
+        keywordLegReturns(20, 21, 22);
+        LocalDateTime from = LocalDateTime.of(2025, 5, 1, 0, 0);
+        VectorFilter following = new VectorFilter(Set.of(3, 4), Timestamp.valueOf(from).getTime(), null, null);
+        given(keywordIndexService.search(anyString(), eq(0), eq(100), eq(following)))
+                .willReturn(new InvertedIndex.Page(List.of(new InvertedIndex.Hit(21, 3f)), 1));
+        given(followRepository.findFollowingUserIds("alice")).willReturn(List.of(3, 4));
+        given(vectorIndex.search(any(), eq(100), any())).willReturn(vectorHits(23));
+
+        SearchPageResponse page = hybridSearchService.search("compost", null, null, 10,
+                new SearchFilterRequest(false, null, null, null, null));
+        // 20 and 23 both lead a single leg, so they tie and the newer post goes first.
+        assertThat(ids(page)).containsExactly(23, 20, 21, 22);
+
+        page = hybridSearchService.search("compost", "alice", null, 10,
+                new SearchFilterRequest(true, null, from, null, null));
+        verify(vectorIndex).search(any(), eq(100), eq(following));
+        verify(keywordIndexService).search(anyString(), eq(0), eq(100), eq(following));
+        assertThat(ids(page)).containsExactly(23, 21);
+    }
+
+    @Test
+    void authorOutsideFollowingSetMatchesNothing() {
+        keywordLegReturns(30);
+        given(followRepository.findFollowingUserIds("alice")).willReturn(List.of(3));
+        given(vectorIndex.search(any(), eq(100), any())).willReturn(List.of());
+
+        SearchPageResponse page = hybridSearchService.search("compost", "alice", null, 10,
+                new SearchFilterRequest(true, 8, null, null, null));
+
+        assertThat(page.getResults()).isEmpty();
+        verify(vectorIndex).search(any(), eq(100), eq(new VectorFilter(Set.of(), null, null, null)));
+        verify(keywordIndexService, never()).search(anyString(), anyInt(), anyInt(), any(VectorFilter.class));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.CMPE451.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import javax.imageio.ImageIO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageProcessorTest {
+
+    private static BufferedImage image(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(width / 2, 0, width - width / 2, height);
+        graphics.dispose();
+        return image;
+    }
+
+    /**
+     * Inserts a big-endian EXIF APP1 segment carrying only an orientation tag right after the SOI marker.
+     */
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(26);
+        tiff.put(new byte[]{'M', 'M', 0, 42}).putInt(8)
+                .putShort((short) 1)
+                .putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0)
+                .putInt(0);
+        byte[] exifHeader = {'E', 'x', 'i', 'f', 0, 0};
+        int length = 2 + exifHeader.length + tiff.capacity();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write(length >> 8);
+        out.write(length & 0xff);
+        out.writeBytes(exifHeader);
+        out.writeBytes(tiff.array());
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+
+    @Test
+    void appliesExifOrientationAndDropsMetadata() throws IOException {
+        byte[] upload = withOrientation(ImageProcessor.encodeJpeg(image(40, 20), 0.9f), 6);
+        assertThat(ImageProcessor.readExifOrientation(upload)).isEqualTo(6);
+
+        BufferedImage decoded = ImageProcessor.decode(upload, 40_000_000);
+        assertThat(decoded.getWidth()).isEqualTo(20);
+        assertThat(decoded.getHeight()).isEqualTo(40);
+        // Rotated clockwise: the red left half of the original ends up on top.
+        assertThat(new Color(decoded.getRGB(10, 5)).getRed()).isGreaterThan(200);
+        assertThat(new Color(decoded.getRGB(10, 35)).getBlue()).isGreaterThan(200);
+
+        byte[] reencoded = ImageProcessor.encodeJpeg(decoded, 0.9f);
+        assertThat(ImageProcessor.readExifOrientation(reencoded)).isEqualTo(1);
+    }
+
+    /**
+     * A tiny PNG whose IHDR chunk claims {@code width} x {@code height} pixels; the CRC is fixed up so the header
+     * still parses.
+     */
+    private static byte[] pngDeclaring(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image(2, 2), "png", out);
+        byte[] png = out.toByteArray();
+        ByteBuffer buffer = ByteBuffer.wrap(png);
+        buffer.putInt(16, width).putInt(20, height);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        buffer.putInt(29, (int) crc.getValue());
+        return png;
+    }
+
+    @Test
+    void rejectsImagesDeclaringMorePixelsThanTheBudgetBeforeDecoding() throws IOException {
+        byte[] bomb = pngDeclaring(30000, 30000);
+        assertThat(bomb.length).isLessThan(1024);
+
+        assertThatThrownBy(() -> ImageProcessor.decode(bomb, 40_000_000))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("30000x30000");
+        assertThat(UploadService.imageType(bomb, 40_000_000)).isNull();
+        assertThat(ImageProcessor.decode(pngDeclaring(2, 2), 40_000_000).getWidth()).isEqualTo(2);
+    }
+
+    @Test
+    void resizesToTheLongestEdgeWithoutUpscaling() {
+        BufferedImage resized = ImageProcessor.resize(image(3000, 1500), 720);
+        assertThat(resized.getWidth()).isEqualTo(720);
+        assertThat(resized.getHeight()).isEqualTo(360);
+
+        BufferedImage small = image(100, 50);
+        assertThat(ImageProcessor.resize(small, 720)).isSameAs(small);
+    }
+
+    @Test
+    void encodesBlurHashWithTheExpectedLayout() {
+        String hash = BlurHash.encode(image(32, 16), 4, 3);
+
+        // size flag + maximum + 4 DC characters + 2 per AC component
+        assertThat(hash).hasSize(1 + 1 + 4 + 2 * (4 * 3 - 1));
+        // First character encodes the component counts: (4 - 1) + (3 - 1) * 9 = 21 -> 'L'.
+        assertThat(hash.charAt(0)).isEqualTo('L');
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.BadRequestException;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.UserInterest;
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.repository.PostCardRepository;
+import com.example.CMPE451.repository.UserInterestRepository;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.vector.VectorIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class InterestServiceTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private UserInterestRepository userInterestRepository;
+    private PostCardRepository postCardRepository;
+    private EmbeddingService embeddingService;
+    private VectorIndex vectorIndex;
+    private UserRepository userRepository;
+    private InterestService interestService;
+
+    @BeforeEach
+    void setUp() {
+        userInterestRepository = Mockito.mock(UserInterestRepository.class);
+        postCardRepository = Mockito.mock(PostCardRepository.class);
+        embeddingService = Mockito.mock(EmbeddingService.class);
+        vectorIndex = Mockito.mock(VectorIndex.class);
+        userRepository = Mockito.mock(UserRepository.class);
+        User alice = new User();
+        alice.setId(9);
+        given(userRepository.findByUsername("alice")).willReturn(Optional.of(alice));
+        interestService = new InterestService(userInterestRepository, userRepository, postCardRepository,
+                new PostEmbeddingStore(embeddingService, "", "model", 1), vectorIndex, 0.1, 4, 0.5, 24, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        interestService.shutdown();
+    }
+
+    private static GetPostResponse card(int postId, String author, long ageMillis, boolean liked) {
+        return new GetPostResponse(postId, "post " + postId, new Timestamp(System.currentTimeMillis() - ageMillis),
+                0, author, null, 0, liked, false, null);
+    }
+
+    @Test
+    void interactionsMoveTheVectorTowardsThePost() {
+        given(embeddingService.createEmbedding("bins")).willReturn(new float[]{3, 4});
+        given(embeddingService.createEmbedding("compost")).willReturn(new float[]{0, 2});
+        ArgumentCaptor<UserInterest> saved = ArgumentCaptor.forClass(UserInterest.class);
+
+        interestService.apply(9, 1, "bins", InterestService.Interaction.LIKE);
+        verify(userInterestRepository).save(saved.capture());
+        UserInterest interest = saved.getValue();
+        assertThat(interest.vector()).containsExactly(0.6f, 0.8f);
+
+        given(userInterestRepository.findById(9)).willReturn(Optional.of(interest));
+        interestService.apply(9, 2, "compost", InterestService.Interaction.SAVE);
+
+        // A save weighs twice a like: 0.2 of the way towards (0, 1).
+        assertThat(interest.vector()[0]).isCloseTo(0.48f, within(1e-6f));
+        assertThat(interest.vector()[1]).isCloseTo(0.84f, within(1e-6f));
+        assertThat(interest.getInteractions()).isEqualTo(2);
+    }
+
+    @Test
+    void feedBlendsSimilarityWithRecencyAndSkipsOwnAndLikedPosts() {
+        UserInterest interest = new UserInterest(9);
+        interest.setVector(new float[]{1, 0});
+        given(userInterestRepository.findById(9)).willReturn(Optional.of(interest));
+        given(vectorIndex.search(any(), eq(8))).willReturn(List.of(
+                new VectorIndex.ScoredPost(1, 0.9f),
+                new VectorIndex.ScoredPost(2, 0.8f),
+                new VectorIndex.ScoredPost(3, 0.7f),
+                new VectorIndex.ScoredPost(4, 0.6f)));
+        given(postCardRepository.findCardsInOrder(9, List.of(1, 2, 3, 4))).willReturn(List.of(
+                card(1, "bob", 30 * 24 * HOUR, false),
+                card(2, "alice", 0, false),
+                card(3, "bob", HOUR, false),
+                card(4, "carol", 0, true)));
+
+        List<GetPostResponse> feed = interestService.getForYou("alice", 2);
+
+        assertThat(feed).extracting(GetPostResponse::getPostId).containsExactly(3, 1);
+    }
+
+    @Test
+    void pagesLeftShortByLikedAndOwnPostsAreFilledWithTheLatestPosts() {
+        UserInterest interest = new UserInterest(9);
+        interest.setVector(new float[]{1, 0});
+        given(userInterestRepository.findById(9)).willReturn(Optional.of(interest));
+        given(vectorIndex.search(any(), eq(12))).willReturn(List.of(
+                new VectorIndex.ScoredPost(1, 0.9f),
+                new VectorIndex.ScoredPost(2, 0.8f)));
+        given(postCardRepository.findCardsInOrder(9, List.of(1, 2))).willReturn(List.of(
+                card(1, "bob", HOUR, false),
+                card(2, "carol", HOUR, true)));
+        GetPostResponse oldest = card(5, "bob", 3 * HOUR, false);
+        given(postCardRepository.findFeedCards(9, PageRequest.of(0, 3))).willReturn(List.of(
+                card(7, "alice", 0, false),
+                card(1, "bob", HOUR, false),
+                oldest));
+        given(postCardRepository.findFeedCardsAfter(9, oldest.getCreatedAt(), 5, PageRequest.of(0, 3)))
+                .willReturn(List.of(card(4, "carol", 4 * HOUR, false), card(3, "carol", 5 * HOUR, false)));
+
+        List<GetPostResponse> feed = interestService.getForYou("alice", 3);
+
+        assertThat(feed).extracting(GetPostResponse::getPostId).containsExactly(1, 5, 4);
+    }
+
+    @Test
+    void pagesAboveTheLimitAreRejected() {
+        assertThatThrownBy(() -> interestService.getForYou("alice", 101)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void updatesBeyondAFullQueueAreDropped() throws InterruptedException {
+        interestService.shutdown();
+        interestService = new InterestService(userInterestRepository, userRepository, postCardRepository,
+                new PostEmbeddingStore(embeddingService, "", "model", 1), vectorIndex, 0.1, 4, 0.5, 24, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(embeddingService.createEmbedding(anyString())).willAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new float[]{1, 0};
+        });
+
+        interestService.onInteraction(9, 1, "running", InterestService.Interaction.LIKE);
+        started.await();
+        interestService.onInteraction(9, 2, "queued", InterestService.Interaction.LIKE);
+        interestService.onInteraction(9, 3, "dropped", InterestService.Interaction.LIKE);
+        release.countDown();
+
+        verify(userInterestRepository, timeout(1000).times(2)).save(any());
+        verify(embeddingService, never()).createEmbedding("dropped");
+    }
+
+    @Test
+    void usersWithoutInteractionsGetTheLatestPosts() {
+        List<GetPostResponse> latest = List.of(card(5, "bob", 0, false));
+        given(userInterestRepository.findById(9)).willReturn(Optional.empty());
+        given(postCardRepository.findFeedCards(9, PageRequest.of(0, 10))).willReturn(latest);
+
+        assertThat(interestService.getForYou("alice", 10)).isEqualTo(latest);
+        verify(vectorIndex, never()).search(any(), anyInt());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.OutboxEvent;
+import com.example.CMPE451.model.OutboxEventType;
+import com.example.CMPE451.repository.OutboxEventRepository;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.vector.VectorIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the outbox's retry path against the real repository. Workers process events outside any transaction, so
+ * the test does too.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxServiceJpaTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PostRepository postRepository;
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = Mockito.mock(PostRepository.class);
+        outboxService = new OutboxService(outboxEventRepository, postRepository,
+                Mockito.mock(PostEmbeddingStore.class), Mockito.mock(VectorIndex.class),
+                Mockito.mock(RelatedPostService.class), Mockito.mock(FollowService.class),
+                Mockito.mock(TimelineService.class), Mockito.mock(ActivityLogger.class), transactionManager,
+                1, 10, 60, 3, 1000, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxService.shutdown();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void aClaimedEventStaysLeasedAfterTheClaimCommits() {
+        OutboxEvent event = outboxEventRepository.save(new OutboxEvent(OutboxEventType.POST_EDITED, 5));
+        // Keeps the worker busy so the event is only claimed, never finished.
+        CountDownLatch release = new CountDownLatch(1);
+        given(postRepository.findById(anyInt())).willAnswer(invocation -> {
+            release.await();
+            throw new IllegalStateException("stopped");
+        });
+        long before = System.currentTimeMillis();
+
+        CompletableFuture<Integer> draining = CompletableFuture.supplyAsync(outboxService::drainBatch);
+        try {
+            verify(postRepository, timeout(5000)).findById(5);
+            OutboxEvent leased = outboxEventRepository.findById(event.getId()).orElseThrow();
+            assertThat(leased.getAttempts()).isEqualTo(1);
+            assertThat(leased.getAvailableAt().getTime()).isBetween(before + 59_000, before + 65_000);
+            assertThat(outboxService.drainBatch()).isZero();
+        } finally {
+            release.countDown();
+            draining.join();
+        }
+    }
+
+    @Test
+    void aFailedEventIsRescheduledWithItsError() {
+        OutboxEvent event = outboxEventRepository.save(new OutboxEvent(OutboxEventType.POST_EDITED, 5));
+        given(postRepository.findById(anyInt())).willThrow(new IllegalStateException("database went away"));
+        long before = System.currentTimeMillis();
+
+        assertThat(outboxService.drainBatch()).isEqualTo(1);
+
+        OutboxEvent retried = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).isEqualTo("IllegalStateException: database went away");
+        // Backed off by at most the first retry delay, well before the 60s lease would have expired.
+        assertThat(retried.getAvailableAt().getTime()).isBetween(before, before + 5_000);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.OutboxEvent;
+import com.example.CMPE451.model.OutboxEventType;
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.response.GetFollowersResponse;
+import com.example.CMPE451.repository.OutboxEventRepository;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.vector.PostPayload;
+import com.example.CMPE451.vector.VectorIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class OutboxServiceTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private PostRepository postRepository;
+    private EmbeddingService embeddingService;
+    private VectorIndex vectorIndex;
+    private RelatedPostService relatedPostService;
+    private FollowService followService;
+    private TimelineService timelineService;
+    private ActivityLogger activityLogger;
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = Mockito.mock(OutboxEventRepository.class);
+        postRepository = Mockito.mock(PostRepository.class);
+        embeddingService = Mockito.mock(EmbeddingService.class);
+        vectorIndex = Mockito.mock(VectorIndex.class);
+        relatedPostService = Mockito.mock(RelatedPostService.class);
+        followService = Mockito.mock(FollowService.class);
+        timelineService = Mockito.mock(TimelineService.class);
+        activityLogger = Mockito.mock(ActivityLogger.class);
+        outboxService = new OutboxService(outboxEventRepository, postRepository,
+                new PostEmbeddingStore(embeddingService, "", "model", 1), vectorIndex, relatedPostService,
+                followService, timelineService, activityLogger, Mockito.mock(PlatformTransactionManager.class),
+                2, 10, 60, 3, 1000, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxService.shutdown();
+    }
+
+    private static OutboxEvent event(long id, OutboxEventType type, int postId) {
+        OutboxEvent event = new OutboxEvent(type, postId);
+        event.setId(id);
+        return event;
+    }
+
+    private static Post post(int postId, String author, String content) {
+        User user = new User(author + "@example.com", author, "hash");
+        user.setId(postId + 100);
+        Post post = new Post(user, content, null, 0, 0);
+        post.setPostId(postId);
+        post.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        return post;
+    }
+
+    @Test
+    void createdPostsAreIndexedFannedOutAndAcknowledged() {
+        Post post = post(10, "alice", "compost tips");
+        float[] vector = {0.1f, 0.2f};
+        GetFollowersResponse follower = new GetFollowersResponse();
+        follower.setUsername("bob");
+        given(outboxEventRepository.lockDue(any(), eq(10))).willReturn(List.of(event(1, OutboxEventType.POST_CREATED, 10)));
+        given(postRepository.findById(10)).willReturn(Optional.of(post));
+        given(postRepository.existsById(10)).willReturn(true);
+        given(embeddingService.createEmbedding("compost tips")).willReturn(vector);
+        given(followService.getFollowers("alice")).willReturn(List.of(follower));
+
+        assertThat(outboxService.drainBatch()).isEqualTo(1);
+
+        verify(outboxEventRepository).lease(eq(List.of(1L)), any());
+        verify(vectorIndex).upsert(10, vector, new PostPayload(110, post.getCreatedAt().getTime(), false));
+        verify(relatedPostService).onPostIndexed(10, vector);
+        verify(timelineService).onPostCreated(eq("alice"), any(), eq(List.of("bob")));
+        verify(activityLogger).logAction(eq("Create"), eq("User"), eq("alice"), eq("Post"), eq(10),
+                eq("Users"), eq(List.of("bob")), eq("compost tips"));
+        verify(outboxEventRepository).deleteById(1L);
+    }
+
+    @Test
+    void eventsForPostsThatNoLongerExistRemoveTheVector() {
+        given(outboxEventRepository.lockDue(any(), eq(10))).willReturn(List.of(
+                event(1, OutboxEventType.POST_CREATED, 10),
+                event(2, OutboxEventType.POST_DELETED, 11)));
+        given(postRepository.findById(10)).willReturn(Optional.empty());
+
+        outboxService.drainBatch();
+
+        verify(vectorIndex).delete(10);
+        verify(vectorIndex).delete(11);
+        verify(vectorIndex, never()).upsert(anyInt(), any(), any());
+        verify(activityLogger, never()).logAction(any(), any(), any(), any(), any(), any(), any(), any());
+        verify(outboxEventRepository).deleteById(1L);
+        verify(outboxEventRepository).deleteById(2L);
+    }
+
+    @Test
+    void aFailureDefersTheEventAndTheLaterEventsOfThatPost() {
+        given(outboxEventRepository.lockDue(any(), eq(10))).willReturn(List.of(
+                event(1, OutboxEventType.POST_EDITED, 10),
+                event(2, OutboxEventType.POST_DELETED, 10)));
+        given(postRepository.findById(10)).willReturn(Optional.of(post(10, "alice", "text")));
+        given(embeddingService.createEmbedding("text")).willThrow(new RuntimeException("model not loaded"));
+
+        outboxService.drainBatch();
+
+        verify(outboxEventRepository).reschedule(eq(1L), notNull(), contains("model not loaded"));
+        verify(outboxEventRepository).reschedule(eq(2L), notNull(), contains("model not loaded"));
+        verify(vectorIndex, never()).delete(anyInt());
+        verify(outboxEventRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void backsOffExponentiallyAndParksAfterTheLastAttempt() {
+        long now = System.currentTimeMillis();
+        assertThat(outboxService.retryAt(1).getTime() - now).isBetween(450L, 1100L);
+        assertThat(outboxService.retryAt(2).getTime() - now).isBetween(950L, 2100L);
+        assertThat(outboxService.retryAt(3)).isNull();
+    }
+}
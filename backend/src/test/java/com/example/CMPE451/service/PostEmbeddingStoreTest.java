@@ -0,0 +1,65 @@
+package com.example.CMPE451.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PostEmbeddingStoreTest {
+
+    private static float[] vector(float value) {
+        float[] vector = new float[384];
+        vector[0] = value;
+        return vector;
+    }
+
+    private static PostEmbeddingStore open(EmbeddingService embeddingService, Path file, String modelId) {
+        PostEmbeddingStore store = new PostEmbeddingStore(embeddingService, file.toString(), modelId, 1);
+        store.open();
+        return store;
+    }
+
+    @Test
+    void unchangedContentIsNotEmbeddedAgainAcrossRestarts(@TempDir Path directory) {
+        EmbeddingService embeddingService = Mockito.mock(EmbeddingService.class);
+        given(embeddingService.createEmbedding("compost tips")).willReturn(vector(1));
+        given(embeddingService.createEmbedding("compost tips, edited")).willReturn(vector(2));
+        Path file = directory.resolve("post-embeddings.log");
+
+        PostEmbeddingStore store = open(embeddingService, file, "minilm");
+        store.embed(5, "compost tips");
+        store.close();
+        store = open(embeddingService, file, "minilm");
+
+        assertThat(store.embed(5, "compost tips")).isEqualTo(vector(1));
+        assertThat(store.embed(5, "compost tips, edited")).isEqualTo(vector(2));
+        verify(embeddingService, times(1)).createEmbedding("compost tips");
+        store.close();
+    }
+
+    @Test
+    void anotherModelOrADeleteForcesAFreshEmbedding(@TempDir Path directory) {
+        EmbeddingService embeddingService = Mockito.mock(EmbeddingService.class);
+        given(embeddingService.submit("recycling"))
+                .willReturn(CompletableFuture.completedFuture(vector(1)))
+                .willReturn(CompletableFuture.completedFuture(vector(2)))
+                .willReturn(CompletableFuture.completedFuture(vector(3)));
+        Path file = directory.resolve("post-embeddings.log");
+
+        PostEmbeddingStore store = open(embeddingService, file, "minilm");
+        store.embedAsync(5, "recycling").join();
+        store.close();
+        store = open(embeddingService, file, "mpnet");
+        assertThat(store.embedAsync(5, "recycling").join()).isEqualTo(vector(2));
+        store.delete(5);
+        assertThat(store.embedAsync(5, "recycling").join()).isEqualTo(vector(3));
+        store.close();
+    }
+}
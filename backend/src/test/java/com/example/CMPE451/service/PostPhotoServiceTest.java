@@ -0,0 +1,187 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.OutboxEventType;
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.service.PostPhotoService.PendingPhoto;
+import com.example.CMPE451.storage.ImageStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PostPhotoServiceTest {
+
+    @TempDir
+    Path spool;
+
+    private PostRepository postRepository;
+    private ImageStorage imageStorage;
+    private OutboxService outboxService;
+    private KeywordIndexService keywordIndexService;
+    private PostPhotoService crashed;
+    private PostPhotoService restarted;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = Mockito.mock(PostRepository.class);
+        imageStorage = Mockito.mock(ImageStorage.class);
+        outboxService = Mockito.mock(OutboxService.class);
+        keywordIndexService = Mockito.mock(KeywordIndexService.class);
+        given(imageStorage.publicUrl(anyString())).willAnswer(inv -> "https://cdn/" + inv.getArgument(0));
+        crashed = service();
+        restarted = service();
+    }
+
+    private PostPhotoService service() {
+        return new PostPhotoService(postRepository, imageStorage, outboxService, keywordIndexService, "posts",
+                spool.toString(), 1, 1, 40_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        crashed.shutdown();
+        restarted.shutdown();
+    }
+
+    private static MockMultipartFile jpeg() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return new MockMultipartFile("photo", "photo.jpg", "image/jpeg", out.toByteArray());
+    }
+
+    private static Post postWithPhoto(PendingPhoto photo) {
+        Post post = new Post();
+        post.setPhotoKey(photo.objectKeyBase());
+        return post;
+    }
+
+    private void awaitEmptySpool() throws Exception {
+        for (int i = 0; i < 100 && !isEmpty(spool); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(isEmpty(spool)).isTrue();
+    }
+
+    private static boolean isEmpty(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isEmpty();
+        }
+    }
+
+    /**
+     * Queues a job in a transaction that never completes, as if the process died before the worker ran.
+     */
+    private PendingPhoto queueAndCrash(Integer postId) throws Exception {
+        PendingPhoto photo = crashed.spool(jpeg());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            crashed.processAfterCommit(postId, photo);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        return photo;
+    }
+
+    @Test
+    void resumesJobsLeftInTheSpoolAfterARestart() throws Exception {
+        PendingPhoto photo = queueAndCrash(5);
+        given(postRepository.findById(5)).willReturn(Optional.of(postWithPhoto(photo)));
+        given(postRepository.publishPhoto(eq(5), eq(photo.objectKeyBase()), anyString(), anyString(), anyString(),
+                anyString())).willReturn(1);
+
+        restarted.recoverPendingJobs();
+
+        verify(postRepository, timeout(5000)).publishPhoto(eq(5), eq(photo.objectKeyBase()), eq(photo.fullUrl()),
+                eq(photo.feedUrl()), eq(photo.thumbUrl()), anyString());
+        verify(imageStorage, times(3)).put(anyString(), any(), anyLong(), eq("image/jpeg"));
+        verify(outboxService, timeout(5000)).record(OutboxEventType.POST_EDITED, 5);
+        verify(keywordIndexService, timeout(5000)).onPostSaved(argThat(post -> photo.fullUrl().equals(post.getPhotoUrl())));
+        awaitEmptySpool();
+    }
+
+    @Test
+    void aFailedPhotoIsNeverShown() throws Exception {
+        PendingPhoto photo = queueAndCrash(5);
+        Files.write(photo.spooledFile(), new byte[]{1, 2, 3});
+        given(postRepository.findById(5)).willReturn(Optional.of(postWithPhoto(photo)));
+
+        restarted.recoverPendingJobs();
+
+        awaitEmptySpool();
+        verify(postRepository, never()).publishPhoto(any(), anyString(), anyString(), anyString(), anyString(),
+                anyString());
+        verify(outboxService, never()).record(any(), any());
+    }
+
+    @Test
+    void dropsJobsWhosePostNoLongerHasThePhoto() throws Exception {
+        queueAndCrash(5);
+        given(postRepository.findById(5)).willReturn(Optional.empty());
+
+        restarted.recoverPendingJobs();
+
+        verify(postRepository, timeout(5000)).findById(5);
+        awaitEmptySpool();
+        verify(imageStorage, never()).put(anyString(), any(), anyLong(), anyString());
+        verify(postRepository, never()).publishPhoto(any(), anyString(), anyString(), anyString(), anyString(),
+                anyString());
+    }
+
+    @Test
+    void rollbackDiscardsTheOriginalAndItsJob() throws Exception {
+        PendingPhoto photo = crashed.spool(jpeg());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            crashed.processAfterCommit(5, photo);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(isEmpty(spool)).isTrue();
+        verify(postRepository, never()).findById(any());
+    }
+
+    @Test
+    void rollbackBeforeTheJobIsQueuedStillDiscardsTheSpooledOriginal() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            crashed.spool(jpeg());
+            assertThat(isEmpty(spool)).isFalse();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(isEmpty(spool)).isTrue();
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.*;
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.model.response.GetSavedPostResponse;
+import com.example.CMPE451.model.response.PostFeedPageResponse;
+import com.example.CMPE451.repository.*;
+import com.example.CMPE451.vector.VectorIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The read endpoints as the controllers call them: resolving the viewer plus reading the cards must stay a fixed
+ * number of statements however many posts, authors, likes or saves a page holds.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PostReadStatementsTest {
+
+    /** One to resolve the viewer's id, one for the cards. */
+    private static final long VIEWER_AND_CARDS = 2;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostCardRepository postCardRepository;
+
+    private HotRankingService hotRankingService;
+    private PostService postService;
+    private UserService userService;
+    private Statistics statistics;
+    private User viewer;
+    private List<Post> posts;
+
+    @BeforeEach
+    void setUp() {
+        viewer = persistUser("viewer");
+        entityManager.persist(new Post(viewer, "own post", null, 0, 0));
+        posts = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            User author = persistUser("author" + i);
+            Post post = entityManager.persist(new Post(author, "post " + i, null, i, 0));
+            entityManager.persist(new PostLike(viewer.getId(), post.getPostId()));
+            entityManager.persist(new SavedPost(viewer.getId(), post.getPostId()));
+            posts.add(post);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        hotRankingService = mock(HotRankingService.class);
+        postService = new PostService(postRepository, mock(CommentRepository.class),
+                userRepository, mock(SavedPostRepository.class), postCardRepository,
+                mock(QueryEmbeddingCache.class), mock(VectorIndex.class), mock(TimelineService.class),
+                mock(OutboxService.class), mock(PostPhotoService.class), hotRankingService,
+                mock(UploadService.class), mock(AvatarService.class), mock(KeywordIndexService.class),
+                mock(InterestService.class));
+        userService = new UserService(userRepository, mock(ChallengeRepository.class), mock(BadgeRepository.class),
+                postCardRepository, mock(WasteTotalsIndex.class), mock(PasswordEncoder.class));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private User persistUser(String username) {
+        User user = entityManager.persist(new User(username + "@example.com", username, "hash"));
+        entityManager.persist(new Profile(user, "https://cdn.example.com/" + username + ".jpg", null));
+        return user;
+    }
+
+    private void assertStatements(long expected) {
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void feedPagesAreTheViewerAndOneCardQuery() {
+        PostFeedPageResponse first = postService.getPostsPage("viewer", 5, null);
+
+        assertStatements(VIEWER_AND_CARDS);
+        assertThat(first.getPosts()).hasSize(5).allSatisfy(card -> assertThat(card.isLiked()).isTrue());
+
+        statistics.clear();
+        PostFeedPageResponse second = postService.getPostsPage("viewer", 5, first.getNextCursor());
+
+        assertStatements(VIEWER_AND_CARDS);
+        assertThat(second.getPosts()).hasSize(2);
+    }
+
+    @Test
+    void anonymousFeedIsOneCardQuery() {
+        postService.getPostsPage(null, 10, null);
+
+        assertStatements(1);
+    }
+
+    @Test
+    void singlePostIsTheViewerAndOneCardQuery() {
+        GetPostResponse post = postService.getPost(posts.get(3).getPostId(), "viewer");
+
+        assertStatements(VIEWER_AND_CARDS);
+        assertThat(post.getCreatorUsername()).isEqualTo("author3");
+        assertThat(post.getProfile_picture()).isEqualTo("https://cdn.example.com/author3.jpg");
+        assertThat(post.isLiked()).isTrue();
+        assertThat(post.isSaved()).isTrue();
+    }
+
+    @Test
+    void mostLikedIsTheViewerAndOneCardQuery() {
+        List<GetPostResponse> cards = postService.getMostLikedPosts(10, "viewer");
+
+        assertStatements(VIEWER_AND_CARDS);
+        assertThat(cards).hasSize(7);
+    }
+
+    @Test
+    void mostLikedIsFilledUpWhenTooFewPostsHaveRecentActivity() {
+        Integer hot = posts.get(0).getPostId();
+        given(hotRankingService.isReady()).willReturn(true);
+        given(hotRankingService.topPostIds(10)).willReturn(List.of(hot));
+
+        List<GetPostResponse> cards = postService.getMostLikedPosts(10, "viewer");
+
+        assertThat(cards).hasSize(7);
+        assertThat(cards.get(0).getPostId()).isEqualTo(hot);
+        assertThat(cards).extracting(GetPostResponse::getPostId).doesNotHaveDuplicates();
+        assertThat(cards.get(1).getPostId()).isEqualTo(posts.get(5).getPostId());
+    }
+
+    @Test
+    void savedPostsAreTheUserAndOneCardQuery() {
+        List<GetSavedPostResponse> saved = userService.getSavedPosts("viewer");
+
+        assertStatements(VIEWER_AND_CARDS);
+        assertThat(saved).hasSize(6);
+    }
+
+    @Test
+    void userPostsAreTheUserAndOneCardQuery() {
+        List<GetPostResponse> own = userService.getPostsForUser("viewer");
+
+        assertStatements(VIEWER_AND_CARDS);
+        assertThat(own).singleElement().satisfies(card -> assertThat(card.getContent()).isEqualTo("own post"));
+    }
+}
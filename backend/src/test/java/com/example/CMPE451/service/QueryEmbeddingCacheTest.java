@@ -0,0 +1,128 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.response.EmbeddingCacheStatsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+class QueryEmbeddingCacheTest {
+
+    private EmbeddingService embeddingService;
+
+    @BeforeEach
+    void setUp() {
+        embeddingService = Mockito.mock(EmbeddingService.class);
+        given(embeddingService.submit(anyString())).willAnswer(invocation ->
+                CompletableFuture.completedFuture(new float[]{invocation.<String>getArgument(0).length()}));
+    }
+
+    @Test
+    void normalizedQueriesShareOneEntry() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(embeddingService, 100, 1000, "", "model-a");
+
+        float[] first = cache.embed("  Composting   Tips ");
+        float[] second = cache.embed("composting tips");
+
+        assertThat(second).isSameAs(first);
+        // The model sees the query as typed; only the cache key is normalized.
+        verify(embeddingService, times(1)).submit("  Composting   Tips ");
+        verify(embeddingService, never()).submit("composting tips");
+        EmbeddingCacheStatsResponse stats = cache.stats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void concurrentMissesRunOneInference() throws Exception {
+        CompletableFuture<float[]> inference = new CompletableFuture<>();
+        given(embeddingService.submit("recycling")).willReturn(inference);
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(embeddingService, 100, 5000, "", "model-a");
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<Future<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(clients.submit(() -> cache.embed("recycling")));
+        }
+        // Wait until every client is either loading or waiting on the load.
+        while (cache.stats().getMisses() + cache.stats().getDeduplicated() < 8) {
+            Thread.sleep(5);
+        }
+        float[] vector = {42f};
+        inference.complete(vector);
+        for (Future<float[]> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(vector);
+        }
+        clients.shutdown();
+
+        verify(embeddingService, times(1)).submit("recycling");
+        assertThat(cache.stats().getDeduplicated()).isEqualTo(7);
+    }
+
+    @Test
+    void oneOffQueriesDoNotEvictPopularOnes() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(embeddingService, 2, 1000, "", "model-a");
+        for (int i = 0; i < 5; i++) {
+            cache.embed("compost");
+            cache.embed("glass");
+        }
+
+        cache.embed("a rare query");
+
+        EmbeddingCacheStatsResponse stats = cache.stats();
+        assertThat(stats.getSize()).isEqualTo(2);
+        assertThat(stats.getRejections()).isEqualTo(1);
+        assertThat(stats.getEvictions()).isZero();
+        cache.embed("compost");
+        cache.embed("glass");
+        verify(embeddingService, times(1)).submit("compost");
+        verify(embeddingService, times(1)).submit("glass");
+
+        // Once a new query becomes more popular than the LRU entry it is admitted.
+        cache.embed("a rare query");
+        for (int i = 0; i < 10; i++) {
+            cache.embed("batteries");
+        }
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void persistsAcrossRestarts(@TempDir Path directory) {
+        String file = directory.resolve("cache.bin").toString();
+        QueryEmbeddingCache before = new QueryEmbeddingCache(embeddingService, 100, 1000, file, "model-a");
+        before.embed("zero waste");
+        before.save();
+
+        EmbeddingService fresh = Mockito.mock(EmbeddingService.class);
+        QueryEmbeddingCache after = new QueryEmbeddingCache(fresh, 100, 1000, file, "model-a");
+        after.load();
+
+        assertThat(after.embed("Zero Waste")).containsExactly(10f);
+        verifyNoInteractions(fresh);
+    }
+
+    @Test
+    void discardsAFileWrittenForAnotherModel(@TempDir Path directory) {
+        Path file = directory.resolve("cache.bin");
+        QueryEmbeddingCache before = new QueryEmbeddingCache(embeddingService, 100, 1000, file.toString(), "model-a");
+        before.embed("zero waste");
+        before.save();
+
+        QueryEmbeddingCache after = new QueryEmbeddingCache(embeddingService, 100, 1000, file.toString(), "model-b");
+        after.load();
+
+        assertThat(after.stats().getSize()).isZero();
+        assertThat(file).doesNotExist();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.PostText;
+import com.example.CMPE451.model.ReindexJob;
+import com.example.CMPE451.model.ReindexJobStatus;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.repository.ReindexJobRepository;
+import com.example.CMPE451.vector.PostPayload;
+import com.example.CMPE451.vector.VectorIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ReindexServiceTest {
+
+    private ReindexJobRepository reindexJobRepository;
+    private PostRepository postRepository;
+    private EmbeddingService embeddingService;
+    private VectorIndex vectorIndex;
+    private ReindexService reindexService;
+
+    @BeforeEach
+    void setUp() {
+        reindexJobRepository = Mockito.mock(ReindexJobRepository.class);
+        postRepository = Mockito.mock(PostRepository.class);
+        embeddingService = Mockito.mock(EmbeddingService.class);
+        vectorIndex = Mockito.mock(VectorIndex.class);
+        given(embeddingService.submit(anyString()))
+                .willAnswer(invocation -> CompletableFuture.completedFuture(new float[]{1, 0}));
+        reindexService = service(60_000);
+        given(reindexJobRepository.complete(eq(7), anyInt(), anyInt(), any())).willReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reindexService.shutdown();
+    }
+
+    private ReindexService service(long checkpointIntervalMillis) {
+        return new ReindexService(reindexJobRepository, postRepository,
+                new PostEmbeddingStore(embeddingService, "", "model", 1), vectorIndex,
+                2, 2, checkpointIntervalMillis, 120_000);
+    }
+
+    private static PostText text(int postId) {
+        return new PostText() {
+            @Override
+            public Integer getPostId() {
+                return postId;
+            }
+
+            @Override
+            public Integer getAuthorId() {
+                return 40 + postId % 2;
+            }
+
+            @Override
+            public Timestamp getCreatedAt() {
+                return new Timestamp(postId * 1000L);
+            }
+
+            @Override
+            public String getPhotoUrl() {
+                return postId % 2 == 0 ? "photo.jpg" : null;
+            }
+
+            @Override
+            public String getContent() {
+                return "post " + postId;
+            }
+
+            @Override
+            public Timestamp getUpdatedAt() {
+                return new Timestamp(0);
+            }
+        };
+    }
+
+    private static List<Integer> ids(List<VectorIndex.PostVector> batch) {
+        return batch.stream().map(VectorIndex.PostVector::postId).toList();
+    }
+
+    private void storeRunning(String shadowCollection) {
+        given(reindexJobRepository.findById(7)).willReturn(Optional.of(job(shadowCollection, 0)));
+    }
+
+    private static ReindexJob job(String shadowCollection, int lastPostId) {
+        ReindexJob job = new ReindexJob();
+        job.setId(7);
+        job.setStatus(ReindexJobStatus.RUNNING);
+        job.setShadowCollection(shadowCollection);
+        job.setLastPostId(lastPostId);
+        job.setProcessed(lastPostId);
+        job.setTotal(5);
+        job.setStartedAt(new Timestamp(System.currentTimeMillis()));
+        return job;
+    }
+
+    @Test
+    void resumesAfterTheCheckpointedPost() {
+        given(postRepository.findTextsAfter(eq(2), any())).willReturn(List.of(text(3), text(4)));
+        given(postRepository.findTextsAfter(eq(4), any())).willReturn(List.of(text(5)));
+        ReindexJob job = job(null, 2);
+        storeRunning(null);
+
+        reindexService.run(job);
+
+        verify(postRepository, never()).findTextsAfter(eq(0), any());
+        verify(vectorIndex).upsertAll(argThat(batch -> ids(batch).equals(List.of(3, 4))));
+        verify(vectorIndex).upsertAll(argThat(batch -> ids(batch).equals(List.of(5))
+                && batch.get(0).payload().equals(new PostPayload(41, 5000, false))));
+        verify(vectorIndex, never()).beginShadow(anyString());
+        assertThat(job.getStatus()).isEqualTo(ReindexJobStatus.COMPLETED);
+        assertThat(job.getLastPostId()).isEqualTo(5);
+        assertThat(job.getProcessed()).isEqualTo(5);
+        verify(reindexJobRepository).complete(eq(7), eq(5), eq(5), any());
+    }
+
+    @Test
+    void shadowBuildIsPromotedAndLateWritesAreReplayed() {
+        VectorIndex shadow = Mockito.mock(VectorIndex.class);
+        given(vectorIndex.beginShadow("forum_posts_next")).willReturn(shadow);
+        given(postRepository.findTextsAfter(eq(0), any())).willReturn(List.of(text(1), text(2)));
+        given(postRepository.findTextsUpdatedAfter(any(), eq(0), any()))
+                .willReturn(List.of(text(1)))
+                .willReturn(List.of(text(6)));
+        ReindexJob job = job("forum_posts_next", 0);
+        storeRunning("forum_posts_next");
+
+        reindexService.run(job);
+
+        InOrder order = Mockito.inOrder(shadow, vectorIndex);
+        order.verify(shadow).upsertAll(argThat(batch -> ids(batch).equals(List.of(1, 2))));
+        order.verify(shadow).upsertAll(argThat(batch -> ids(batch).equals(List.of(1))));
+        order.verify(shadow).flush();
+        order.verify(vectorIndex).promoteShadow("forum_posts_next");
+        order.verify(vectorIndex).upsertAll(argThat(batch -> ids(batch).equals(List.of(6))));
+        assertThat(job.getStatus()).isEqualTo(ReindexJobStatus.COMPLETED);
+    }
+
+    @Test
+    void lateWritesAreReplayedInChunksWithAtMostAChunkOfEmbeddingsQueued() {
+        given(postRepository.findTextsAfter(eq(0), any())).willReturn(List.of());
+        given(postRepository.findTextsUpdatedAfter(any(), eq(0), any())).willReturn(List.of(text(1), text(2)));
+        given(postRepository.findTextsUpdatedAfter(new Timestamp(0), 2, PageRequest.of(0, 2)))
+                .willReturn(List.of(text(3)));
+        storeRunning(null);
+
+        reindexService.run(job(null, 0));
+
+        InOrder order = Mockito.inOrder(embeddingService, vectorIndex);
+        order.verify(embeddingService).submit("post 2");
+        order.verify(vectorIndex).upsertAll(argThat(batch -> ids(batch).equals(List.of(1, 2))));
+        order.verify(embeddingService).submit("post 3");
+        order.verify(vectorIndex).upsertAll(argThat(batch -> ids(batch).equals(List.of(3))));
+        verify(postRepository).findTextsUpdatedAfter(new Timestamp(0), 3, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void stopsAtCheckpointWhenCancelledElsewhere() {
+        reindexService.shutdown();
+        reindexService = service(0);
+        given(postRepository.findTextsAfter(eq(0), any())).willReturn(List.of(text(1), text(2)));
+        given(postRepository.findTextsAfter(eq(2), any())).willReturn(List.of(text(3)));
+        ReindexJob stored = job("forum_posts_next", 0);
+        stored.setStatus(ReindexJobStatus.CANCELLED);
+        given(reindexJobRepository.findById(7)).willReturn(Optional.of(stored));
+        VectorIndex shadow = Mockito.mock(VectorIndex.class);
+        given(vectorIndex.beginShadow("forum_posts_next")).willReturn(shadow);
+
+        reindexService.run(job("forum_posts_next", 0));
+
+        verify(shadow).flush();
+        verify(postRepository, never()).findTextsAfter(eq(2), any());
+        verify(vectorIndex, never()).promoteShadow(anyString());
+        verify(reindexJobRepository).save(stored);
+        assertThat(stored.getStatus()).isEqualTo(ReindexJobStatus.CANCELLED);
+        assertThat(stored.getLastPostId()).isEqualTo(2);
+    }
+
+    @Test
+    void aCancelDuringTheFinalStepsIsNotOverwritten() {
+        given(postRepository.findTextsAfter(eq(0), any())).willReturn(List.of(text(1)));
+        storeRunning(null);
+        given(reindexJobRepository.complete(eq(7), anyInt(), anyInt(), any())).willReturn(0);
+        ReindexJob job = job(null, 0);
+
+        reindexService.run(job);
+
+        assertThat(job.getStatus()).isEqualTo(ReindexJobStatus.RUNNING);
+        verify(reindexJobRepository, never()).save(job);
+    }
+
+    @Test
+    void failureIsRecordedOnTheJob() {
+        given(postRepository.findTextsAfter(eq(0), any())).willReturn(List.of(text(1)));
+        given(embeddingService.submit(anyString()))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("model unavailable")));
+        ReindexJob stored = job(null, 0);
+        given(reindexJobRepository.findById(7)).willReturn(Optional.of(stored));
+
+        reindexService.run(job(null, 0));
+
+        assertThat(stored.getStatus()).isEqualTo(ReindexJobStatus.FAILED);
+        assertThat(stored.getLastError()).contains("model unavailable");
+        assertThat(stored.getLastPostId()).isZero();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.Post;
+import com.example.CMPE451.model.PostNeighbors;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.response.GetPostResponse;
+import com.example.CMPE451.repository.PostCardRepository;
+import com.example.CMPE451.repository.PostNeighborsRepository;
+import com.example.CMPE451.repository.PostRepository;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.vector.VectorIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class RelatedPostServiceTest {
+
+    private PostNeighborsRepository postNeighborsRepository;
+    private PostRepository postRepository;
+    private PostCardRepository postCardRepository;
+    private EmbeddingService embeddingService;
+    private VectorIndex vectorIndex;
+    private RelatedPostService relatedPostService;
+
+    @BeforeEach
+    void setUp() {
+        postNeighborsRepository = Mockito.mock(PostNeighborsRepository.class);
+        postRepository = Mockito.mock(PostRepository.class);
+        postCardRepository = Mockito.mock(PostCardRepository.class);
+        embeddingService = Mockito.mock(EmbeddingService.class);
+        vectorIndex = Mockito.mock(VectorIndex.class);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        User viewer = new User();
+        viewer.setId(9);
+        given(userRepository.findByUsername("alice")).willReturn(Optional.of(viewer));
+        relatedPostService = new RelatedPostService(postNeighborsRepository, postRepository, postCardRepository,
+                userRepository, new PostEmbeddingStore(embeddingService, "", "model", 1), vectorIndex, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relatedPostService.shutdown();
+    }
+
+    private static List<GetPostResponse> cards(int... postIds) {
+        return Arrays.stream(postIds).mapToObj(id -> {
+            GetPostResponse card = new GetPostResponse();
+            card.setPostId(id);
+            return card;
+        }).toList();
+    }
+
+    private static PostNeighbors neighbors(int postId, double minScore, int... neighborIds) {
+        return new PostNeighbors(postId, neighborIds, minScore);
+    }
+
+    @Test
+    void storedNeighboursAreServedWithoutAVectorSearch() {
+        given(postNeighborsRepository.findById(1)).willReturn(Optional.of(neighbors(1, 0.5, 4, 2, 7)));
+        given(postCardRepository.findCardsInOrder(9, List.of(4, 2))).willReturn(cards(4, 2));
+
+        List<GetPostResponse> related = relatedPostService.getRelatedPosts(1, "alice", 2);
+
+        assertThat(related).extracting(GetPostResponse::getPostId).containsExactly(4, 2);
+        verify(vectorIndex, never()).search(any(), anyInt());
+        verify(postNeighborsRepository, never()).save(any());
+    }
+
+    @Test
+    void largePagesAreClampedToTheStoredNeighbours() {
+        given(postNeighborsRepository.findById(1)).willReturn(Optional.of(neighbors(1, 0.5, 4, 2, 7)));
+        given(postCardRepository.findCardsInOrder(9, List.of(4, 2, 7))).willReturn(cards(4, 2, 7));
+
+        List<GetPostResponse> related = relatedPostService.getRelatedPosts(1, "alice", Integer.MAX_VALUE);
+
+        assertThat(related).extracting(GetPostResponse::getPostId).containsExactly(4, 2, 7);
+    }
+
+    @Test
+    void moreNeighboursThanTheColumnHoldsAreRejectedAtStartup() {
+        assertThatThrownBy(() -> new RelatedPostService(postNeighborsRepository, postRepository, postCardRepository,
+                Mockito.mock(UserRepository.class), new PostEmbeddingStore(embeddingService, "", "model", 1),
+                vectorIndex, PostNeighbors.MAX_NEIGHBORS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void missingListIsComputedOnFirstRead() {
+        Post post = new Post();
+        post.setContent("compost tips");
+        float[] vector = {1, 0};
+        given(postNeighborsRepository.findById(1)).willReturn(Optional.empty());
+        given(postRepository.findById(1)).willReturn(Optional.of(post));
+        given(embeddingService.createEmbedding("compost tips")).willReturn(vector);
+        given(vectorIndex.search(vector, 4)).willReturn(List.of(
+                new VectorIndex.ScoredPost(1, 1f),
+                new VectorIndex.ScoredPost(5, 0.9f),
+                new VectorIndex.ScoredPost(3, 0.8f)));
+        given(postCardRepository.findCardsInOrder(9, List.of(5, 3))).willReturn(cards(5, 3));
+
+        List<GetPostResponse> related = relatedPostService.getRelatedPosts(1, "alice", 5);
+
+        assertThat(related).extracting(GetPostResponse::getPostId).containsExactly(5, 3);
+        verify(postNeighborsRepository).save(argThat(saved -> saved.getPostId() == 1
+                && Arrays.equals(saved.neighbors(), new int[]{5, 3}) && saved.getMinScore() == 0.8f));
+    }
+
+    @Test
+    void indexingAPostMarksTheListsItDisplacesStale() {
+        float[] vector = {1, 0};
+        given(vectorIndex.search(vector, 4)).willReturn(List.of(
+                new VectorIndex.ScoredPost(20, 0.95f),
+                new VectorIndex.ScoredPost(21, 0.7f),
+                new VectorIndex.ScoredPost(22, 0.6f)));
+        given(postNeighborsRepository.findAllById(Set.of(20, 21, 22))).willReturn(List.of(
+                neighbors(20, 0.9, 30, 31, 32),
+                neighbors(21, 0.8, 30, 31, 32),
+                neighbors(22, 0.9, 30)));
+
+        relatedPostService.onPostIndexed(10, vector);
+
+        verify(postNeighborsRepository).save(argThat(saved -> saved.getPostId() == 10
+                && Arrays.equals(saved.neighbors(), new int[]{20, 21, 22})));
+        verify(postNeighborsRepository).markStale(argThat(ids -> Set.copyOf(ids).equals(Set.of(20, 22))));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.repository.UserCounterRepository;
+import com.example.CMPE451.repository.WasteDailyTotalRepository;
+import com.example.CMPE451.repository.WasteHourlyTotalRepository;
+import com.example.CMPE451.repository.WasteMonthlyTotalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class StartupBackfillsTest {
+
+    private static final String MARK = "INSERT IGNORE INTO backfill_markers (name) VALUES (?)";
+
+    private UserCounterRepository userCounterRepository;
+    private WasteDailyTotalRepository wasteDailyTotalRepository;
+    private WasteMonthlyTotalRepository wasteMonthlyTotalRepository;
+    private WasteHourlyTotalRepository wasteHourlyTotalRepository;
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private StartupBackfills startupBackfills;
+
+    @BeforeEach
+    void setUp() {
+        userCounterRepository = Mockito.mock(UserCounterRepository.class);
+        wasteDailyTotalRepository = Mockito.mock(WasteDailyTotalRepository.class);
+        wasteMonthlyTotalRepository = Mockito.mock(WasteMonthlyTotalRepository.class);
+        wasteHourlyTotalRepository = Mockito.mock(WasteHourlyTotalRepository.class);
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        startupBackfills = new StartupBackfills(userCounterRepository, wasteDailyTotalRepository,
+                wasteMonthlyTotalRepository, wasteHourlyTotalRepository, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void backfillsOnlyTablesWithoutAMarkerWhateverTheyAlreadyHold() {
+        given(jdbcTemplate.update(eq(MARK), anyString())).willReturn(1);
+        given(jdbcTemplate.update(MARK, "user_counters")).willReturn(0);
+
+        startupBackfills.start();
+
+        verify(userCounterRepository, never()).backfill();
+        verify(wasteDailyTotalRepository).backfill();
+        verify(wasteMonthlyTotalRepository).backfill();
+        verify(wasteHourlyTotalRepository).backfill();
+        verify(wasteDailyTotalRepository, never()).count();
+        assertThat(startupBackfills.isRunning()).isTrue();
+    }
+
+    @Test
+    void aFailedBackfillRollsBackItsMarkerAndDoesNotStopTheOthers() {
+        given(jdbcTemplate.update(eq(MARK), anyString())).willReturn(1);
+        given(wasteDailyTotalRepository.backfill()).willThrow(new IllegalStateException("lock wait timeout"));
+
+        startupBackfills.start();
+
+        verify(transactionManager).rollback(any());
+        verify(wasteMonthlyTotalRepository).backfill();
+        verify(wasteHourlyTotalRepository).backfill();
+    }
+
+    @Test
+    void startsBeforeTheWebServer() {
+        // Spring Boot starts the embedded server's connector in phase DEFAULT_PHASE - 2048.
+        assertThat(startupBackfills.getPhase()).isLessThan(StartupBackfills.DEFAULT_PHASE - 2048);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.PostCursor;
+import com.example.CMPE451.repository.FollowRepository;
+import com.example.CMPE451.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TimelineServiceTest {
+
+    private PostRepository postRepository;
+    private FollowRepository followRepository;
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = Mockito.mock(PostRepository.class);
+        followRepository = Mockito.mock(FollowRepository.class);
+        timelineService = new TimelineService(postRepository, followRepository, 4, 3, 100);
+    }
+
+    private static PostCursor entry(long time, int postId) {
+        return new PostCursor(new Timestamp(time), postId);
+    }
+
+    private static FollowRepository.FollowingCount following(String username, long followers) {
+        return new FollowRepository.FollowingCount() {
+            public String getUsername() {
+                return username;
+            }
+
+            public Long getFollowerCount() {
+                return followers;
+            }
+        };
+    }
+
+    @Test
+    void mergesPushedEntriesWithCelebrityPostsAndPagesByCursor() {
+        given(followRepository.findFollowingWithFollowerCounts("alice"))
+                .willReturn(List.of(following("bob", 1), following("star", 5)));
+        given(postRepository.findTimelineEntriesByAuthors(eq(List.of("alice", "bob")), any()))
+                .willReturn(List.of(entry(50, 5), entry(30, 3)));
+        given(postRepository.findTimelineEntriesByAuthors(eq(List.of("star")), any()))
+                .willReturn(List.of(entry(40, 4), entry(30, 2)));
+
+        TimelineService.TimelinePage first = timelineService.readPage("alice", 2, null);
+        assertThat(first.postIds()).containsExactly(5, 4);
+
+        TimelineService.TimelinePage second = timelineService.readPage("alice", 2, first.nextCursor());
+        assertThat(second.postIds()).containsExactly(3, 2);
+        assertThat(second.nextCursor()).isNull();
+        verify(postRepository, never()).findHomeTimelineEntriesAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    void deletedPostsLeaveTheCachedTimelinesOnlyOnceTheDeleteCommits() {
+        given(followRepository.findFollowingWithFollowerCounts("alice")).willReturn(List.of());
+        given(postRepository.findTimelineEntriesByAuthors(eq(List.of("alice")), any()))
+                .willReturn(List.of(entry(50, 5), entry(30, 3)));
+        assertThat(timelineService.readPage("alice", 2, null).postIds()).containsExactly(5, 3);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            timelineService.onPostDeleted("alice", 5);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(timelineService.readPage("alice", 2, null).postIds()).containsExactly(5, 3);
+
+        timelineService.onPostDeleted("alice", 5);
+        assertThat(timelineService.readPage("alice", 2, null).postIds()).containsExactly(3);
+    }
+
+    @Test
+    void pushesNewPostsOnlyToFollowersOfRegularAccounts() {
+        given(followRepository.findFollowingWithFollowerCounts("alice")).willReturn(List.of(following("bob", 1)));
+        given(postRepository.findTimelineEntriesByAuthors(anyCollection(), any())).willReturn(List.of());
+        timelineService.onPostCreated("star", entry(90, 9), List.of("x", "y", "z"));
+        timelineService.readPage("alice", 10, null);
+
+        timelineService.onPostCreated("bob", entry(100, 10), List.of("alice"));
+        timelineService.onPostCreated("star", entry(110, 11), List.of("alice", "x", "y"));
+
+        assertThat(timelineService.readPage("alice", 10, null).postIds()).containsExactly(10);
+    }
+
+    @Test
+    void fallsBackToDatabaseBelowTheHorizonOfATruncatedTimeline() {
+        given(followRepository.findFollowingWithFollowerCounts("alice")).willReturn(List.of());
+        given(postRepository.findTimelineEntriesByAuthors(anyCollection(), any()))
+                .willReturn(List.of(entry(90, 9), entry(80, 8), entry(70, 7), entry(60, 6)));
+        given(postRepository.findHomeTimelineEntriesAfter(eq("alice"), eq(new Timestamp(60)), eq(6), any()))
+                .willReturn(List.of(entry(50, 5), entry(40, 4)));
+
+        TimelineService.TimelinePage page = timelineService.readPage("alice", 5, null);
+
+        assertThat(page.postIds()).containsExactly(9, 8, 7, 6, 5);
+        assertThat(page.nextCursor().getPostId()).isEqualTo(5);
+    }
+
+    @Test
+    void keepsPostsPushedWhileTheTimelineIsBeingRebuilt() {
+        given(followRepository.findFollowingWithFollowerCounts("alice"))
+                .willReturn(List.of(following("bob", 1), following("star", 5)));
+        // Each post commits after its author's query has read the table but before the query returns.
+        given(postRepository.findTimelineEntriesByAuthors(eq(List.of("alice", "bob")), any())).willAnswer(inv -> {
+            timelineService.onPostCreated("bob", entry(100, 10), List.of("alice"));
+            return List.of(entry(50, 5));
+        });
+        given(postRepository.findTimelineEntriesByAuthors(eq(List.of("star")), any())).willAnswer(inv -> {
+            timelineService.onPostCreated("star", entry(110, 11), List.of("alice", "x", "y"));
+            return List.of(entry(40, 4));
+        });
+
+        assertThat(timelineService.readPage("alice", 10, null).postIds()).containsExactly(11, 10, 5, 4);
+        assertThat(timelineService.readPage("alice", 10, null).postIds()).containsExactly(11, 10, 5, 4);
+        verify(followRepository, Mockito.times(1)).findFollowingWithFollowerCounts("alice");
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.BadRequestException;
+import com.example.CMPE451.exception.InvalidCredentialsException;
+import com.example.CMPE451.exception.NotFoundException;
+import com.example.CMPE451.model.UploadPurpose;
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.request.UploadTicketRequest;
+import com.example.CMPE451.model.response.UploadTicketResponse;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.storage.ImageStorage;
+import com.example.CMPE451.storage.PresignedUpload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class UploadServiceTest {
+
+    private ImageStorage imageStorage;
+    private UploadService uploadService;
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        imageStorage = Mockito.mock(ImageStorage.class);
+        uploadService = new UploadService(userRepository, imageStorage, "profile", 1000, 900, 40_000_000);
+
+        alice = new User("alice@example.com", "alice", "hash");
+        alice.setId(7);
+        given(userRepository.findByUsername("alice")).willReturn(Optional.of(alice));
+        given(imageStorage.presignPut(anyString(), anyString(), anyLong(), any(Duration.class)))
+                .willAnswer(inv -> new PresignedUpload("https://storage/" + inv.getArgument(0),
+                        Map.of("Content-Type", inv.getArgument(1)), Instant.now()));
+    }
+
+    @Test
+    void issuesTicketsForKeysOwnedByTheUploader() {
+        UploadTicketResponse post = uploadService.createTicket(
+                new UploadTicketRequest("alice", UploadPurpose.POST_PHOTO, "image/jpeg", 500L));
+        assertThat(post.getUploadKey()).startsWith("uploads/7/");
+        assertThat(post.getMethod()).isEqualTo("PUT");
+        verify(imageStorage).presignPut(eq(post.getUploadKey()), eq("image/jpeg"), eq(500L), eq(Duration.ofSeconds(900)));
+
+        UploadTicketResponse profile = uploadService.createTicket(
+                new UploadTicketRequest("alice", UploadPurpose.PROFILE_PHOTO, "image/png", 500L));
+        assertThat(profile.getUploadKey()).startsWith("uploads/7/profile-").endsWith(".png");
+        assertThatThrownBy(() -> uploadService.createTicket(
+                new UploadTicketRequest("alice", UploadPurpose.PROFILE_PHOTO, "image/svg+xml", 500L)))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThatThrownBy(() -> uploadService.createTicket(
+                new UploadTicketRequest("alice", UploadPurpose.POST_PHOTO, "image/jpeg", 5000L)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> uploadService.createTicket(
+                new UploadTicketRequest("alice", UploadPurpose.POST_PHOTO, "application/pdf", 500L)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void confirmsOnlyPresentOwnedUploadsWithinTheLimit() {
+        assertThatThrownBy(() -> uploadService.requireUpload(alice, UploadPurpose.POST_PHOTO, "uploads/8/x"))
+                .isInstanceOf(InvalidCredentialsException.class);
+
+        given(imageStorage.size("uploads/7/missing")).willReturn(OptionalLong.empty());
+        assertThatThrownBy(() -> uploadService.requireUpload(alice, UploadPurpose.POST_PHOTO, "uploads/7/missing"))
+                .isInstanceOf(NotFoundException.class);
+
+        given(imageStorage.size("uploads/7/huge")).willReturn(OptionalLong.of(5000));
+        assertThatThrownBy(() -> uploadService.requireUpload(alice, UploadPurpose.POST_PHOTO, "uploads/7/huge"))
+                .isInstanceOf(BadRequestException.class);
+        verify(imageStorage).delete("uploads/7/huge");
+
+        given(imageStorage.size("uploads/7/ok")).willReturn(OptionalLong.of(500));
+        uploadService.requireUpload(alice, UploadPurpose.POST_PHOTO, "uploads/7/ok");
+    }
+
+    @Test
+    void publishesOnlyProfilePhotosThatAreReallyImages() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", png);
+        given(imageStorage.size(anyString())).willReturn(OptionalLong.of(png.size()));
+        given(imageStorage.open("uploads/7/profile-a.png")).willReturn(new ByteArrayInputStream(png.toByteArray()));
+        given(imageStorage.put(anyString(), any(), anyLong(), anyString()))
+                .willAnswer(inv -> "https://cdn/" + inv.getArgument(0));
+
+        String url = uploadService.publishProfilePhoto(alice, "uploads/7/profile-a.png");
+        assertThat(url).startsWith("https://cdn/profile/7-").endsWith(".png");
+        verify(imageStorage).put(anyString(), any(), eq((long) png.size()), eq("image/png"));
+        verify(imageStorage).delete("uploads/7/profile-a.png");
+
+        byte[] svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.US_ASCII);
+        given(imageStorage.open("uploads/7/profile-b.png")).willReturn(new ByteArrayInputStream(svg));
+        assertThatThrownBy(() -> uploadService.publishProfilePhoto(alice, "uploads/7/profile-b.png"))
+                .isInstanceOf(BadRequestException.class);
+        verify(imageStorage).delete("uploads/7/profile-b.png");
+        verify(imageStorage, never()).put(anyString(), any(), anyLong(), eq("image/svg+xml"));
+
+        assertThatThrownBy(() -> uploadService.publishProfilePhoto(alice, "profile/7-c.png"))
+                .isInstanceOf(InvalidCredentialsException.class);
+    }
+
+    @Test
+    void storesMultipartProfilePhotosUnderTheSniffedType() throws Exception {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "jpeg", jpeg);
+        given(imageStorage.put(anyString(), any(), anyLong(), anyString()))
+                .willAnswer(inv -> "https://cdn/" + inv.getArgument(0));
+
+        assertThat(uploadService.storeProfilePhoto(alice, jpeg.toByteArray())).endsWith(".jpg");
+        verify(imageStorage).put(anyString(), any(), eq((long) jpeg.size()), eq("image/jpeg"));
+
+        byte[] html = "<html><script>alert(1)</script></html>".getBytes(StandardCharsets.US_ASCII);
+        assertThatThrownBy(() -> uploadService.storeProfilePhoto(alice, html))
+                .isInstanceOf(BadRequestException.class);
+        verify(imageStorage, never()).put(anyString(), any(), anyLong(), eq("text/html"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.User;
+import com.example.CMPE451.model.WasteGoal;
+import com.example.CMPE451.model.WasteType;
+import com.example.CMPE451.model.request.CreateOrEditWasteGoalRequest;
+import com.example.CMPE451.repository.UserCounterRepository;
+import com.example.CMPE451.repository.UserRepository;
+import com.example.CMPE451.repository.WasteDailyTotalRepository;
+import com.example.CMPE451.repository.WasteGoalRepository;
+import com.example.CMPE451.repository.WasteItemRepository;
+import com.example.CMPE451.repository.WasteMonthlyTotalRepository;
+import com.example.CMPE451.repository.WasteTypeRepository;
+import org.h2.tools.TriggerAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Editing a goal against the real repository while a log is added to it, between the edit's read and its write.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WasteGoalServiceJpaTest {
+
+    @Autowired
+    private WasteGoalRepository wasteGoalRepository;
+
+    @Autowired
+    private WasteTypeRepository storedTypes;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WasteTypeRepository wasteTypeRepository;
+    private UserCounterRepository userCounterRepository;
+    private WasteGoalService wasteGoalService;
+    private WasteGoal goal;
+    private WasteType plastic;
+
+    @BeforeEach
+    void setUp() {
+        // As in init.sql; the generated schema has no default for a column the entity never inserts.
+        jdbcTemplate.execute("ALTER TABLE waste_goal ALTER COLUMN total_grams SET DEFAULT 0");
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS goal_before_update BEFORE UPDATE ON waste_goal "
+                + "FOR EACH ROW CALL \"" + GoalBeforeUpdate.class.getName() + "\"");
+        WasteType type = new WasteType();
+        type.setName("PLASTIC");
+        plastic = storedTypes.save(type);
+        User owner = userRepository.save(new User("alice@example.com", "alice", "hash"));
+        goal = wasteGoalRepository.save(new WasteGoal(owner, 7, plastic, 200));
+
+        wasteTypeRepository = Mockito.mock(WasteTypeRepository.class);
+        userCounterRepository = Mockito.mock(UserCounterRepository.class);
+        wasteGoalService = new WasteGoalService(wasteGoalRepository, wasteTypeRepository, userRepository,
+                Mockito.mock(WasteItemRepository.class), Mockito.mock(WasteDailyTotalRepository.class),
+                Mockito.mock(WasteMonthlyTotalRepository.class), Mockito.mock(WasteTotalsIndex.class),
+                userCounterRepository);
+    }
+
+    /**
+     * The {@code goal_before_update} trigger of init.sql.
+     */
+    public static class GoalBeforeUpdate extends TriggerAdapter {
+        @Override
+        public void fire(Connection connection, ResultSet oldRow, ResultSet newRow) throws SQLException {
+            double progress = newRow.getDouble("TOTAL_GRAMS") / newRow.getDouble("RESTRICTION_AMOUNT_GRAMS") * 100;
+            newRow.updateDouble("PERCENT_OF_PROGRESS", progress);
+            newRow.updateInt("COMPLETED", progress >= 100 ? 1 : 0);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        wasteGoalRepository.deleteAll();
+        userRepository.deleteAll();
+        storedTypes.deleteAll();
+    }
+
+    @Test
+    void anEditDoesNotWriteBackProgressItReadBeforeAConcurrentLog() {
+        TransactionTemplate otherTransaction = new TransactionTemplate(transactionManager);
+        otherTransaction.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        // The type lookup runs after the goal is loaded and before it is saved.
+        given(wasteTypeRepository.findByName("PLASTIC")).willAnswer(invocation -> {
+            otherTransaction.executeWithoutResult(status -> wasteGoalRepository.addToTotal(goal.getGoalId(), 50));
+            return Optional.of(plastic);
+        });
+        CreateOrEditWasteGoalRequest request = new CreateOrEditWasteGoalRequest();
+        request.setDuration(14);
+        request.setRestrictionAmountGrams(200);
+        request.setType("PLASTIC");
+
+        wasteGoalService.editWasteGoal(goal.getGoalId(), request);
+
+        WasteGoal stored = wasteGoalRepository.findById(goal.getGoalId()).orElseThrow();
+        assertThat(stored.getDuration()).isEqualTo(14);
+        assertThat(stored.getTotalGrams()).isEqualTo(50.0);
+        assertThat(stored.getPercentOfProgress()).isEqualTo(25.0);
+    }
+
+    @Test
+    void deletingAGoalLowersTheBadgeCountersLikeDeletingItsLogs() {
+        wasteGoalService.deleteWasteGoal(goal.getGoalId());
+
+        verify(userCounterRepository).subtractGoal(goal.getGoalId());
+        assertThat(wasteGoalRepository.findById(goal.getGoalId())).isEmpty();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.exception.BadRequestException;
+import com.example.CMPE451.exception.InvalidCredentialsException;
+import com.example.CMPE451.model.*;
+import com.example.CMPE451.model.request.CreateWasteLogBatchRequest;
+import com.example.CMPE451.model.request.CreateWasteLogRequest;
+import com.example.CMPE451.model.request.UpdateWasteLogRequest;
+import com.example.CMPE451.model.response.CreateOrEditWasteLogResponse;
+import com.example.CMPE451.model.response.MonthlyWasteData;
+import com.example.CMPE451.model.response.WasteLogMonthlyResponse;
+import com.example.CMPE451.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class WasteLogServiceTest {
+
+    private UserRepository userRepository;
+    private WasteItemRepository wasteItemRepository;
+    private WasteLogRepository wasteLogRepository;
+    private WasteGoalRepository wasteGoalRepository;
+    private BadgeService badgeService;
+    private WasteTypeRepository wasteTypeRepository;
+    private WasteDailyTotalRepository wasteDailyTotalRepository;
+    private WasteMonthlyTotalRepository wasteMonthlyTotalRepository;
+    private WasteTotalsIndex wasteTotalsIndex;
+    private JdbcTemplate jdbcTemplate;
+    private WasteLogService wasteLogService;
+
+    private User user;
+    private WasteGoal goal;
+    private WasteItem bottle;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        wasteItemRepository = Mockito.mock(WasteItemRepository.class);
+        wasteLogRepository = Mockito.mock(WasteLogRepository.class);
+        wasteGoalRepository = Mockito.mock(WasteGoalRepository.class);
+        badgeService = Mockito.mock(BadgeService.class);
+        wasteTypeRepository = Mockito.mock(WasteTypeRepository.class);
+        wasteDailyTotalRepository = Mockito.mock(WasteDailyTotalRepository.class);
+        wasteMonthlyTotalRepository = Mockito.mock(WasteMonthlyTotalRepository.class);
+        wasteTotalsIndex = Mockito.mock(WasteTotalsIndex.class);
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        wasteLogService = new WasteLogService(userRepository, wasteItemRepository, wasteTypeRepository,
+                wasteLogRepository, wasteGoalRepository, badgeService, wasteDailyTotalRepository,
+                wasteMonthlyTotalRepository, wasteTotalsIndex, jdbcTemplate);
+
+        WasteType plastic = new WasteType();
+        plastic.setId(1);
+        plastic.setName("Plastic");
+        user = new User();
+        user.setId(6);
+        user.setUsername("alice");
+        goal = new WasteGoal(user, 7, plastic, 1000);
+        goal.setGoalId(4);
+        bottle = new WasteItem();
+        bottle.setId(2);
+        bottle.setDisplayName("Bottle");
+        bottle.setWeightInGrams(25);
+        bottle.setType(plastic);
+        WasteItem bag = new WasteItem();
+        bag.setId(3);
+        bag.setDisplayName("Bag");
+        bag.setWeightInGrams(5);
+        bag.setType(plastic);
+        WasteType glass = new WasteType();
+        glass.setId(2);
+        glass.setName("Glass");
+        WasteItem jar = new WasteItem();
+        jar.setId(8);
+        jar.setDisplayName("Jar");
+        jar.setWeightInGrams(200);
+        jar.setType(glass);
+        given(wasteItemRepository.findAll()).willReturn(List.of(bottle, bag, jar));
+        given(userRepository.findByUsername("alice")).willReturn(Optional.of(user));
+        given(wasteGoalRepository.findById(4)).willReturn(Optional.of(goal));
+        given(wasteItemRepository.findById(2)).willReturn(Optional.of(bottle));
+        given(wasteTypeRepository.findByName("Plastic")).willReturn(Optional.of(plastic));
+        given(wasteLogRepository.save(any())).willAnswer(invocation -> {
+            WasteLog log = invocation.getArgument(0);
+            if (log.getDate() == null) {
+                log.setDate(LocalDateTime.of(2025, 3, 14, 9, 30));
+            }
+            return log;
+        });
+    }
+
+    private WasteLog storedLog(int quantity) {
+        WasteLog log = new WasteLog(goal.getOwner(), goal, bottle, quantity);
+        log.setLogId(9);
+        log.setDate(LocalDateTime.of(2025, 2, 28, 23, 10));
+        given(wasteLogRepository.findById(9)).willReturn(Optional.of(log));
+        return log;
+    }
+
+    @Test
+    void creatingALogAddsItsWeightToTheGoal() {
+        wasteLogService.createWasteLog(new CreateWasteLogRequest("alice", 2, 3), 4);
+
+        verify(wasteGoalRepository).addToTotal(4, 75.0);
+        verify(badgeService).onWasteLogged(user.getId(), bottle.getType(), 75.0);
+        verify(wasteDailyTotalRepository).add(6, 1, LocalDate.of(2025, 3, 14), 75.0);
+        verify(wasteMonthlyTotalRepository).add(6, 1, LocalDate.of(2025, 3, 1), 75.0);
+        verify(wasteTotalsIndex).add(bottle.getType(), LocalDateTime.of(2025, 3, 14, 9, 30), 75.0);
+    }
+
+    @Test
+    void updatingALogAddsOnlyTheDifference() {
+        storedLog(3);
+
+        wasteLogService.updateWasteLog(9, new UpdateWasteLogRequest(1));
+
+        verify(wasteGoalRepository).addToTotal(4, -50.0);
+        verify(wasteDailyTotalRepository).add(6, 1, LocalDate.of(2025, 2, 28), -50.0);
+        verify(wasteMonthlyTotalRepository).add(6, 1, LocalDate.of(2025, 2, 1), -50.0);
+    }
+
+    @Test
+    void unchangedQuantityLeavesTheGoalAlone() {
+        storedLog(3);
+
+        wasteLogService.updateWasteLog(9, new UpdateWasteLogRequest(3));
+
+        verify(wasteGoalRepository, never()).addToTotal(anyInt(), anyDouble());
+    }
+
+    @Test
+    void deletingALogSubtractsItsWeight() {
+        storedLog(2);
+
+        wasteLogService.deleteWasteLog(9);
+
+        verify(wasteGoalRepository).addToTotal(4, -50.0);
+        verify(badgeService).onWasteLogged(user.getId(), bottle.getType(), -50.0);
+    }
+
+    @Test
+    void monthlyChartIsReadFromTheRollupWithEmptyMonthsFilledIn() {
+        LocalDate first = LocalDate.now().minusMonths(11).withDayOfMonth(1);
+        LocalDate current = LocalDate.now().withDayOfMonth(1);
+        given(wasteMonthlyTotalRepository
+                .findByIdUserIdAndIdTypeIdAndIdPeriodStartGreaterThanEqualOrderByIdPeriodStart(6, 1, first))
+                .willReturn(List.of(
+                        new WasteMonthlyTotal(new WastePeriodId(6, 1, first), 120.0),
+                        new WasteMonthlyTotal(new WastePeriodId(6, 1, current), 30.0)));
+
+        WasteLogMonthlyResponse response = wasteLogService.getLogsForUserPerMonth("alice", "Plastic");
+
+        List<MonthlyWasteData> months = response.getMonthlyData();
+        assertThat(months).hasSize(12);
+        assertThat(months.get(0)).isEqualTo(new MonthlyWasteData(first.getYear(), first.getMonthValue(), 120.0));
+        assertThat(months.get(11)).isEqualTo(new MonthlyWasteData(current.getYear(), current.getMonthValue(), 30.0));
+        assertThat(months.subList(1, 11)).allMatch(month -> month.getTotalWeight() == 0.0);
+    }
+
+    @Test
+    void batchInsertsEveryEntryAndUpdatesTheTotalsOnce() {
+        given(jdbcTemplate.execute(any(ConnectionCallback.class))).willReturn(List.of(31, 32, 33));
+        CreateWasteLogBatchRequest request = new CreateWasteLogBatchRequest("alice", List.of(
+                new CreateWasteLogBatchRequest.Entry(2, 3),
+                new CreateWasteLogBatchRequest.Entry(3, 4),
+                new CreateWasteLogBatchRequest.Entry(2, 1)));
+
+        List<CreateOrEditWasteLogResponse> responses = wasteLogService.createWasteLogs(request, 4);
+
+        assertThat(responses).extracting(CreateOrEditWasteLogResponse::getLogId).containsExactly(31, 32, 33);
+        assertThat(responses).extracting(CreateOrEditWasteLogResponse::getDisplayName)
+                .containsExactly("Bottle", "Bag", "Bottle");
+        verify(wasteGoalRepository).addToTotal(4, 120.0);
+        verify(badgeService).onWasteLogged(6, bottle.getType(), 120.0);
+        verify(wasteItemRepository).findAll();
+    }
+
+    @Test
+    void batchEntriesWithoutAnItemOrAPositiveQuantityAreRejected() {
+        CreateWasteLogBatchRequest missingItem = new CreateWasteLogBatchRequest("alice", List.of(
+                new CreateWasteLogBatchRequest.Entry(2, 3),
+                new CreateWasteLogBatchRequest.Entry(null, 1)));
+        CreateWasteLogBatchRequest zeroQuantity = new CreateWasteLogBatchRequest("alice", List.of(
+                new CreateWasteLogBatchRequest.Entry(2, 0)));
+
+        assertThatThrownBy(() -> wasteLogService.createWasteLogs(missingItem, 4))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> wasteLogService.createWasteLogs(zeroQuantity, 4))
+                .isInstanceOf(BadRequestException.class);
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    void batchWithAnItemOfAnotherTypeInsertsNothing() {
+        CreateWasteLogBatchRequest request = new CreateWasteLogBatchRequest("alice", List.of(
+                new CreateWasteLogBatchRequest.Entry(2, 3),
+                new CreateWasteLogBatchRequest.Entry(8, 1)));
+
+        assertThatThrownBy(() -> wasteLogService.createWasteLogs(request, 4))
+                .isInstanceOf(InvalidCredentialsException.class);
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+        verify(wasteGoalRepository, never()).addToTotal(anyInt(), anyDouble());
+    }
+}
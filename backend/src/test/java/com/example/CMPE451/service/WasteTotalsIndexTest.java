@@ -0,0 +1,163 @@
+package com.example.CMPE451.service;
+
+import com.example.CMPE451.model.WasteHourId;
+import com.example.CMPE451.model.WasteHourlyTotal;
+import com.example.CMPE451.model.WasteType;
+import com.example.CMPE451.repository.WasteHourlyTotalRepository;
+import com.example.CMPE451.repository.WasteLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class WasteTotalsIndexTest {
+
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    private WasteHourlyTotalRepository wasteHourlyTotalRepository;
+    private WasteLogRepository wasteLogRepository;
+    private WasteTotalsIndex index;
+    private WasteType plastic;
+
+    @BeforeEach
+    void setUp() {
+        wasteHourlyTotalRepository = Mockito.mock(WasteHourlyTotalRepository.class);
+        wasteLogRepository = Mockito.mock(WasteLogRepository.class);
+        index = new WasteTotalsIndex(wasteHourlyTotalRepository, wasteLogRepository);
+        plastic = new WasteType();
+        plastic.setId(1);
+        plastic.setName("Plastic");
+        given(wasteLogRepository.findTotalAmountByDateRange(anyString(), any(), any())).willReturn(0.0);
+        given(wasteLogRepository.findTotalAmountForTypeBefore(anyInt(), any(), any())).willReturn(0.0);
+    }
+
+    private static WasteHourlyTotal hour(int typeId, LocalDateTime start, double grams) {
+        return hour(typeId, start, grams, 1);
+    }
+
+    private static WasteHourlyTotal hour(int typeId, LocalDateTime start, double grams, long version) {
+        return new WasteHourlyTotal(new WasteHourId(typeId, start), grams, version);
+    }
+
+    @Test
+    void wholeHoursComeFromTheBucketsAndOnlyTheEdgesFromTheLog() {
+        given(wasteHourlyTotalRepository.findAll()).willReturn(List.of(
+                hour(1, ORIGIN, 100),
+                hour(1, ORIGIN.plusHours(1), 50),
+                hour(1, ORIGIN.plusHours(2), 25),
+                hour(1, ORIGIN.plusHours(4), 7),
+                hour(2, ORIGIN.plusHours(1), 1000)));
+        index.rebuild();
+        LocalDateTime start = ORIGIN.minusMinutes(30);
+        LocalDateTime end = ORIGIN.plusHours(3).plusMinutes(15);
+        given(wasteLogRepository.findTotalAmountForTypeBefore(1, start, ORIGIN)).willReturn(3.0);
+        given(wasteLogRepository.findTotalAmountByDateRange("Plastic", ORIGIN.plusHours(3), end)).willReturn(4.0);
+
+        assertThat(index.total(plastic, start, end)).isEqualTo(182.0);
+        verify(wasteLogRepository, never()).findTotalAmountByDateRange("Plastic", start, end);
+    }
+
+    @Test
+    void bucketsGrowPastTheirInitialSpan() {
+        given(wasteHourlyTotalRepository.findAll()).willReturn(List.of(hour(1, ORIGIN, 1)));
+        index.rebuild();
+
+        index.add(plastic, ORIGIN.plusHours(500).plusMinutes(5), 4);
+        index.add(plastic, ORIGIN.plusHours(3000).plusMinutes(20), 2);
+        index.add(plastic, ORIGIN.plusHours(1023), -1);
+
+        verify(wasteHourlyTotalRepository).add(1, ORIGIN.plusHours(3000), 2);
+        assertThat(index.total(plastic, ORIGIN, ORIGIN.plusHours(4000))).isEqualTo(6.0);
+        assertThat(index.total(plastic, ORIGIN.plusHours(1), ORIGIN.plusHours(2999))).isEqualTo(3.0);
+        assertThat(index.total(plastic, ORIGIN.plusHours(2000), ORIGIN.plusHours(3001))).isEqualTo(2.0);
+    }
+
+    @Test
+    void deletingAUserSubtractsTheirLogsAndRebuilds() {
+        given(wasteHourlyTotalRepository.findAll())
+                .willReturn(List.of(hour(1, ORIGIN, 100)))
+                .willReturn(List.of(hour(1, ORIGIN, 40)));
+        index.rebuild();
+
+        index.onUserDeleted(9);
+
+        verify(wasteHourlyTotalRepository).subtractUser(9);
+        verify(wasteHourlyTotalRepository, times(1)).findAll();
+        index.rebuildIfStale();
+        assertThat(index.total(plastic, ORIGIN, ORIGIN.plusHours(2))).isEqualTo(40.0);
+        index.rebuildIfStale();
+        verify(wasteHourlyTotalRepository, times(2)).findAll();
+    }
+
+    @Test
+    void addsMadeWhileTheTableIsReadAreReplayedOntoTheRebuiltBuckets() {
+        given(wasteHourlyTotalRepository.findAll()).willReturn(List.of(hour(1, ORIGIN, 100)));
+        index.rebuild();
+        given(wasteHourlyTotalRepository.findVersion(1, ORIGIN.plusHours(1))).willReturn(1L);
+        given(wasteHourlyTotalRepository.findVersion(1, ORIGIN)).willReturn(2L);
+        given(wasteHourlyTotalRepository.findAll()).willAnswer(inv -> {
+            // Committed after the read: the first hour's row has no add for it yet, the second hour no row.
+            index.add(plastic, ORIGIN.plusHours(1).plusMinutes(10), 30);
+            index.add(plastic, ORIGIN.plusMinutes(20), 5);
+            return List.of(hour(1, ORIGIN, 100, 1));
+        });
+
+        index.rebuild();
+
+        assertThat(index.total(plastic, ORIGIN, ORIGIN.plusHours(2))).isEqualTo(135.0);
+        index.add(plastic, ORIGIN.plusMinutes(5), 1);
+        assertThat(index.total(plastic, ORIGIN, ORIGIN.plusHours(2))).isEqualTo(136.0);
+    }
+
+    @Test
+    void addsTheReadRowsAlreadyReflectAreNotCountedTwice() {
+        given(wasteHourlyTotalRepository.findAll()).willReturn(List.of(hour(1, ORIGIN, 100)));
+        index.rebuild();
+        given(wasteHourlyTotalRepository.findVersion(1, ORIGIN)).willReturn(2L);
+        given(wasteHourlyTotalRepository.findVersion(1, ORIGIN.plusHours(1))).willReturn(1L);
+        given(wasteHourlyTotalRepository.findAll()).willAnswer(inv -> {
+            // Committed before the read reached these rows.
+            index.add(plastic, ORIGIN.plusMinutes(20), 5);
+            index.add(plastic, ORIGIN.plusHours(1).plusMinutes(10), 30);
+            return List.of(hour(1, ORIGIN, 105, 2), hour(1, ORIGIN.plusHours(1), 30, 1));
+        });
+
+        index.rebuild();
+
+        assertThat(index.total(plastic, ORIGIN, ORIGIN.plusHours(2))).isEqualTo(135.0);
+    }
+
+    @Test
+    void logsOlderThanEveryBucketWaitForTheNextRebuild() {
+        given(wasteHourlyTotalRepository.findAll())
+                .willReturn(List.of(hour(1, ORIGIN, 100)))
+                .willReturn(List.of(hour(1, ORIGIN.minusHours(3), 8), hour(1, ORIGIN, 100)));
+        index.rebuild();
+
+        index.add(plastic, ORIGIN.minusHours(3).plusMinutes(1), 8);
+
+        verify(wasteHourlyTotalRepository, times(1)).findAll();
+        index.rebuildIfStale();
+        assertThat(index.total(plastic, ORIGIN.minusHours(3), ORIGIN.plusHours(2))).isEqualTo(108.0);
+    }
+
+    @Test
+    void rangesAreSummedFromTheLogUntilTheBucketsAreBuilt() {
+        LocalDateTime end = ORIGIN.plusDays(30);
+        given(wasteLogRepository.findTotalAmountByDateRange("Plastic", ORIGIN, end)).willReturn(12.5);
+
+        assertThat(index.total(plastic, ORIGIN, end)).isEqualTo(12.5);
+        verify(wasteHourlyTotalRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.CMPE451.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmbeddingLogTest {
+
+    private static final int DIMENSION = 4;
+    // 40-byte records, two per segment, so a few posts already span several mappings.
+    private static final long SEGMENT_BYTES = 100;
+
+    private static float[] vector(float seed) {
+        return new float[]{seed, seed + 1, seed + 2, seed + 3};
+    }
+
+    @Test
+    void returnsOnlyEmbeddingsOfTheSameModelAndContent(@TempDir Path directory) throws Exception {
+        try (EmbeddingLog log = EmbeddingLog.open(directory.resolve("embeddings.log"), DIMENSION, SEGMENT_BYTES)) {
+            log.put(1, 7, 100L, vector(1));
+            log.put(2, 7, 200L, vector(2));
+            log.put(1, 7, 101L, vector(3));
+
+            assertThat(log.get(1, 7, 101L)).containsExactly(vector(3));
+            assertThat(log.get(1, 7, 100L)).isNull();
+            assertThat(log.get(2, 8, 200L)).isNull();
+            assertThat(log.get(3, 7, 200L)).isNull();
+            assertThat(log.size()).isEqualTo(2);
+            assertThat(log.garbage()).isEqualTo(1);
+            assertThatThrownBy(() -> log.put(4, 7, 1L, new float[3])).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void reopeningReplaysPutsAndDeletes(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("embeddings.log");
+        try (EmbeddingLog log = EmbeddingLog.open(file, DIMENSION, SEGMENT_BYTES)) {
+            for (int postId = 1; postId <= 5; postId++) {
+                log.put(postId, 7, postId, vector(postId));
+            }
+            log.delete(2);
+        }
+
+        try (EmbeddingLog log = EmbeddingLog.open(file, DIMENSION, SEGMENT_BYTES)) {
+            assertThat(log.size()).isEqualTo(4);
+            assertThat(log.get(2, 7, 2L)).isNull();
+            assertThat(log.get(5, 7, 5L)).containsExactly(vector(5));
+            log.put(6, 7, 6L, vector(6));
+            assertThat(log.get(6, 7, 6L)).containsExactly(vector(6));
+        }
+        assertThatThrownBy(() -> EmbeddingLog.open(file, DIMENSION + 1, SEGMENT_BYTES))
+                .hasMessageContaining("dimensions");
+    }
+
+    @Test
+    void tornRecordEndsTheLog(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("embeddings.log");
+        try (EmbeddingLog log = EmbeddingLog.open(file, DIMENSION, SEGMENT_BYTES)) {
+            for (int postId = 1; postId <= 3; postId++) {
+                log.put(postId, 7, postId, vector(postId));
+            }
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            // Last float of the third record, as if the crash hit before it reached the disk.
+            raw.seek(16 + 2 * 40 + 36);
+            raw.writeInt(0);
+        }
+
+        try (EmbeddingLog log = EmbeddingLog.open(file, DIMENSION, SEGMENT_BYTES)) {
+            assertThat(log.size()).isEqualTo(2);
+            assertThat(log.get(3, 7, 3L)).isNull();
+            log.put(4, 7, 4L, vector(4));
+        }
+        try (EmbeddingLog log = EmbeddingLog.open(file, DIMENSION, SEGMENT_BYTES)) {
+            assertThat(log.size()).isEqualTo(3);
+            assertThat(log.get(4, 7, 4L)).containsExactly(vector(4));
+        }
+    }
+
+    @Test
+    void mostlyDeadLogIsCompactedOnOpen(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("embeddings.log");
+        try (EmbeddingLog log = EmbeddingLog.open(file, DIMENSION, SEGMENT_BYTES)) {
+            for (int postId = 1; postId <= 3; postId++) {
+                log.put(postId, 7, postId, vector(postId));
+            }
+            for (int edit = 0; edit < 5; edit++) {
+                log.put(1, 7, 10L + edit, vector(10 + edit));
+            }
+            log.delete(2);
+        }
+        long before = Files.size(file);
+
+        try (EmbeddingLog log = EmbeddingLog.open(file, DIMENSION, SEGMENT_BYTES)) {
+            assertThat(log.size()).isEqualTo(2);
+            assertThat(log.garbage()).isZero();
+            assertThat(log.get(1, 7, 14L)).containsExactly(vector(14));
+            assertThat(log.get(3, 7, 3L)).containsExactly(vector(3));
+            assertThat(log.get(2, 7, 2L)).isNull();
+        }
+        assertThat(Files.size(file)).isLessThan(before);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.CMPE451.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswGraphTest {
+
+    private static final int DIMENSION = 32;
+
+    private static float[][] randomVectors(int count, long seed) {
+        Random random = new Random(seed);
+        float[][] vectors = new float[count][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+
+    private static Set<Integer> exactNearest(float[][] vectors, float[] query, int k) {
+        Integer[] ids = new Integer[vectors.length];
+        double[] scores = new double[vectors.length];
+        for (int id = 0; id < vectors.length; id++) {
+            ids[id] = id;
+            // Null entries are posts outside the filter under test.
+            scores[id] = vectors[id] == null ? Double.NEGATIVE_INFINITY : cosine(vectors[id], query);
+        }
+        Arrays.sort(ids, (a, b) -> Double.compare(scores[b], scores[a]));
+        return new HashSet<>(Arrays.asList(ids).subList(0, k));
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    private static List<Integer> ids(List<VectorIndex.ScoredPost> hits) {
+        return hits.stream().map(VectorIndex.ScoredPost::postId).toList();
+    }
+
+    @Test
+    void findsNearlyAllTrueNeighbours() {
+        float[][] vectors = randomVectors(3000, 1);
+        HnswGraph graph = new HnswGraph(DIMENSION, 16, 200);
+        for (int id = 0; id < vectors.length; id++) {
+            graph.upsert(id, vectors[id]);
+        }
+
+        float[][] queries = randomVectors(50, 2);
+        int found = 0;
+        for (float[] query : queries) {
+            List<VectorIndex.ScoredPost> hits = graph.search(query, 10, 100);
+            assertThat(hits).hasSize(10);
+            assertThat(hits.get(0).score()).isGreaterThanOrEqualTo(hits.get(9).score());
+            Set<Integer> exact = exactNearest(vectors, query, 10);
+            found += (int) ids(hits).stream().filter(exact::contains).count();
+        }
+        assertThat(found / (double) (queries.length * 10)).isGreaterThan(0.95);
+    }
+
+    @Test
+    void deletesAndReinsertsReplaceThePost() {
+        HnswGraph graph = new HnswGraph(3, 4, 20);
+        graph.upsert(1, new float[]{1, 0, 0});
+        graph.upsert(2, new float[]{0, 1, 0});
+        graph.upsert(3, new float[]{0, 0, 1});
+
+        graph.upsert(1, new float[]{0, 0.9f, 0.1f});
+        graph.delete(2);
+
+        List<VectorIndex.ScoredPost> hits = graph.search(new float[]{1, 0, 0}, 3, 10);
+        assertThat(ids(hits)).containsExactlyInAnyOrder(1, 3);
+        assertThat(ids(graph.search(new float[]{0, 1, 0}, 1, 10))).containsExactly(1);
+        assertThat(graph.size()).isEqualTo(2);
+        assertThat(graph.tombstones()).isEqualTo(2);
+
+        HnswGraph compacted = graph.compacted();
+        assertThat(compacted.tombstones()).isZero();
+        assertThat(ids(compacted.search(new float[]{0, 1, 0}, 2, 10))).containsExactly(1, 3);
+    }
+
+    @Test
+    void snapshotRoundTripsThroughMappedFile(@TempDir Path directory) throws Exception {
+        float[][] vectors = randomVectors(2500, 3);
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 64);
+        for (int id = 0; id < vectors.length; id++) {
+            graph.upsert(id + 1000, vectors[id]);
+        }
+        graph.delete(1000);
+        Path file = directory.resolve("graph.hnsw");
+        graph.writeTo(file);
+
+        HnswGraph restored = HnswGraph.readFrom(file);
+        assertThat(restored.size()).isEqualTo(graph.size());
+        assertThat(restored.contains(1000)).isFalse();
+        for (float[] query : randomVectors(10, 4)) {
+            assertThat(restored.search(query, 5, 50)).isEqualTo(graph.search(query, 5, 50));
+        }
+        restored.upsert(1000, vectors[0]);
+        assertThat(ids(restored.search(vectors[0], 1, 50))).containsExactly(1000);
+    }
+
+    @Test
+    void searchesRunWhileInsertsAreInProgress() throws Exception {
+        float[][] vectors = randomVectors(4000, 5);
+        HnswGraph graph = new HnswGraph(DIMENSION, 16, 100);
+        for (int id = 0; id < 500; id++) {
+            graph.upsert(id, vectors[id]);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int writer = 0; writer < 2; writer++) {
+            int start = 500 + writer;
+            tasks.add(pool.submit(() -> {
+                for (int id = start; id < vectors.length; id += 2) {
+                    graph.upsert(id, vectors[id]);
+                }
+            }));
+        }
+        for (int reader = 0; reader < 4; reader++) {
+            int seed = reader;
+            tasks.add(pool.submit(() -> {
+                float[][] queries = randomVectors(300, 100 + seed);
+                for (float[] query : queries) {
+                    assertThat(graph.search(query, 10, 50)).hasSize(10);
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(graph.size()).isEqualTo(vectors.length);
+        for (int id = 0; id < vectors.length; id += 97) {
+            assertThat(ids(graph.search(vectors[id], 1, 50))).containsExactly(id);
+        }
+    }
+
+    @Test
+    void filteredSearchesOnlyReturnMatchingPosts() {
+        float[][] vectors = randomVectors(3000, 6);
+        HnswGraph graph = new HnswGraph(DIMENSION, 16, 200);
+        for (int id = 0; id < vectors.length; id++) {
+            graph.upsert(id, vectors[id], new PostPayload(id % 10, id * 1000L, id % 2 == 0));
+        }
+        // Half of the posts: the graph walk finds them.
+        VectorFilter photos = new VectorFilter(null, null, null, true);
+        // One post in a hundred: too rare for the walk, so the graph scans payloads instead.
+        VectorFilter rare = new VectorFilter(Set.of(3), 0L, 1_000_000L, null);
+
+        int found = 0;
+        for (float[] query : randomVectors(30, 7)) {
+            List<VectorIndex.ScoredPost> hits = graph.search(query, 10, 100, photos);
+            assertThat(hits).hasSize(10).allMatch(hit -> hit.postId() % 2 == 0);
+            float[][] matching = new float[vectors.length][];
+            for (int id = 0; id < vectors.length; id += 2) {
+                matching[id] = vectors[id];
+            }
+            Set<Integer> exact = exactNearest(matching, query, 10);
+            found += (int) ids(hits).stream().filter(exact::contains).count();
+
+            List<VectorIndex.ScoredPost> rareHits = graph.search(query, 10, 100, rare);
+            assertThat(rareHits).hasSize(10).allMatch(hit -> hit.postId() % 10 == 3 && hit.postId() < 1000);
+            float[][] rareMatching = new float[vectors.length][];
+            for (int id = 3; id < 1000; id += 10) {
+                rareMatching[id] = vectors[id];
+            }
+            assertThat(ids(rareHits)).containsExactlyInAnyOrderElementsOf(exactNearest(rareMatching, query, 10));
+        }
+        assertThat(found / 300.0).isGreaterThan(0.9);
+
+        graph.delete(3);
+        assertThat(ids(graph.search(vectors[3], 5, 100, rare))).doesNotContain(3);
+        assertThat(graph.search(vectors[0], 5, 100, new VectorFilter(Set.of(), null, null, null))).isEmpty();
+    }
+
+    @Test
+    void payloadsSurviveSnapshotAndCompaction(@TempDir Path directory) throws Exception {
+        HnswGraph graph = new HnswGraph(3, 4, 20);
+        graph.upsert(1, new float[]{1, 0, 0}, new PostPayload(7, 1000, true));
+        graph.upsert(2, new float[]{0.9f, 0.1f, 0}, new PostPayload(8, 2000, false));
+        graph.upsert(1, new float[]{1, 0.1f, 0}, new PostPayload(7, 1000, true));
+        VectorFilter byAuthor = new VectorFilter(Set.of(7), null, null, true);
+
+        Path file = directory.resolve("graph.hnsw");
+        graph.writeTo(file);
+        HnswGraph restored = HnswGraph.readFrom(file);
+        assertThat(ids(restored.search(new float[]{1, 0, 0}, 2, 10, byAuthor))).containsExactly(1);
+        assertThat(ids(restored.compacted().search(new float[]{1, 0, 0}, 2, 10,
+                new VectorFilter(null, 1500L, null, null)))).containsExactly(2);
+    }
+}
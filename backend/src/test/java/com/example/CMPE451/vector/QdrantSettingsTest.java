@@ -0,0 +1,39 @@
+package com.example.CMPE451.vector;
+
+import io.qdrant.client.grpc.Collections.CreateCollection;
+import io.qdrant.client.grpc.Collections.QuantizationType;
+import io.qdrant.client.grpc.Points.SearchParams;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QdrantSettingsTest {
+
+    @Test
+    void quantizedCollectionKeepsOriginalsOnDiskAndRescores() {
+        QdrantSettings settings = new QdrantSettings(24, 200, true, true, 0.98f, 96, true, 3.0);
+
+        CreateCollection spec = settings.collectionSpec("forum_posts_next");
+        assertThat(spec.getCollectionName()).isEqualTo("forum_posts_next");
+        assertThat(spec.getVectorsConfig().getParams().getOnDisk()).isTrue();
+        assertThat(spec.getHnswConfig().getM()).isEqualTo(24);
+        assertThat(spec.getHnswConfig().getEfConstruct()).isEqualTo(200);
+        assertThat(spec.getQuantizationConfig().getScalar().getType()).isEqualTo(QuantizationType.Int8);
+        assertThat(spec.getQuantizationConfig().getScalar().getQuantile()).isEqualTo(0.98f);
+        assertThat(spec.getQuantizationConfig().getScalar().getAlwaysRam()).isTrue();
+
+        SearchParams params = settings.searchParams();
+        assertThat(params.getHnswEf()).isEqualTo(96);
+        assertThat(params.getQuantization().getRescore()).isTrue();
+        assertThat(params.getQuantization().getOversampling()).isEqualTo(3.0);
+    }
+
+    @Test
+    void unquantizedCollectionHasNoQuantizationConfig() {
+        QdrantSettings settings = new QdrantSettings(16, 128, false, false, 0.99f, 64, true, 2.0);
+
+        assertThat(settings.collectionSpec("forum_posts").hasQuantizationConfig()).isFalse();
+        assertThat(settings.searchParams().hasQuantization()).isFalse();
+        assertThat(settings.searchParams().getHnswEf()).isEqualTo(64);
+    }
+}
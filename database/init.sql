@@ -44,6 +44,7 @@ CREATE TABLE IF NOT EXISTS `waste_goal` (
   `duration`              INT NOT NULL,
   `date`                  DATETIME(6) NOT NULL,
   `percent_of_progress`   DOUBLE NOT NULL DEFAULT 0.0,
+  `total_grams`           DOUBLE NOT NULL DEFAULT 0.0,
   `completed`             INT  DEFAULT 0,
   PRIMARY KEY (`goal_id`),
   INDEX `fk_goal_user_idx` (`user_id` ASC),
@@ -68,6 +69,7 @@ CREATE TABLE IF NOT EXISTS `waste_log` (
   INDEX `fk_log_user_idx` (`user_id` ASC),
   INDEX `fk_log_goal_idx` (`goal_id` ASC),
   INDEX `fk_log_item_idx` (`item_id` ASC),
+  INDEX `idx_log_date` (`date` ASC),
   CONSTRAINT `fk_log_user`
     FOREIGN KEY (`user_id`)
     REFERENCES `users` (`user_id`) ON DELETE CASCADE,
@@ -140,12 +142,18 @@ CREATE TABLE IF NOT EXISTS  `posts` (
   `user_id` int NOT NULL,
   `content` varchar(1000) NOT NULL,
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
-  `profile_picture` varchar(255),
   `likes` int DEFAULT '0',
   `comments` int DEFAULT '0',
   `photo_url` varchar(255) DEFAULT NULL,
+  `photo_thumb_url` varchar(255) DEFAULT NULL,
+  `photo_feed_url` varchar(255) DEFAULT NULL,
+  `photo_blurhash` varchar(64) DEFAULT NULL,
+  `photo_key` varchar(255) DEFAULT NULL,
+  `updated_at` timestamp(3) NULL DEFAULT CURRENT_TIMESTAMP(3),
   PRIMARY KEY (`post_id`),
+  KEY `idx_posts_updated_at` (`updated_at`),
   KEY `user_id` (`user_id`),
+  KEY `idx_posts_created_at_post_id` (`created_at`, `post_id`),
   CONSTRAINT `posts_ibfk_2` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=10 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 
@@ -209,6 +217,7 @@ CREATE TABLE IF NOT EXISTS `post_likes` (
                                             `post_id` INT NOT NULL,
                                             `liked_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                                             PRIMARY KEY (`user_id`, `post_id`),
+    KEY `idx_post_likes_liked_at` (`liked_at`),
     FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`) ON DELETE CASCADE,
     FOREIGN KEY (`post_id`) REFERENCES `posts` (`post_id`) ON DELETE CASCADE
     ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -238,7 +247,6 @@ CREATE TABLE IF NOT EXISTS `notifications` (
   `object_type` varchar(255),
   `object_id` varchar(255),
   `preview` varchar(255),
-  `profile_picture` varchar(255),
   `is_read` tinyint(1) DEFAULT '0',
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`notification_id`),
@@ -313,6 +321,94 @@ CREATE TABLE feedback (
                           CONSTRAINT chk_feedback_is_seen
                               CHECK (is_seen IN (0, 1))
 );
+
+-- Side effects of post writes (embeddings, vector index, fan-out, notifications), recorded in the same
+-- transaction as the write and drained by OutboxService. No foreign key: delete events outlive their post.
+-- A NULL available_at marks an event that exhausted its retries.
+CREATE TABLE IF NOT EXISTS `post_outbox` (
+  `event_id` bigint NOT NULL AUTO_INCREMENT,
+  `event_type` varchar(32) NOT NULL,
+  `post_id` int NOT NULL,
+  `attempts` int NOT NULL DEFAULT '0',
+  `available_at` timestamp(3) NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `last_error` varchar(500) DEFAULT NULL,
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`event_id`),
+  KEY `idx_post_outbox_available_at` (`available_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS `reindex_jobs` (
+  `job_id` int NOT NULL AUTO_INCREMENT,
+  `status` varchar(16) NOT NULL,
+  `shadow_collection` varchar(128) DEFAULT NULL,
+  `last_post_id` int NOT NULL DEFAULT '0',
+  `processed` int NOT NULL DEFAULT '0',
+  `total` int NOT NULL DEFAULT '0',
+  `started_at` timestamp(3) NULL DEFAULT CURRENT_TIMESTAMP(3),
+  `heartbeat_at` timestamp(3) NULL DEFAULT NULL,
+  `finished_at` timestamp(3) NULL DEFAULT NULL,
+  `last_error` varchar(500) DEFAULT NULL,
+  PRIMARY KEY (`job_id`),
+  KEY `idx_reindex_jobs_status` (`status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+CREATE TABLE IF NOT EXISTS `post_neighbors` (
+  `post_id` int NOT NULL,
+  `neighbor_ids` varbinary(400) NOT NULL,
+  `min_score` double NOT NULL,
+  `stale` tinyint(1) NOT NULL DEFAULT '0',
+  `computed_at` timestamp(3) NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (`post_id`),
+  CONSTRAINT `post_neighbors_ibfk_1` FOREIGN KEY (`post_id`) REFERENCES `posts` (`post_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+CREATE TABLE IF NOT EXISTS `user_interests` (
+  `user_id` int NOT NULL,
+  `vector` varbinary(1536) NOT NULL,
+  `interactions` int NOT NULL DEFAULT '0',
+  `updated_at` timestamp(3) NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (`user_id`),
+  CONSTRAINT `user_interests_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+CREATE TABLE IF NOT EXISTS `user_counters` (
+  `user_id` int NOT NULL,
+  `counter` varchar(128) NOT NULL,
+  `total` double NOT NULL DEFAULT '0',
+  PRIMARY KEY (`user_id`, `counter`),
+  CONSTRAINT `user_counters_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+CREATE TABLE IF NOT EXISTS `waste_daily_totals` (
+  `user_id` int NOT NULL,
+  `type_id` int NOT NULL,
+  `period_start` date NOT NULL,
+  `total_grams` double NOT NULL DEFAULT '0',
+  PRIMARY KEY (`user_id`, `type_id`, `period_start`),
+  KEY `type_id` (`type_id`),
+  CONSTRAINT `waste_daily_totals_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`) ON DELETE CASCADE,
+  CONSTRAINT `waste_daily_totals_ibfk_2` FOREIGN KEY (`type_id`) REFERENCES `waste_type` (`type_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+CREATE TABLE IF NOT EXISTS `waste_monthly_totals` (
+  `user_id` int NOT NULL,
+  `type_id` int NOT NULL,
+  `period_start` date NOT NULL,
+  `total_grams` double NOT NULL DEFAULT '0',
+  PRIMARY KEY (`user_id`, `type_id`, `period_start`),
+  KEY `type_id` (`type_id`),
+  CONSTRAINT `waste_monthly_totals_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`) ON DELETE CASCADE,
+  CONSTRAINT `waste_monthly_totals_ibfk_2` FOREIGN KEY (`type_id`) REFERENCES `waste_type` (`type_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+CREATE TABLE IF NOT EXISTS `waste_hourly_totals` (
+  `type_id` int NOT NULL,
+  `period_start` datetime NOT NULL,
+  `total_grams` double NOT NULL DEFAULT '0',
+  `version` bigint NOT NULL DEFAULT '0',
+  PRIMARY KEY (`type_id`, `period_start`),
+  CONSTRAINT `waste_hourly_totals_ibfk_1` FOREIGN KEY (`type_id`) REFERENCES `waste_type` (`type_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+-- One row per table that StartupBackfills has filled from history, so each backfill runs exactly once.
+CREATE TABLE IF NOT EXISTS `backfill_markers` (
+  `name` varchar(64) NOT NULL,
+  `completed_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 -- Trigger: after_like_insert
 -- Purpose: After a new row is inserted into `post_likes`,
 --          automatically increment the `likes` counter
@@ -396,103 +492,21 @@ BEGIN
 
 DELIMITER ;
 
-
-
-DELIMITER $$
-
--- ==========================================================================================
--- TRIGGER  After a new waste log is INSERTED
--- This trigger recalculates the progress for the goal associated with the newly added log.
--- ==========================================================================================
-CREATE TRIGGER `log_after_insert`
-AFTER INSERT ON `waste_log`
-FOR EACH ROW
-BEGIN
-    DECLARE total_waste_grams DOUBLE;
-    SELECT SUM(wi.weight_in_grams * wl.quantity)
-    INTO total_waste_grams
-    FROM `waste_log` wl
-    JOIN `waste_item` wi ON wl.item_id = wi.item_id
-    WHERE wl.goal_id = NEW.goal_id; 
-
-    -- Update the percent_of_progress in the waste_goal table.
-    -- IFNULL is used to handle the case where a goal has no logs, preventing division by null.
-    UPDATE `waste_goal`
-    SET percent_of_progress = (IFNULL(total_waste_grams, 0) / restriction_amount_grams) * 100
-    WHERE goal_id = NEW.goal_id;
-END$$
-
--- ==========================================================================================
--- TRIGGER : After a waste log is UPDATED
--- This trigger handles changes to a log, such as updating its quantity or moving it
--- ==========================================================================================
-CREATE TRIGGER `log_after_update`
-AFTER UPDATE ON `waste_log`
-FOR EACH ROW
-BEGIN
-    DECLARE total_waste_grams DOUBLE;
-
-    SELECT SUM(wi.weight_in_grams * wl.quantity)
-    INTO total_waste_grams
-    FROM `waste_log` wl
-    JOIN `waste_item` wi ON wl.item_id = wi.item_id
-    WHERE wl.goal_id = OLD.goal_id; 
-
-    UPDATE `waste_goal`
-    SET percent_of_progress = (IFNULL(total_waste_grams, 0) / restriction_amount_grams) * 100
-    WHERE goal_id = OLD.goal_id;
-    
-END$$
-
--- ==========================================================================================
--- TRIGGER: After a waste log is DELETED
--- This trigger recalculates the progress for the goal from which a log was removed.
--- ==========================================================================================
-CREATE TRIGGER `log_after_delete`
-AFTER DELETE ON `waste_log`
-FOR EACH ROW
-BEGIN
-    DECLARE total_waste_grams DOUBLE;
-    
-    SELECT SUM(wi.weight_in_grams * wl.quantity)
-    INTO total_waste_grams
-    FROM `waste_log` wl
-    JOIN `waste_item` wi ON wl.item_id = wi.item_id
-    WHERE wl.goal_id = OLD.goal_id; 
-
-    -- Update the progress. If this was the last log for the goal, the total will be 0.
-    UPDATE `waste_goal`
-    SET percent_of_progress = (IFNULL(total_waste_grams, 0) / restriction_amount_grams) * 100
-    WHERE goal_id = OLD.goal_id;
-END$$
-
-DELIMITER ;
-
+-- Goal progress is maintained by WasteLogService, which adds each log's weight to
+-- `waste_goal`.`total_grams` in the log's own transaction instead of summing the goal's logs here.
 
 DELIMITER $$
 --  TRIGGER 
 -- This single trigger handles all logic for the waste_goal table to prevent recursive update errors.
--- It recalculates progress if the restriction changes AND sets the completed status.
+-- It recalculates progress from the stored total on every update AND sets the completed status, so an update
+-- written from a stale copy of the goal cannot leave them behind total_grams.
 -- ==========================================================================================
 CREATE TRIGGER `goal_before_update`
 BEFORE UPDATE ON `waste_goal`
 FOR EACH ROW
 BEGIN
-    DECLARE total_waste_grams DOUBLE;
-
-    -- First, check if the restriction amount is being changed.
-    IF NEW.restriction_amount_grams <> OLD.restriction_amount_grams THEN
-        SELECT IFNULL(SUM(wi.weight_in_grams * wl.quantity), 0)
-        INTO total_waste_grams
-        FROM `waste_log` wl
-        JOIN `waste_item` wi ON wl.item_id = wi.item_id
-        WHERE wl.goal_id = NEW.goal_id;
-
-        -- Modify the NEW row directly. 
-        SET NEW.percent_of_progress = (total_waste_grams / NEW.restriction_amount_grams) * 100;
-    END IF;
+    SET NEW.percent_of_progress = (NEW.total_grams / NEW.restriction_amount_grams) * 100;
 
-    -- Second, based on the final 'percent_of_progress' (whether it came from the
     IF NEW.percent_of_progress >= 100 THEN
         SET NEW.completed = 1;
     ELSE
@@ -500,20 +514,6 @@ BEGIN
     END IF;
 END$$
 
-
--- Reset the delimiter back to the default
-DELIMITER ;
-
-
-
-
-
-
-
-
-
-
-DELIMITER $$
 CREATE TRIGGER `after_challenge_user_insert`
 AFTER INSERT ON `challenge_user`
 FOR EACH ROW
@@ -554,26 +554,8 @@ BEGIN
 END$$
 DELIMITER ;
 
-
--- 1. Make sure the scheduler is ON
-SET GLOBAL event_scheduler = ON;
-
-DELIMITER $$
-
--- 2. Create the test event
-CREATE EVENT check_challenge_expiry_test
-ON SCHEDULE EVERY 12 HOUR
-STARTS CURRENT_TIMESTAMP
-DO
-BEGIN
-    UPDATE challenges 
-    SET status = 'Ended' 
-    WHERE end_date < CURRENT_DATE() 
-      AND status = 'Active'; 
-END$$
-
-DELIMITER ;
-
+-- Expired challenges are ended by the backend (ChallengeExpiryScheduler) so their badges are awarded.
+DROP EVENT IF EXISTS check_challenge_expiry_test;
 
 DELIMITER $$
 
@@ -597,11 +579,6 @@ BEGIN
       AND object_id = OLD.post_id;
 END$$
 
-DELIMITER ;
-
-
-
-DELIMITER $$
     CREATE TRIGGER `challenge_log_after_insert`
         AFTER INSERT ON `challenge_log`
         FOR EACH ROW
@@ -621,188 +598,7 @@ DELIMITER $$
           AND user_id = NEW.user_id;
         END$$
 
-        DELIMITER ;
-
-
-DELIMITER $$
-
-        -- ==========================================================================================
--- TRIGGER: Check for Badges after INSERTING a log
--- ==========================================================================================
-        CREATE TRIGGER `check_badge_after_insert`
-            AFTER INSERT ON `waste_log`
-            FOR EACH ROW
-        BEGIN
-            DECLARE current_type_id INT;
-    DECLARE current_type_name VARCHAR(255);
-    DECLARE total_weight DOUBLE;
-    DECLARE badge_name VARCHAR(255);
-
-            SELECT t.type_id, UPPER(t.name)
-            INTO current_type_id, current_type_name
-            FROM `waste_item` i
-                     JOIN `waste_type` t ON i.type_id = t.type_id
-            WHERE i.item_id = NEW.item_id;
-
-            SELECT IFNULL(SUM(wi.weight_in_grams * wl.quantity), 0)
-            INTO total_weight
-            FROM `waste_log` wl
-                     JOIN `waste_item` wi ON wl.item_id = wi.item_id
-            WHERE wl.user_id = NEW.user_id
-              AND wi.type_id = current_type_id;
-
-            IF total_weight > 1000 THEN
-        SET badge_name = CONCAT(current_type_name, ' SAVER');
-        INSERT IGNORE INTO `badge` (name, user_id) VALUES (badge_name, NEW.user_id);
-        END IF;
-
-        IF total_weight > 5000 THEN
-        SET badge_name = CONCAT(current_type_name, ' HERO');
-        INSERT IGNORE INTO `badge` (name, user_id) VALUES (badge_name, NEW.user_id);
-    END IF;
-
-    IF total_weight > 10000 THEN
-        SET badge_name = CONCAT(current_type_name, ' LEGEND');
-        INSERT IGNORE INTO `badge` (name, user_id) VALUES (badge_name, NEW.user_id);
-END IF;
-
-    END$$
-
-
-    -- ==========================================================================================
--- TRIGGER: Check for Badges after UPDATING a log
--- ==========================================================================================
-    CREATE TRIGGER `check_badge_after_update`
-        AFTER UPDATE ON `waste_log`
-        FOR EACH ROW
-    BEGIN
-        DECLARE current_type_id INT;
-    DECLARE current_type_name VARCHAR(255);
-    DECLARE total_weight DOUBLE;
-    DECLARE badge_name VARCHAR(255);
-
-        SELECT t.type_id, UPPER(t.name)
-        INTO current_type_id, current_type_name
-        FROM `waste_item` i
-                 JOIN `waste_type` t ON i.type_id = t.type_id
-        WHERE i.item_id = NEW.item_id;
-
-        SELECT IFNULL(SUM(wi.weight_in_grams * wl.quantity), 0)
-        INTO total_weight
-        FROM `waste_log` wl
-                 JOIN `waste_item` wi ON wl.item_id = wi.item_id
-        WHERE wl.user_id = NEW.user_id
-          AND wi.type_id = current_type_id;
-
-        IF total_weight > 1000 THEN
-        SET badge_name = CONCAT(current_type_name, ' SAVER');
-        INSERT IGNORE INTO `badge` (name, user_id) VALUES (badge_name, NEW.user_id);
-    END IF;
-
-    IF total_weight > 5000 THEN
-        SET badge_name = CONCAT(current_type_name, ' HERO');
-        INSERT IGNORE INTO `badge` (name, user_id) VALUES (badge_name, NEW.user_id);
-END IF;
-
-    IF total_weight > 10000 THEN
-        SET badge_name = CONCAT(current_type_name, ' LEGEND');
-        INSERT IGNORE INTO `badge` (name, user_id) VALUES (badge_name, NEW.user_id);
-END IF;
-
-    END$$
-
-    DELIMITER ;
-
-
-
-
-
-
-DELIMITER $$
-
-
-    CREATE TRIGGER `after_challenge_ended_award_badges`
-        AFTER UPDATE ON `challenges`
-        FOR EACH ROW
-    BEGIN
-        DECLARE done INT DEFAULT FALSE;
-    DECLARE top_user_id INT;
-
-    DECLARE cur CURSOR FOR
-        SELECT user_id
-        FROM `challenge_user`
-        WHERE `challenge_id` = NEW.challenge_id
-        ORDER BY `amount` DESC
-            LIMIT 3;
-
-        DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = TRUE;
-
-    IF OLD.status != 'Ended' AND NEW.status = 'Ended' THEN
-
-        OPEN cur;
-
-        read_loop: LOOP
-            FETCH cur INTO top_user_id;
-
-            IF done THEN
-                LEAVE read_loop;
-    END IF;
-    INSERT IGNORE INTO `badge` (name, user_id)
-            VALUES ('Top Challenger', top_user_id);
-
-END LOOP;
-
-    CLOSE cur;
-END IF;
-    END$$
-
-    DELIMITER ;
-
-
-DELIMITER $$
-
-    CREATE TRIGGER `first_like`
-        AFTER INSERT ON `post_likes`
-        FOR EACH ROW
-    BEGIN
-        DECLARE like_count INT;
-
-    IF NOT EXISTS (SELECT 1 FROM `badge` WHERE user_id = NEW.user_id AND name = 'First Like') THEN
-
-        SELECT COUNT(*)
-        INTO like_count
-        FROM `post_likes`
-        WHERE `user_id` = NEW.user_id;
-
-        IF like_count = 1 THEN
-            INSERT INTO `badge` (name, user_id)
-            VALUES ('First Like', NEW.user_id);
-    END IF;
-END IF;
-    END$$
-
-    DELIMITER ;
-
-DELIMITER $$
-
-    CREATE TRIGGER `first_comment`
-        AFTER INSERT ON `comments`
-        FOR EACH ROW
-    BEGIN
-        DECLARE comment_count INT;
-
-    IF NOT EXISTS (SELECT 1 FROM `badge` WHERE user_id = NEW.user_id AND name = 'First Comment') THEN
-
-        SELECT COUNT(*)
-        INTO comment_count
-        FROM `comments`
-        WHERE `user_id` = NEW.user_id;
-
-        IF comment_count = 1 THEN
-            INSERT INTO `badge` (name, user_id)
-            VALUES ('First Comment', NEW.user_id);
-    END IF;
-END IF;
-    END$$
-
 DELIMITER ;
+
+-- Badges are awarded by BadgeService from per-user counters in `user_counters`, updated in the
+-- transaction of each log, like and comment, and when a challenge ends.